@@ -0,0 +1,160 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+import org.supercsv.io.ITokenizer;
+import org.supercsv.io.InputStreamTokenizer;
+import org.supercsv.io.Tokenizer;
+import org.supercsv.prefs.CsvPreference;
+
+import com.carrotsearch.junitbenchmarks.AbstractBenchmark;
+import com.carrotsearch.junitbenchmarks.annotation.BenchmarkMethodChart;
+
+/**
+ * Benchmarks the word-at-a-time scanning of the byte tokenizers against the
+ * (char by char) Tokenizer, for long text columns (where long runs of ordinary
+ * bytes are skipped eight at a time) and short numeric columns (where the
+ * delimiters are close together). The data is generated, so no file is
+ * required.
+ */
+@BenchmarkMethodChart(filePrefix = "ByteScanningBenchmark")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ByteScanningBenchmarkTest extends AbstractBenchmark {
+
+	private static final CsvPreference PREFS = CsvPreference.STANDARD_PREFERENCE;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final String[] WORDS = { "the", "quick", "brown", "fox",
+			"jumps", "over", "lazy", "dog", "transport", "infrastructure",
+			"national", "public", "data", "repository" };
+
+	// the number of rows of each kind of data
+	private static final int ROWS = 50000;
+
+	private static byte[] LONG_TEXT;
+	private static byte[] NUMERIC;
+
+	/**
+	 * Generates the CSV data.
+	 */
+	@BeforeClass
+	public static void setUpData() throws Exception {
+		final Random random = new Random(1);
+
+		final StringBuilder longText = new StringBuilder();
+		for (int row = 0; row < ROWS; row++) {
+			for (int column = 0; column < 4; column++) {
+				if (column > 0) {
+					longText.append(',');
+				}
+				for (int word = 0; word < 20; word++) {
+					longText.append(word == 0 ? "" : " ").append(
+							WORDS[random.nextInt(WORDS.length)]);
+				}
+			}
+			longText.append("\r\n");
+		}
+		LONG_TEXT = longText.toString().getBytes(UTF_8.name());
+
+		final StringBuilder numeric = new StringBuilder();
+		for (int row = 0; row < ROWS; row++) {
+			for (int column = 0; column < 12; column++) {
+				if (column > 0) {
+					numeric.append(',');
+				}
+				numeric.append(random.nextInt(100000)).append('.')
+						.append(random.nextInt(1000));
+			}
+			numeric.append("\r\n");
+		}
+		NUMERIC = numeric.toString().getBytes(UTF_8.name());
+	}
+
+	/**
+	 * Times the Tokenizer reading long text columns.
+	 */
+	@Test
+	public void testLongTextTokenizer() throws Exception {
+		timeTokenizer(new Tokenizer(new InputStreamReader(
+				new ByteArrayInputStream(LONG_TEXT), UTF_8), PREFS), 4);
+	}
+
+	/**
+	 * Times the InputStreamTokenizer reading long text columns.
+	 */
+	@Test
+	public void testLongTextInputStreamTokenizer() throws Exception {
+		timeTokenizer(new InputStreamTokenizer(new ByteArrayInputStream(
+				LONG_TEXT), UTF_8, PREFS), 4);
+	}
+
+	/**
+	 * Times the Tokenizer reading numeric columns.
+	 */
+	@Test
+	public void testNumericTokenizer() throws Exception {
+		timeTokenizer(new Tokenizer(new InputStreamReader(
+				new ByteArrayInputStream(NUMERIC), UTF_8), PREFS), 12);
+	}
+
+	/**
+	 * Times the InputStreamTokenizer reading numeric columns.
+	 */
+	@Test
+	public void testNumericInputStreamTokenizer() throws Exception {
+		timeTokenizer(new InputStreamTokenizer(new ByteArrayInputStream(
+				NUMERIC), UTF_8, PREFS), 12);
+	}
+
+	/**
+	 * Reads every row with the tokenizer.
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer
+	 * @param columnsPerRow
+	 *            the expected number of columns in each row
+	 * @throws Exception
+	 */
+	private static void timeTokenizer(final ITokenizer tokenizer,
+			final int columnsPerRow) throws Exception {
+		try {
+			final List<String> columns = new ArrayList<String>();
+			int rows = 0;
+			while (tokenizer.readColumns(columns)) {
+				assertEquals(columnsPerRow, columns.size());
+				rows++;
+			}
+			assertEquals(ROWS, rows);
+		} finally {
+			tokenizer.close();
+		}
+	}
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A {@link Spliterator} over the rows of a reader. {@link #trySplit()} tokenizes a batch of rows and hands them to a
+ * new reader of the same kind, so that the rows of a parallel stream are processed (by their cell processors, or
+ * mapped to beans or Maps) by many threads while the file is tokenized by one. The batches grow by
+ * {@link #BATCH_UNIT} rows with each split, and a batch can be split again (its first half is handed off) without
+ * copying its rows.
+ *
+ * @param <R> the type of reader
+ * @param <T> the type of the rows
+ * @since 2.5.0
+ */
+final class CsvSpliterator<R extends AbstractCsvReader, T> implements Spliterator<T> {
+
+    /** the number of rows in the first batch (each batch has this many rows more than the one before) */
+    static final int BATCH_UNIT = 1 << 10;
+
+    /** the maximum number of rows in a batch */
+    static final int MAX_BATCH = 1 << 25;
+
+    /**
+     * Reads a row with a reader, e.g. <tt>reader -&gt; reader.read(processors)</tt>.
+     *
+     * @param <R> the type of reader
+     * @param <T> the type of the rows
+     */
+    interface RowReader<R, T> {
+
+        /**
+         * Reads the next row.
+         *
+         * @param reader the reader
+         * @return the row, or null if EOF
+         * @throws IOException if an I/O error occurred
+         */
+        T read(R reader) throws IOException;
+    }
+
+    private final R reader;
+
+    private final RowReader<R, T> rowReader;
+
+    private final Function<ITokenizer, R> readerFactory;
+
+    /* the tokenized rows read by the reader, or null if it reads the file */
+    private final BatchTokenizer batch;
+
+    private int batchSize;
+
+    /**
+     * Constructs a new <tt>CsvSpliterator</tt> over the rows of a file.
+     *
+     * @param reader the reader
+     * @param rowReader reads each row with the reader (it must be thread-safe if the stream is parallel)
+     * @param readerFactory creates a reader of the same kind as <tt>reader</tt> over a tokenizer
+     */
+    CsvSpliterator(final R reader, final RowReader<R, T> rowReader, final Function<ITokenizer, R> readerFactory) {
+        this(reader, rowReader, readerFactory, null);
+    }
+
+    private CsvSpliterator(final R reader, final RowReader<R, T> rowReader,
+        final Function<ITokenizer, R> readerFactory, final BatchTokenizer batch) {
+        this.reader = reader;
+        this.rowReader = rowReader;
+        this.readerFactory = readerFactory;
+        this.batch = batch;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        final T row;
+        try {
+            row = this.rowReader.read(this.reader);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (row == null) {
+            return false;
+        }
+        action.accept(row);
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        final BatchTokenizer rows;
+        if (this.batch == null) {
+            rows = this.tokenizeBatch();
+        } else {
+            rows = this.batch.split();
+            if (rows != null) {
+                // this reader carries on after the rows that were handed off
+                this.reader.setRowNumber(this.batch.rowsBefore + this.batch.next);
+            }
+        }
+        if (rows == null) {
+            return null;
+        }
+        final R splitReader = this.readerFactory.apply(rows);
+        splitReader.setRowNumber(rows.rowsBefore + rows.next);
+        return new CsvSpliterator<>(splitReader, this.rowReader, this.readerFactory, rows);
+    }
+
+    /**
+     * Tokenizes the next batch of rows with the reader.
+     *
+     * @return the rows, or null if EOF
+     */
+    private BatchTokenizer tokenizeBatch() {
+        final int size = Math.min(this.batchSize + BATCH_UNIT, MAX_BATCH);
+        final String[][] rows = new String[size][];
+        final int[] lineNumbers = new int[size];
+        final int rowsBefore = this.reader.getRowNumber();
+        int count = 0;
+        try {
+            while (count < size && this.reader.readRow()) {
+                final List<String> columns = this.reader.getColumns();
+                rows[count] = columns.toArray(new String[columns.size()]);
+                lineNumbers[count] = this.reader.getLineNumber();
+                count++;
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (count == 0) {
+            return null;
+        }
+        this.batchSize = count;
+        return new BatchTokenizer(rows, lineNumbers, 0, count, rowsBefore);
+    }
+
+    @Override
+    public long estimateSize() {
+        return this.batch == null ? Long.MAX_VALUE : this.batch.end - this.batch.next;
+    }
+
+    @Override
+    public int characteristics() {
+        return this.batch == null ? ORDERED | NONNULL : ORDERED | NONNULL | SIZED | SUBSIZED;
+    }
+
+    /**
+     * Replays a batch of tokenized rows (with their line numbers).
+     */
+    private static final class BatchTokenizer implements ITokenizer {
+
+        private final String[][] rows;
+
+        private final int[] lineNumbers;
+
+        /* the number of rows in the file before the first row of the arrays */
+        private final int rowsBefore;
+
+        private final int end;
+
+        private int next;
+
+        private int lineNumber;
+
+        BatchTokenizer(final String[][] rows, final int[] lineNumbers, final int start, final int end,
+            final int rowsBefore) {
+            this.rows = rows;
+            this.lineNumbers = lineNumbers;
+            this.next = start;
+            this.end = end;
+            this.rowsBefore = rowsBefore;
+        }
+
+        /**
+         * Hands the first half of the rows that haven't been read yet to a new tokenizer, and carries on after them.
+         *
+         * @return the new tokenizer, or null if there are too few rows left to split
+         */
+        BatchTokenizer split() {
+            final int remaining = this.end - this.next;
+            if (remaining < 2) {
+                return null;
+            }
+            final int start = this.next;
+            this.next += remaining / 2;
+            return new BatchTokenizer(this.rows, this.lineNumbers, start, this.next, this.rowsBefore);
+        }
+
+        @Override
+        public boolean readColumns(final List<String> columns) {
+            if (this.next == this.end) {
+                return false;
+            }
+            columns.clear();
+            for (final String column : this.rows[this.next]) {
+                columns.add(column);
+            }
+            this.rows[this.next] = null;
+            this.lineNumber = this.lineNumbers[this.next];
+            this.next++;
+            return true;
+        }
+
+        @Override
+        public int getLineNumber() {
+            return this.lineNumber;
+        }
+
+        /**
+         * The untokenized rows aren't kept, so this returns null.
+         *
+         * @return null
+         */
+        @Override
+        public String getUntokenizedRow() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+            // the reader of the file is closed with the stream
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.supercsv.cellprocessor.ift.CellProcessor;
+
+/**
+ * Streams the rows of the list, map and bean readers.
+ * <p>
+ * The streams are splittable: when a stream is parallel, the thread that splits it tokenizes a batch of rows and
+ * hands them off to another thread, which executes the cell processors (and maps the rows to Maps or beans). So the
+ * processing scales with the number of threads, while the file is still tokenized by one thread at a time. The rows
+ * are returned in file order (unless the stream is unordered), and the line and row numbers of any exceptions are the
+ * same as when reading the rows one at a time. In a parallel stream, the cell processors are shared by the threads,
+ * so they must be thread-safe and must not depend on the rows processed before (see {@link PipelinedCsvReader}).
+ * </p>
+ * <p>
+ * An <tt>IOException</tt> is thrown as an {@link UncheckedIOException}. The rows are read as the stream is consumed,
+ * so the reader shouldn't be used for anything else until the stream is finished, and closing the stream closes the
+ * reader:
+ * </p>
+ *
+ * <pre>
+ * try (Stream&lt;Customer&gt; customers = CsvStreams.stream(beanReader, Customer.class, header, processors)) {
+ *     total = customers.parallel().mapToLong(Customer::getLoyaltyPoints).sum();
+ * }
+ * </pre>
+ *
+ * @since 2.5.0
+ */
+public final class CsvStreams {
+
+    private CsvStreams() {
+        // no instantiation
+    }
+
+    /**
+     * Streams the rows of a list reader, as Lists of Strings (see {@link ICsvListReader#read()}).
+     *
+     * @param reader the reader
+     * @return the stream of rows
+     * @throws NullPointerException if reader is null
+     */
+    public static Stream<List<String>> stream(final CsvListReader reader) {
+        return CsvStreams.stream(reader, listReader -> listReader.read(),
+            tokenizer -> new CsvListReader(tokenizer, reader.getPreferences()));
+    }
+
+    /**
+     * Streams the rows of a list reader, processed by the cell processors (see
+     * {@link ICsvListReader#read(CellProcessor...)}).
+     *
+     * @param reader the reader
+     * @param processors the cell processors (which must be thread-safe if the stream is parallel)
+     * @return the stream of rows
+     * @throws NullPointerException if reader or processors are null
+     */
+    public static Stream<List<Object>> stream(final CsvListReader reader, final CellProcessor... processors) {
+        if (processors == null) {
+            throw new NullPointerException("processors should not be null");
+        }
+        return CsvStreams.stream(reader, listReader -> listReader.read(processors),
+            tokenizer -> new CsvListReader(tokenizer, reader.getPreferences()));
+    }
+
+    /**
+     * Streams the rows of a map reader, as Maps of Strings (see {@link ICsvMapReader#read(String...)}).
+     *
+     * @param reader the reader
+     * @param nameMapping the keys of the Maps
+     * @return the stream of rows
+     * @throws NullPointerException if reader or nameMapping are null
+     */
+    public static Stream<Map<String, String>> stream(final CsvMapReader reader, final String... nameMapping) {
+        if (nameMapping == null) {
+            throw new NullPointerException("nameMapping should not be null");
+        }
+        return CsvStreams.stream(reader, mapReader -> mapReader.read(nameMapping),
+            tokenizer -> new CsvMapReader(tokenizer, reader.getPreferences()));
+    }
+
+    /**
+     * Streams the rows of a map reader, processed by the cell processors (see
+     * {@link ICsvMapReader#read(String[], CellProcessor[])}).
+     *
+     * @param reader the reader
+     * @param nameMapping the keys of the Maps
+     * @param processors the cell processors (which must be thread-safe if the stream is parallel)
+     * @return the stream of rows
+     * @throws NullPointerException if reader, nameMapping or processors are null
+     */
+    public static Stream<Map<String, Object>> stream(final CsvMapReader reader, final String[] nameMapping,
+        final CellProcessor... processors) {
+        if (nameMapping == null) {
+            throw new NullPointerException("nameMapping should not be null");
+        } else if (processors == null) {
+            throw new NullPointerException("processors should not be null");
+        }
+        return CsvStreams.stream(reader, mapReader -> mapReader.read(nameMapping, processors),
+            tokenizer -> new CsvMapReader(tokenizer, reader.getPreferences()));
+    }
+
+    /**
+     * Streams the rows of a bean reader, as beans (see {@link ICsvBeanReader#read(Class, String...)}).
+     *
+     * @param reader the reader
+     * @param clazz the type of the beans
+     * @param nameMapping the fields of the beans
+     * @param <T> the type of the beans
+     * @return the stream of beans
+     * @throws NullPointerException if reader, clazz or nameMapping are null
+     */
+    public static <T> Stream<T> stream(final CsvBeanReader reader, final Class<T> clazz,
+        final String... nameMapping) {
+        if (clazz == null) {
+            throw new NullPointerException("clazz should not be null");
+        } else if (nameMapping == null) {
+            throw new NullPointerException("nameMapping should not be null");
+        }
+        return CsvStreams.stream(reader, beanReader -> beanReader.read(clazz, nameMapping),
+            tokenizer -> new CsvBeanReader(tokenizer, reader.getPreferences()));
+    }
+
+    /**
+     * Streams the rows of a bean reader, processed by the cell processors, as beans (see
+     * {@link ICsvBeanReader#read(Class, String[], CellProcessor...)}).
+     *
+     * @param reader the reader
+     * @param clazz the type of the beans
+     * @param nameMapping the fields of the beans
+     * @param processors the cell processors (which must be thread-safe if the stream is parallel)
+     * @param <T> the type of the beans
+     * @return the stream of beans
+     * @throws NullPointerException if reader, clazz, nameMapping or processors are null
+     */
+    public static <T> Stream<T> stream(final CsvBeanReader reader, final Class<T> clazz, final String[] nameMapping,
+        final CellProcessor... processors) {
+        if (clazz == null) {
+            throw new NullPointerException("clazz should not be null");
+        } else if (nameMapping == null) {
+            throw new NullPointerException("nameMapping should not be null");
+        } else if (processors == null) {
+            throw new NullPointerException("processors should not be null");
+        }
+        return CsvStreams.stream(reader, beanReader -> beanReader.read(clazz, nameMapping, processors),
+            tokenizer -> new CsvBeanReader(tokenizer, reader.getPreferences()));
+    }
+
+    /**
+     * Streams the rows of a reader, closing the reader when the stream is closed.
+     */
+    private static <R extends AbstractCsvReader, T> Stream<T> stream(final R reader,
+        final CsvSpliterator.RowReader<R, T> rowReader, final Function<ITokenizer, R> readerFactory) {
+        if (reader == null) {
+            throw new NullPointerException("reader should not be null");
+        }
+        return StreamSupport.stream(new CsvSpliterator<>(reader, rowReader, readerFactory), false)
+            .onClose(() -> {
+                try {
+                    reader.close();
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.supercsv.cellprocessor.CellProcessorAdaptor;
+import org.supercsv.cellprocessor.ParseInt;
+import org.supercsv.cellprocessor.ift.CellProcessor;
+import org.supercsv.exception.SuperCsvCellProcessorException;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+import org.supercsv.util.CsvContext;
+
+/**
+ * Tests the {@link CsvStreams}.
+ */
+public final class CsvStreamsTest {
+
+    private static final CsvPreference PREFS = CsvPreference.STANDARD_PREFERENCE;
+
+    private static final String[] HEADER = {"id", "name"};
+
+    /**
+     * The number of rows, which is enough for several batches.
+     */
+    private static final int ROWS = 10000;
+
+    @Test
+    public void streamsListsInFileOrder() throws Exception {
+        final String csv = CsvStreamsTest.csv(ROWS);
+        final List<List<String>> expected = new ArrayList<>();
+        try (final CsvListReader reader = new CsvListReader(new StringReader(csv), PREFS)) {
+            List<String> row;
+            while ((row = reader.read()) != null) {
+                expected.add(row);
+            }
+        }
+        try (final Stream<List<String>> rows =
+            CsvStreams.stream(new CsvListReader(new StringReader(csv), PREFS))) {
+            Assert.assertEquals(expected, rows.collect(Collectors.toList()));
+        }
+        try (final Stream<List<String>> rows =
+            CsvStreams.stream(new CsvListReader(new StringReader(csv), PREFS))) {
+            Assert.assertEquals(expected, rows.parallel().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void parallelStreamsReportTheRowAndLineNumbers() throws Exception {
+        // a quoted newline in every 7th row makes the line numbers differ from the row numbers
+        final StringBuilder csv = new StringBuilder();
+        final List<List<Object>> expected = new ArrayList<>();
+        int line = 0;
+        for (int row = 1; row <= ROWS; row++) {
+            line++;
+            if (row % 7 == 0) {
+                csv.append("\"a\nb\"\n");
+                line++;
+            } else {
+                csv.append("a\n");
+            }
+            expected.add(Arrays.asList((Object) Arrays.asList(line, row)));
+        }
+        final CellProcessor numbers = new CellProcessorAdaptor() {
+            @Override
+            public Object execute(final Object value, final CsvContext context) {
+                return Arrays.asList(context.getLineNumber(), context.getRowNumber());
+            }
+        };
+        try (final Stream<List<Object>> rows =
+            CsvStreams.stream(new CsvListReader(new StringReader(csv.toString()), PREFS), numbers)) {
+            Assert.assertEquals(expected, rows.parallel().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void streamsMapsAndBeans() throws Exception {
+        final String csv = CsvStreamsTest.csv(ROWS);
+        final CellProcessor[] processors = {new ParseInt(), null};
+        try (final Stream<Map<String, Object>> rows =
+            CsvStreams.stream(new CsvMapReader(new StringReader(csv), PREFS), HEADER, processors)) {
+            final List<Map<String, Object>> maps = rows.parallel().collect(Collectors.toList());
+            Assert.assertEquals(ROWS, maps.size());
+            for (int i = 0; i < ROWS; i++) {
+                Assert.assertEquals(i + 1, maps.get(i).get("id"));
+                Assert.assertEquals("name" + (i + 1), maps.get(i).get("name"));
+            }
+        }
+        try (final Stream<Map<String, String>> rows =
+            CsvStreams.stream(new CsvMapReader(new StringReader(csv), PREFS), HEADER)) {
+            Assert.assertEquals("1", rows.findFirst().get().get("id"));
+        }
+        try (final Stream<Row> rows =
+            CsvStreams.stream(new CsvBeanReader(new StringReader(csv), PREFS), Row.class, HEADER, processors)) {
+            Assert.assertEquals(
+                (long) ROWS * (ROWS + 1) / 2,
+                rows.parallel().mapToLong(Row::getId).sum()
+            );
+        }
+        try (final Stream<Row> rows =
+            CsvStreams.stream(new CsvBeanReader(new StringReader(csv), PREFS), Row.class, null, "name")) {
+            Assert.assertEquals("name1", rows.findFirst().get().getName());
+        }
+    }
+
+    @Test
+    public void parallelStreamsThrowTheProcessingException() throws Exception {
+        final String csv = CsvStreamsTest.csv(ROWS).replace("\n5000,", "\nfive thousand,");
+        try (final Stream<List<Object>> rows =
+            CsvStreams.stream(new CsvListReader(new StringReader(csv), PREFS), new ParseInt(), null)) {
+            rows.parallel().forEach(row -> { });
+            Assert.fail("should have thrown SuperCsvCellProcessorException");
+        } catch (final SuperCsvException e) {
+            // the exception may be rethrown by another thread, with the original as its cause
+            final Throwable original = e.getCause() instanceof SuperCsvCellProcessorException ? e.getCause() : e;
+            Assert.assertTrue(original instanceof SuperCsvCellProcessorException);
+            Assert.assertEquals(5000, ((SuperCsvException) original).getCsvContext().getRowNumber());
+            Assert.assertEquals(5000, ((SuperCsvException) original).getCsvContext().getLineNumber());
+        }
+    }
+
+    @Test
+    public void splitsHandOffPrefixes() throws Exception {
+        final CsvListReader reader = new CsvListReader(new StringReader(CsvStreamsTest.csv(ROWS)), PREFS);
+        final CsvSpliterator<CsvListReader, List<String>> spliterator = new CsvSpliterator<>(reader,
+            listReader -> listReader.read(), tokenizer -> new CsvListReader(tokenizer, PREFS));
+        final Spliterator<List<String>> first = spliterator.trySplit();
+        Assert.assertEquals(CsvSpliterator.BATCH_UNIT, first.estimateSize());
+        Assert.assertTrue(first.hasCharacteristics(Spliterator.SIZED));
+        final Spliterator<List<String>> firstHalf = first.trySplit();
+        Assert.assertEquals(CsvSpliterator.BATCH_UNIT / 2, firstHalf.estimateSize());
+        Assert.assertEquals(CsvSpliterator.BATCH_UNIT / 2, first.estimateSize());
+        final Spliterator<List<String>> second = spliterator.trySplit();
+        Assert.assertEquals(2 * CsvSpliterator.BATCH_UNIT, second.estimateSize());
+
+        final List<String> ids = new ArrayList<>();
+        for (final Spliterator<List<String>> split : Arrays.asList(firstHalf, first, second, spliterator)) {
+            split.forEachRemaining(row -> ids.add(row.get(0)));
+        }
+        Assert.assertEquals(ROWS, ids.size());
+        for (int i = 0; i < ROWS; i++) {
+            Assert.assertEquals(String.valueOf(i + 1), ids.get(i));
+        }
+        Assert.assertNull(spliterator.trySplit());
+    }
+
+    @Test
+    public void closingTheStreamClosesTheReader() throws Exception {
+        final boolean[] closed = new boolean[1];
+        final StringReader input = new StringReader("a,b\n") {
+            @Override
+            public void close() {
+                closed[0] = true;
+                super.close();
+            }
+        };
+        final Stream<List<String>> rows = CsvStreams.stream(new CsvListReader(input, PREFS));
+        Assert.assertEquals(1L, rows.count());
+        Assert.assertFalse(closed[0]);
+        rows.close();
+        Assert.assertTrue(closed[0]);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsNullReader() {
+        CsvStreams.stream((CsvListReader) null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsNullProcessors() {
+        CsvStreams.stream(new CsvListReader(new StringReader(""), PREFS), (CellProcessor[]) null);
+    }
+
+    /**
+     * Creates a CSV file of numbered rows.
+     * @param rows The number of rows.
+     * @return The CSV.
+     */
+    private static String csv(final int rows) {
+        final StringBuilder csv = new StringBuilder();
+        for (int row = 1; row <= rows; row++) {
+            csv.append(row).append(",name").append(row).append('\n');
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Bean used in the tests.
+     */
+    public static final class Row {
+
+        private int id;
+
+        private String name;
+
+        public int getId() {
+            return this.id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+    }
+}
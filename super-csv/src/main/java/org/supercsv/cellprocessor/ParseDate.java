@@ -90,7 +90,7 @@ public class ParseDate extends ParseDateTimeAbstract {
 	 * {@inheritDoc}
 	 */
 	@Override
-	protected Object parseValue(Object value) throws ParseException {
+	protected Object parseValue(Object value, SimpleDateFormat formatter) throws ParseException {
 		final Date result = formatter.parse((String) value);
 		return result;
 	}
@@ -41,6 +41,8 @@ import org.supercsv.util.CsvContext;
  * <p>
  * If you don't wish to use the default Locale when parsing Dates (your data is formatted for a different Locale), then
  * use the constructor that accepts a Locale.
+ * <p>
+ * A new <tt>SimpleDateFormat</tt> is used to parse each value, so the processor is thread-safe.
  * 
  * @author Pietro Aragona
  * @since 2.4.1
@@ -53,8 +55,6 @@ public abstract class ParseDateTimeAbstract extends CellProcessorAdaptor impleme
 	
 	protected final Locale locale;
 	
-	protected SimpleDateFormat formatter;
-	
 	/**
 	 * Constructs a new <tt>ParseDateTimeAbstract</tt> processor which converts a String to a Date/Time using the
 	 * supplied date format. This constructor uses non-lenient Date interpretation.
@@ -214,14 +214,16 @@ public abstract class ParseDateTimeAbstract extends CellProcessorAdaptor impleme
 			throw new SuperCsvCellProcessorException(String.class, value, context, this);
 		}
 		
+		final SimpleDateFormat formatter;
+		if( locale == null ) {
+			formatter = new SimpleDateFormat(dateFormat);
+		} else {
+			formatter = new SimpleDateFormat(dateFormat, locale);
+		}
+		formatter.setLenient(lenient);
+		
 		try {
-			if( locale == null ) {
-				formatter = new SimpleDateFormat(dateFormat);
-			} else {
-				formatter = new SimpleDateFormat(dateFormat, locale);
-			}
-			formatter.setLenient(lenient);
-			Object result = parseValue(value);
+			Object result = parseValue(value, formatter);
 			return next.execute(result, context);
 		}
 		catch(final ParseException e) {
@@ -233,10 +235,12 @@ public abstract class ParseDateTimeAbstract extends CellProcessorAdaptor impleme
 	/**
 	 * @param value
 	 *            the value to be formatted
+	 * @param formatter
+	 *            the formatter to parse the value with (which is only used by the current thread)
 	 * @return A Object (Date/Time) parsed from the string.
 	 * @throws ParseException
 	 *             if the string cannot be parsed.
 	 */
-	abstract protected Object parseValue(Object value) throws ParseException;
+	abstract protected Object parseValue(Object value, SimpleDateFormat formatter) throws ParseException;
 	
 }
@@ -89,7 +89,7 @@ public class ParseSqlTime extends ParseDateTimeAbstract {
 	 * {@inheritDoc}
 	 */
 	@Override
-	protected Object parseValue(Object value) throws ParseException {
+	protected Object parseValue(Object value, SimpleDateFormat formatter) throws ParseException {
 		final Date date = formatter.parse((String) value);
 		final Time result = new Time(date.getTime());
 		return result;
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.encoder;
+
+/**
+ * A destination for encoded CSV that can be appended to without creating any Strings, such as the reusable buffer
+ * that a CSV writer encodes its rows into (see {@link CsvSinkEncoder}).
+ * 
+ * @since 2.5.0
+ */
+public interface CsvCharSink {
+	
+	/**
+	 * Appends a char.
+	 * 
+	 * @param c
+	 *            the char
+	 */
+	void append(char c);
+	
+	/**
+	 * Appends a String.
+	 * 
+	 * @param s
+	 *            the String
+	 */
+	void append(String s);
+	
+	/**
+	 * Appends part of a String.
+	 * 
+	 * @param s
+	 *            the String
+	 * @param start
+	 *            the index of the first char to append
+	 * @param end
+	 *            the index after the last char to append
+	 */
+	void append(String s, int start, int end);
+	
+}
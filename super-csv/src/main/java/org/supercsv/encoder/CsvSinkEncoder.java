@@ -0,0 +1,46 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.encoder;
+
+import org.supercsv.prefs.CsvPreference;
+import org.supercsv.util.CsvContext;
+
+/**
+ * A CSV encoder that can also append the encoded String straight to a {@link CsvCharSink}, so that the writers can
+ * encode every column of a row into one reusable buffer instead of creating a String for each of them. Encoding into
+ * the sink must append exactly what {@link #encode(String, CsvContext, CsvPreference)} would return (and update the
+ * context in the same way).
+ * 
+ * @since 2.5.0
+ */
+public interface CsvSinkEncoder extends CsvEncoder {
+	
+	/**
+	 * Encodes a String to be written to a CSV file, appending the encoded CSV to the sink (see
+	 * {@link #encode(String, CsvContext, CsvPreference)}).
+	 * 
+	 * @param input
+	 *            the String to be encoded
+	 * @param context
+	 *            the context
+	 * @param preference
+	 *            the CSV preferences
+	 * @param sink
+	 *            the sink to append the encoded CSV to
+	 */
+	void encode(String input, CsvContext context, CsvPreference preference, CsvCharSink sink);
+	
+}
@@ -24,7 +24,10 @@ import org.supercsv.util.CsvContext;
  * @author James Bassett
  * @since 2.1.0
  */
-public class DefaultCsvEncoder implements CsvEncoder {
+public class DefaultCsvEncoder implements CsvSinkEncoder {
+	
+	// the special chars of the last preferences used (encoders are shared by threads, so this is replaced, not updated)
+	private volatile SpecialChars specialChars;
 	
 	/**
 	 * Constructs a new <tt>DefaultCsvEncoder</tt>.
@@ -37,18 +40,97 @@ public class DefaultCsvEncoder implements CsvEncoder {
 	 */
 	public String encode(final String input, final CsvContext context, final CsvPreference preference) {
 		
-		final StringBuilder currentColumn = new StringBuilder();
-		final int delimiter = preference.getDelimiterChar();
+		final int special = specialChars(preference).indexIn(input);
+		final char quote = (char) preference.getQuoteChar();
+		
+		if( special == input.length() ) {
+			// nothing to escape, so the input is returned unless the quote mode or surrounding spaces need quotes
+			if( quotesRequired(input, context, preference) ) {
+				return new StringBuilder(input.length() + 2).append(quote).append(input).append(quote).toString();
+			}
+			return input;
+		}
+		
+		final StringBuilder currentColumn = new StringBuilder(input.length() + 16);
+		escape(input, special, context, preference, new BuilderSink(currentColumn));
+		return currentColumn.toString();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @since 2.5.0
+	 */
+	public void encode(final String input, final CsvContext context, final CsvPreference preference,
+		final CsvCharSink sink) {
+		
+		final int special = specialChars(preference).indexIn(input);
+		
+		if( special == input.length() ) {
+			if( quotesRequired(input, context, preference) ) {
+				final char quote = (char) preference.getQuoteChar();
+				sink.append(quote);
+				sink.append(input);
+				sink.append(quote);
+			} else {
+				sink.append(input);
+			}
+			return;
+		}
+		
+		escape(input, special, context, preference, sink);
+	}
+	
+	/**
+	 * Determines whether an input without any special chars needs quotes, because of the quote mode or its surrounding
+	 * spaces.
+	 * 
+	 * @param input
+	 *            the String to be encoded
+	 * @param context
+	 *            the context
+	 * @param preference
+	 *            the CSV preferences
+	 * @return true if the input needs quotes
+	 */
+	private static boolean quotesRequired(final String input, final CsvContext context,
+		final CsvPreference preference) {
+		return preference.getQuoteMode().quotesRequired(input, context, preference)
+			|| preference.isSurroundingSpacesNeedQuotes() && input.length() > 0
+			&& (input.charAt(0) == ' ' || input.charAt(input.length() - 1) == ' ');
+	}
+	
+	/**
+	 * Appends the quoted and escaped input to the sink, in a single pass: the chars before the first special char are
+	 * appended as-is, and the rest are escaped (quotes are escaped with the quote escape char, and each carriage
+	 * return, newline or carriage return/newline pair is replaced with the end of line symbols, incrementing the line
+	 * number).
+	 * 
+	 * @param input
+	 *            the String to be encoded
+	 * @param special
+	 *            the index of the first special char
+	 * @param context
+	 *            the context
+	 * @param preference
+	 *            the CSV preferences
+	 * @param sink
+	 *            the sink to append to
+	 */
+	private static void escape(final String input, final int special, final CsvContext context,
+		final CsvPreference preference, final CsvCharSink sink) {
+		
 		final char quote = (char) preference.getQuoteChar();
 		final char quoteEscapeChar = (char) preference.getQuoteEscapeChar();
 		final String eolSymbols = preference.getEndOfLineSymbols();
-		final int lastCharIndex = input.length() - 1;
+		final int length = input.length();
 		
-		boolean quotesRequiredForSpecialChar = false;
+		sink.append(quote);
+		sink.append(input, 0, special);
 		
 		boolean skipNewline = false;
 		
-		for( int i = 0; i <= lastCharIndex; i++ ) {
+		for( int i = special; i < length; i++ ) {
 			
 			final char c = input.charAt(i);
 			
@@ -59,36 +141,112 @@ public class DefaultCsvEncoder implements CsvEncoder {
 				}
 			}
 			
-			if( c == delimiter ) {
-				quotesRequiredForSpecialChar = true;
-				currentColumn.append(c);
-			} else if( c == quote ) {
-				quotesRequiredForSpecialChar = true;
-				currentColumn.append(quoteEscapeChar);
-				currentColumn.append(quote);
+			if( c == quote ) {
+				sink.append(quoteEscapeChar);
+				sink.append(quote);
 			} else if( c == '\r' ) {
-				quotesRequiredForSpecialChar = true;
-				currentColumn.append(eolSymbols);
+				sink.append(eolSymbols);
 				context.setLineNumber(context.getLineNumber() + 1);
 				skipNewline = true;
 			} else if( c == '\n' ) {
-				quotesRequiredForSpecialChar = true;
-				currentColumn.append(eolSymbols);
+				sink.append(eolSymbols);
 				context.setLineNumber(context.getLineNumber() + 1);
 			} else {
-				currentColumn.append(c);
+				sink.append(c);
+			}
+		}
+		
+		sink.append(quote);
+	}
+	
+	/**
+	 * Gets the special chars of the preferences.
+	 * 
+	 * @param preference
+	 *            the CSV preferences
+	 * @return the special chars
+	 */
+	private SpecialChars specialChars(final CsvPreference preference) {
+		SpecialChars chars = specialChars;
+		if( chars == null || chars.preference != preference ) {
+			chars = new SpecialChars(preference);
+			specialChars = chars;
+		}
+		return chars;
+	}
+	
+	/**
+	 * A lookup table of the chars that have to be escaped (and quoted) with some preferences: the delimiter, the quote
+	 * char, carriage return and newline.
+	 */
+	private static final class SpecialChars {
+		
+		private static final int TABLE_SIZE = 128;
+		
+		private final CsvPreference preference;
+		
+		private final boolean[] table = new boolean[TABLE_SIZE];
+		
+		private final int delimiter;
+		
+		private final char quote;
+		
+		SpecialChars(final CsvPreference preference) {
+			this.preference = preference;
+			this.delimiter = preference.getDelimiterChar();
+			this.quote = (char) preference.getQuoteChar();
+			table['\r'] = true;
+			table['\n'] = true;
+			if( delimiter < TABLE_SIZE ) {
+				table[delimiter] = true;
+			}
+			if( quote < TABLE_SIZE ) {
+				table[quote] = true;
 			}
 		}
 		
-		final boolean quotesRequiredForMode = preference.getQuoteMode().quotesRequired(input, context, preference);
-		final boolean quotesRequiredForSurroundingSpaces = preference.isSurroundingSpacesNeedQuotes()
-			&& input.length() > 0 && (input.charAt(0) == ' ' || input.charAt(input.length() - 1) == ' ');
+		/**
+		 * Finds the first special char in the input.
+		 * 
+		 * @param input
+		 *            the input
+		 * @return the index of the first special char, or the length of the input if there are none
+		 */
+		int indexIn(final String input) {
+			final boolean[] table = this.table;
+			final int length = input.length();
+			for( int i = 0; i < length; i++ ) {
+				final char c = input.charAt(i);
+				if( c < TABLE_SIZE ? table[c] : c == delimiter || c == quote ) {
+					return i;
+				}
+			}
+			return length;
+		}
+	}
+	
+	/**
+	 * Appends to a StringBuilder.
+	 */
+	private static final class BuilderSink implements CsvCharSink {
 		
-		if( quotesRequiredForSpecialChar || quotesRequiredForMode || quotesRequiredForSurroundingSpaces ) {
-			currentColumn.insert(0, quote).append(quote);
+		private final StringBuilder builder;
+		
+		BuilderSink(final StringBuilder builder) {
+			this.builder = builder;
 		}
 		
-		return currentColumn.toString();
+		public void append(final char c) {
+			builder.append(c);
+		}
+		
+		public void append(final String s) {
+			builder.append(s);
+		}
+		
+		public void append(final String s, final int start, final int end) {
+			builder.append(s, start, end);
+		}
 	}
 	
 }
@@ -78,4 +78,19 @@ public class SelectiveCsvEncoder extends DefaultCsvEncoder {
 		
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @since 2.5.0
+	 */
+	@Override
+	public void encode(final String input, final CsvContext context, final CsvPreference preference,
+		final CsvCharSink sink) {
+		if( columnNumbers.contains(context.getColumnNumber()) ) {
+			super.encode(input, context, preference, sink);
+		} else {
+			sink.append(input);
+		}
+	}
+	
 }
@@ -0,0 +1,1009 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.supercsv.comment.CommentMatcher;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Defines the standard behaviour of a tokenizer that scans the raw bytes of the input, instead of characters. Only the
+ * columns that are actually read are decoded to Strings, with a direct byte to char conversion for ASCII data (and for
+ * all data when the charset is ISO-8859-1). It produces exactly the same columns, line numbers and untokenized rows as
+ * {@link Tokenizer} reading the same input through an <tt>InputStreamReader</tt>.
+ * <p>
+ * This only works for charsets in which the quote, delimiter, escape, space and line terminator characters are single
+ * bytes that can't be part of any other character, i.e. UTF-8 and the ASCII compatible single-byte charsets (such as
+ * US-ASCII, ISO-8859-1 or windows-1252). A UTF-8 byte order mark is skipped, as the Tokenizer does.
+ * </p>
+ * <p>
+ * Rows can also be read as reusable views with {@link #readColumnViews(List)}, which only decode the columns whose
+ * chars are actually accessed.
+ * </p>
+ * <p>
+ * Extend this class to tokenize bytes from another source: subclasses supply the input as a window of bytes (see
+ * {@link #nextWindow(ByteBuffer, int, int)}).
+ * </p>
+ * 
+ * @since 2.5.0
+ */
+public abstract class AbstractByteTokenizer implements ICharSequenceTokenizer, IProjectingTokenizer {
+	
+	private static final String UTF_8 = "UTF-8";
+	
+	private static final String ISO_8859_1 = "ISO-8859-1";
+	
+	private static final byte NEWLINE = '\n';
+	
+	private static final byte CARRIAGE_RETURN = '\r';
+	
+	private static final byte SPACE = ' ';
+	
+	private static final byte[] UTF_8_BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+	
+	private final CsvPreference preferences;
+	
+	private final Charset charset;
+	
+	/* whether every byte is simply converted to the char with the same (unsigned) value */
+	private final boolean latin1;
+	
+	private final boolean utf8;
+	
+	private final CharsetDecoder decoder;
+	
+	private final byte quoteChar;
+	
+	private final byte delimiterChar;
+	
+	private final boolean surroundingSpacesNeedQuotes;
+	
+	private final boolean ignoreEmptyLines;
+	
+	private final CommentMatcher commentMatcher;
+	
+	private final int maxLinesPerRow;
+	
+	private final EmptyColumnParsing emptyColumnParsing;
+	
+	private final byte quoteEscapeChar;
+	
+	/* finds the end of a run of bytes that have no special meaning outside of quotes, and within quotes */
+	private final ByteScanner normalScanner;
+	
+	private final ByteScanner quotedScanner;
+	
+	/* the window of the input: bytes from rowStart onwards are retained until the next row is read */
+	private ByteBuffer window;
+	
+	/* a duplicate of the window, used to decode ranges of it */
+	private ByteBuffer windowView;
+	
+	/* the index of the next byte to be tokenized */
+	private int pos;
+	
+	/* the index after the last valid byte in the window */
+	private int limit;
+	
+	private boolean endOfInput;
+	
+	private int lineNumber;
+	
+	/* the index of the first byte of the line being tokenized */
+	private int lineStart;
+	
+	/* the raw row just read is window[rowStart, rowEnd) (with its original line terminators) */
+	private int rowStart;
+	
+	private int rowEnd;
+	
+	/* whether the untokenized row ends with a newline (only when reading failed at the end of a line) */
+	private boolean rowEndsWithNewline;
+	
+	private String untokenizedRow;
+	
+	private boolean bomChecked;
+	
+	/* whether a BOM was the only content read so far for the first line */
+	private boolean bomLine;
+	
+	/* the column being tokenized is columnBytes[0, columnBytesLength), followed by the bytes window[runStart, runEnd) */
+	private byte[] columnBytes = new byte[256];
+	
+	private ByteBuffer columnBytesView = ByteBuffer.wrap(columnBytes);
+	
+	private int columnBytesLength;
+	
+	private int runStart;
+	
+	private int runEnd;
+	
+	/* the columns to read, or null to read all columns */
+	private ColumnProjection projection;
+	
+	/* the reusable views of the row's columns (when reading views), and the number in use for the current row */
+	private final List<ByteView> views = new ArrayList<ByteView>();
+	
+	private int viewCount;
+	
+	/* the copies of the columns that couldn't be viewed in the window directly */
+	private byte[] scratch = new byte[256];
+	
+	private ByteBuffer scratchView = ByteBuffer.wrap(scratch);
+	
+	private int scratchLength;
+	
+	/* the reusable destination of decoding */
+	private char[] chars = new char[256];
+	
+	private CharBuffer charsView = CharBuffer.wrap(chars);
+	
+	/**
+	 * Constructs a new <tt>AbstractByteTokenizer</tt>.
+	 * 
+	 * @param charset
+	 *            the charset of the input
+	 * @param preferences
+	 *            the CSV preferences
+	 * @throws IllegalArgumentException
+	 *             if the charset isn't UTF-8 or an ASCII compatible single-byte charset, or if the quote, delimiter or
+	 *             quote escape character isn't an ASCII character
+	 * @throws NullPointerException
+	 *             if charset or preferences are null
+	 */
+	public AbstractByteTokenizer(final Charset charset, final CsvPreference preferences) {
+		checkSupported(charset, preferences);
+		this.preferences = preferences;
+		this.charset = charset;
+		this.utf8 = UTF_8.equals(charset.name());
+		this.latin1 = ISO_8859_1.equals(charset.name());
+		this.decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.quoteChar = (byte) preferences.getQuoteChar();
+		this.delimiterChar = (byte) preferences.getDelimiterChar();
+		this.surroundingSpacesNeedQuotes = preferences.isSurroundingSpacesNeedQuotes();
+		this.ignoreEmptyLines = preferences.isIgnoreEmptyLines();
+		this.commentMatcher = preferences.getCommentMatcher();
+		this.maxLinesPerRow = preferences.getMaxLinesPerRow();
+		this.emptyColumnParsing = preferences.getEmptyColumnParsing();
+		this.quoteEscapeChar = (byte) preferences.getQuoteEscapeChar();
+		this.normalScanner = new ByteScanner(delimiterChar, quoteChar, NEWLINE, CARRIAGE_RETURN,
+			surroundingSpacesNeedQuotes ? SPACE : NEWLINE);
+		this.quotedScanner = new ByteScanner(quoteChar, quoteEscapeChar, NEWLINE, CARRIAGE_RETURN, NEWLINE);
+	}
+	
+	/**
+	 * Checks that the charset and preferences can be used to tokenize bytes.
+	 * 
+	 * @param charset
+	 *            the charset of the input
+	 * @param preferences
+	 *            the CSV preferences
+	 * @throws IllegalArgumentException
+	 *             if the charset isn't UTF-8 or an ASCII compatible single-byte charset, or if the quote, delimiter or
+	 *             quote escape character isn't an ASCII character
+	 * @throws NullPointerException
+	 *             if charset or preferences are null
+	 */
+	static void checkSupported(final Charset charset, final CsvPreference preferences) {
+		if( charset == null ) {
+			throw new NullPointerException("charset should not be null");
+		} else if( preferences == null ) {
+			throw new NullPointerException("preferences should not be null");
+		}
+		checkAscii("quoteChar", preferences.getQuoteChar());
+		checkAscii("delimiterChar", preferences.getDelimiterChar());
+		checkAscii("quoteEscapeChar", preferences.getQuoteEscapeChar());
+		if( !UTF_8.equals(charset.name()) && !ISO_8859_1.equals(charset.name())
+			&& !isAsciiCompatibleSingleByte(charset) ) {
+			throw new IllegalArgumentException(String.format(
+				"charset %s is not supported: it should be UTF-8 or an ASCII compatible single-byte charset",
+				charset.name()));
+		}
+	}
+	
+	/**
+	 * Checks that a special character is an ASCII character (so it can be matched against single bytes).
+	 */
+	private static void checkAscii(final String name, final int c) {
+		if( c < 0 || c > 0x7F ) {
+			throw new IllegalArgumentException(String.format(
+				"%s must be an ASCII character to tokenize bytes, but was %c", name, c));
+		}
+	}
+	
+	/**
+	 * Returns true if the charset encodes every character as a single byte, and decodes the bytes 0x00 to 0x7F as
+	 * ASCII.
+	 */
+	private static boolean isAsciiCompatibleSingleByte(final Charset charset) {
+		if( !charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1.0f ) {
+			return false;
+		}
+		final byte[] ascii = new byte[0x80];
+		for( int i = 0; i < ascii.length; i++ ) {
+			ascii[i] = (byte) i;
+		}
+		try {
+			final CharBuffer decoded = charset.newDecoder().decode(ByteBuffer.wrap(ascii));
+			if( decoded.remaining() != ascii.length ) {
+				return false;
+			}
+			for( int i = 0; i < ascii.length; i++ ) {
+				if( decoded.get(i) != i ) {
+					return false;
+				}
+			}
+			return true;
+		}
+		catch(CharacterCodingException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Supplies more of the input. The returned window should contain the bytes previously at
+	 * <tt>[keep, limit)</tt> of the current window starting at index 0, followed by the next bytes of input, and its
+	 * limit should be set after the last valid byte. The current window may be reused. At the end of the input either
+	 * null (leaving the current window untouched), or a window without any more bytes is returned.
+	 * 
+	 * @param current
+	 *            the current window, or null if nothing has been read yet
+	 * @param keep
+	 *            the index of the first byte of the current window that is still needed
+	 * @param limit
+	 *            the index after the last valid byte of the current window
+	 * @return the next window, or null if the end of the input has been reached
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	protected abstract ByteBuffer nextWindow(ByteBuffer current, int keep, int limit) throws IOException;
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+	
+	/**
+	 * Prepares the tokenizer to start reading in the middle of the input: the input supplied by
+	 * {@link #nextWindow(ByteBuffer, int, int)} must then start at the beginning of a row (so there's no byte order
+	 * mark to skip), and the line numbers continue from the supplied line number. Only applicable before the first
+	 * row has been read.
+	 * 
+	 * @param linesBefore
+	 *            the number of lines before the start of the input
+	 */
+	void resumeAfter(final int linesBefore) {
+		this.lineNumber = linesBefore;
+		this.bomChecked = true;
+	}
+	
+	/**
+	 * Returns the index in the current window of the next byte to be tokenized (after a row has been read, this is the
+	 * start of the next row).
+	 * 
+	 * @return the index of the next byte
+	 */
+	int getPosition() {
+		return pos;
+	}
+	
+	/**
+	 * Gets the CSV preferences.
+	 * 
+	 * @return the preferences
+	 */
+	protected CsvPreference getPreferences() {
+		return preferences;
+	}
+	
+	/**
+	 * Gets the charset of the input.
+	 * 
+	 * @return the charset
+	 */
+	protected Charset getCharset() {
+		return charset;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public void setColumnProjection(final ColumnProjection projection) {
+		this.projection = projection;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean readColumns(final List<String> columns) throws IOException {
+		if( columns == null ) {
+			throw new NullPointerException("columns should not be null");
+		}
+		columns.clear();
+		return readRow(columns, null);
+	}
+	
+	/**
+	 * {@inheritDoc} The columns are only decoded when their chars are accessed.
+	 */
+	public boolean readColumnViews(final List<CharSequence> columns) throws IOException {
+		if( columns == null ) {
+			throw new NullPointerException("columns should not be null");
+		}
+		columns.clear();
+		viewCount = 0;
+		scratchLength = 0;
+		if( readRow(null, columns) ) {
+			// the window may have been compacted or replaced while reading, so the views are only pointed at it now
+			for( int i = 0; i < viewCount; i++ ) {
+				final ByteView view = views.get(i);
+				if( view.source == null ) {
+					view.set(windowView, rowStart + view.start, rowStart + view.end);
+				} else {
+					view.set(scratchView, view.start, view.end);
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Reads a row into either the List of Strings or the List of CharSequences (whichever isn't null).
+	 * 
+	 * @param columns
+	 *            the List of Strings to read into, or null
+	 * @param columnViews
+	 *            the List of CharSequences to read into, or null
+	 * @return true if something was read, or false if EOF
+	 */
+	private boolean readRow(final List<String> columns, final List<CharSequence> columnViews) throws IOException {
+		
+		// clear the previous row
+		resetColumn();
+		untokenizedRow = null;
+		rowEndsWithNewline = false;
+		
+		if( !bomChecked ) {
+			bomChecked = true;
+			if( utf8 && startsWithBom() ) {
+				pos += UTF_8_BOM.length;
+				bomLine = true;
+			}
+		}
+		
+		// start a line (ignoring empty lines/comments if necessary)
+		while( true ) {
+			rowStart = pos;
+			rowEnd = pos;
+			if( !startLine() ) {
+				return false; // EOF
+			}
+			
+			if( commentMatcher != null ) {
+				final int length = scanLineLength();
+				if( ignoreEmptyLines && length == 0
+					|| commentMatcher.isComment(decode(windowView, lineStart, lineStart + length)) ) {
+					pos += length;
+					consumeLineTerminator();
+					continue;
+				}
+			} else if( ignoreEmptyLines && atLineTerminator() ) {
+				consumeLineTerminator();
+				continue;
+			}
+			break;
+		}
+		
+		// process each byte in the row, catering for surrounding quotes (quote mode)
+		boolean quoteMode = false;
+		int quoteScopeStartingLine = -1; // the line number where a potential multi-line cell starts
+		int potentialSpaces = 0; // keep track of spaces (so leading/trailing space can be removed if required)
+		while( true ) {
+			
+			if( atLineTerminator() ) {
+				if( !quoteMode ) {
+					/*
+					 * Newline. Add any required spaces (if surrounding spaces don't need quotes) and return (we've read
+					 * a row!).
+					 */
+					if( !surroundingSpacesNeedQuotes ) {
+						appendRange(pos - potentialSpaces, pos);
+					}
+					addColumn(columns, columnViews);
+					rowEnd = pos;
+					consumeLineTerminator();
+					return true;
+				}
+				
+				/*
+				 * Newline. Doesn't count as newline while in quote mode. Add the newline char, then continue on the
+				 * next line.
+				 */
+				if( pos < limit && window.get(pos) == NEWLINE ) {
+					appendRange(pos, pos + 1);
+				} else {
+					appendByte(NEWLINE); // specific line terminator lost, \n will have to suffice
+				}
+				
+				if( maxLinesPerRow > 0 && lineNumber - quoteScopeStartingLine + 1 >= maxLinesPerRow ) {
+					/*
+					 * The quoted section that is being parsed spans too many lines, so to avoid excessive memory usage
+					 * parsing something that is probably human error anyways, throw an exception. If each row is
+					 * suppose to be a single line and this has been exceeded, throw a more descriptive exception
+					 */
+					rowEnd = pos;
+					rowEndsWithNewline = true;
+					String msg = maxLinesPerRow == 1 ? String.format(
+						"unexpected end of line while reading quoted column on line %d", lineNumber) : String.format(
+						"max number of lines to read exceeded while reading quoted column"
+							+ " beginning on line %d and ending on line %d", quoteScopeStartingLine, lineNumber);
+					throw new SuperCsvException(msg);
+				}
+				
+				consumeLineTerminator();
+				if( !startLine() ) {
+					rowEnd = pos;
+					rowEndsWithNewline = !endsWithLineTerminator(rowStart, rowEnd);
+					throw new SuperCsvException(String.format(
+						"unexpected end of file while reading quoted column beginning on line %d and ending on line %d",
+						quoteScopeStartingLine, lineNumber));
+				}
+				continue;
+			}
+			
+			final byte c = window.get(pos);
+			
+			if( !quoteMode ) {
+				
+				/*
+				 * NORMAL mode (not within quotes).
+				 */
+				
+				if( c == delimiterChar ) {
+					/*
+					 * Delimiter. Save the column (trim trailing space if required) then continue to next character.
+					 */
+					if( !surroundingSpacesNeedQuotes ) {
+						appendRange(pos - potentialSpaces, pos);
+					}
+					addColumn(columns, columnViews);
+					potentialSpaces = 0;
+					resetColumn();
+					pos++;
+					
+				} else if( c == SPACE && surroundingSpacesNeedQuotes ) {
+					/*
+					 * Space. Remember it, then continue to next character (when surrounding spaces don't need quotes
+					 * a space is just a normal character).
+					 */
+					potentialSpaces++;
+					pos++;
+					
+				} else if( c == quoteChar && c != SPACE ) {
+					/*
+					 * A single quote ("). Update to quote mode (but don't save quote), then continue to next character.
+					 * As in the Tokenizer, a space never starts a quoted section.
+					 */
+					quoteMode = true;
+					quoteScopeStartingLine = lineNumber;
+					
+					// cater for spaces before a quoted section (be lenient!)
+					if( !surroundingSpacesNeedQuotes || columnLength() > 0 ) {
+						appendRange(pos - potentialSpaces, pos);
+					}
+					potentialSpaces = 0;
+					pos++;
+					
+				} else {
+					/*
+					 * Just a normal character. Add any required spaces (but trim any leading spaces if surrounding
+					 * spaces need quotes), then add the character and all normal characters following it.
+					 */
+					if( !surroundingSpacesNeedQuotes || columnLength() > 0 ) {
+						appendRange(pos - potentialSpaces, pos);
+					}
+					potentialSpaces = 0;
+					
+					final int end = normalScanner.indexOfSpecial(window, pos + 1, limit);
+					appendRange(pos, end);
+					pos = end;
+				}
+				
+			} else {
+				
+				/*
+				 * QUOTE_MODE (within quotes).
+				 */
+				
+				if( c == quoteEscapeChar ) {
+					final boolean availableCharacters = pos + 1 < limit || fill();
+					final boolean nextCharIsQuote = availableCharacters && window.get(pos + 1) == quoteChar;
+					final boolean nextCharIsEscapeQuoteChar = availableCharacters
+						&& window.get(pos + 1) == quoteEscapeChar;
+					
+					if( nextCharIsQuote ) {
+						/*
+						 * An escaped quote (e.g. "" or \"). Skip over the escape char, and add the following quote char
+						 * as part of the column;
+						 */
+						appendRange(pos + 1, pos + 2);
+						pos += 2;
+					} else if( nextCharIsEscapeQuoteChar ) {
+						/*
+						 * A double escape (normally \\). Save the escape char, then continue to next character.
+						 */
+						appendRange(pos, pos + 1);
+						pos += 2;
+					} else if( quoteEscapeChar == quoteChar ) {
+						/*
+						 * If the escape char is also the quote char and we didn't escape a subsequent character, then
+						 * this is a lone quote and the end of the field.
+						 */
+						quoteMode = false;
+						quoteScopeStartingLine = -1; // reset ready for next multi-line cell
+						pos++;
+					} else {
+						/*
+						 * Escape char wasn't before either another escape char or a quote char, so process it normally.
+						 */
+						appendRange(pos, pos + 1);
+						pos++;
+					}
+				} else if( c == quoteChar ) {
+					
+					/*
+					 * A single quote ("). Update to NORMAL (but don't save quote), then continue to next character.
+					 */
+					quoteMode = false;
+					quoteScopeStartingLine = -1; // reset ready for next multi-line cell
+					
+					final boolean nextCharIsQuote = (pos + 1 < limit || fill()) && window.get(pos + 1) == quoteChar;
+					if( quoteEscapeChar != quoteChar && nextCharIsQuote ) {
+						final int restOfLine = scanLineLength();
+						rowEnd = pos + restOfLine; // the whole line is part of the untokenized row
+						throw new SuperCsvException("Encountered repeat quote char (" + (char) quoteChar
+							+ ") when quoteEscapeChar was (" + (char) quoteEscapeChar + ")"
+							+ ".  Cannot process data where quotes are escaped both with " + (char) quoteChar
+							+ " and with " + (char) quoteEscapeChar);
+					}
+					pos++;
+				} else {
+					/*
+					 * Just a normal character, delimiter (they don't count in quote mode) or space. Add the character
+					 * and all normal characters following it, then continue to next character.
+					 */
+					final int end = quotedScanner.indexOfSpecial(window, pos + 1, limit);
+					appendRange(pos, end);
+					pos = end;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Adds the current column to the columns list (or the column views list if reading views), managing the case where
+	 * the column is empty (to apply the emptyColumnParsing preference). Columns that aren't selected by the projection
+	 * are added as null.
+	 * 
+	 * @param columns
+	 *            the columns, or null if reading views
+	 * @param columnViews
+	 *            the column views, or null if reading Strings
+	 */
+	private void addColumn(final List<String> columns, final List<CharSequence> columnViews) {
+		if( projection != null
+			&& !projection.isSelected((columns != null ? columns.size() : columnViews.size()) + 1) ) {
+			// not selected, so the value isn't created
+			if( columns != null ) {
+				columns.add(null);
+			} else {
+				columnViews.add(null);
+			}
+		} else if( columnLength() > 0 ) {
+			if( columns != null ) {
+				columns.add(columnToString());
+			} else {
+				columnViews.add(columnToView());
+			}
+		} else {
+			final boolean previousCharIsQuote = pos - 1 >= lineStart && window.get(pos - 1) == quoteChar;
+			final String noValue = previousCharIsQuote
+				&& emptyColumnParsing.equals(EmptyColumnParsing.ParseEmptyColumnsAsEmptyString) ? "" : null;
+			if( columns != null ) {
+				columns.add(noValue);
+			} else {
+				columnViews.add(noValue);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the column being tokenized as a view. Columns consisting of a single run of bytes are viewed in the
+	 * window (relative to the start of the row, as the window may still move), all others are copied to the scratch
+	 * buffer first. The views are pointed at their bytes once the whole row has been read.
+	 */
+	private ByteView columnToView() {
+		final ByteView view;
+		if( viewCount < views.size() ) {
+			view = views.get(viewCount);
+		} else {
+			view = new ByteView();
+			views.add(view);
+		}
+		viewCount++;
+		
+		if( columnBytesLength == 0 ) {
+			view.set(null, runStart - rowStart, runEnd - rowStart);
+		} else {
+			appendToColumnBytes(runStart, runEnd);
+			runStart = runEnd;
+			if( scratchLength + columnBytesLength > scratch.length ) {
+				final byte[] grown = new byte[Math.max(scratch.length * 2, scratchLength + columnBytesLength)];
+				System.arraycopy(scratch, 0, grown, 0, scratchLength);
+				scratch = grown;
+				scratchView = ByteBuffer.wrap(scratch);
+			}
+			System.arraycopy(columnBytes, 0, scratch, scratchLength, columnBytesLength);
+			view.set(scratchView, scratchLength, scratchLength + columnBytesLength);
+			scratchLength += columnBytesLength;
+		}
+		return view;
+	}
+	
+	/**
+	 * Returns the length (in bytes) of the column being tokenized.
+	 */
+	private int columnLength() {
+		return columnBytesLength + runEnd - runStart;
+	}
+	
+	/**
+	 * Decodes the column being tokenized. Columns consisting of a single run of bytes are decoded directly from the
+	 * window.
+	 */
+	private String columnToString() {
+		if( columnBytesLength == 0 ) {
+			return decode(windowView, runStart, runEnd);
+		}
+		appendToColumnBytes(runStart, runEnd);
+		runStart = runEnd;
+		return decode(columnBytesView, 0, columnBytesLength);
+	}
+	
+	/**
+	 * Clears the column being tokenized.
+	 */
+	private void resetColumn() {
+		columnBytesLength = 0;
+		runStart = 0;
+		runEnd = 0;
+	}
+	
+	/**
+	 * Appends the bytes window[start, end) to the column being tokenized. Nothing is copied if they directly follow the
+	 * bytes appended so far.
+	 */
+	private void appendRange(final int start, final int end) {
+		if( start == end ) {
+			return;
+		}
+		if( runStart != runEnd && runEnd != start ) {
+			appendToColumnBytes(runStart, runEnd);
+			runStart = start;
+		} else if( runStart == runEnd ) {
+			runStart = start;
+		}
+		runEnd = end;
+	}
+	
+	/**
+	 * Appends a byte that isn't in the window (or not at the expected position) to the column being tokenized.
+	 */
+	private void appendByte(final byte b) {
+		appendToColumnBytes(runStart, runEnd);
+		runStart = runEnd;
+		ensureColumnBytesCapacity(columnBytesLength + 1);
+		columnBytes[columnBytesLength++] = b;
+	}
+	
+	/**
+	 * Copies the bytes window[start, end) to the end of columnBytes.
+	 */
+	private void appendToColumnBytes(final int start, final int end) {
+		ensureColumnBytesCapacity(columnBytesLength + end - start);
+		for( int i = start; i < end; i++ ) {
+			columnBytes[columnBytesLength++] = window.get(i);
+		}
+	}
+	
+	/**
+	 * Grows columnBytes if required.
+	 */
+	private void ensureColumnBytesCapacity(final int capacity) {
+		if( capacity > columnBytes.length ) {
+			final byte[] grown = new byte[Math.max(columnBytes.length * 2, capacity)];
+			System.arraycopy(columnBytes, 0, grown, 0, columnBytesLength);
+			columnBytes = grown;
+			columnBytesView = ByteBuffer.wrap(columnBytes);
+		}
+	}
+	
+	/**
+	 * Decodes the bytes source[start, end). ASCII bytes (and all bytes when the charset is ISO-8859-1) are converted
+	 * directly, the charset's decoder is only used from the first byte that can't be.
+	 * 
+	 * @param source
+	 *            the bytes (the buffer's position and limit are modified)
+	 * @param start
+	 *            the index of the first byte
+	 * @param end
+	 *            the index after the last byte
+	 * @return the decoded String
+	 */
+	private String decode(final ByteBuffer source, final int start, final int end) {
+		final int length = end - start;
+		if( length > chars.length ) {
+			chars = new char[Math.max(chars.length * 2, length)];
+			charsView = CharBuffer.wrap(chars);
+		}
+		
+		source.clear();
+		int i = start;
+		int charCount = 0;
+		while( i < end ) {
+			final byte b = source.get(i);
+			if( b < 0 ) {
+				if( !latin1 ) {
+					break;
+				}
+				chars[charCount++] = (char) (b & 0xFF);
+			} else {
+				chars[charCount++] = (char) b;
+			}
+			i++;
+		}
+		
+		if( i < end ) {
+			// no charset produces more chars than bytes for the rest of the input, so chars is large enough
+			source.limit(end);
+			source.position(i);
+			charsView.clear();
+			charsView.position(charCount);
+			decoder.reset();
+			decoder.decode(source, charsView, true);
+			decoder.flush(charsView);
+			charCount = charsView.position();
+		}
+		return new String(chars, 0, charCount);
+	}
+	
+	/**
+	 * Returns true if the input starts with a UTF-8 byte order mark.
+	 */
+	private boolean startsWithBom() throws IOException {
+		while( limit - pos < UTF_8_BOM.length ) {
+			if( !fill() ) {
+				return false;
+			}
+		}
+		for( int i = 0; i < UTF_8_BOM.length; i++ ) {
+			if( window.get(pos + i) != UTF_8_BOM[i] ) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Starts tokenizing the next line, incrementing the line number.
+	 * 
+	 * @return true if there was a line to start, or false if EOF
+	 */
+	private boolean startLine() throws IOException {
+		if( pos == limit && !fill() && !bomLine ) {
+			return false;
+		}
+		bomLine = false;
+		lineNumber++;
+		lineStart = pos;
+		return true;
+	}
+	
+	/**
+	 * Returns true if the next byte is a line terminator, or if the end of the input has been reached.
+	 */
+	private boolean atLineTerminator() throws IOException {
+		if( pos == limit && !fill() ) {
+			return true;
+		}
+		final byte c = window.get(pos);
+		return c == NEWLINE || c == CARRIAGE_RETURN;
+	}
+	
+	/**
+	 * Skips over the line terminator at the current position (if any).
+	 */
+	private void consumeLineTerminator() throws IOException {
+		if( pos == limit && !fill() ) {
+			return;
+		}
+		if( window.get(pos) == CARRIAGE_RETURN ) {
+			pos++;
+			if( (pos < limit || fill()) && window.get(pos) == NEWLINE ) {
+				pos++;
+			}
+		} else if( window.get(pos) == NEWLINE ) {
+			pos++;
+		}
+	}
+	
+	/**
+	 * Returns the number of bytes from the current position to the end of the line (the bytes are then in the window).
+	 */
+	private int scanLineLength() throws IOException {
+		int length = 0;
+		while( pos + length < limit || fill() ) {
+			final byte c = window.get(pos + length);
+			if( c == NEWLINE || c == CARRIAGE_RETURN ) {
+				break;
+			}
+			length++;
+		}
+		return length;
+	}
+	
+	/**
+	 * Returns true if window[start, end) ends with a line terminator.
+	 */
+	private boolean endsWithLineTerminator(final int start, final int end) {
+		return end > start && (window.get(end - 1) == NEWLINE || window.get(end - 1) == CARRIAGE_RETURN);
+	}
+	
+	/**
+	 * Gets more of the input into the window, discarding the bytes before the current row.
+	 * 
+	 * @return true if more bytes were read, or false if EOF
+	 */
+	private boolean fill() throws IOException {
+		if( endOfInput ) {
+			return false;
+		}
+		
+		final int discard = rowStart;
+		final ByteBuffer next = nextWindow(window, discard, limit);
+		if( next == null ) {
+			endOfInput = true;
+			return false;
+		}
+		if( next != window ) {
+			window = next;
+			windowView = next.duplicate();
+		}
+		
+		final int retained = limit - discard;
+		pos -= discard;
+		limit = next.limit();
+		lineStart -= discard;
+		rowStart -= discard;
+		rowEnd -= discard;
+		runStart -= discard;
+		runEnd -= discard;
+		if( limit <= retained ) {
+			endOfInput = true;
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public String getUntokenizedRow() {
+		if( untokenizedRow == null ) {
+			// each line terminator is replaced by \n (as the Tokenizer does)
+			final String raw = rowEnd > rowStart ? decode(windowView, rowStart, rowEnd) : "";
+			final StringBuilder row = new StringBuilder(raw.length() + 1);
+			for( int i = 0; i < raw.length(); i++ ) {
+				final char c = raw.charAt(i);
+				if( c == CARRIAGE_RETURN ) {
+					row.append((char) NEWLINE);
+					if( i + 1 < raw.length() && raw.charAt(i + 1) == NEWLINE ) {
+						i++;
+					}
+				} else {
+					row.append(c);
+				}
+			}
+			if( rowEndsWithNewline ) {
+				row.append((char) NEWLINE);
+			}
+			untokenizedRow = row.toString();
+		}
+		return untokenizedRow;
+	}
+	
+	/**
+	 * A reusable view of the bytes of a column, which decodes them (once) when its chars are first accessed.
+	 */
+	private final class ByteView implements CharSequence {
+		
+		private ByteBuffer source;
+		
+		private int start;
+		
+		private int end;
+		
+		private String decoded;
+		
+		/**
+		 * Points the view at a range of bytes.
+		 */
+		void set(final ByteBuffer source, final int start, final int end) {
+			this.source = source;
+			this.start = start;
+			this.end = end;
+			this.decoded = null;
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		public int length() {
+			return toString().length();
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		public char charAt(final int index) {
+			return toString().charAt(index);
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		public CharSequence subSequence(final int start, final int end) {
+			return toString().substring(start, end);
+		}
+		
+		/**
+		 * Returns the decoded column.
+		 * 
+		 * @return the decoded column
+		 */
+		@Override
+		public String toString() {
+			if( decoded == null ) {
+				decoded = decode(source, start, end);
+			}
+			return decoded;
+		}
+	}
+}
@@ -24,6 +24,7 @@ import org.supercsv.cellprocessor.ift.CellProcessor;
 import org.supercsv.exception.SuperCsvConstraintViolationException;
 import org.supercsv.exception.SuperCsvException;
 import org.supercsv.prefs.CsvPreference;
+import org.supercsv.util.CsvContext;
 import org.supercsv.util.Util;
 
 /**
@@ -44,8 +45,15 @@ public abstract class AbstractCsvReader implements ICsvReader {
 	// the number of CSV records read
 	private int rowNumber = 0;
 	
+	// the columns to read, if the tokenizer can't apply the projection itself (otherwise null)
+	private ColumnProjection projection;
+	
+	// the header (if it has been read), which is recorded in checkpoints
+	private String[] header;
+	
 	/**
-	 * Constructs a new <tt>AbstractCsvReader</tt>, using the default {@link Tokenizer}.
+	 * Constructs a new <tt>AbstractCsvReader</tt>, using the default {@link Tokenizer} (or the
+	 * {@link CharBufferTokenizer} if the preferences say so).
 	 * 
 	 * @param reader
 	 *            the reader
@@ -55,14 +63,8 @@ public abstract class AbstractCsvReader implements ICsvReader {
 	 *             if reader or preferences are null
 	 */
 	public AbstractCsvReader(final Reader reader, final CsvPreference preferences) {
-		if( reader == null ) {
-			throw new NullPointerException("reader should not be null");
-		} else if( preferences == null ) {
-			throw new NullPointerException("preferences should not be null");
-		}
-		
 		this.preferences = preferences;
-		this.tokenizer = new Tokenizer(reader, preferences);
+		this.tokenizer = newTokenizer(reader, preferences);
 	}
 	
 	/**
@@ -86,6 +88,38 @@ public abstract class AbstractCsvReader implements ICsvReader {
 		
 		this.preferences = preferences;
 		this.tokenizer = tokenizer;
+		
+		if( tokenizer instanceof MappedFileTokenizer ) {
+			// carry on from where the checkpoint's reader left off
+			final CsvCheckpoint checkpoint = ((MappedFileTokenizer) tokenizer).getResumedFrom();
+			if( checkpoint != null ) {
+				this.rowNumber = checkpoint.getRowNumber();
+				this.header = checkpoint.getHeader();
+			}
+		}
+	}
+	
+	/**
+	 * Creates the default tokenizer for the preferences: the {@link Tokenizer}, or the {@link CharBufferTokenizer} if
+	 * the preferences say so.
+	 * 
+	 * @param reader
+	 *            the reader
+	 * @param preferences
+	 *            the CSV preferences
+	 * @return the tokenizer
+	 * @throws NullPointerException
+	 *             if reader or preferences are null
+	 */
+	static ITokenizer newTokenizer(final Reader reader, final CsvPreference preferences) {
+		if( reader == null ) {
+			throw new NullPointerException("reader should not be null");
+		} else if( preferences == null ) {
+			throw new NullPointerException("preferences should not be null");
+		}
+		
+		return preferences.isUseCharBufferTokenizer() ? new CharBufferTokenizer(reader, preferences) : new Tokenizer(
+			reader, preferences);
 	}
 	
 	/**
@@ -114,12 +148,32 @@ public abstract class AbstractCsvReader implements ICsvReader {
 		}
 		
 		if( readRow() ) {
-			return columns.toArray(new String[columns.size()]);
+			header = columns.toArray(new String[columns.size()]);
+			return header.clone();
 		}
 		
 		return null;
 	}
 	
+	/**
+	 * Returns a checkpoint after the last row read, from which another reader can carry on reading the file (see
+	 * {@link CsvCheckpoint}). The checkpoint records the line and row numbers, and the header if it has been read.
+	 * Checkpoints can only be made when reading with a {@link MappedFileTokenizer} (which knows its position in the
+	 * file).
+	 * 
+	 * @return the checkpoint
+	 * @throws UnsupportedOperationException
+	 *             if the reader isn't reading with a MappedFileTokenizer
+	 * @since 2.5.0
+	 */
+	public CsvCheckpoint checkpoint() {
+		if( !(tokenizer instanceof MappedFileTokenizer) ) {
+			throw new UnsupportedOperationException("checkpoints can only be made when reading with a "
+				+ "MappedFileTokenizer");
+		}
+		return ((MappedFileTokenizer) tokenizer).checkpoint(rowNumber, header);
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 */
@@ -141,6 +195,16 @@ public abstract class AbstractCsvReader implements ICsvReader {
 		return rowNumber;
 	}
 	
+	/**
+	 * Sets the row number, for readers that start reading (or continue reading) in the middle of a file.
+	 * 
+	 * @param rowNumber
+	 *            the row number of the last row read
+	 */
+	void setRowNumber(final int rowNumber) {
+		this.rowNumber = rowNumber;
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 */
@@ -148,6 +212,18 @@ public abstract class AbstractCsvReader implements ICsvReader {
 		return columns.size();
 	}
 	
+	/**
+	 * {@inheritDoc} If the tokenizer isn't an {@link IProjectingTokenizer}, the columns that aren't selected are set to
+	 * null after each row is read instead (so processing is still skipped, but tokenizing isn't any faster).
+	 */
+	public void setColumnProjection(final ColumnProjection projection) {
+		if( tokenizer instanceof IProjectingTokenizer ) {
+			((IProjectingTokenizer) tokenizer).setColumnProjection(projection);
+		} else {
+			this.projection = projection;
+		}
+	}
+	
 	/**
 	 * Gets the tokenized columns.
 	 * 
@@ -178,6 +254,13 @@ public abstract class AbstractCsvReader implements ICsvReader {
 	protected boolean readRow() throws IOException {
 		if( tokenizer.readColumns(columns) ) {
 			rowNumber++;
+			if( projection != null ) {
+				for( int i = 0; i < columns.size(); i++ ) {
+					if( !projection.isSelected(i + 1) ) {
+						columns.set(i, null);
+					}
+				}
+			}
 			return true;
 		}
 		return false;
@@ -204,4 +287,52 @@ public abstract class AbstractCsvReader implements ICsvReader {
 		return processedColumns;
 	}
 	
+	/**
+	 * Executes the supplied cell processors on the last row of CSV that was read and populates the supplied List of
+	 * processed columns, reporting any exceptions with the supplied context (which is updated with the current line and
+	 * row number). This allows a single context to be reused while reading a batch of rows.
+	 * 
+	 * @param processedColumns
+	 *            the List to populate with processed columns
+	 * @param processors
+	 *            the cell processors
+	 * @param context
+	 *            the reusable context
+	 * @return the updated List
+	 * @throws NullPointerException
+	 *             if processedColumns, processors or context are null
+	 * @throws SuperCsvConstraintViolationException
+	 *             if a CellProcessor constraint failed
+	 * @throws SuperCsvException
+	 *             if the wrong number of processors are supplied, or CellProcessor execution failed
+	 * @since 2.5.0
+	 */
+	protected List<Object> executeProcessors(final List<Object> processedColumns, final CellProcessor[] processors,
+		final CsvContext context) {
+		context.setLineNumber(getLineNumber());
+		context.setRowNumber(getRowNumber());
+		Util.executeCellProcessors(processedColumns, getColumns(), processors, context);
+		return processedColumns;
+	}
+	
+	/**
+	 * Checks the arguments common to all of the <tt>readBatch()</tt> methods.
+	 * 
+	 * @param batch
+	 *            the batch
+	 * @param maxRows
+	 *            the maximum number of rows to read
+	 * @throws IllegalArgumentException
+	 *             if maxRows is less than 1
+	 * @throws NullPointerException
+	 *             if batch is null
+	 */
+	static void checkBatchArguments(final CsvBatch<?> batch, final int maxRows) {
+		if( batch == null ) {
+			throw new NullPointerException("batch should not be null");
+		} else if( maxRows < 1 ) {
+			throw new IllegalArgumentException(String.format("maxRows should be at least 1 but was %d", maxRows));
+		}
+	}
+	
 }
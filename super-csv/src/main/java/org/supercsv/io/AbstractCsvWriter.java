@@ -15,30 +15,55 @@
  */
 package org.supercsv.io;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.List;
 
+import org.supercsv.encoder.CsvCharSink;
 import org.supercsv.encoder.CsvEncoder;
+import org.supercsv.encoder.CsvSinkEncoder;
 import org.supercsv.prefs.CsvPreference;
 import org.supercsv.util.CsvContext;
 import org.supercsv.util.Util;
 
 /**
  * Defines the standard behaviour of a CSV writer.
+ * <p>
+ * The rows are encoded into a reusable buffer, which is written to the underlying writer in blocks of up to
+ * {@link #FLUSH_THRESHOLD} chars (or after every row if the writer isn't bufferized). If the encoder is a
+ * {@link CsvSinkEncoder}, the columns are encoded straight into the buffer, so encoding a row doesn't create any
+ * Strings.
+ * </p>
  * 
  * @author Kasper B. Graversen
  * @author James Bassett
  */
 public abstract class AbstractCsvWriter implements ICsvWriter {
 	
+	/**
+	 * The number of buffered chars at which the buffer is written to the underlying writer (if it's bufferized).
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final int FLUSH_THRESHOLD = 1 << 16;
+	
 	private final Writer writer;
 	
+	private final boolean bufferizeWriter;
+	
 	private final CsvPreference preference;
 	
 	private final CsvEncoder encoder;
 	
+	// the encoder, if it can encode into the buffer (otherwise null)
+	private final CsvSinkEncoder sinkEncoder;
+	
+	// the encoded rows that haven't been written to the writer yet
+	private final RowBuffer buffer = new RowBuffer();
+	
+	// the context passed to the encoder (reused for every column)
+	private final CsvContext context = new CsvContext(0, 0, 0);
+	
 	// the line number being written / just written
 	private int lineNumber = 0;
 	
@@ -71,7 +96,8 @@ public abstract class AbstractCsvWriter implements ICsvWriter {
 	 * @param preference
 	 *            the CSV preferences
 	 * @param bufferizeWriter
-	 *            indicates if the writer should be wrapped internally with a BufferedWriter
+	 *            indicates if the output should be buffered (otherwise each row is written to the writer as soon as
+	 *            it's encoded)
 	 * @throws NullPointerException
 	 *             if writer or preference is null
 	 */
@@ -82,25 +108,88 @@ public abstract class AbstractCsvWriter implements ICsvWriter {
 			throw new NullPointerException("preference should not be null");
 		}
 		
-		this.writer = bufferizeWriter ? new BufferedWriter(writer) : writer;
+		this.writer = writer;
+		this.bufferizeWriter = bufferizeWriter;
 		this.preference = preference;
 		this.encoder = preference.getEncoder();
+		this.sinkEncoder = encodesIntoSink(encoder) ? (CsvSinkEncoder) encoder : null;
 	}
 	
 	/**
-	 * Closes the underlying writer, flushing it first.
+	 * Determines whether the encoder can encode into the buffer. That's only the case if its sink encode method is
+	 * declared by the same class as its String encode method (or a subclass), so that a subclass of an encoder that
+	 * only overrides the String method still encodes every column.
+	 * 
+	 * @param encoder
+	 *            the encoder
+	 * @return true if the encoder can encode into the buffer
+	 */
+	private static boolean encodesIntoSink(final CsvEncoder encoder) {
+		if( !(encoder instanceof CsvSinkEncoder) ) {
+			return false;
+		}
+		try {
+			final Class<?> stringEncoder = encoder.getClass()
+				.getMethod("encode", String.class, CsvContext.class, CsvPreference.class).getDeclaringClass();
+			final Class<?> sinkEncoder = encoder.getClass()
+				.getMethod("encode", String.class, CsvContext.class, CsvPreference.class, CsvCharSink.class)
+				.getDeclaringClass();
+			return stringEncoder.isAssignableFrom(sinkEncoder);
+		}
+		catch(NoSuchMethodException e) {
+			return false;
+		}
+		catch(SecurityException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Closes the underlying writer, writing any buffered output first.
 	 */
 	public void close() throws IOException {
-		writer.close();
+		try {
+			writeBuffer();
+		}
+		finally {
+			writer.close();
+		}
 	}
 	
 	/**
-	 * Flushes the underlying writer.
+	 * Writes any buffered output, then flushes the underlying writer.
 	 */
 	public void flush() throws IOException {
+		writeBuffer();
 		writer.flush();
 	}
 	
+	/**
+	 * Writes the buffered output to the underlying writer.
+	 * 
+	 * @throws IOException
+	 *             If an I/O error occurs
+	 */
+	private void writeBuffer() throws IOException {
+		if( buffer.length > 0 ) {
+			final int length = buffer.length;
+			buffer.length = 0;
+			writer.write(buffer.chars, 0, length);
+		}
+	}
+	
+	/**
+	 * Writes the buffered output to the underlying writer if the buffer is full (or the writer isn't bufferized).
+	 * 
+	 * @throws IOException
+	 *             If an I/O error occurs
+	 */
+	private void rowEncoded() throws IOException {
+		if( !bufferizeWriter || buffer.length >= FLUSH_THRESHOLD ) {
+			writeBuffer();
+		}
+	}
+	
 	/**
 	 * In order to maintain the current row and line numbers, this method <strong>must</strong> be called at the very
 	 * beginning of every write method implemented in concrete CSV writers. This will allow the correct row/line numbers
@@ -113,6 +202,16 @@ public abstract class AbstractCsvWriter implements ICsvWriter {
 		rowNumber++;
 	}
 	
+	/**
+	 * Sets the row number, for writers that start writing in the middle of a file.
+	 * 
+	 * @param rowNumber
+	 *            the row number of the last row written
+	 */
+	void setRowNumber(final int rowNumber) {
+		this.rowNumber = rowNumber;
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 */
@@ -180,27 +279,41 @@ public abstract class AbstractCsvWriter implements ICsvWriter {
 				lineNumber));
 		}
 		
-		StringBuilder builder = new StringBuilder();
-		for( int i = 0; i < columns.length; i++ ) {
-			
-			columnNumber = i + 1; // column no used by CsvEncoder
-			
-			if( i > 0 ) {
-				builder.append((char) preference.getDelimiterChar()); // delimiter
+		final int rowStart = buffer.length;
+		boolean encoded = false;
+		try {
+			for( int i = 0; i < columns.length; i++ ) {
+				
+				columnNumber = i + 1; // column no used by CsvEncoder
+				
+				if( i > 0 ) {
+					buffer.append((char) preference.getDelimiterChar()); // delimiter
+				}
+				
+				final String csvElement = columns[i];
+				if( csvElement != null ) {
+					context.setLineNumber(lineNumber);
+					context.setRowNumber(rowNumber);
+					context.setColumnNumber(columnNumber);
+					if( sinkEncoder != null ) {
+						sinkEncoder.encode(csvElement, context, preference, buffer);
+					} else {
+						buffer.append(encoder.encode(csvElement, context, preference));
+					}
+					lineNumber = context.getLineNumber(); // line number can increment when encoding multi-line columns
+				}
+				
 			}
 			
-			final String csvElement = columns[i];
-			if( csvElement != null ) {
-				final CsvContext context = new CsvContext(lineNumber, rowNumber, columnNumber);
-				final String escapedCsv = encoder.encode(csvElement, context, preference);
-				builder.append(escapedCsv);
-				lineNumber = context.getLineNumber(); // line number can increment when encoding multi-line columns
+			buffer.append(preference.getEndOfLineSymbols()); // EOL
+			encoded = true;
+		}
+		finally {
+			if( !encoded ) {
+				buffer.length = rowStart; // don't write part of a row
 			}
-			
 		}
-		
-		builder.append(preference.getEndOfLineSymbols()); // EOL
-		writer.write(builder.toString());
+		rowEncoded();
 	}
 	
 	/**
@@ -214,7 +327,9 @@ public abstract class AbstractCsvWriter implements ICsvWriter {
 			throw new NullPointerException(String.format("comment to write should not be null on line %d", lineNumber));
 		}
 		
-		writer.write(comment + preference.getEndOfLineSymbols());
+		buffer.append(comment);
+		buffer.append(preference.getEndOfLineSymbols());
+		rowEncoded();
 		
 	}
 	
@@ -229,4 +344,40 @@ public abstract class AbstractCsvWriter implements ICsvWriter {
 		writeRow(header);
 	}
 	
+	/**
+	 * A growable buffer of encoded CSV.
+	 */
+	private static final class RowBuffer implements CsvCharSink {
+		
+		private char[] chars = new char[1024];
+		
+		private int length;
+		
+		public void append(final char c) {
+			if( length == chars.length ) {
+				grow(length + 1);
+			}
+			chars[length++] = c;
+		}
+		
+		public void append(final String s) {
+			append(s, 0, s.length());
+		}
+		
+		public void append(final String s, final int start, final int end) {
+			final int newLength = length + end - start;
+			if( newLength > chars.length ) {
+				grow(newLength);
+			}
+			s.getChars(start, end, chars, length);
+			length = newLength;
+		}
+		
+		private void grow(final int minLength) {
+			final char[] grown = new char[Math.max(minLength, chars.length * 2)];
+			System.arraycopy(chars, 0, grown, 0, length);
+			chars = grown;
+		}
+	}
+	
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.Reader;
+
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * A {@link CsvListReader} that reads and tokenizes rows ahead on a background thread (using an {@link AsyncTokenizer}
+ * ), so that I/O and tokenizing overlap with the processing of the rows that were already read. It's used exactly like
+ * a <tt>CsvListReader</tt>, and reports the same line numbers, untokenized rows and exceptions - but it must be
+ * closed, to stop the background thread.
+ * <p>
+ * Only the tokenizing is done in the background: cell processors are still executed by the thread calling
+ * {@link #read(org.supercsv.cellprocessor.ift.CellProcessor...) read()}, so they needn't be thread-safe.
+ * </p>
+ * 
+ * @since 2.5.0
+ */
+public class AsyncCsvListReader extends CsvListReader {
+	
+	/**
+	 * Constructs a new <tt>AsyncCsvListReader</tt> with the supplied Reader and CSV preferences, which reads up to
+	 * {@link AsyncTokenizer#DEFAULT_CAPACITY} rows ahead with the default tokenizer. Note that the <tt>reader</tt> will
+	 * be wrapped in a <tt>BufferedReader</tt> before accessed.
+	 * 
+	 * @param reader
+	 *            the reader
+	 * @param preferences
+	 *            the CSV preferences
+	 * @throws NullPointerException
+	 *             if reader or preferences are null
+	 */
+	public AsyncCsvListReader(final Reader reader, final CsvPreference preferences) {
+		this(newTokenizer(reader, preferences), preferences);
+	}
+	
+	/**
+	 * Constructs a new <tt>AsyncCsvListReader</tt> with the supplied (custom) Tokenizer and CSV preferences, which
+	 * reads up to {@link AsyncTokenizer#DEFAULT_CAPACITY} rows ahead. The tokenizer should be set up with the Reader
+	 * (CSV input) and CsvPreference beforehand, and will be run on the background thread.
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer
+	 * @param preferences
+	 *            the CSV preferences
+	 * @throws NullPointerException
+	 *             if tokenizer or preferences are null
+	 */
+	public AsyncCsvListReader(final ITokenizer tokenizer, final CsvPreference preferences) {
+		this(tokenizer, preferences, AsyncTokenizer.DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Constructs a new <tt>AsyncCsvListReader</tt> with the supplied (custom) Tokenizer and CSV preferences. The
+	 * tokenizer should be set up with the Reader (CSV input) and CsvPreference beforehand, and will be run on the
+	 * background thread.
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer
+	 * @param preferences
+	 *            the CSV preferences
+	 * @param capacity
+	 *            the maximum number of rows that are read ahead
+	 * @throws IllegalArgumentException
+	 *             if capacity is less than 1
+	 * @throws NullPointerException
+	 *             if tokenizer or preferences are null
+	 */
+	public AsyncCsvListReader(final ITokenizer tokenizer, final CsvPreference preferences, final int capacity) {
+		super(new AsyncTokenizer(tokenizer, capacity), preferences);
+	}
+}
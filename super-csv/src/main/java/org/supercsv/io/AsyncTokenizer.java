@@ -0,0 +1,409 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.supercsv.exception.SuperCsvException;
+
+/**
+ * A tokenizer that reads ahead: another tokenizer is run on a dedicated (daemon) thread, which tokenizes rows into a
+ * bounded ring buffer of reusable row slots while the rows before them are being consumed, so that reading and
+ * tokenizing overlap with whatever is done with each row. When the buffer is full the background thread waits for the
+ * consumer to catch up, so no more than <tt>capacity</tt> rows are ever held in memory.
+ * <p>
+ * Everything about a row is recorded with it: {@link #getLineNumber()} and {@link #getUntokenizedRow()} describe the
+ * row that was last returned by {@link #readColumns(List)} (not the row being tokenized in the background), and an
+ * exception thrown by the wrapped tokenizer is rethrown by the <tt>readColumns()</tt> call that would have thrown it
+ * without reading ahead. As with a plain tokenizer, reading can continue after a <tt>SuperCsvException</tt>; any other
+ * exception stops the background thread, and is rethrown by every later call.
+ * </p>
+ * <p>
+ * The background thread is started by the first call to <tt>readColumns()</tt>, and stopped by {@link #close()}. The
+ * wrapped tokenizer must not be used directly once it has started. This tokenizer itself (like the others) should only
+ * be used by one thread.
+ * </p>
+ * 
+ * @since 2.5.0
+ */
+public class AsyncTokenizer implements IProjectingTokenizer {
+	
+	/** the default number of rows that are read ahead */
+	public static final int DEFAULT_CAPACITY = 1024;
+	
+	private final ITokenizer tokenizer;
+	
+	private final Slot[] slots;
+	
+	/* the number of slots filled by the background thread, and the number emptied by the consumer */
+	private volatile long published;
+	
+	private volatile long consumed;
+	
+	/* set while either side is (about to be) waiting for the other */
+	private volatile boolean producerWaiting;
+	
+	private volatile boolean consumerWaiting;
+	
+	private volatile boolean closed;
+	
+	/* set when the background thread stops without publishing a last slot (i.e. if it was interrupted) */
+	private volatile boolean producerStopped;
+	
+	private final ReentrantLock lock = new ReentrantLock();
+	
+	private final Condition notEmpty = lock.newCondition();
+	
+	private final Condition notFull = lock.newCondition();
+	
+	private Thread producer;
+	
+	/* the state of the row last consumed */
+	private int lineNumber;
+	
+	private String untokenizedRow;
+	
+	/* true once EOF (or an exception that stops reading) has been consumed */
+	private boolean finished;
+	
+	private Throwable failure;
+	
+	/* the columns to read, if the wrapped tokenizer can't (or can no longer) apply the projection itself */
+	private ColumnProjection projection;
+	
+	/**
+	 * A row of the ring buffer.
+	 */
+	private static final class Slot {
+		
+		final List<String> columns = new ArrayList<String>();
+		
+		int lineNumber;
+		
+		String untokenizedRow;
+		
+		boolean eof;
+		
+		Throwable exception;
+		
+		/* true if reading can't continue after the exception */
+		boolean fatal;
+	}
+	
+	/**
+	 * Constructs a new <tt>AsyncTokenizer</tt> that reads up to {@link #DEFAULT_CAPACITY} rows ahead.
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer to run in the background
+	 * @throws NullPointerException
+	 *             if tokenizer is null
+	 */
+	public AsyncTokenizer(final ITokenizer tokenizer) {
+		this(tokenizer, DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Constructs a new <tt>AsyncTokenizer</tt>.
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer to run in the background
+	 * @param capacity
+	 *            the maximum number of rows that are read ahead
+	 * @throws IllegalArgumentException
+	 *             if capacity is less than 1
+	 * @throws NullPointerException
+	 *             if tokenizer is null
+	 */
+	public AsyncTokenizer(final ITokenizer tokenizer, final int capacity) {
+		if( tokenizer == null ) {
+			throw new NullPointerException("tokenizer should not be null");
+		} else if( capacity < 1 ) {
+			throw new IllegalArgumentException(String.format("capacity should be at least 1 but was %d", capacity));
+		}
+		this.tokenizer = tokenizer;
+		this.slots = new Slot[capacity];
+		for( int i = 0; i < capacity; i++ ) {
+			slots[i] = new Slot();
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public String getUntokenizedRow() {
+		return untokenizedRow;
+	}
+	
+	/**
+	 * {@inheritDoc} The projection is passed on to the wrapped tokenizer if it's an {@link IProjectingTokenizer} and
+	 * reading hasn't started yet. Otherwise (as some rows may already have been read ahead), the columns that aren't
+	 * selected are set to null as each row is consumed instead.
+	 */
+	public void setColumnProjection(final ColumnProjection projection) {
+		if( producer == null && tokenizer instanceof IProjectingTokenizer ) {
+			((IProjectingTokenizer) tokenizer).setColumnProjection(projection);
+		} else {
+			this.projection = projection;
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean readColumns(final List<String> columns) throws IOException {
+		if( columns == null ) {
+			throw new NullPointerException("columns should not be null");
+		} else if( closed ) {
+			throw new IOException("the tokenizer has been closed");
+		}
+		
+		columns.clear();
+		if( finished ) {
+			if( failure != null ) {
+				throw rethrow(failure);
+			}
+			return false;
+		}
+		
+		if( producer == null ) {
+			startProducer();
+		}
+		
+		final long sequence = consumed;
+		awaitPublished(sequence);
+		final Slot slot = slots[(int) (sequence % slots.length)];
+		lineNumber = slot.lineNumber;
+		untokenizedRow = slot.untokenizedRow;
+		final boolean eof = slot.eof;
+		final Throwable exception = slot.exception;
+		if( !eof && exception == null ) {
+			columns.addAll(slot.columns);
+		}
+		final boolean fatal = slot.fatal;
+		release(sequence + 1);
+		
+		if( eof ) {
+			finished = true;
+			return false;
+		} else if( exception != null ) {
+			if( fatal ) {
+				finished = true;
+				failure = exception;
+			}
+			throw rethrow(exception);
+		}
+		
+		if( projection != null ) {
+			for( int i = 0; i < columns.size(); i++ ) {
+				if( !projection.isSelected(i + 1) ) {
+					columns.set(i, null);
+				}
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Stops the background thread (waiting for it to finish tokenizing the row it's reading) and closes the wrapped
+	 * tokenizer.
+	 */
+	public void close() throws IOException {
+		closed = true;
+		final Thread thread = producer;
+		if( thread != null ) {
+			lock.lock();
+			try {
+				notFull.signal();
+			}
+			finally {
+				lock.unlock();
+			}
+			try {
+				thread.join();
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while waiting for the read-ahead thread to stop");
+			}
+		}
+		tokenizer.close();
+	}
+	
+	/**
+	 * Starts the background thread.
+	 */
+	private void startProducer() {
+		producer = new Thread(new Runnable() {
+			public void run() {
+				readAhead();
+			}
+		}, "super-csv-read-ahead");
+		producer.setDaemon(true);
+		producer.start();
+	}
+	
+	/**
+	 * Tokenizes rows into the ring buffer (run by the background thread) until EOF, an exception that stops reading,
+	 * or the tokenizer is closed.
+	 */
+	private void readAhead() {
+		try {
+			long sequence = 0L;
+			boolean stop = false;
+			while( !stop && awaitFree(sequence) ) {
+				final Slot slot = slots[(int) (sequence % slots.length)];
+				slot.untokenizedRow = null;
+				slot.exception = null;
+				slot.eof = false;
+				slot.fatal = false;
+				try {
+					if( tokenizer.readColumns(slot.columns) ) {
+						slot.untokenizedRow = tokenizer.getUntokenizedRow();
+					} else {
+						slot.eof = true;
+						stop = true;
+					}
+				}
+				catch(SuperCsvException e) {
+					// the tokenizer can carry on with the next row
+					slot.exception = e;
+					slot.untokenizedRow = tokenizer.getUntokenizedRow();
+				}
+				catch(Throwable t) {
+					slot.exception = t;
+					slot.fatal = true;
+					stop = true;
+				}
+				slot.lineNumber = tokenizer.getLineNumber();
+				publish(++sequence);
+			}
+		}
+		catch(InterruptedException e) {
+			producerStopped = true;
+			signal(notEmpty);
+		}
+	}
+	
+	/**
+	 * Waits (on the background thread) until the slot with the supplied sequence number can be filled.
+	 * 
+	 * @return false if the tokenizer was closed
+	 */
+	private boolean awaitFree(final long sequence) throws InterruptedException {
+		if( sequence - consumed < slots.length ) {
+			return !closed;
+		}
+		lock.lock();
+		try {
+			producerWaiting = true;
+			while( sequence - consumed >= slots.length && !closed ) {
+				notFull.await();
+			}
+		}
+		finally {
+			producerWaiting = false;
+			lock.unlock();
+		}
+		return !closed;
+	}
+	
+	/**
+	 * Makes the slots before the supplied sequence number available to the consumer.
+	 */
+	private void publish(final long sequence) {
+		published = sequence;
+		if( consumerWaiting ) {
+			signal(notEmpty);
+		}
+	}
+	
+	/**
+	 * Waits (on the consumer's thread) until the slot with the supplied sequence number has been filled.
+	 */
+	private void awaitPublished(final long sequence) throws IOException {
+		if( sequence < published ) {
+			return;
+		}
+		lock.lock();
+		try {
+			consumerWaiting = true;
+			while( sequence >= published ) {
+				if( producerStopped ) {
+					throw new InterruptedIOException("the read-ahead thread was interrupted");
+				}
+				notEmpty.await();
+			}
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for a row to be read");
+		}
+		finally {
+			consumerWaiting = false;
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Makes the slots before the supplied sequence number available to the background thread again.
+	 */
+	private void release(final long sequence) {
+		consumed = sequence;
+		if( producerWaiting ) {
+			signal(notFull);
+		}
+	}
+	
+	/**
+	 * Signals a condition.
+	 */
+	private void signal(final Condition condition) {
+		lock.lock();
+		try {
+			condition.signal();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns an exception thrown by the wrapped tokenizer, so it can be thrown by the consumer (Errors are thrown
+	 * directly).
+	 */
+	private static IOException rethrow(final Throwable exception) throws IOException {
+		if( exception instanceof IOException ) {
+			throw (IOException) exception;
+		} else if( exception instanceof RuntimeException ) {
+			throw (RuntimeException) exception;
+		} else if( exception instanceof Error ) {
+			throw (Error) exception;
+		}
+		throw new SuperCsvException("unexpected exception while reading ahead", null, exception);
+	}
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A <tt>Writer</tt> that writes behind: the chars are copied into one of a fixed number of buffers, and each full
+ * buffer is handed to a dedicated (daemon) thread, which writes it to the wrapped writer while the next buffer is being
+ * filled. So a CSV writer's output (and its {@link #flush()}) doesn't wait for the disk or socket unless all of the
+ * buffers are waiting to be written, in which case writing waits for the background thread to catch up, so no more
+ * than <tt>bufferSize * buffers</tt> chars are ever held in memory. It can be used with any of the CSV writers, e.g.
+ * <pre>
+ * ICsvListWriter listWriter = new CsvListWriter(new AsyncWriter(fileWriter), preferences);
+ * </pre>
+ * <p>
+ * {@link #flush()} hands the chars written so far to the background thread, which writes them and then flushes the
+ * wrapped writer, without waiting for it. {@link #close()} waits for everything to be written before closing the
+ * wrapped writer. An exception thrown by the wrapped writer stops the writing (the rest of the output is discarded),
+ * and is rethrown by the next call to <tt>write()</tt>, <tt>flush()</tt> or <tt>close()</tt>, and by every call after
+ * that.
+ * </p>
+ * <p>
+ * The background thread is started when the first buffer is handed to it. The wrapped writer must not be used
+ * directly until this writer is closed, and this writer should only be used by one thread.
+ * </p>
+ * 
+ * @since 2.5.0
+ */
+public class AsyncWriter extends Writer {
+	
+	/** the default size of each buffer (in chars) */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	
+	/** the default number of buffers */
+	public static final int DEFAULT_BUFFERS = 3;
+	
+	private final Writer writer;
+	
+	/* the buffers waiting to be filled, and those waiting to be written by the background thread */
+	private final BlockingQueue<Buffer> free;
+	
+	private final BlockingQueue<Buffer> filled;
+	
+	/* the buffer being filled */
+	private Buffer current;
+	
+	private Thread consumer;
+	
+	private boolean closed;
+	
+	/* the exception thrown by the wrapped writer */
+	private volatile Throwable failure;
+	
+	/**
+	 * A buffer of chars, with the instructions for the background thread.
+	 */
+	private static final class Buffer {
+		
+		final char[] chars;
+		
+		int length;
+		
+		/* whether to flush the wrapped writer after writing the chars */
+		boolean flush;
+		
+		/* whether to close the wrapped writer (and stop) after writing the chars */
+		boolean close;
+		
+		Buffer(final int size) {
+			chars = new char[size];
+		}
+	}
+	
+	/**
+	 * Constructs a new <tt>AsyncWriter</tt> with {@link #DEFAULT_BUFFERS} buffers of {@link #DEFAULT_BUFFER_SIZE}
+	 * chars.
+	 * 
+	 * @param writer
+	 *            the writer to write to in the background
+	 * @throws NullPointerException
+	 *             if writer is null
+	 */
+	public AsyncWriter(final Writer writer) {
+		this(writer, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFERS);
+	}
+	
+	/**
+	 * Constructs a new <tt>AsyncWriter</tt>.
+	 * 
+	 * @param writer
+	 *            the writer to write to in the background
+	 * @param bufferSize
+	 *            the size of each buffer (in chars)
+	 * @param buffers
+	 *            the number of buffers (one is filled while the others are waiting to be written)
+	 * @throws IllegalArgumentException
+	 *             if bufferSize is less than 1 or buffers is less than 2
+	 * @throws NullPointerException
+	 *             if writer is null
+	 */
+	public AsyncWriter(final Writer writer, final int bufferSize, final int buffers) {
+		if( writer == null ) {
+			throw new NullPointerException("writer should not be null");
+		} else if( bufferSize < 1 ) {
+			throw new IllegalArgumentException(String.format("bufferSize should be at least 1 but was %d", bufferSize));
+		} else if( buffers < 2 ) {
+			throw new IllegalArgumentException(String.format("buffers should be at least 2 but was %d", buffers));
+		}
+		this.writer = writer;
+		this.free = new ArrayBlockingQueue<Buffer>(buffers);
+		this.filled = new ArrayBlockingQueue<Buffer>(buffers);
+		for( int i = 1; i < buffers; i++ ) {
+			free.add(new Buffer(bufferSize));
+		}
+		this.current = new Buffer(bufferSize);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(final char[] cbuf, final int off, final int len) throws IOException {
+		ensureWritable();
+		if( off < 0 || len < 0 || off + len > cbuf.length ) {
+			throw new IndexOutOfBoundsException();
+		}
+		int offset = off;
+		int remaining = len;
+		while( remaining > 0 ) {
+			if( current.length == current.chars.length ) {
+				handOff(false);
+			}
+			final int count = Math.min(remaining, current.chars.length - current.length);
+			System.arraycopy(cbuf, offset, current.chars, current.length, count);
+			current.length += count;
+			offset += count;
+			remaining -= count;
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(final String str, final int off, final int len) throws IOException {
+		ensureWritable();
+		if( off < 0 || len < 0 || off + len > str.length() ) {
+			throw new IndexOutOfBoundsException();
+		}
+		int offset = off;
+		final int end = off + len;
+		while( offset < end ) {
+			if( current.length == current.chars.length ) {
+				handOff(false);
+			}
+			final int count = Math.min(end - offset, current.chars.length - current.length);
+			str.getChars(offset, offset + count, current.chars, current.length);
+			current.length += count;
+			offset += count;
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(final int c) throws IOException {
+		ensureWritable();
+		if( current.length == current.chars.length ) {
+			handOff(false);
+		}
+		current.chars[current.length++] = (char) c;
+	}
+	
+	/**
+	 * Hands the chars written so far to the background thread, which writes them and then flushes the wrapped writer
+	 * (this doesn't wait for either).
+	 */
+	@Override
+	public void flush() throws IOException {
+		ensureWritable();
+		handOff(true);
+	}
+	
+	/**
+	 * Waits for all of the chars to be written, then closes the wrapped writer.
+	 */
+	@Override
+	public void close() throws IOException {
+		if( closed ) {
+			return;
+		}
+		closed = true;
+		final Buffer last = current != null ? current : new Buffer(0);
+		current = null;
+		if( consumer == null ) {
+			// nothing has been handed off, so there's no need for the background thread
+			try {
+				writer.write(last.chars, 0, last.length);
+			}
+			finally {
+				writer.close();
+			}
+			return;
+		}
+		last.close = true;
+		try {
+			filled.put(last);
+			consumer.join();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for the write-behind thread to finish");
+		}
+		if( failure != null ) {
+			throw rethrow(failure);
+		}
+	}
+	
+	/**
+	 * Hands the current buffer to the background thread (starting it if necessary), then waits for a free buffer.
+	 * 
+	 * @param flush
+	 *            whether the wrapped writer should be flushed after writing the buffer
+	 * @throws IOException
+	 *             if interrupted, or if writing failed in the meantime
+	 */
+	private void handOff(final boolean flush) throws IOException {
+		if( consumer == null ) {
+			startConsumer();
+		}
+		final Buffer handed = current;
+		current = null; // until a free buffer is taken
+		handed.flush = flush;
+		try {
+			filled.put(handed); // there's always room for every buffer, so this doesn't wait
+			current = free.take();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for a buffer to be written");
+		}
+		current.length = 0;
+		current.flush = false;
+		ensureWritable();
+	}
+	
+	/**
+	 * Starts the background thread.
+	 */
+	private void startConsumer() {
+		consumer = new Thread(new Runnable() {
+			public void run() {
+				writeBehind();
+			}
+		}, "super-csv-write-behind");
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+	
+	/**
+	 * Writes the buffers that are handed off (run by the background thread) until the writer is closed. Once writing
+	 * fails, the buffers are discarded, but the wrapped writer is still closed.
+	 */
+	private void writeBehind() {
+		try {
+			while( true ) {
+				final Buffer buffer = filled.take();
+				if( failure == null ) {
+					try {
+						writer.write(buffer.chars, 0, buffer.length);
+						if( buffer.flush ) {
+							writer.flush();
+						}
+					}
+					catch(Throwable t) {
+						failure = t;
+					}
+				}
+				if( buffer.close ) {
+					try {
+						writer.close();
+					}
+					catch(Throwable t) {
+						if( failure == null ) {
+							failure = t;
+						}
+					}
+					return;
+				}
+				free.add(buffer);
+			}
+		}
+		catch(InterruptedException e) {
+			if( failure == null ) {
+				failure = new InterruptedIOException("the write-behind thread was interrupted");
+			}
+		}
+	}
+	
+	private void ensureWritable() throws IOException {
+		if( closed ) {
+			throw new IOException("the writer is closed");
+		} else if( failure != null ) {
+			throw rethrow(failure);
+		} else if( current == null ) {
+			throw new InterruptedIOException("interrupted while waiting for a buffer to be written");
+		}
+	}
+	
+	/**
+	 * Rethrows an exception thrown by the wrapped writer.
+	 * 
+	 * @param exception
+	 *            the exception
+	 * @return never returns (so that it can be thrown by the caller)
+	 */
+	private static IOException rethrow(final Throwable exception) throws IOException {
+		if( exception instanceof IOException ) {
+			throw (IOException) exception;
+		} else if( exception instanceof RuntimeException ) {
+			throw (RuntimeException) exception;
+		} else if( exception instanceof Error ) {
+			throw (Error) exception;
+		}
+		throw new IOException("unexpected exception while writing behind: " + exception);
+	}
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * A <tt>Writer</tt> that encodes chars straight into a reusable byte buffer, and writes the buffer to a
+ * <tt>WritableByteChannel</tt> (such as a <tt>FileChannel</tt>) whenever it fills, instead of going through an
+ * <tt>OutputStreamWriter</tt> and its charset encoder. ASCII chars are copied into the buffer as bytes, and the other
+ * chars are encoded inline, so the only charsets supported are UTF-8, ISO-8859-1 and US-ASCII. As with an
+ * <tt>OutputStreamWriter</tt>, chars that can't be encoded (and unpaired surrogates) are written as <tt>'?'</tt>.
+ * <p>
+ * The CSV writers write each block of encoded CSV straight into it, e.g.
+ * </p>
+ * <pre>
+ * ICsvListWriter listWriter = new CsvListWriter(new ByteChannelWriter(fileChannel, charset), preferences);
+ * </pre>
+ * 
+ * @since 2.5.0
+ */
+public class ByteChannelWriter extends Writer {
+	
+	/** the default size of the buffer */
+	public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+	
+	/* the minimum size of the buffer (the longest encoding of a char) */
+	private static final int MIN_BUFFER_SIZE = 4;
+	
+	private static final byte REPLACEMENT = '?';
+	
+	private final WritableByteChannel channel;
+	
+	/* the stream the channel writes to (which has to be flushed as well), or null */
+	private final OutputStream stream;
+	
+	private final ByteBuffer buffer;
+	
+	private final boolean utf8;
+	
+	/* the highest char that can be written as a single byte (when not UTF-8) */
+	private final char maxSingleByte;
+	
+	/* a high surrogate written at the end of the last write, or 0 */
+	private char highSurrogate;
+	
+	private boolean closed;
+	
+	/**
+	 * Constructs a new <tt>ByteChannelWriter</tt> with a heap buffer of the default size.
+	 * 
+	 * @param channel
+	 *            the channel to write to
+	 * @param charset
+	 *            the charset to encode with
+	 * @throws IllegalArgumentException
+	 *             if the charset isn't UTF-8, ISO-8859-1 or US-ASCII
+	 * @throws NullPointerException
+	 *             if channel or charset are null
+	 */
+	public ByteChannelWriter(final WritableByteChannel channel, final Charset charset) {
+		this(channel, charset, DEFAULT_BUFFER_SIZE, false);
+	}
+	
+	/**
+	 * Constructs a new <tt>ByteChannelWriter</tt>.
+	 * 
+	 * @param channel
+	 *            the channel to write to
+	 * @param charset
+	 *            the charset to encode with
+	 * @param bufferSize
+	 *            the size of the buffer in bytes
+	 * @param direct
+	 *            whether to allocate a direct buffer (which a <tt>FileChannel</tt> can write without copying it)
+	 * @throws IllegalArgumentException
+	 *             if bufferSize is less than 4, or if the charset isn't UTF-8, ISO-8859-1 or US-ASCII
+	 * @throws NullPointerException
+	 *             if channel or charset are null
+	 */
+	public ByteChannelWriter(final WritableByteChannel channel, final Charset charset, final int bufferSize,
+		final boolean direct) {
+		this(channel, null, charset, bufferSize, direct);
+	}
+	
+	/**
+	 * Constructs a new <tt>ByteChannelWriter</tt> with a heap buffer of the default size. The stream is written
+	 * through its <tt>FileChannel</tt> if it's a <tt>FileOutputStream</tt>.
+	 * 
+	 * @param output
+	 *            the stream to write to
+	 * @param charset
+	 *            the charset to encode with
+	 * @throws IllegalArgumentException
+	 *             if the charset isn't UTF-8, ISO-8859-1 or US-ASCII
+	 * @throws NullPointerException
+	 *             if output or charset are null
+	 */
+	public ByteChannelWriter(final OutputStream output, final Charset charset) {
+		this(output, charset, DEFAULT_BUFFER_SIZE, false);
+	}
+	
+	/**
+	 * Constructs a new <tt>ByteChannelWriter</tt>. The stream is written through its <tt>FileChannel</tt> if it's a
+	 * <tt>FileOutputStream</tt>.
+	 * 
+	 * @param output
+	 *            the stream to write to
+	 * @param charset
+	 *            the charset to encode with
+	 * @param bufferSize
+	 *            the size of the buffer in bytes
+	 * @param direct
+	 *            whether to allocate a direct buffer
+	 * @throws IllegalArgumentException
+	 *             if bufferSize is less than 4, or if the charset isn't UTF-8, ISO-8859-1 or US-ASCII
+	 * @throws NullPointerException
+	 *             if output or charset are null
+	 */
+	public ByteChannelWriter(final OutputStream output, final Charset charset, final int bufferSize,
+		final boolean direct) {
+		this(channelOf(output), output, charset, bufferSize, direct);
+	}
+	
+	private ByteChannelWriter(final WritableByteChannel channel, final OutputStream stream, final Charset charset,
+		final int bufferSize, final boolean direct) {
+		if( channel == null ) {
+			throw new NullPointerException("channel should not be null");
+		} else if( charset == null ) {
+			throw new NullPointerException("charset should not be null");
+		} else if( bufferSize < MIN_BUFFER_SIZE ) {
+			throw new IllegalArgumentException(String.format("bufferSize should be at least %d but was %d",
+				MIN_BUFFER_SIZE, bufferSize));
+		}
+		if( !supports(charset) ) {
+			throw new IllegalArgumentException(String.format(
+				"charset should be UTF-8, ISO-8859-1 or US-ASCII but was %s", charset.name()));
+		}
+		this.utf8 = charset.name().equals("UTF-8");
+		this.maxSingleByte = charset.name().equals("ISO-8859-1") ? (char) 0xff : (char) 0x7f;
+		this.channel = channel;
+		this.stream = stream;
+		this.buffer = direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+	}
+	
+	/**
+	 * Determines whether a charset is supported.
+	 * 
+	 * @param charset
+	 *            the charset
+	 * @return true if the charset is UTF-8, ISO-8859-1 or US-ASCII
+	 */
+	static boolean supports(final Charset charset) {
+		final String name = charset.name();
+		return name.equals("UTF-8") || name.equals("ISO-8859-1") || name.equals("US-ASCII");
+	}
+	
+	/**
+	 * Gets the channel to write a stream through.
+	 * 
+	 * @param output
+	 *            the stream
+	 * @return the channel
+	 * @throws NullPointerException
+	 *             if output is null
+	 */
+	private static WritableByteChannel channelOf(final OutputStream output) {
+		if( output == null ) {
+			throw new NullPointerException("output should not be null");
+		}
+		return output instanceof FileOutputStream ? ((FileOutputStream) output).getChannel() : Channels
+			.newChannel(output);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(final char[] cbuf, final int off, final int len) throws IOException {
+		ensureOpen();
+		if( off < 0 || len < 0 || off + len > cbuf.length ) {
+			throw new IndexOutOfBoundsException();
+		}
+		final ByteBuffer buffer = this.buffer;
+		final int end = off + len;
+		int i = off;
+		while( i < end ) {
+			if( highSurrogate == 0 ) {
+				// copy a run of ASCII chars (as many as fit into the buffer)
+				int position = buffer.position();
+				final int runEnd = Math.min(end, i + buffer.limit() - position);
+				while( i < runEnd && cbuf[i] < 0x80 ) {
+					buffer.put(position++, (byte) cbuf[i++]);
+				}
+				buffer.position(position);
+			}
+			if( i < end ) {
+				if( buffer.remaining() < MIN_BUFFER_SIZE ) {
+					writeBuffer();
+				}
+				encode(cbuf[i++]);
+			}
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(final String str, final int off, final int len) throws IOException {
+		ensureOpen();
+		if( off < 0 || len < 0 || off + len > str.length() ) {
+			throw new IndexOutOfBoundsException();
+		}
+		final int end = off + len;
+		for( int i = off; i < end; i++ ) {
+			if( buffer.remaining() < MIN_BUFFER_SIZE ) {
+				writeBuffer();
+			}
+			encode(str.charAt(i));
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(final int c) throws IOException {
+		ensureOpen();
+		if( buffer.remaining() < MIN_BUFFER_SIZE ) {
+			writeBuffer();
+		}
+		encode((char) c);
+	}
+	
+	/**
+	 * Encodes a char into the buffer, which must have room for at least 4 bytes.
+	 * 
+	 * @param c
+	 *            the char
+	 */
+	private void encode(final char c) {
+		if( highSurrogate != 0 ) {
+			final char high = highSurrogate;
+			highSurrogate = 0;
+			if( Character.isLowSurrogate(c) ) {
+				final int codePoint = Character.toCodePoint(high, c);
+				if( utf8 ) {
+					buffer.put((byte) (0xf0 | codePoint >> 18));
+					buffer.put((byte) (0x80 | codePoint >> 12 & 0x3f));
+					buffer.put((byte) (0x80 | codePoint >> 6 & 0x3f));
+					buffer.put((byte) (0x80 | codePoint & 0x3f));
+				} else {
+					buffer.put(REPLACEMENT);
+				}
+				return;
+			}
+			buffer.put(REPLACEMENT); // unpaired high surrogate
+		}
+		
+		if( c <= maxSingleByte ) {
+			buffer.put((byte) c);
+		} else if( Character.isHighSurrogate(c) ) {
+			highSurrogate = c;
+		} else if( !utf8 || Character.isLowSurrogate(c) ) {
+			buffer.put(REPLACEMENT);
+		} else if( c < 0x800 ) {
+			buffer.put((byte) (0xc0 | c >> 6));
+			buffer.put((byte) (0x80 | c & 0x3f));
+		} else {
+			buffer.put((byte) (0xe0 | c >> 12));
+			buffer.put((byte) (0x80 | c >> 6 & 0x3f));
+			buffer.put((byte) (0x80 | c & 0x3f));
+		}
+	}
+	
+	/**
+	 * Writes the buffered bytes to the channel.
+	 * 
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	private void writeBuffer() throws IOException {
+		buffer.flip();
+		try {
+			while( buffer.hasRemaining() ) {
+				channel.write(buffer);
+			}
+		}
+		finally {
+			buffer.clear();
+		}
+	}
+	
+	/**
+	 * Writes the buffered bytes to the channel (an unpaired high surrogate at the end of the output so far is kept, as
+	 * the next write may start with its low surrogate), and flushes the stream if there is one.
+	 */
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		writeBuffer();
+		if( stream != null ) {
+			stream.flush();
+		}
+	}
+	
+	/**
+	 * Writes any buffered bytes (and an unpaired high surrogate at the end of the output as <tt>'?'</tt>), then closes
+	 * the channel.
+	 */
+	@Override
+	public void close() throws IOException {
+		if( closed ) {
+			return;
+		}
+		closed = true;
+		try {
+			if( highSurrogate != 0 ) {
+				highSurrogate = 0;
+				buffer.put(REPLACEMENT);
+			}
+			writeBuffer();
+		}
+		finally {
+			channel.close();
+		}
+	}
+	
+	private void ensureOpen() throws IOException {
+		if( closed ) {
+			throw new IOException("the writer is closed");
+		}
+	}
+	
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Finds the next occurrence of any of (up to) five special bytes, eight bytes at a time: each word read from the
+ * buffer is XORed with the special byte repeated in every byte, and a SIMD-within-a-register test finds the bytes that
+ * became zero. Runs of ordinary bytes (most of a typical column) are therefore skipped with a few arithmetic operations
+ * per eight bytes, instead of several comparisons per byte.
+ * 
+ * @since 2.5.0
+ */
+final class ByteScanner {
+	
+	private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+	
+	private static final long EVERY_BYTE = 0x0101010101010101L;
+	
+	private final byte first;
+	
+	private final byte second;
+	
+	private final byte third;
+	
+	private final byte fourth;
+	
+	private final byte fifth;
+	
+	/* each special byte repeated in every byte of a word */
+	private final long firstPattern;
+	
+	private final long secondPattern;
+	
+	private final long thirdPattern;
+	
+	private final long fourthPattern;
+	
+	private final long fifthPattern;
+	
+	/**
+	 * Constructs a new <tt>ByteScanner</tt> for five special bytes (pass the same byte more than once if there are
+	 * fewer).
+	 */
+	ByteScanner(final byte first, final byte second, final byte third, final byte fourth, final byte fifth) {
+		this.first = first;
+		this.second = second;
+		this.third = third;
+		this.fourth = fourth;
+		this.fifth = fifth;
+		this.firstPattern = repeat(first);
+		this.secondPattern = repeat(second);
+		this.thirdPattern = repeat(third);
+		this.fourthPattern = repeat(fourth);
+		this.fifthPattern = repeat(fifth);
+	}
+	
+	/**
+	 * Returns the index of the first special byte in buffer[from, limit), or limit if there isn't one.
+	 * 
+	 * @param buffer
+	 *            the buffer (its position and limit are ignored)
+	 * @param from
+	 *            the index to start scanning at
+	 * @param limit
+	 *            the index after the last byte to scan
+	 * @return the index of the first special byte, or limit
+	 */
+	int indexOfSpecial(final ByteBuffer buffer, final int from, final int limit) {
+		final boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+		int i = from;
+		while( limit - i >= 8 ) {
+			final long word = buffer.getLong(i);
+			final long found = zeroBytes(word ^ firstPattern) | zeroBytes(word ^ secondPattern)
+				| zeroBytes(word ^ thirdPattern) | zeroBytes(word ^ fourthPattern) | zeroBytes(word ^ fifthPattern);
+			if( found != 0L ) {
+				// the high bit of each special byte is set, so the first one is the first set bit in memory order
+				return i + ((bigEndian ? Long.numberOfLeadingZeros(found) : Long.numberOfTrailingZeros(found)) >>> 3);
+			}
+			i += 8;
+		}
+		while( i < limit && !isSpecial(buffer.get(i)) ) {
+			i++;
+		}
+		return i;
+	}
+	
+	/**
+	 * Returns true if the byte is one of the special bytes.
+	 */
+	boolean isSpecial(final byte b) {
+		return b == first || b == second || b == third || b == fourth || b == fifth;
+	}
+	
+	/**
+	 * Returns a word with the high bit of every zero byte of x set (and no other bits). Unlike the shorter
+	 * <tt>(x - 0x01..) &amp; ~x &amp; 0x80..</tt>, this has no false positives, as no carry crosses a byte boundary.
+	 */
+	private static long zeroBytes(final long x) {
+		return ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+	}
+	
+	/**
+	 * Returns a word with the byte repeated in every byte.
+	 */
+	private static long repeat(final byte b) {
+		return (b & 0xFFL) * EVERY_BYTE;
+	}
+}
@@ -0,0 +1,789 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.supercsv.comment.CommentMatcher;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * A tokenizer that scans a large, reusable <tt>char[]</tt> window of the input directly, instead of reading it line by
+ * line. It produces exactly the same columns, line numbers and untokenized rows as {@link Tokenizer}, but avoids
+ * copying every line into a String before tokenizing it: each column is created straight from the window (only
+ * columns containing escapes, multi-line content or trimmed spaces need to be assembled in a StringBuilder first).
+ * <p>
+ * Line terminators (<tt>\n</tt>, <tt>\r</tt> or <tt>\r\n</tt>) are tracked by the tokenizer itself, so quoted columns
+ * spanning several lines are handled without re-assembling lines. The window grows if a single row doesn't fit into
+ * it, and the untokenized row is only built if {@link #getUntokenizedRow()} is called.
+ * </p>
+ * <p>
+ * Rows can also be read as reusable views with {@link #readColumnViews(List)}, in which case (apart from columns with
+ * escapes, multi-line content or trimmed spaces, which are unescaped into a reusable scratch buffer) nothing is copied
+ * at all.
+ * </p>
+ * <p>
+ * The readers use this tokenizer instead of the default {@link Tokenizer} when the
+ * {@link CsvPreference.Builder#useCharBufferTokenizer(boolean) useCharBufferTokenizer} preference is enabled.
+ * </p>
+ *
+ * @since 2.5.0
+ */
+public class CharBufferTokenizer implements ICharSequenceTokenizer, IProjectingTokenizer {
+
+	/** the default size of the char window */
+	public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+	private static final char NEWLINE = '\n';
+
+	private static final char CARRIAGE_RETURN = '\r';
+
+	private static final char SPACE = ' ';
+
+	private static final char BOM = '\uFEFF';
+
+	private final Reader reader;
+
+	private final CsvPreference preferences;
+
+	private final char quoteChar;
+
+	private final int delimiterChar;
+
+	private final boolean surroundingSpacesNeedQuotes;
+
+	private final boolean ignoreEmptyLines;
+
+	private final CommentMatcher commentMatcher;
+
+	private final int maxLinesPerRow;
+
+	private final EmptyColumnParsing emptyColumnParsing;
+
+	private final char quoteEscapeChar;
+
+	/* the window of the input: chars from rowStart onwards are retained until the next row is read */
+	private char[] buffer;
+
+	/* the index of the next char to be tokenized */
+	private int pos;
+
+	/* the index after the last valid char in the window */
+	private int limit;
+
+	private boolean endOfInput;
+
+	private int lineNumber;
+
+	/* the index of the first char of the line being tokenized */
+	private int lineStart;
+
+	/* the raw row just read is buffer[rowStart, rowEnd) (with its original line terminators) */
+	private int rowStart;
+
+	private int rowEnd;
+
+	/* whether the untokenized row ends with a newline (only when reading failed at the end of a line) */
+	private boolean rowEndsWithNewline;
+
+	private String untokenizedRow;
+
+	private boolean bomChecked;
+
+	/* whether a BOM was the only content read so far for the first line */
+	private boolean bomLine;
+
+	/* the column being tokenized is currentColumn, followed by the contiguous chars buffer[runStart, runEnd) */
+	private final StringBuilder currentColumn = new StringBuilder();
+
+	private int runStart;
+
+	private int runEnd;
+
+	/* the columns to read, or null to read all columns */
+	private ColumnProjection projection;
+
+	/* the cache of repeated column values, or null to create every value */
+	private ColumnStringCache stringCache;
+
+	/* the reusable views of the row's columns (when reading views), and the number in use for the current row */
+	private final List<ColumnView> views = new ArrayList<ColumnView>();
+
+	private int viewCount;
+
+	/* the unescaped copies of the columns that couldn't be viewed in the window directly */
+	private char[] scratch = new char[256];
+
+	private int scratchLength;
+
+	/**
+	 * Constructs a new <tt>CharBufferTokenizer</tt> with the default window size.
+	 *
+	 * @param reader
+	 *            the reader
+	 * @param preferences
+	 *            the CSV preferences
+	 * @throws NullPointerException
+	 *             if reader or preferences are null
+	 */
+	public CharBufferTokenizer(final Reader reader, final CsvPreference preferences) {
+		this(reader, preferences, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Constructs a new <tt>CharBufferTokenizer</tt>.
+	 *
+	 * @param reader
+	 *            the reader
+	 * @param preferences
+	 *            the CSV preferences
+	 * @param bufferSize
+	 *            the initial size of the char window (it grows if a row doesn't fit into it)
+	 * @throws IllegalArgumentException
+	 *             if bufferSize is less than 1
+	 * @throws NullPointerException
+	 *             if reader or preferences are null
+	 */
+	public CharBufferTokenizer(final Reader reader, final CsvPreference preferences, final int bufferSize) {
+		if( reader == null ) {
+			throw new NullPointerException("reader should not be null");
+		} else if( preferences == null ) {
+			throw new NullPointerException("preferences should not be null");
+		} else if( bufferSize < 1 ) {
+			throw new IllegalArgumentException(String.format("bufferSize should be at least 1 but was %d", bufferSize));
+		}
+		this.reader = reader;
+		this.preferences = preferences;
+		this.buffer = new char[bufferSize];
+		this.quoteChar = preferences.getQuoteChar();
+		this.delimiterChar = preferences.getDelimiterChar();
+		this.surroundingSpacesNeedQuotes = preferences.isSurroundingSpacesNeedQuotes();
+		this.ignoreEmptyLines = preferences.isIgnoreEmptyLines();
+		this.commentMatcher = preferences.getCommentMatcher();
+		this.maxLinesPerRow = preferences.getMaxLinesPerRow();
+		this.emptyColumnParsing = preferences.getEmptyColumnParsing();
+		this.quoteEscapeChar = preferences.getQuoteEscapeChar();
+	}
+
+	/**
+	 * Closes the underlying reader.
+	 */
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * Gets the CSV preferences.
+	 *
+	 * @return the preferences
+	 */
+	protected CsvPreference getPreferences() {
+		return preferences;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void setColumnProjection(final ColumnProjection projection) {
+		this.projection = projection;
+	}
+
+	/**
+	 * Sets the cache used to return the same String instance for each repeated value of a column, instead of creating
+	 * a new String every time. The cache isn't used by {@link #readColumnViews(List)}, whose views aren't Strings.
+	 *
+	 * @param stringCache
+	 *            the cache, or null to create every value
+	 */
+	public void setStringCache(final ColumnStringCache stringCache) {
+		this.stringCache = stringCache;
+	}
+
+	/**
+	 * Returns the cache of repeated column values (whose statistics show how effective it is).
+	 *
+	 * @return the cache, or null if none is used
+	 */
+	public ColumnStringCache getStringCache() {
+		return stringCache;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean readColumns(final List<String> columns) throws IOException {
+		if( columns == null ) {
+			throw new NullPointerException("columns should not be null");
+		}
+		columns.clear();
+		return readRow(columns, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean readColumnViews(final List<CharSequence> columns) throws IOException {
+		if( columns == null ) {
+			throw new NullPointerException("columns should not be null");
+		}
+		columns.clear();
+		viewCount = 0;
+		scratchLength = 0;
+		if( readRow(null, columns) ) {
+			// the window may have been compacted or replaced while reading, so the views are only pointed at it now
+			for( int i = 0; i < viewCount; i++ ) {
+				final ColumnView view = views.get(i);
+				if( view.getChars() == null ) {
+					view.set(buffer, rowStart + view.getOffset(), view.length());
+				} else {
+					view.set(scratch, view.getOffset(), view.length());
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Reads a row into either the List of Strings or the List of CharSequences (whichever isn't null).
+	 *
+	 * @param columns
+	 *            the List of Strings to read into, or null
+	 * @param columnViews
+	 *            the List of CharSequences to read into, or null
+	 * @return true if something was read, or false if EOF
+	 */
+	private boolean readRow(final List<String> columns, final List<CharSequence> columnViews) throws IOException {
+
+		// clear the previous row
+		resetColumn();
+		untokenizedRow = null;
+		rowEndsWithNewline = false;
+
+		if( !bomChecked ) {
+			bomChecked = true;
+			if( (pos < limit || fill()) && buffer[pos] == BOM ) {
+				pos++;
+				bomLine = true;
+			}
+		}
+
+		// start a line (ignoring empty lines/comments if necessary)
+		while( true ) {
+			rowStart = pos;
+			rowEnd = pos;
+			if( !startLine() ) {
+				return false; // EOF
+			}
+
+			if( commentMatcher != null ) {
+				final int length = scanLineLength();
+				if( ignoreEmptyLines && length == 0
+					|| commentMatcher.isComment(new String(buffer, lineStart, length)) ) {
+					pos += length;
+					consumeLineTerminator();
+					continue;
+				}
+			} else if( ignoreEmptyLines && atLineTerminator() ) {
+				consumeLineTerminator();
+				continue;
+			}
+			break;
+		}
+
+		// process each character in the row, catering for surrounding quotes (quote mode)
+		boolean quoteMode = false;
+		int quoteScopeStartingLine = -1; // the line number where a potential multi-line cell starts
+		int potentialSpaces = 0; // keep track of spaces (so leading/trailing space can be removed if required)
+		while( true ) {
+
+			if( atLineTerminator() ) {
+				if( !quoteMode ) {
+					/*
+					 * Newline. Add any required spaces (if surrounding spaces don't need quotes) and return (we've read
+					 * a row!).
+					 */
+					if( !surroundingSpacesNeedQuotes ) {
+						appendRange(pos - potentialSpaces, pos);
+					}
+					addColumn(columns, columnViews);
+					rowEnd = pos;
+					consumeLineTerminator();
+					return true;
+				}
+
+				/*
+				 * Newline. Doesn't count as newline while in quote mode. Add the newline char, then continue on the
+				 * next line.
+				 */
+				if( pos < limit && buffer[pos] == NEWLINE ) {
+					appendRange(pos, pos + 1);
+				} else {
+					appendChar(NEWLINE); // specific line terminator lost, \n will have to suffice
+				}
+
+				if( maxLinesPerRow > 0 && lineNumber - quoteScopeStartingLine + 1 >= maxLinesPerRow ) {
+					/*
+					 * The quoted section that is being parsed spans too many lines, so to avoid excessive memory usage
+					 * parsing something that is probably human error anyways, throw an exception. If each row is
+					 * suppose to be a single line and this has been exceeded, throw a more descriptive exception
+					 */
+					rowEnd = pos;
+					rowEndsWithNewline = true;
+					String msg = maxLinesPerRow == 1 ? String.format(
+						"unexpected end of line while reading quoted column on line %d", lineNumber) : String.format(
+						"max number of lines to read exceeded while reading quoted column"
+							+ " beginning on line %d and ending on line %d", quoteScopeStartingLine, lineNumber);
+					throw new SuperCsvException(msg);
+				}
+
+				consumeLineTerminator();
+				if( !startLine() ) {
+					rowEnd = pos;
+					rowEndsWithNewline = !endsWithLineTerminator(rowStart, rowEnd);
+					throw new SuperCsvException(String.format(
+						"unexpected end of file while reading quoted column beginning on line %d and ending on line %d",
+						quoteScopeStartingLine, lineNumber));
+				}
+				continue;
+			}
+
+			final char c = buffer[pos];
+
+			if( !quoteMode ) {
+
+				/*
+				 * NORMAL mode (not within quotes).
+				 */
+
+				if( c == delimiterChar ) {
+					/*
+					 * Delimiter. Save the column (trim trailing space if required) then continue to next character.
+					 */
+					if( !surroundingSpacesNeedQuotes ) {
+						appendRange(pos - potentialSpaces, pos);
+					}
+					addColumn(columns, columnViews);
+					potentialSpaces = 0;
+					resetColumn();
+					pos++;
+
+				} else if( c == SPACE && surroundingSpacesNeedQuotes ) {
+					/*
+					 * Space. Remember it, then continue to next character (when surrounding spaces don't need quotes
+					 * a space is just a normal character).
+					 */
+					potentialSpaces++;
+					pos++;
+
+				} else if( c == quoteChar && c != SPACE ) {
+					/*
+					 * A single quote ("). Update to quote mode (but don't save quote), then continue to next character.
+					 * As in the Tokenizer, a space never starts a quoted section.
+					 */
+					quoteMode = true;
+					quoteScopeStartingLine = lineNumber;
+
+					// cater for spaces before a quoted section (be lenient!)
+					if( !surroundingSpacesNeedQuotes || columnLength() > 0 ) {
+						appendRange(pos - potentialSpaces, pos);
+					}
+					potentialSpaces = 0;
+					pos++;
+
+				} else {
+					/*
+					 * Just a normal character. Add any required spaces (but trim any leading spaces if surrounding
+					 * spaces need quotes), then add the character and all normal characters following it.
+					 */
+					if( !surroundingSpacesNeedQuotes || columnLength() > 0 ) {
+						appendRange(pos - potentialSpaces, pos);
+					}
+					potentialSpaces = 0;
+
+					int end = pos + 1;
+					while( end < limit && isNormalChar(buffer[end]) ) {
+						end++;
+					}
+					appendRange(pos, end);
+					pos = end;
+				}
+
+			} else {
+
+				/*
+				 * QUOTE_MODE (within quotes).
+				 */
+
+				if( c == quoteEscapeChar ) {
+					final boolean availableCharacters = pos + 1 < limit || fill();
+					final boolean nextCharIsQuote = availableCharacters && buffer[pos + 1] == quoteChar;
+					final boolean nextCharIsEscapeQuoteChar = availableCharacters
+						&& buffer[pos + 1] == quoteEscapeChar;
+
+					if( nextCharIsQuote ) {
+						/*
+						 * An escaped quote (e.g. "" or \"). Skip over the escape char, and add the following quote char
+						 * as part of the column;
+						 */
+						appendRange(pos + 1, pos + 2);
+						pos += 2;
+					} else if( nextCharIsEscapeQuoteChar ) {
+						/*
+						 * A double escape (normally \\). Save the escape char, then continue to next character.
+						 */
+						appendRange(pos, pos + 1);
+						pos += 2;
+					} else if( quoteEscapeChar == quoteChar ) {
+						/*
+						 * If the escape char is also the quote char and we didn't escape a subsequent character, then
+						 * this is a lone quote and the end of the field.
+						 */
+						quoteMode = false;
+						quoteScopeStartingLine = -1; // reset ready for next multi-line cell
+						pos++;
+					} else {
+						/*
+						 * Escape char wasn't before either another escape char or a quote char, so process it normally.
+						 */
+						appendRange(pos, pos + 1);
+						pos++;
+					}
+				} else if( c == quoteChar ) {
+
+					/*
+					 * A single quote ("). Update to NORMAL (but don't save quote), then continue to next character.
+					 */
+					quoteMode = false;
+					quoteScopeStartingLine = -1; // reset ready for next multi-line cell
+
+					final boolean nextCharIsQuote = (pos + 1 < limit || fill()) && buffer[pos + 1] == quoteChar;
+					if( quoteEscapeChar != quoteChar && nextCharIsQuote ) {
+						final int restOfLine = scanLineLength();
+						rowEnd = pos + restOfLine; // the whole line is part of the untokenized row
+						throw new SuperCsvException("Encountered repeat quote char (" + quoteChar
+							+ ") when quoteEscapeChar was (" + quoteEscapeChar + ")"
+							+ ".  Cannot process data where quotes are escaped both with " + quoteChar + " and with "
+							+ quoteEscapeChar);
+					}
+					pos++;
+				} else {
+					/*
+					 * Just a normal character, delimiter (they don't count in quote mode) or space. Add the character
+					 * and all normal characters following it, then continue to next character.
+					 */
+					int end = pos + 1;
+					while( end < limit && isQuotedChar(buffer[end]) ) {
+						end++;
+					}
+					appendRange(pos, end);
+					pos = end;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the character has no special meaning outside of quotes.
+	 */
+	private boolean isNormalChar(final char c) {
+		return c != delimiterChar && c != quoteChar && c != NEWLINE && c != CARRIAGE_RETURN
+			&& (c != SPACE || !surroundingSpacesNeedQuotes);
+	}
+
+	/**
+	 * Returns true if the character has no special meaning within quotes.
+	 */
+	private boolean isQuotedChar(final char c) {
+		return c != quoteChar && c != quoteEscapeChar && c != NEWLINE && c != CARRIAGE_RETURN;
+	}
+
+	/**
+	 * Adds the current column to the columns list (or the column views list if reading views), managing the case where
+	 * the column is empty (to apply the emptyColumnParsing preference). Columns that aren't selected by the projection
+	 * are added as null.
+	 *
+	 * @param columns
+	 *            the columns, or null if reading views
+	 * @param columnViews
+	 *            the column views, or null if reading Strings
+	 */
+	private void addColumn(final List<String> columns, final List<CharSequence> columnViews) {
+		if( projection != null
+			&& !projection.isSelected((columns != null ? columns.size() : columnViews.size()) + 1) ) {
+			// not selected, so the value isn't created
+			if( columns != null ) {
+				columns.add(null);
+			} else {
+				columnViews.add(null);
+			}
+		} else if( columnLength() > 0 ) {
+			if( columns != null ) {
+				columns.add(columnToString(columns.size() + 1));
+			} else {
+				columnViews.add(columnToView());
+			}
+		} else {
+			final boolean previousCharIsQuote = pos - 1 >= lineStart && buffer[pos - 1] == quoteChar;
+			final String noValue = previousCharIsQuote
+				&& emptyColumnParsing.equals(EmptyColumnParsing.ParseEmptyColumnsAsEmptyString) ? "" : null;
+			if( columns != null ) {
+				columns.add(noValue);
+			} else {
+				columnViews.add(noValue);
+			}
+		}
+	}
+
+	/**
+	 * Returns the length of the column being tokenized.
+	 */
+	private int columnLength() {
+		return currentColumn.length() + runEnd - runStart;
+	}
+
+	/**
+	 * Returns the column being tokenized as a String. Columns consisting of a single run of chars are created directly
+	 * from the window.
+	 */
+	private String columnToString(final int columnNumber) {
+		if( currentColumn.length() == 0 ) {
+			return stringCache == null ? new String(buffer, runStart, runEnd - runStart) : stringCache.get(
+				columnNumber, buffer, runStart, runEnd);
+		}
+		currentColumn.append(buffer, runStart, runEnd - runStart);
+		runStart = runEnd;
+		return stringCache == null ? currentColumn.toString() : stringCache.get(columnNumber, currentColumn, 0,
+			currentColumn.length());
+	}
+
+	/**
+	 * Returns the column being tokenized as a view. Columns consisting of a single run of chars are viewed in the
+	 * window (relative to the start of the row, as the window may still move), all others are copied to the scratch
+	 * buffer first. The views are pointed at their chars once the whole row has been read.
+	 */
+	private ColumnView columnToView() {
+		final ColumnView view;
+		if( viewCount < views.size() ) {
+			view = views.get(viewCount);
+		} else {
+			view = new ColumnView();
+			views.add(view);
+		}
+		viewCount++;
+
+		if( currentColumn.length() == 0 ) {
+			view.set(null, runStart - rowStart, runEnd - runStart);
+		} else {
+			final int length = columnLength();
+			if( scratchLength + length > scratch.length ) {
+				final char[] grown = new char[Math.max(scratch.length * 2, scratchLength + length)];
+				System.arraycopy(scratch, 0, grown, 0, scratchLength);
+				scratch = grown;
+			}
+			final int builderLength = currentColumn.length();
+			currentColumn.getChars(0, builderLength, scratch, scratchLength);
+			System.arraycopy(buffer, runStart, scratch, scratchLength + builderLength, runEnd - runStart);
+			view.set(scratch, scratchLength, length);
+			scratchLength += length;
+		}
+		return view;
+	}
+
+	/**
+	 * Clears the column being tokenized.
+	 */
+	private void resetColumn() {
+		currentColumn.setLength(0);
+		runStart = 0;
+		runEnd = 0;
+	}
+
+	/**
+	 * Appends the chars buffer[start, end) to the column being tokenized. Nothing is copied if they directly follow the
+	 * chars appended so far.
+	 */
+	private void appendRange(final int start, final int end) {
+		if( start == end ) {
+			return;
+		}
+		if( runStart != runEnd && runEnd != start ) {
+			currentColumn.append(buffer, runStart, runEnd - runStart);
+			runStart = start;
+		} else if( runStart == runEnd ) {
+			runStart = start;
+		}
+		runEnd = end;
+	}
+
+	/**
+	 * Appends a char that isn't in the window (or not at the expected position) to the column being tokenized.
+	 */
+	private void appendChar(final char c) {
+		currentColumn.append(buffer, runStart, runEnd - runStart);
+		runStart = runEnd;
+		currentColumn.append(c);
+	}
+
+	/**
+	 * Starts tokenizing the next line, incrementing the line number.
+	 *
+	 * @return true if there was a line to start, or false if EOF
+	 */
+	private boolean startLine() throws IOException {
+		if( pos == limit && !fill() && !bomLine ) {
+			return false;
+		}
+		bomLine = false;
+		lineNumber++;
+		lineStart = pos;
+		return true;
+	}
+
+	/**
+	 * Returns true if the next char is a line terminator, or if the end of the input has been reached.
+	 */
+	private boolean atLineTerminator() throws IOException {
+		if( pos == limit && !fill() ) {
+			return true;
+		}
+		final char c = buffer[pos];
+		return c == NEWLINE || c == CARRIAGE_RETURN;
+	}
+
+	/**
+	 * Skips over the line terminator at the current position (if any).
+	 */
+	private void consumeLineTerminator() throws IOException {
+		if( pos == limit && !fill() ) {
+			return;
+		}
+		if( buffer[pos] == CARRIAGE_RETURN ) {
+			pos++;
+			if( (pos < limit || fill()) && buffer[pos] == NEWLINE ) {
+				pos++;
+			}
+		} else if( buffer[pos] == NEWLINE ) {
+			pos++;
+		}
+	}
+
+	/**
+	 * Returns the number of chars from the current position to the end of the line (the chars are then in the window).
+	 */
+	private int scanLineLength() throws IOException {
+		int length = 0;
+		while( pos + length < limit || fill() ) {
+			final char c = buffer[pos + length];
+			if( c == NEWLINE || c == CARRIAGE_RETURN ) {
+				break;
+			}
+			length++;
+		}
+		return length;
+	}
+
+	/**
+	 * Returns true if buffer[start, end) ends with a line terminator.
+	 */
+	private boolean endsWithLineTerminator(final int start, final int end) {
+		return end > start && (buffer[end - 1] == NEWLINE || buffer[end - 1] == CARRIAGE_RETURN);
+	}
+
+	/**
+	 * Reads more chars into the window, discarding the chars before the current row (or growing the window if the row
+	 * already fills it).
+	 *
+	 * @return true if more chars were read, or false if EOF
+	 */
+	private boolean fill() throws IOException {
+		if( endOfInput ) {
+			return false;
+		}
+
+		final int discard = rowStart;
+		if( discard > 0 ) {
+			System.arraycopy(buffer, discard, buffer, 0, limit - discard);
+			pos -= discard;
+			limit -= discard;
+			lineStart -= discard;
+			rowStart -= discard;
+			rowEnd -= discard;
+			if( runStart == runEnd ) {
+				// an empty run may start before the discarded chars, so it restarts at the current position
+				runStart = pos;
+				runEnd = pos;
+			} else {
+				runStart -= discard;
+				runEnd -= discard;
+			}
+		} else if( limit == buffer.length ) {
+			final char[] grown = new char[buffer.length * 2];
+			System.arraycopy(buffer, 0, grown, 0, limit);
+			buffer = grown;
+		}
+
+		int read;
+		do {
+			read = reader.read(buffer, limit, buffer.length - limit);
+		}
+		while( read == 0 );
+
+		if( read < 0 ) {
+			endOfInput = true;
+			return false;
+		}
+		limit += read;
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public String getUntokenizedRow() {
+		if( untokenizedRow == null ) {
+			// each line terminator is replaced by \n (as the Tokenizer does)
+			final StringBuilder row = new StringBuilder(rowEnd - rowStart + 1);
+			for( int i = rowStart; i < rowEnd; i++ ) {
+				final char c = buffer[i];
+				if( c == CARRIAGE_RETURN ) {
+					row.append(NEWLINE);
+					if( i + 1 < rowEnd && buffer[i + 1] == NEWLINE ) {
+						i++;
+					}
+				} else {
+					row.append(c);
+				}
+			}
+			if( rowEndsWithNewline ) {
+				row.append(NEWLINE);
+			}
+			untokenizedRow = row.toString();
+		}
+		return untokenizedRow;
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.util.Arrays;
+
+/**
+ * The set of columns to read from each row of a CSV file (see {@link ICsvReader#setColumnProjection(ColumnProjection)}
+ * ). The columns that aren't selected are still scanned for delimiters and quotes, but their values are never created:
+ * they're read as <tt>null</tt>. Rows keep all of their columns, so column numbers (e.g. those reported in the
+ * <tt>CsvContext</tt> of an exception) are the same as in the file.
+ * 
+ * @since 2.5.0
+ */
+public final class ColumnProjection {
+	
+	/* selected[i] is true if column i + 1 is selected */
+	private final boolean[] selected;
+	
+	/**
+	 * Constructs a new <tt>ColumnProjection</tt> selecting the columns with the supplied numbers (the first column is
+	 * column 1).
+	 * 
+	 * @param columnNumbers
+	 *            the numbers of the columns to select
+	 * @throws IllegalArgumentException
+	 *             if a column number is less than 1
+	 * @throws NullPointerException
+	 *             if columnNumbers is null
+	 */
+	public ColumnProjection(final int... columnNumbers) {
+		if( columnNumbers == null ) {
+			throw new NullPointerException("columnNumbers should not be null");
+		}
+		int columns = 0;
+		for( final int columnNumber : columnNumbers ) {
+			if( columnNumber < 1 ) {
+				throw new IllegalArgumentException(String.format("column numbers should be at least 1 but was %d",
+					columnNumber));
+			}
+			columns = Math.max(columns, columnNumber);
+		}
+		this.selected = new boolean[columns];
+		for( final int columnNumber : columnNumbers ) {
+			selected[columnNumber - 1] = true;
+		}
+	}
+	
+	/**
+	 * Constructs a new <tt>ColumnProjection</tt> selecting the columns with the supplied names.
+	 * 
+	 * @param header
+	 *            the header of the CSV file (e.g. from {@link ICsvReader#getHeader(boolean)})
+	 * @param columnNames
+	 *            the names of the columns to select
+	 * @throws IllegalArgumentException
+	 *             if a column name isn't in the header
+	 * @throws NullPointerException
+	 *             if header or columnNames are null
+	 */
+	public ColumnProjection(final String[] header, final String... columnNames) {
+		if( header == null ) {
+			throw new NullPointerException("header should not be null");
+		} else if( columnNames == null ) {
+			throw new NullPointerException("columnNames should not be null");
+		}
+		this.selected = new boolean[header.length];
+		for( final String columnName : columnNames ) {
+			final int index = Arrays.asList(header).indexOf(columnName);
+			if( index < 0 ) {
+				throw new IllegalArgumentException(String.format("the column '%s' isn't in the header %s",
+					columnName, Arrays.toString(header)));
+			}
+			selected[index] = true;
+		}
+	}
+	
+	/**
+	 * Constructs a new <tt>ColumnProjection</tt> from a selection array.
+	 * 
+	 * @param selected
+	 *            the selection (not copied)
+	 */
+	private ColumnProjection(final boolean[] selected) {
+		this.selected = selected;
+	}
+	
+	/**
+	 * Returns a projection that selects the columns that are mapped (i.e. not <tt>null</tt>) in the supplied name
+	 * mapping, so that a reader doesn't create the values that {@link ICsvBeanReader} or {@link ICsvMapReader} would
+	 * discard.
+	 * 
+	 * @param nameMapping
+	 *            the name mapping (as passed to the read methods of those readers)
+	 * @return the projection
+	 * @throws NullPointerException
+	 *             if nameMapping is null
+	 */
+	public static ColumnProjection forNameMapping(final String[] nameMapping) {
+		if( nameMapping == null ) {
+			throw new NullPointerException("nameMapping should not be null");
+		}
+		final boolean[] selected = new boolean[nameMapping.length];
+		for( int i = 0; i < nameMapping.length; i++ ) {
+			selected[i] = nameMapping[i] != null;
+		}
+		return new ColumnProjection(selected);
+	}
+	
+	/**
+	 * Returns true if the column with the supplied number is selected (the first column is column 1).
+	 * 
+	 * @param columnNumber
+	 *            the column number
+	 * @return true if the column is selected
+	 */
+	public boolean isSelected(final int columnNumber) {
+		return columnNumber >= 1 && columnNumber <= selected.length && selected[columnNumber - 1];
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder("ColumnProjection[");
+		String separator = "";
+		for( int i = 0; i < selected.length; i++ ) {
+			if( selected[i] ) {
+				builder.append(separator).append(i + 1);
+				separator = ", ";
+			}
+		}
+		return builder.append(']').toString();
+	}
+}
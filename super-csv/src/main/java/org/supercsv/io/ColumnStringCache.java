@@ -0,0 +1,366 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+/**
+ * A bounded cache of the values of each column, used by a tokenizer (see {@link Tokenizer#setStringCache}) to return
+ * the same String instance every time a value is repeated in a column. The chars of a value are looked up before its
+ * String is created, so a repeated value costs no allocation at all, and rows kept in memory share a single copy of
+ * each value of a low-cardinality column (such as a country, status or currency code).
+ * <p>
+ * Each column has its own table of at most <tt>maxEntriesPerColumn</tt> values: once a table is full, new values are
+ * still looked up but aren't added. The hit rate of each column is checked after every <tt>sampleSize</tt> lookups,
+ * and if fewer than <tt>minHitRate</tt> of them were hits the column's table is discarded, and its values are created
+ * as usual from then on - so a high-cardinality column (such as an id) costs no more than a few thousand lookups.
+ * </p>
+ * <p>
+ * A cache should only be used by one tokenizer (it isn't thread-safe), but can be reused for several files with the
+ * same columns.
+ * </p>
+ * 
+ * @since 2.5.0
+ */
+public final class ColumnStringCache {
+	
+	/** the default maximum number of values cached for each column */
+	public static final int DEFAULT_MAX_ENTRIES_PER_COLUMN = 1024;
+	
+	/** the default number of lookups after which the hit rate of a column is checked */
+	public static final int DEFAULT_SAMPLE_SIZE = 1000;
+	
+	/** the default minimum hit rate of a column for its values to stay cached */
+	public static final double DEFAULT_MIN_HIT_RATE = 0.5;
+	
+	/* values longer than this are never cached (they're unlikely to repeat, and expensive to compare) */
+	private static final int MAX_VALUE_LENGTH = 64;
+	
+	private final int maxEntriesPerColumn;
+	
+	private final int sampleSize;
+	
+	private final double minHitRate;
+	
+	/* columns[i] is the table of column i + 1 (created when the column is first looked up) */
+	private Column[] columns = new Column[0];
+	
+	/**
+	 * The values (and statistics) of a single column.
+	 */
+	private static final class Column {
+		
+		/* an open addressing table, with room for twice the maximum number of values (or null once disabled) */
+		String[] values;
+		
+		int[] hashes;
+		
+		int size;
+		
+		long lookups;
+		
+		long hits;
+		
+		/* the number of hits since the hit rate was last checked */
+		int sampleHits;
+		
+		int sampleLookups;
+		
+		Column(final int maxEntries) {
+			int tableSize = 1;
+			while( tableSize < maxEntries * 2 ) {
+				tableSize <<= 1;
+			}
+			values = new String[tableSize];
+			hashes = new int[tableSize];
+		}
+	}
+	
+	/**
+	 * Constructs a new <tt>ColumnStringCache</tt> with the default limits.
+	 */
+	public ColumnStringCache() {
+		this(DEFAULT_MAX_ENTRIES_PER_COLUMN, DEFAULT_SAMPLE_SIZE, DEFAULT_MIN_HIT_RATE);
+	}
+	
+	/**
+	 * Constructs a new <tt>ColumnStringCache</tt>.
+	 * 
+	 * @param maxEntriesPerColumn
+	 *            the maximum number of values cached for each column
+	 * @param sampleSize
+	 *            the number of lookups after which the hit rate of a column is checked
+	 * @param minHitRate
+	 *            the minimum hit rate (between 0 and 1) of a column for its values to stay cached. Use 0 to never
+	 *            disable a column.
+	 * @throws IllegalArgumentException
+	 *             if maxEntriesPerColumn or sampleSize is less than 1, or minHitRate is not between 0 and 1
+	 */
+	public ColumnStringCache(final int maxEntriesPerColumn, final int sampleSize, final double minHitRate) {
+		if( maxEntriesPerColumn < 1 ) {
+			throw new IllegalArgumentException(String.format("maxEntriesPerColumn should be at least 1 but was %d",
+				maxEntriesPerColumn));
+		} else if( sampleSize < 1 ) {
+			throw new IllegalArgumentException(String.format("sampleSize should be at least 1 but was %d", sampleSize));
+		} else if( !(minHitRate >= 0.0 && minHitRate <= 1.0) ) {
+			throw new IllegalArgumentException(String.format("minHitRate should be between 0 and 1 but was %s",
+				minHitRate));
+		}
+		this.maxEntriesPerColumn = maxEntriesPerColumn;
+		this.sampleSize = sampleSize;
+		this.minHitRate = minHitRate;
+	}
+	
+	/**
+	 * Returns the String with the chars of a region of a CharSequence, which is the cached instance if the value has
+	 * been seen before in the column.
+	 * 
+	 * @param columnNumber
+	 *            the number of the column (the first column is column 1)
+	 * @param chars
+	 *            the chars (e.g. a StringBuilder, or the line being split)
+	 * @param start
+	 *            the index of the first char of the value
+	 * @param end
+	 *            the index after the last char of the value
+	 * @return the value
+	 */
+	public String get(final int columnNumber, final CharSequence chars, final int start, final int end) {
+		final Column column = column(columnNumber);
+		if( column == null || end - start > MAX_VALUE_LENGTH ) {
+			return chars.subSequence(start, end).toString();
+		}
+		
+		int hash = 0;
+		for( int i = start; i < end; i++ ) {
+			hash = 31 * hash + chars.charAt(i);
+		}
+		final String[] values = column.values;
+		final int mask = values.length - 1;
+		int slot = mix(hash) & mask;
+		String value;
+		while( (value = values[slot]) != null ) {
+			if( column.hashes[slot] == hash && matches(value, chars, start, end) ) {
+				recordLookup(column, true);
+				return value;
+			}
+			slot = (slot + 1) & mask;
+		}
+		
+		value = chars.subSequence(start, end).toString();
+		if( column.size < maxEntriesPerColumn ) {
+			values[slot] = value;
+			column.hashes[slot] = hash;
+			column.size++;
+		}
+		recordLookup(column, false);
+		return value;
+	}
+	
+	/**
+	 * Returns the String with the chars of a region of a char array, which is the cached instance if the value has been
+	 * seen before in the column.
+	 * 
+	 * @param columnNumber
+	 *            the number of the column (the first column is column 1)
+	 * @param chars
+	 *            the chars
+	 * @param start
+	 *            the index of the first char of the value
+	 * @param end
+	 *            the index after the last char of the value
+	 * @return the value
+	 */
+	public String get(final int columnNumber, final char[] chars, final int start, final int end) {
+		final Column column = column(columnNumber);
+		if( column == null || end - start > MAX_VALUE_LENGTH ) {
+			return new String(chars, start, end - start);
+		}
+		
+		int hash = 0;
+		for( int i = start; i < end; i++ ) {
+			hash = 31 * hash + chars[i];
+		}
+		final String[] values = column.values;
+		final int mask = values.length - 1;
+		int slot = mix(hash) & mask;
+		String value;
+		while( (value = values[slot]) != null ) {
+			if( column.hashes[slot] == hash && matches(value, chars, start, end) ) {
+				recordLookup(column, true);
+				return value;
+			}
+			slot = (slot + 1) & mask;
+		}
+		
+		value = new String(chars, start, end - start);
+		if( column.size < maxEntriesPerColumn ) {
+			values[slot] = value;
+			column.hashes[slot] = hash;
+			column.size++;
+		}
+		recordLookup(column, false);
+		return value;
+	}
+	
+	/**
+	 * Returns the number of lookups of a column's values (values looked up after the column was disabled, or that are
+	 * too long to cache, aren't counted).
+	 * 
+	 * @param columnNumber
+	 *            the number of the column (the first column is column 1)
+	 * @return the number of lookups
+	 */
+	public long getLookups(final int columnNumber) {
+		final Column column = existingColumn(columnNumber);
+		return column == null ? 0L : column.lookups;
+	}
+	
+	/**
+	 * Returns the number of lookups of a column's values that returned a cached instance.
+	 * 
+	 * @param columnNumber
+	 *            the number of the column (the first column is column 1)
+	 * @return the number of hits
+	 */
+	public long getHits(final int columnNumber) {
+		final Column column = existingColumn(columnNumber);
+		return column == null ? 0L : column.hits;
+	}
+	
+	/**
+	 * Returns the proportion of the lookups of a column's values that returned a cached instance.
+	 * 
+	 * @param columnNumber
+	 *            the number of the column (the first column is column 1)
+	 * @return the hit rate (between 0 and 1), or 0 if there haven't been any lookups
+	 */
+	public double getHitRate(final int columnNumber) {
+		final Column column = existingColumn(columnNumber);
+		return column == null || column.lookups == 0L ? 0.0 : (double) column.hits / column.lookups;
+	}
+	
+	/**
+	 * Returns the number of values cached for a column.
+	 * 
+	 * @param columnNumber
+	 *            the number of the column (the first column is column 1)
+	 * @return the number of values (0 if the column is disabled)
+	 */
+	public int getSize(final int columnNumber) {
+		final Column column = existingColumn(columnNumber);
+		return column == null || column.values == null ? 0 : column.size;
+	}
+	
+	/**
+	 * Returns true if a column's values are cached, i.e. it hasn't been disabled because of its low hit rate.
+	 * 
+	 * @param columnNumber
+	 *            the number of the column (the first column is column 1)
+	 * @return true if the column is enabled
+	 */
+	public boolean isEnabled(final int columnNumber) {
+		final Column column = existingColumn(columnNumber);
+		return column == null || column.values != null;
+	}
+	
+	/**
+	 * Discards all of the cached values and statistics, and enables every column again.
+	 */
+	public void clear() {
+		columns = new Column[0];
+	}
+	
+	/**
+	 * Returns the table of a column (creating it if necessary), or null if the column is disabled.
+	 */
+	private Column column(final int columnNumber) {
+		if( columnNumber > columns.length ) {
+			final Column[] grown = new Column[Math.max(columnNumber, columns.length * 2)];
+			System.arraycopy(columns, 0, grown, 0, columns.length);
+			columns = grown;
+		}
+		Column column = columns[columnNumber - 1];
+		if( column == null ) {
+			column = new Column(maxEntriesPerColumn);
+			columns[columnNumber - 1] = column;
+		}
+		return column.values == null ? null : column;
+	}
+	
+	/**
+	 * Returns the table of a column, or null if it hasn't been looked up.
+	 */
+	private Column existingColumn(final int columnNumber) {
+		return columnNumber >= 1 && columnNumber <= columns.length ? columns[columnNumber - 1] : null;
+	}
+	
+	/**
+	 * Updates the statistics of a column, disabling it if its hit rate over the last sample is too low.
+	 */
+	private void recordLookup(final Column column, final boolean hit) {
+		column.lookups++;
+		column.sampleLookups++;
+		if( hit ) {
+			column.hits++;
+			column.sampleHits++;
+		}
+		if( column.sampleLookups == sampleSize ) {
+			if( column.sampleHits < minHitRate * sampleSize ) {
+				column.values = null;
+				column.hashes = null;
+			}
+			column.sampleLookups = 0;
+			column.sampleHits = 0;
+		}
+	}
+	
+	/**
+	 * Spreads the bits of a hash code, so that similar values don't cluster in the table.
+	 */
+	private static int mix(final int hash) {
+		final int h = hash * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+	
+	/**
+	 * Returns true if a String has the same chars as a region of a CharSequence.
+	 */
+	private static boolean matches(final String value, final CharSequence chars, final int start, final int end) {
+		if( value.length() != end - start ) {
+			return false;
+		}
+		for( int i = start; i < end; i++ ) {
+			if( value.charAt(i - start) != chars.charAt(i) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns true if a String has the same chars as a region of a char array.
+	 */
+	private static boolean matches(final String value, final char[] chars, final int start, final int end) {
+		if( value.length() != end - start ) {
+			return false;
+		}
+		for( int i = start; i < end; i++ ) {
+			if( value.charAt(i - start) != chars[i] ) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
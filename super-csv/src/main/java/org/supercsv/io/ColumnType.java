@@ -0,0 +1,424 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+
+import org.supercsv.cellprocessor.ParseBool;
+import org.supercsv.cellprocessor.ParseDate;
+import org.supercsv.cellprocessor.ParseDouble;
+import org.supercsv.cellprocessor.ParseInt;
+import org.supercsv.cellprocessor.ParseLong;
+import org.supercsv.cellprocessor.ift.CellProcessor;
+import org.supercsv.exception.SuperCsvCellProcessorException;
+import org.supercsv.util.CsvContext;
+
+/**
+ * The type of a column read by a {@link ICsvColumnarReader}, which determines the primitive array its values are
+ * stored in (see {@link CsvColumnarBatch}). Each type parses its values exactly as the corresponding cell processor
+ * would (e.g. {@link #INT} as {@link ParseInt}), and reports values that can't be parsed with the same
+ * <tt>SuperCsvCellProcessorException</tt> - but without ever boxing the values. Empty columns aren't parsed: they're
+ * recorded as nulls instead (as with {@link org.supercsv.cellprocessor.Optional}).
+ * 
+ * @since 2.5.0
+ */
+public abstract class ColumnType {
+	
+	/** an <tt>int</tt> column, parsed as by {@link ParseInt} */
+	public static final ColumnType INT = new IntType();
+	
+	/** a <tt>long</tt> column, parsed as by {@link ParseLong} */
+	public static final ColumnType LONG = new LongType();
+	
+	/** a <tt>double</tt> column, parsed as by {@link ParseDouble} */
+	public static final ColumnType DOUBLE = new DoubleType();
+	
+	/** a <tt>boolean</tt> column, parsed as by {@link ParseBool#ParseBool()} */
+	public static final ColumnType BOOLEAN = new BoolType(new ParseBool());
+	
+	/** a <tt>String</tt> column, whose values are stored as they're read */
+	public static final ColumnType STRING = new StringType();
+	
+	private final String name;
+	
+	/**
+	 * Constructs a new <tt>ColumnType</tt> (the types can only be obtained from the constants and factory methods of
+	 * this class).
+	 * 
+	 * @param name
+	 *            the name of the type
+	 */
+	ColumnType(final String name) {
+		this.name = name;
+	}
+	
+	/**
+	 * Returns a <tt>boolean</tt> column type, parsed as by {@link ParseBool#ParseBool(boolean)}.
+	 * 
+	 * @param ignoreCase
+	 *            whether to ignore the case when comparing with the true/false values
+	 * @return the column type
+	 */
+	public static ColumnType bool(final boolean ignoreCase) {
+		return new BoolType(new ParseBool(ignoreCase));
+	}
+	
+	/**
+	 * Returns a <tt>boolean</tt> column type, parsed as by {@link ParseBool#ParseBool(String[], String[], boolean)}.
+	 * 
+	 * @param trueValues
+	 *            the array of Strings which represent true
+	 * @param falseValues
+	 *            the array of Strings which represent false
+	 * @param ignoreCase
+	 *            whether to ignore the case when comparing with the true/false values
+	 * @return the column type
+	 * @throws IllegalArgumentException
+	 *             if trueValues or falseValues is empty
+	 * @throws NullPointerException
+	 *             if trueValues or falseValues is null
+	 */
+	public static ColumnType bool(final String[] trueValues, final String[] falseValues, final boolean ignoreCase) {
+		return new BoolType(new ParseBool(trueValues, falseValues, ignoreCase));
+	}
+	
+	/**
+	 * Returns a date column type, parsed as by {@link ParseDate#ParseDate(String)}. The dates are stored as their
+	 * number of milliseconds since the epoch (as returned by <tt>Date.getTime()</tt>).
+	 * 
+	 * @param dateFormat
+	 *            the date format to use
+	 * @return the column type
+	 * @throws NullPointerException
+	 *             if dateFormat is null
+	 */
+	public static ColumnType date(final String dateFormat) {
+		return date(dateFormat, false);
+	}
+	
+	/**
+	 * Returns a date column type, parsed as by {@link ParseDate#ParseDate(String, boolean)}. The dates are stored as
+	 * their number of milliseconds since the epoch (as returned by <tt>Date.getTime()</tt>).
+	 * 
+	 * @param dateFormat
+	 *            the date format to use
+	 * @param lenient
+	 *            whether date interpretation is lenient
+	 * @return the column type
+	 * @throws NullPointerException
+	 *             if dateFormat is null
+	 */
+	public static ColumnType date(final String dateFormat, final boolean lenient) {
+		return new DateType(new ParseDate(dateFormat, lenient), dateFormat, lenient, null);
+	}
+	
+	/**
+	 * Returns a date column type, parsed as by {@link ParseDate#ParseDate(String, boolean, Locale)}. The dates are
+	 * stored as their number of milliseconds since the epoch (as returned by <tt>Date.getTime()</tt>).
+	 * 
+	 * @param dateFormat
+	 *            the date format to use
+	 * @param lenient
+	 *            whether date interpretation is lenient
+	 * @param locale
+	 *            the Locale used to parse the date
+	 * @return the column type
+	 * @throws NullPointerException
+	 *             if dateFormat or locale is null
+	 */
+	public static ColumnType date(final String dateFormat, final boolean lenient, final Locale locale) {
+		return new DateType(new ParseDate(dateFormat, lenient, locale), dateFormat, lenient, locale);
+	}
+	
+	/**
+	 * Creates a new vector to store the values of a column of this type.
+	 * 
+	 * @param capacity
+	 *            the number of values to store
+	 * @return the vector
+	 */
+	abstract Vector newVector(int capacity);
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+	
+	/**
+	 * The storage of the values of a single column of a batch. Vectors aren't thread-safe, and may keep parsing state
+	 * (e.g. a date format).
+	 */
+	abstract static class Vector {
+		
+		/**
+		 * Returns the array of values.
+		 */
+		abstract Object values();
+		
+		/**
+		 * Parses a (non-null) value and stores it in a row.
+		 * 
+		 * @param row
+		 *            the index of the row
+		 * @param value
+		 *            the value to parse
+		 * @param context
+		 *            the context (whose line, row and column number are already up to date)
+		 * @throws SuperCsvCellProcessorException
+		 *             if the value can't be parsed
+		 */
+		abstract void set(int row, String value, CsvContext context);
+		
+		/**
+		 * Stores the default value (0, false or null) in a row whose value is null.
+		 * 
+		 * @param row
+		 *            the index of the row
+		 */
+		abstract void setNull(int row);
+	}
+	
+	private static final class IntType extends ColumnType {
+		
+		private final CellProcessor processor = new ParseInt();
+		
+		IntType() {
+			super("INT");
+		}
+		
+		@Override
+		Vector newVector(final int capacity) {
+			final int[] values = new int[capacity];
+			return new Vector() {
+				
+				@Override
+				Object values() {
+					return values;
+				}
+				
+				@Override
+				void set(final int row, final String value, final CsvContext context) {
+					try {
+						values[row] = Integer.parseInt(value);
+					}
+					catch(final NumberFormatException e) {
+						throw new SuperCsvCellProcessorException(String.format("'%s' could not be parsed as an Integer",
+							value), context, processor, e);
+					}
+				}
+				
+				@Override
+				void setNull(final int row) {
+					values[row] = 0;
+				}
+			};
+		}
+	}
+	
+	private static final class LongType extends ColumnType {
+		
+		private final CellProcessor processor = new ParseLong();
+		
+		LongType() {
+			super("LONG");
+		}
+		
+		@Override
+		Vector newVector(final int capacity) {
+			final long[] values = new long[capacity];
+			return new Vector() {
+				
+				@Override
+				Object values() {
+					return values;
+				}
+				
+				@Override
+				void set(final int row, final String value, final CsvContext context) {
+					try {
+						values[row] = Long.parseLong(value);
+					}
+					catch(final NumberFormatException e) {
+						throw new SuperCsvCellProcessorException(String.format("'%s' could not be parsed as an Long",
+							value), context, processor, e);
+					}
+				}
+				
+				@Override
+				void setNull(final int row) {
+					values[row] = 0L;
+				}
+			};
+		}
+	}
+	
+	private static final class DoubleType extends ColumnType {
+		
+		private final CellProcessor processor = new ParseDouble();
+		
+		DoubleType() {
+			super("DOUBLE");
+		}
+		
+		@Override
+		Vector newVector(final int capacity) {
+			final double[] values = new double[capacity];
+			return new Vector() {
+				
+				@Override
+				Object values() {
+					return values;
+				}
+				
+				@Override
+				void set(final int row, final String value, final CsvContext context) {
+					try {
+						values[row] = Double.parseDouble(value);
+					}
+					catch(final NumberFormatException e) {
+						throw new SuperCsvCellProcessorException(String.format("'%s' could not be parsed as a Double",
+							value), context, processor, e);
+					}
+				}
+				
+				@Override
+				void setNull(final int row) {
+					values[row] = 0.0;
+				}
+			};
+		}
+	}
+	
+	private static final class BoolType extends ColumnType {
+		
+		private final CellProcessor processor;
+		
+		BoolType(final ParseBool processor) {
+			super("BOOLEAN");
+			this.processor = processor;
+		}
+		
+		@Override
+		Vector newVector(final int capacity) {
+			final boolean[] values = new boolean[capacity];
+			return new Vector() {
+				
+				@Override
+				Object values() {
+					return values;
+				}
+				
+				@Override
+				void set(final int row, final String value, final CsvContext context) {
+					// ParseBool returns the Boolean constants, so there's nothing to unbox
+					values[row] = processor.execute(value, context) == Boolean.TRUE;
+				}
+				
+				@Override
+				void setNull(final int row) {
+					values[row] = false;
+				}
+			};
+		}
+	}
+	
+	private static final class DateType extends ColumnType {
+		
+		private final CellProcessor processor;
+		
+		private final String dateFormat;
+		
+		private final boolean lenient;
+		
+		private final Locale locale;
+		
+		DateType(final ParseDate processor, final String dateFormat, final boolean lenient, final Locale locale) {
+			super("DATE");
+			this.processor = processor;
+			this.dateFormat = dateFormat;
+			this.lenient = lenient;
+			this.locale = locale;
+		}
+		
+		@Override
+		Vector newVector(final int capacity) {
+			final long[] values = new long[capacity];
+			
+			// ParseDate creates a format for every value, but a vector is only used by one thread at a time
+			final SimpleDateFormat formatter = locale == null ? new SimpleDateFormat(dateFormat)
+				: new SimpleDateFormat(dateFormat, locale);
+			formatter.setLenient(lenient);
+			
+			return new Vector() {
+				
+				@Override
+				Object values() {
+					return values;
+				}
+				
+				@Override
+				void set(final int row, final String value, final CsvContext context) {
+					try {
+						values[row] = formatter.parse(value).getTime();
+					}
+					catch(final ParseException e) {
+						throw new SuperCsvCellProcessorException(String.format("'%s' could not be parsed as a Date",
+							value), context, processor, e);
+					}
+				}
+				
+				@Override
+				void setNull(final int row) {
+					values[row] = 0L;
+				}
+			};
+		}
+	}
+	
+	private static final class StringType extends ColumnType {
+		
+		StringType() {
+			super("STRING");
+		}
+		
+		@Override
+		Vector newVector(final int capacity) {
+			final String[] values = new String[capacity];
+			return new Vector() {
+				
+				@Override
+				Object values() {
+					return values;
+				}
+				
+				@Override
+				void set(final int row, final String value, final CsvContext context) {
+					values[row] = value;
+				}
+				
+				@Override
+				void setNull(final int row) {
+					values[row] = null;
+				}
+			};
+		}
+	}
+}
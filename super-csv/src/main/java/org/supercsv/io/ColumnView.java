@@ -0,0 +1,104 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+/**
+ * A reusable <tt>CharSequence</tt> view of a range of a tokenizer's char buffer, used to read columns without creating
+ * a String for each of them. A String is only created if {@link #toString()} is called.
+ * 
+ * @since 2.5.0
+ */
+final class ColumnView implements CharSequence {
+	
+	private char[] chars;
+	
+	private int offset;
+	
+	private int length;
+	
+	/**
+	 * Points the view at a range of chars.
+	 * 
+	 * @param chars
+	 *            the chars
+	 * @param offset
+	 *            the index of the first char in the view
+	 * @param length
+	 *            the number of chars in the view
+	 */
+	void set(final char[] chars, final int offset, final int length) {
+		this.chars = chars;
+		this.offset = offset;
+		this.length = length;
+	}
+	
+	/**
+	 * Gets the chars the view is pointed at.
+	 * 
+	 * @return the chars
+	 */
+	char[] getChars() {
+		return chars;
+	}
+	
+	/**
+	 * Gets the index of the first char in the view.
+	 * 
+	 * @return the offset
+	 */
+	int getOffset() {
+		return offset;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public int length() {
+		return length;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public char charAt(final int index) {
+		if( index < 0 || index >= length ) {
+			throw new IndexOutOfBoundsException(String.format("index %d is out of bounds for length %d", index,
+				length));
+		}
+		return chars[offset + index];
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public CharSequence subSequence(final int start, final int end) {
+		if( start < 0 || end > length || start > end ) {
+			throw new IndexOutOfBoundsException(String.format("range [%d, %d) is out of bounds for length %d",
+				start, end, length));
+		}
+		return new String(chars, offset + start, end - start);
+	}
+	
+	/**
+	 * Returns the viewed chars as a new String.
+	 * 
+	 * @return the viewed chars
+	 */
+	@Override
+	public String toString() {
+		return new String(chars, offset, length);
+	}
+}
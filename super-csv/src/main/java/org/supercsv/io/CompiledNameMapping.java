@@ -0,0 +1,258 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.supercsv.exception.SuperCsvException;
+
+/**
+ * A name mapping (as used by {@link ICsvMapReader}) that has been checked and indexed once, so that every row read
+ * with it (see {@link ICsvMapReader#read(CompiledNameMapping)}) can be returned as a lightweight Map backed by a single
+ * array of values: the keys, and the table that finds the index of a key, are shared by all of the rows. The rows are
+ * immutable, but are otherwise ordinary Maps (they're equal to a <tt>HashMap</tt> with the same entries, and iterate
+ * over their entries in column order).
+ * 
+ * <pre>
+ * CompiledNameMapping mapping = new CompiledNameMapping(mapReader.getHeader(true));
+ * Map&lt;String, String&gt; row;
+ * while( (row = mapReader.read(mapping)) != null ) {
+ * 	...
+ * }
+ * </pre>
+ * 
+ * @since 2.5.0
+ */
+public final class CompiledNameMapping {
+	
+	private final String[] nameMapping;
+	
+	/* the mapped (non-null) names in column order, and the index of each one's column */
+	private final String[] keys;
+	
+	private final int[] columnIndexes;
+	
+	/* the index in keys of each name */
+	private final Map<String, Integer> keyIndexes;
+	
+	/**
+	 * Constructs a new <tt>CompiledNameMapping</tt>.
+	 * 
+	 * @param nameMapping
+	 *            an array of Strings linking the CSV columns to their corresponding entry in the Map (the array length
+	 *            should match the number of columns). A <tt>null</tt> entry in the array indicates that the column
+	 *            should be ignored (e.g. not added to the Map).
+	 * @throws NullPointerException
+	 *             if nameMapping is null
+	 * @throws SuperCsvException
+	 *             if nameMapping contains a duplicate name
+	 */
+	public CompiledNameMapping(final String... nameMapping) {
+		if( nameMapping == null ) {
+			throw new NullPointerException("nameMapping should not be null");
+		}
+		this.nameMapping = nameMapping.clone();
+		
+		int mapped = 0;
+		for( final String name : nameMapping ) {
+			if( name != null ) {
+				mapped++;
+			}
+		}
+		this.keys = new String[mapped];
+		this.columnIndexes = new int[mapped];
+		this.keyIndexes = new HashMap<String, Integer>(mapped * 2);
+		int key = 0;
+		for( int i = 0; i < nameMapping.length; i++ ) {
+			final String name = nameMapping[i];
+			if( name == null ) {
+				continue; // null's in the name mapping means skip column
+			}
+			if( keyIndexes.put(name, key) != null ) {
+				throw new SuperCsvException(String.format("duplicate nameMapping '%s' at index %d", name, i));
+			}
+			keys[key] = name;
+			columnIndexes[key] = i;
+			key++;
+		}
+	}
+	
+	/**
+	 * Returns the number of columns of the name mapping (including those that are ignored).
+	 * 
+	 * @return the number of columns
+	 */
+	public int getColumnCount() {
+		return nameMapping.length;
+	}
+	
+	/**
+	 * Returns the name mapping.
+	 * 
+	 * @return a copy of the name mapping
+	 */
+	public String[] getNameMapping() {
+		return nameMapping.clone();
+	}
+	
+	/**
+	 * Returns a row as an immutable Map (backed by a new array of the mapped values).
+	 * 
+	 * @param columns
+	 *            the columns of the row
+	 * @return the Map
+	 * @throws SuperCsvException
+	 *             if the number of columns doesn't match the name mapping
+	 */
+	<T> Map<String, T> toMap(final List<? extends T> columns) {
+		if( columns.size() != nameMapping.length ) {
+			throw new SuperCsvException(String.format(
+				"the nameMapping array and the sourceList should be the same size "
+					+ "(nameMapping length = %d, sourceList size = %d)", nameMapping.length, columns.size()));
+		}
+		final Object[] values = new Object[keys.length];
+		for( int i = 0; i < keys.length; i++ ) {
+			values[i] = columns.get(columnIndexes[i]);
+		}
+		return new RowMap<T>(this, values);
+	}
+	
+	/**
+	 * An immutable Map of the mapped names to the values of a row.
+	 */
+	private static final class RowMap<V> extends AbstractMap<String, V> {
+		
+		private final CompiledNameMapping mapping;
+		
+		private final Object[] values;
+		
+		private Set<Map.Entry<String, V>> entrySet;
+		
+		RowMap(final CompiledNameMapping mapping, final Object[] values) {
+			this.mapping = mapping;
+			this.values = values;
+		}
+		
+		@Override
+		public int size() {
+			return values.length;
+		}
+		
+		@Override
+		public boolean containsKey(final Object key) {
+			return mapping.keyIndexes.containsKey(key);
+		}
+		
+		@SuppressWarnings("unchecked")
+		@Override
+		public V get(final Object key) {
+			final Integer index = mapping.keyIndexes.get(key);
+			return index == null ? null : (V) values[index];
+		}
+		
+		@Override
+		public Set<Map.Entry<String, V>> entrySet() {
+			if( entrySet == null ) {
+				entrySet = new AbstractSet<Map.Entry<String, V>>() {
+					
+					@Override
+					public int size() {
+						return values.length;
+					}
+					
+					@Override
+					public Iterator<Map.Entry<String, V>> iterator() {
+						return new Iterator<Map.Entry<String, V>>() {
+							
+							private int next;
+							
+							public boolean hasNext() {
+								return next < values.length;
+							}
+							
+							public Map.Entry<String, V> next() {
+								if( next == values.length ) {
+									throw new NoSuchElementException();
+								}
+								return new RowEntry<V>(mapping.keys[next], values[next++]);
+							}
+							
+							public void remove() {
+								throw new UnsupportedOperationException("the row is immutable");
+							}
+						};
+					}
+				};
+			}
+			return entrySet;
+		}
+	}
+	
+	/**
+	 * An (immutable) entry of a row.
+	 */
+	private static final class RowEntry<V> implements Map.Entry<String, V> {
+		
+		private final String key;
+		
+		private final V value;
+		
+		@SuppressWarnings("unchecked")
+		RowEntry(final String key, final Object value) {
+			this.key = key;
+			this.value = (V) value;
+		}
+		
+		public String getKey() {
+			return key;
+		}
+		
+		public V getValue() {
+			return value;
+		}
+		
+		public V setValue(final V value) {
+			throw new UnsupportedOperationException("the row is immutable");
+		}
+		
+		@Override
+		public boolean equals(final Object o) {
+			if( !(o instanceof Map.Entry) ) {
+				return false;
+			}
+			final Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+			return key.equals(other.getKey()) && (value == null ? other.getValue() == null : value.equals(other
+				.getValue()));
+		}
+		
+		@Override
+		public int hashCode() {
+			return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+		
+		@Override
+		public String toString() {
+			return key + "=" + value;
+		}
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A reusable batch of rows, filled by the <tt>readBatch()</tt> methods of the readers (e.g.
+ * {@link ICsvListReader#readBatch(CsvBatch, int)}). Reading many rows per call avoids most of the per-row overhead of
+ * the <tt>read()</tt> methods, and the batch's storage (including the Lists and Maps of the list and map readers) is
+ * reused by the next batch, so a batch should be consumed before the next one is read into it.
+ * 
+ * @param <T>
+ *            the type of the rows
+ * @since 2.5.0
+ */
+public class CsvBatch<T> implements Iterable<T> {
+	
+	private final List<T> rows;
+	
+	private int size;
+	
+	/* the line and row number of each row (when it was read) */
+	private int[] lineNumbers;
+	
+	private int[] rowNumbers;
+	
+	/**
+	 * Constructs a new, empty <tt>CsvBatch</tt>.
+	 */
+	public CsvBatch() {
+		this(16);
+	}
+	
+	/**
+	 * Constructs a new, empty <tt>CsvBatch</tt> with storage for the supplied number of rows (it grows as required).
+	 * 
+	 * @param capacity
+	 *            the initial capacity
+	 * @throws IllegalArgumentException
+	 *             if capacity is negative
+	 */
+	public CsvBatch(final int capacity) {
+		if( capacity < 0 ) {
+			throw new IllegalArgumentException(String.format("capacity should not be negative but was %d", capacity));
+		}
+		this.rows = new ArrayList<T>(capacity);
+		this.lineNumbers = new int[capacity];
+		this.rowNumbers = new int[capacity];
+	}
+	
+	/**
+	 * Returns the number of rows in the batch.
+	 * 
+	 * @return the number of rows
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Returns true if the batch has no rows (i.e. the end of the file has been reached).
+	 * 
+	 * @return true if there are no rows
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * Returns a row of the batch.
+	 * 
+	 * @param index
+	 *            the index of the row in the batch (starting at 0)
+	 * @return the row
+	 * @throws IndexOutOfBoundsException
+	 *             if index is not a valid row index
+	 */
+	public T get(final int index) {
+		checkIndex(index);
+		return rows.get(index);
+	}
+	
+	/**
+	 * Returns the line number of a row of the batch (i.e. the line number of the reader after reading the row).
+	 * 
+	 * @param index
+	 *            the index of the row in the batch (starting at 0)
+	 * @return the line number
+	 * @throws IndexOutOfBoundsException
+	 *             if index is not a valid row index
+	 */
+	public int getLineNumber(final int index) {
+		checkIndex(index);
+		return lineNumbers[index];
+	}
+	
+	/**
+	 * Returns the row number of a row of the batch (as returned by {@link ICsvReader#getRowNumber()}).
+	 * 
+	 * @param index
+	 *            the index of the row in the batch (starting at 0)
+	 * @return the row number
+	 * @throws IndexOutOfBoundsException
+	 *             if index is not a valid row index
+	 */
+	public int getRowNumber(final int index) {
+		checkIndex(index);
+		return rowNumbers[index];
+	}
+	
+	/**
+	 * Removes all rows from the batch (their storage is kept for reuse).
+	 */
+	public void clear() {
+		size = 0;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			
+			private int index;
+			
+			public boolean hasNext() {
+				return index < size;
+			}
+			
+			public T next() {
+				if( index >= size ) {
+					throw new NoSuchElementException();
+				}
+				return rows.get(index++);
+			}
+			
+			public void remove() {
+				throw new UnsupportedOperationException("rows can't be removed from a batch");
+			}
+		};
+	}
+	
+	/**
+	 * Returns the row that was previously stored after the last row of the batch (which can be reused for the next
+	 * row), or null if there isn't one.
+	 * 
+	 * @return the reusable row, or null
+	 */
+	T reusableRow() {
+		return size < rows.size() ? rows.get(size) : null;
+	}
+	
+	/**
+	 * Adds a row to the batch.
+	 * 
+	 * @param row
+	 *            the row
+	 * @param lineNumber
+	 *            the line number of the row
+	 * @param rowNumber
+	 *            the row number of the row
+	 */
+	void add(final T row, final int lineNumber, final int rowNumber) {
+		if( size < rows.size() ) {
+			rows.set(size, row);
+		} else {
+			rows.add(row);
+		}
+		if( size == lineNumbers.length ) {
+			final int capacity = Math.max(16, size * 2);
+			final int[] grownLineNumbers = new int[capacity];
+			final int[] grownRowNumbers = new int[capacity];
+			System.arraycopy(lineNumbers, 0, grownLineNumbers, 0, size);
+			System.arraycopy(rowNumbers, 0, grownRowNumbers, 0, size);
+			lineNumbers = grownLineNumbers;
+			rowNumbers = grownRowNumbers;
+		}
+		lineNumbers[size] = lineNumber;
+		rowNumbers[size] = rowNumber;
+		size++;
+	}
+	
+	/**
+	 * Checks that the index is the index of a row in the batch.
+	 */
+	private void checkIndex(final int index) {
+		if( index < 0 || index >= size ) {
+			throw new IndexOutOfBoundsException(String.format("index %d is out of bounds for a batch of %d rows",
+				index, size));
+		}
+	}
+}
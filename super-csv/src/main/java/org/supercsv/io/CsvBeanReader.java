@@ -29,6 +29,7 @@ import org.supercsv.exception.SuperCsvException;
 import org.supercsv.exception.SuperCsvReflectionException;
 import org.supercsv.prefs.CsvPreference;
 import org.supercsv.util.BeanInterfaceProxy;
+import org.supercsv.util.CsvContext;
 import org.supercsv.util.MethodCache;
 
 /**
@@ -260,24 +261,117 @@ public class CsvBeanReader extends AbstractCsvReader implements ICsvBeanReader {
 		throws IOException {
 		
 		if( readRow() ) {
-			if( nameMapping.length != length() ) {
-				throw new IllegalArgumentException(String.format(
-					"the nameMapping array and the number of columns read "
-						+ "should be the same size (nameMapping length = %d, columns = %d)", nameMapping.length,
-					length()));
-			}
-			
-			if( processors == null ) {
-				processedColumns.clear();
-				processedColumns.addAll(getColumns());
-			} else {
-				executeProcessors(processedColumns, processors);
-			}
-			
-			return populateBean(bean, nameMapping);
+			return populateRow(bean, nameMapping, processors, null);
 		}
 		
 		return null; // EOF
 	}
 	
+	/**
+	 * Populates the bean with the row that was just read, using the supplied name mapping to map column values to the
+	 * appropriate fields. If processors are supplied then they are used, otherwise the raw String values will be used.
+	 * 
+	 * @param bean
+	 *            the bean to populate
+	 * @param nameMapping
+	 *            the name mapping array
+	 * @param processors
+	 *            the (optional) cell processors
+	 * @param context
+	 *            the (reusable) context used when cell processors report exceptions, or null to use a new one
+	 * @return the populated bean
+	 * @throws IllegalArgumentException
+	 *             if nameMapping.length != number of CSV columns read
+	 * @throws SuperCsvConstraintViolationException
+	 *             if a CellProcessor constraint failed
+	 * @throws SuperCsvException
+	 *             if there was a general exception while processing
+	 * @throws SuperCsvReflectionException
+	 *             if there was an reflection exception while mapping the values to the bean
+	 */
+	private <T> T populateRow(final T bean, final String[] nameMapping, final CellProcessor[] processors,
+		final CsvContext context) {
+		
+		if( nameMapping.length != length() ) {
+			throw new IllegalArgumentException(String.format(
+				"the nameMapping array and the number of columns read "
+					+ "should be the same size (nameMapping length = %d, columns = %d)", nameMapping.length,
+				length()));
+		}
+		
+		if( processors == null ) {
+			processedColumns.clear();
+			processedColumns.addAll(getColumns());
+		} else if( context == null ) {
+			executeProcessors(processedColumns, processors);
+		} else {
+			executeProcessors(processedColumns, processors, context);
+		}
+		
+		return populateBean(bean, nameMapping);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public <T> int readBatch(final CsvBatch<T> batch, final int maxRows, final Class<T> clazz,
+		final String... nameMapping) throws IOException {
+		
+		if( clazz == null ) {
+			throw new NullPointerException("clazz should not be null");
+		} else if( nameMapping == null ) {
+			throw new NullPointerException("nameMapping should not be null");
+		}
+		checkBatchArguments(batch, maxRows);
+		
+		return readBatchIntoBeans(batch, maxRows, clazz, nameMapping, null);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public <T> int readBatch(final CsvBatch<T> batch, final int maxRows, final Class<T> clazz,
+		final String[] nameMapping, final CellProcessor... processors) throws IOException {
+		
+		if( clazz == null ) {
+			throw new NullPointerException("clazz should not be null");
+		} else if( nameMapping == null ) {
+			throw new NullPointerException("nameMapping should not be null");
+		} else if( processors == null ) {
+			throw new NullPointerException("processors should not be null");
+		}
+		checkBatchArguments(batch, maxRows);
+		
+		return readBatchIntoBeans(batch, maxRows, clazz, nameMapping, processors);
+	}
+	
+	/**
+	 * Reads up to maxRows rows into new instances of the class, which are added to the batch.
+	 * 
+	 * @param batch
+	 *            the batch
+	 * @param maxRows
+	 *            the maximum number of rows to read
+	 * @param clazz
+	 *            the type to instantiate
+	 * @param nameMapping
+	 *            the name mapping array
+	 * @param processors
+	 *            the (optional) cell processors
+	 * @return the number of rows read
+	 */
+	private <T> int readBatchIntoBeans(final CsvBatch<T> batch, final int maxRows, final Class<T> clazz,
+		final String[] nameMapping, final CellProcessor[] processors) throws IOException {
+		
+		// the context used when cell processors report exceptions (shared by the whole batch)
+		final CsvContext context = processors == null ? null : new CsvContext(0, 0, 1);
+		
+		batch.clear();
+		while( batch.size() < maxRows && readRow() ) {
+			batch.add(populateRow(instantiateBean(clazz), nameMapping, processors, context), getLineNumber(),
+				getRowNumber());
+		}
+		return batch.size();
+	}
+	
 }
@@ -47,7 +47,7 @@ public class CsvBeanWriter extends AbstractCsvWriter implements ICsvBeanWriter {
 	
 	/**
 	 * Constructs a new <tt>CsvBeanWriter</tt> with the supplied Writer and CSV preferences. Note that the
-	 * <tt>writer</tt> will be wrapped in a <tt>BufferedWriter</tt> before accessed.
+	 * output will be buffered before it's written to the <tt>writer</tt>.
 	 * 
 	 * @param writer
 	 *            the writer
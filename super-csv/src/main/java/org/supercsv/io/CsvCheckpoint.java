@@ -0,0 +1,148 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.File;
+import java.io.Serializable;
+
+/**
+ * The position of a reader in a CSV file, between two rows (see {@link AbstractCsvReader#checkpoint()}), from which a
+ * new reader can carry on reading the file without reading any of the rows before it:
+ * 
+ * <pre>
+ * ICsvBeanReader beanReader = new CsvBeanReader(new MappedFileTokenizer(file, charset, preferences, checkpoint),
+ * 	preferences);
+ * </pre>
+ * 
+ * The new reader's line and row numbers continue from those of the checkpoint, and the header (if one was read
+ * before the checkpoint) is available from {@link #getHeader()}. Checkpoints are serializable, so they can be saved
+ * (e.g. every so many rows of a long import) and used by another process. They record the size and last modified time
+ * of the file, and can only be used while the file is unchanged.
+ * 
+ * @since 2.5.0
+ */
+public final class CsvCheckpoint implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final String charsetName;
+	
+	private final long fileSize;
+	
+	private final long lastModified;
+	
+	private final long offset;
+	
+	private final int lineNumber;
+	
+	private final int rowNumber;
+	
+	private final String[] header;
+	
+	/**
+	 * Constructs a new <tt>CsvCheckpoint</tt>.
+	 * 
+	 * @param file
+	 *            the CSV file
+	 * @param charsetName
+	 *            the name of the charset the file is read with
+	 * @param offset
+	 *            the offset in the file of the start of the next row
+	 * @param lineNumber
+	 *            the line number of the last row read
+	 * @param rowNumber
+	 *            the row number of the last row read
+	 * @param header
+	 *            the header, or null if none was read
+	 */
+	CsvCheckpoint(final File file, final String charsetName, final long offset, final int lineNumber,
+		final int rowNumber, final String[] header) {
+		this.charsetName = charsetName;
+		this.fileSize = file.length();
+		this.lastModified = file.lastModified();
+		this.offset = offset;
+		this.lineNumber = lineNumber;
+		this.rowNumber = rowNumber;
+		this.header = header == null ? null : header.clone();
+	}
+	
+	/**
+	 * Returns true if a file is the (unchanged) file the checkpoint was made in, i.e. if its size and last modified
+	 * time haven't changed since.
+	 * 
+	 * @param file
+	 *            the CSV file
+	 * @return true if the checkpoint is valid for the file
+	 * @throws NullPointerException
+	 *             if file is null
+	 */
+	public boolean isValidFor(final File file) {
+		return file.length() == fileSize && file.lastModified() == lastModified;
+	}
+	
+	/**
+	 * Returns the name of the charset the file was read with.
+	 * 
+	 * @return the charset name
+	 */
+	public String getCharsetName() {
+		return charsetName;
+	}
+	
+	/**
+	 * Returns the line number of the last row read before the checkpoint.
+	 * 
+	 * @return the line number
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+	
+	/**
+	 * Returns the row number of the last row read before the checkpoint (the header is row 1, if there is one).
+	 * 
+	 * @return the row number
+	 */
+	public int getRowNumber() {
+		return rowNumber;
+	}
+	
+	/**
+	 * Returns the header read before the checkpoint.
+	 * 
+	 * @return a copy of the header, or null if none was read
+	 */
+	public String[] getHeader() {
+		return header == null ? null : header.clone();
+	}
+	
+	/**
+	 * Returns the offset in the file of the start of the next row.
+	 * 
+	 * @return the offset
+	 */
+	long getOffset() {
+		return offset;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return String.format("CsvCheckpoint[line %d, row %d, offset %d]", lineNumber, rowNumber, offset);
+	}
+}
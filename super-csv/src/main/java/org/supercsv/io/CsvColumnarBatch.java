@@ -0,0 +1,379 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.util.CsvContext;
+
+/**
+ * A batch of rows read by a {@link ICsvColumnarReader}, stored column by column: each column's values are in a
+ * primitive array (e.g. an <tt>int[]</tt> for an {@link ColumnType#INT} column), with a bitmap of the rows whose value
+ * is null (i.e. the column was empty). The arrays are allocated once, with room for {@link #capacity()} rows, and are
+ * overwritten by each batch read into them, so a file can be read with no allocation per value (other than the Strings
+ * of {@link ColumnType#STRING} columns).
+ * <p>
+ * Columns are identified by their index in the schema (starting at 0), and rows by their index in the batch (starting
+ * at 0). Only the first {@link #size()} elements of each array are valid.
+ * </p>
+ * 
+ * <pre>
+ * CsvColumnarBatch batch = new CsvColumnarBatch(new ColumnType[] { ColumnType.INT, ColumnType.DOUBLE }, 4096);
+ * while( columnarReader.readBatch(batch) &gt; 0 ) {
+ * 	int[] ids = batch.getInts(0);
+ * 	double[] amounts = batch.getDoubles(1);
+ * 	BitSet missingAmounts = batch.getNulls(1);
+ * 	...
+ * }
+ * </pre>
+ * 
+ * @since 2.5.0
+ */
+public final class CsvColumnarBatch {
+	
+	private final ColumnType[] schema;
+	
+	private final ColumnType.Vector[] vectors;
+	
+	private final BitSet[] nulls;
+	
+	private final int[] lineNumbers;
+	
+	private final int[] rowNumbers;
+	
+	/* the context used when values can't be parsed (shared by all rows) */
+	private final CsvContext context = new CsvContext(0, 0, 1);
+	
+	/* the columns the context's row source currently wraps */
+	private List<String> sourceColumns;
+	
+	private int size;
+	
+	/**
+	 * Constructs a new <tt>CsvColumnarBatch</tt>.
+	 * 
+	 * @param schema
+	 *            the type of each column. A <tt>null</tt> entry indicates that the column should be ignored (it has no
+	 *            values), which is best combined with a {@link ColumnProjection} so its values aren't even created
+	 * @param capacity
+	 *            the maximum number of rows in the batch
+	 * @throws IllegalArgumentException
+	 *             if capacity is less than 1
+	 * @throws NullPointerException
+	 *             if schema is null
+	 */
+	public CsvColumnarBatch(final ColumnType[] schema, final int capacity) {
+		if( schema == null ) {
+			throw new NullPointerException("schema should not be null");
+		} else if( capacity < 1 ) {
+			throw new IllegalArgumentException(String.format("capacity should be at least 1 but was %d", capacity));
+		}
+		this.schema = schema.clone();
+		this.vectors = new ColumnType.Vector[schema.length];
+		this.nulls = new BitSet[schema.length];
+		for( int i = 0; i < schema.length; i++ ) {
+			if( schema[i] != null ) {
+				vectors[i] = schema[i].newVector(capacity);
+				nulls[i] = new BitSet(capacity);
+			}
+		}
+		this.lineNumbers = new int[capacity];
+		this.rowNumbers = new int[capacity];
+	}
+	
+	/**
+	 * Returns the maximum number of rows in the batch.
+	 * 
+	 * @return the capacity
+	 */
+	public int capacity() {
+		return lineNumbers.length;
+	}
+	
+	/**
+	 * Returns the number of rows in the batch.
+	 * 
+	 * @return the number of rows
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Returns the number of columns of the schema.
+	 * 
+	 * @return the number of columns
+	 */
+	public int getColumnCount() {
+		return schema.length;
+	}
+	
+	/**
+	 * Returns the type of a column.
+	 * 
+	 * @param column
+	 *            the index of the column
+	 * @return the type, or null if the column is ignored
+	 * @throws IndexOutOfBoundsException
+	 *             if column is not a valid column index
+	 */
+	public ColumnType getType(final int column) {
+		return schema[column];
+	}
+	
+	/**
+	 * Returns the values of an {@link ColumnType#INT} column.
+	 * 
+	 * @param column
+	 *            the index of the column
+	 * @return the values (the rows whose value is null have 0)
+	 * @throws IllegalArgumentException
+	 *             if the column isn't an <tt>int</tt> column
+	 * @throws IndexOutOfBoundsException
+	 *             if column is not a valid column index
+	 */
+	public int[] getInts(final int column) {
+		return (int[]) values(column, int[].class);
+	}
+	
+	/**
+	 * Returns the values of a {@link ColumnType#LONG} column, or of a {@link ColumnType#date(String) date} column (as
+	 * milliseconds since the epoch).
+	 * 
+	 * @param column
+	 *            the index of the column
+	 * @return the values (the rows whose value is null have 0)
+	 * @throws IllegalArgumentException
+	 *             if the column isn't a <tt>long</tt> or date column
+	 * @throws IndexOutOfBoundsException
+	 *             if column is not a valid column index
+	 */
+	public long[] getLongs(final int column) {
+		return (long[]) values(column, long[].class);
+	}
+	
+	/**
+	 * Returns the values of a {@link ColumnType#DOUBLE} column.
+	 * 
+	 * @param column
+	 *            the index of the column
+	 * @return the values (the rows whose value is null have 0.0)
+	 * @throws IllegalArgumentException
+	 *             if the column isn't a <tt>double</tt> column
+	 * @throws IndexOutOfBoundsException
+	 *             if column is not a valid column index
+	 */
+	public double[] getDoubles(final int column) {
+		return (double[]) values(column, double[].class);
+	}
+	
+	/**
+	 * Returns the values of a {@link ColumnType#BOOLEAN} column.
+	 * 
+	 * @param column
+	 *            the index of the column
+	 * @return the values (the rows whose value is null have false)
+	 * @throws IllegalArgumentException
+	 *             if the column isn't a <tt>boolean</tt> column
+	 * @throws IndexOutOfBoundsException
+	 *             if column is not a valid column index
+	 */
+	public boolean[] getBooleans(final int column) {
+		return (boolean[]) values(column, boolean[].class);
+	}
+	
+	/**
+	 * Returns the values of a {@link ColumnType#STRING} column.
+	 * 
+	 * @param column
+	 *            the index of the column
+	 * @return the values (the rows whose value is null have null)
+	 * @throws IllegalArgumentException
+	 *             if the column isn't a String column
+	 * @throws IndexOutOfBoundsException
+	 *             if column is not a valid column index
+	 */
+	public String[] getStrings(final int column) {
+		return (String[]) values(column, String[].class);
+	}
+	
+	/**
+	 * Returns the bitmap of the rows of a column whose value is null (the bit of a row is set if its value is null).
+	 * 
+	 * @param column
+	 *            the index of the column
+	 * @return the null bitmap
+	 * @throws IllegalArgumentException
+	 *             if the column is ignored
+	 * @throws IndexOutOfBoundsException
+	 *             if column is not a valid column index
+	 */
+	public BitSet getNulls(final int column) {
+		checkColumn(column);
+		return nulls[column];
+	}
+	
+	/**
+	 * Returns true if the value of a column in a row is null.
+	 * 
+	 * @param column
+	 *            the index of the column
+	 * @param row
+	 *            the index of the row
+	 * @return true if the value is null
+	 * @throws IllegalArgumentException
+	 *             if the column is ignored
+	 * @throws IndexOutOfBoundsException
+	 *             if column is not a valid column index, or row is not a valid row index
+	 */
+	public boolean isNull(final int column, final int row) {
+		checkRow(row);
+		return getNulls(column).get(row);
+	}
+	
+	/**
+	 * Returns the line number of a row of the batch (i.e. the line number of the reader after reading the row).
+	 * 
+	 * @param row
+	 *            the index of the row
+	 * @return the line number
+	 * @throws IndexOutOfBoundsException
+	 *             if row is not a valid row index
+	 */
+	public int getLineNumber(final int row) {
+		checkRow(row);
+		return lineNumbers[row];
+	}
+	
+	/**
+	 * Returns the row number of a row of the batch (as returned by {@link ICsvReader#getRowNumber()}).
+	 * 
+	 * @param row
+	 *            the index of the row
+	 * @return the row number
+	 * @throws IndexOutOfBoundsException
+	 *             if row is not a valid row index
+	 */
+	public int getRowNumber(final int row) {
+		checkRow(row);
+		return rowNumbers[row];
+	}
+	
+	/**
+	 * Removes all of the rows from the batch.
+	 */
+	public void clear() {
+		for( final BitSet columnNulls : nulls ) {
+			if( columnNulls != null ) {
+				columnNulls.clear();
+			}
+		}
+		size = 0;
+	}
+	
+	/**
+	 * Parses a row into the next row of the batch. If a value can't be parsed, the batch is left with the rows before
+	 * it.
+	 * 
+	 * @param columns
+	 *            the columns of the row
+	 * @param lineNumber
+	 *            the line number of the row
+	 * @param rowNumber
+	 *            the row number of the row
+	 * @throws IllegalStateException
+	 *             if the batch is full
+	 * @throws SuperCsvException
+	 *             if the number of columns doesn't match the schema
+	 * @throws org.supercsv.exception.SuperCsvCellProcessorException
+	 *             if a value can't be parsed
+	 */
+	void add(final List<String> columns, final int lineNumber, final int rowNumber) {
+		if( size == capacity() ) {
+			throw new IllegalStateException("the batch is full");
+		}
+		
+		context.setLineNumber(lineNumber);
+		context.setRowNumber(rowNumber);
+		context.setColumnNumber(1);
+		if( columns != sourceColumns ) {
+			// readers reuse their List of columns, so this view is normally only created once
+			sourceColumns = columns;
+			context.setRowSource(Collections.<Object> unmodifiableList(columns));
+		}
+		
+		if( columns.size() != schema.length ) {
+			throw new SuperCsvException(String.format(
+				"The number of columns to be processed (%d) must match the number of column types (%d): check that the"
+					+ " number of column types you have defined matches the expected number of columns being read",
+				columns.size(), schema.length), context);
+		}
+		
+		for( int i = 0; i < schema.length; i++ ) {
+			final ColumnType.Vector vector = vectors[i];
+			if( vector == null ) {
+				continue;
+			}
+			final String value = columns.get(i);
+			if( value == null ) {
+				vector.setNull(size);
+				nulls[i].set(size);
+			} else {
+				context.setColumnNumber(i + 1);
+				vector.set(size, value, context);
+				nulls[i].clear(size); // in case a row that failed to parse left it set
+			}
+		}
+		
+		lineNumbers[size] = lineNumber;
+		rowNumbers[size] = rowNumber;
+		size++;
+	}
+	
+	/**
+	 * Returns the values of a column, checking their type.
+	 */
+	private Object values(final int column, final Class<?> arrayType) {
+		checkColumn(column);
+		final Object values = vectors[column].values();
+		if( !arrayType.isInstance(values) ) {
+			throw new IllegalArgumentException(String.format("column %d is a %s column, not a %s column", column,
+				schema[column], arrayType.getComponentType().getSimpleName()));
+		}
+		return values;
+	}
+	
+	/**
+	 * Checks that a column has values.
+	 */
+	private void checkColumn(final int column) {
+		if( schema[column] == null ) {
+			throw new IllegalArgumentException(String.format("column %d is ignored", column));
+		}
+	}
+	
+	/**
+	 * Checks that a row index is valid.
+	 */
+	private void checkRow(final int row) {
+		if( row < 0 || row >= size ) {
+			throw new IndexOutOfBoundsException(String.format("row %d is out of bounds (size %d)", row, size));
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * CsvColumnarReader reads a CSV file in batches, storing each column in a primitive array (see
+ * {@link CsvColumnarBatch}) instead of creating a List (and boxing each processed value) for every row. It's intended
+ * for loading numeric data in bulk, e.g.
+ * 
+ * <pre>
+ * ICsvColumnarReader columnarReader = new CsvColumnarReader(reader, CsvPreference.STANDARD_PREFERENCE);
+ * columnarReader.getHeader(true);
+ * CsvColumnarBatch batch = new CsvColumnarBatch(new ColumnType[] { ColumnType.STRING, ColumnType.LONG,
+ * 	ColumnType.date(&quot;dd/MM/yyyy&quot;) }, 4096);
+ * while( columnarReader.readBatch(batch) &gt; 0 ) {
+ * 	...
+ * }
+ * </pre>
+ * 
+ * @since 2.5.0
+ */
+public class CsvColumnarReader extends AbstractCsvReader implements ICsvColumnarReader {
+	
+	/**
+	 * Constructs a new <tt>CsvColumnarReader</tt> with the supplied Reader and CSV preferences. Note that the
+	 * <tt>reader</tt> will be wrapped in a <tt>BufferedReader</tt> before accessed.
+	 * 
+	 * @param reader
+	 *            the reader
+	 * @param preferences
+	 *            the CSV preferences
+	 * @throws NullPointerException
+	 *             if reader or preferences are null
+	 */
+	public CsvColumnarReader(final Reader reader, final CsvPreference preferences) {
+		super(reader, preferences);
+	}
+	
+	/**
+	 * Constructs a new <tt>CsvColumnarReader</tt> with the supplied (custom) Tokenizer and CSV preferences. The
+	 * tokenizer should be set up with the Reader (CSV input) and CsvPreference beforehand.
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer
+	 * @param preferences
+	 *            the CSV preferences
+	 * @throws NullPointerException
+	 *             if tokenizer or preferences are null
+	 */
+	public CsvColumnarReader(final ITokenizer tokenizer, final CsvPreference preferences) {
+		super(tokenizer, preferences);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public int readBatch(final CsvColumnarBatch batch) throws IOException {
+		if( batch == null ) {
+			throw new NullPointerException("batch should not be null");
+		}
+		
+		batch.clear();
+		while( batch.size() < batch.capacity() && readRow() ) {
+			batch.add(getColumns(), getLineNumber(), getRowNumber());
+		}
+		return batch.size();
+	}
+}
@@ -22,6 +22,7 @@ import java.util.List;
 
 import org.supercsv.cellprocessor.ift.CellProcessor;
 import org.supercsv.prefs.CsvPreference;
+import org.supercsv.util.CsvContext;
 
 /**
  * CsvListReader is a simple reader that reads a row from a CSV file into a <tt>List</tt> of Strings.
@@ -31,6 +32,9 @@ import org.supercsv.prefs.CsvPreference;
  */
 public class CsvListReader extends AbstractCsvReader implements ICsvListReader {
 	
+	// the context used when cell processors report exceptions (reused by the reads into a supplied List)
+	private final CsvContext context = new CsvContext(0, 0, 1);
+	
 	/**
 	 * Constructs a new <tt>CsvListReader</tt> with the supplied Reader and CSV preferences. Note that the
 	 * <tt>reader</tt> will be wrapped in a <tt>BufferedReader</tt> before accessed.
@@ -89,10 +93,108 @@ public class CsvListReader extends AbstractCsvReader implements ICsvListReader {
 		return null; // EOF
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 */
+	public List<String> read(final List<String> columns) throws IOException {
+		if( columns == null ) {
+			throw new NullPointerException("columns should not be null");
+		}
+		
+		if( readRow() ) {
+			final List<String> row = getColumns();
+			columns.clear();
+			for( int i = 0; i < row.size(); i++ ) {
+				columns.add(row.get(i)); // addAll() would copy the row to an array
+			}
+			return columns;
+		}
+		
+		return null; // EOF
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public String[] read(final String[] columns) throws IOException {
+		if( columns == null ) {
+			throw new NullPointerException("columns should not be null");
+		}
+		
+		if( readRow() ) {
+			return getColumns().toArray(columns);
+		}
+		
+		return null; // EOF
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public List<Object> read(final List<Object> processedColumns, final CellProcessor... processors)
+		throws IOException {
+		if( processedColumns == null ) {
+			throw new NullPointerException("processedColumns should not be null");
+		} else if( processors == null ) {
+			throw new NullPointerException("processors should not be null");
+		}
+		
+		if( readRow() ) {
+			return executeProcessors(processedColumns, processors, context);
+		}
+		
+		return null; // EOF
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 */
 	public List<Object> executeProcessors(final CellProcessor... processors) {
 		return super.executeProcessors(new ArrayList<Object>(getColumns().size()), processors);
 	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public int readBatch(final CsvBatch<List<String>> batch, final int maxRows) throws IOException {
+		checkBatchArguments(batch, maxRows);
+		
+		batch.clear();
+		while( batch.size() < maxRows && readRow() ) {
+			List<String> row = batch.reusableRow();
+			if( row == null ) {
+				row = new ArrayList<String>(length());
+			} else {
+				row.clear();
+			}
+			row.addAll(getColumns());
+			batch.add(row, getLineNumber(), getRowNumber());
+		}
+		return batch.size();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public int readBatch(final CsvBatch<List<Object>> batch, final int maxRows, final CellProcessor... processors)
+		throws IOException {
+		if( processors == null ) {
+			throw new NullPointerException("processors should not be null");
+		}
+		checkBatchArguments(batch, maxRows);
+		
+		// the context used when cell processors report exceptions (shared by the whole batch)
+		final CsvContext context = new CsvContext(0, 0, 1);
+		
+		batch.clear();
+		while( batch.size() < maxRows && readRow() ) {
+			List<Object> row = batch.reusableRow();
+			if( row == null ) {
+				row = new ArrayList<Object>(length());
+			}
+			executeProcessors(row, processors, context);
+			batch.add(row, getLineNumber(), getRowNumber());
+		}
+		return batch.size();
+	}
 }
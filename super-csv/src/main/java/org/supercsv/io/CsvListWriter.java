@@ -37,7 +37,7 @@ public class CsvListWriter extends AbstractCsvWriter implements ICsvListWriter {
 	
 	/**
 	 * Constructs a new <tt>CsvListWriter</tt> with the supplied Writer and CSV preferences. Note that the
-	 * <tt>reader</tt> will be wrapped in a <tt>BufferedReader</tt> before accessed.
+	 * output will be buffered before it's written to the <tt>writer</tt>.
 	 * 
 	 * @param writer
 	 *            the writer
@@ -24,6 +24,7 @@ import java.util.Map;
 
 import org.supercsv.cellprocessor.ift.CellProcessor;
 import org.supercsv.prefs.CsvPreference;
+import org.supercsv.util.CsvContext;
 import org.supercsv.util.Util;
 
 /**
@@ -35,6 +36,9 @@ import org.supercsv.util.Util;
  */
 public class CsvMapReader extends AbstractCsvReader implements ICsvMapReader {
 	
+	// the processed columns of rows read with a compiled name mapping
+	private final List<Object> processedColumns = new ArrayList<Object>();
+	
 	/**
 	 * Constructs a new <tt>CsvMapReader</tt> with the supplied Reader and CSV preferences. Note that the
 	 * <tt>reader</tt> will be wrapped in a <tt>BufferedReader</tt> before accessed.
@@ -107,4 +111,90 @@ public class CsvMapReader extends AbstractCsvReader implements ICsvMapReader {
 		
 		return null; // EOF
 	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public Map<String, String> read(final CompiledNameMapping nameMapping) throws IOException {
+		if( nameMapping == null ) {
+			throw new NullPointerException("nameMapping should not be null");
+		}
+		
+		if( readRow() ) {
+			return nameMapping.toMap(getColumns());
+		}
+		
+		return null; // EOF
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public Map<String, Object> read(final CompiledNameMapping nameMapping, final CellProcessor[] processors)
+		throws IOException {
+		if( nameMapping == null ) {
+			throw new NullPointerException("nameMapping should not be null");
+		} else if( processors == null ) {
+			throw new NullPointerException("processors should not be null");
+		}
+		
+		if( readRow() ) {
+			// the processed columns are copied into the Map, so the List can be reused
+			executeProcessors(processedColumns, processors);
+			return nameMapping.toMap(processedColumns);
+		}
+		
+		return null; // EOF
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public int readBatch(final CsvBatch<Map<String, String>> batch, final int maxRows, final String... nameMapping)
+		throws IOException {
+		if( nameMapping == null ) {
+			throw new NullPointerException("nameMapping should not be null");
+		}
+		checkBatchArguments(batch, maxRows);
+		
+		batch.clear();
+		while( batch.size() < maxRows && readRow() ) {
+			Map<String, String> destination = batch.reusableRow();
+			if( destination == null ) {
+				destination = new HashMap<String, String>();
+			}
+			Util.filterListToMap(destination, nameMapping, getColumns());
+			batch.add(destination, getLineNumber(), getRowNumber());
+		}
+		return batch.size();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public int readBatch(final CsvBatch<Map<String, Object>> batch, final int maxRows, final String[] nameMapping,
+		final CellProcessor[] processors) throws IOException {
+		if( nameMapping == null ) {
+			throw new NullPointerException("nameMapping should not be null");
+		} else if( processors == null ) {
+			throw new NullPointerException("processors should not be null");
+		}
+		checkBatchArguments(batch, maxRows);
+		
+		// the processed columns and the context used when cell processors report exceptions (shared by the whole batch)
+		final List<Object> processedColumns = new ArrayList<Object>();
+		final CsvContext context = new CsvContext(0, 0, 1);
+		
+		batch.clear();
+		while( batch.size() < maxRows && readRow() ) {
+			executeProcessors(processedColumns, processors, context);
+			Map<String, Object> destination = batch.reusableRow();
+			if( destination == null ) {
+				destination = new HashMap<String, Object>(processedColumns.size());
+			}
+			Util.filterListToMap(destination, nameMapping, processedColumns);
+			batch.add(destination, getLineNumber(), getRowNumber());
+		}
+		return batch.size();
+	}
 }
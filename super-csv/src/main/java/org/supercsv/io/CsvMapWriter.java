@@ -38,7 +38,7 @@ public class CsvMapWriter extends AbstractCsvWriter implements ICsvMapWriter {
 	
 	/**
 	 * Constructs a new <tt>CsvMapWriter</tt> with the supplied Writer and CSV preferences. Note that the
-	 * <tt>writer</tt> will be wrapped in a <tt>BufferedWriter</tt> before accessed.
+	 * output will be buffered before it's written to the <tt>writer</tt>.
 	 * 
 	 * @param writer
 	 *            the writer
@@ -61,8 +61,8 @@ public class CsvMapWriter extends AbstractCsvWriter implements ICsvMapWriter {
 	 * @param preference
 	 *            the CSV preferences
 	 * @param bufferizeWriter
-	 *            if {@code true}, the <tt>writer</tt> will be wrapped in
-	 *            a <tt>BufferedWriter</tt> before accessed.
+	 *            if {@code true}, the output will be buffered before it's
+	 *            written to the <tt>writer</tt>.
 	 * @throws NullPointerException
 	 *             if writer or preference is null
 	 * @since 1.0
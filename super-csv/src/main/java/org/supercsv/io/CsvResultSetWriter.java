@@ -39,7 +39,7 @@ public class CsvResultSetWriter extends AbstractCsvWriter implements ICsvResultS
 	
 	/**
 	 * Constructs a new {@code CsvResultSetWriter} with the supplied {@code Writer} and CSV preferences. Note that the
-	 * {@code writer} will be wrapped in a {@code BufferedWriter} before accessed.
+	 * output will be buffered before it's written to the {@code writer}.
 	 * 
 	 * @param writer
 	 *            the writer
@@ -0,0 +1,411 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * An index of the rows of a CSV file, recording the byte offset and line number of the start of every
+ * <tt>interval</tt>th row, so that an {@link IndexedCsvListReader} can start reading at any row after tokenizing no
+ * more than <tt>interval - 1</tt> rows. The index is built in a single pass over the file with a
+ * {@link MappedFileTokenizer} that doesn't create any column values, so quoted columns spanning several lines, comments
+ * and empty lines are handled exactly as when the file is read.
+ * <p>
+ * An index can be written to a (compact) sidecar file, and read back later. It records the size and last modified time
+ * of the CSV file, so it can be checked against the file with {@link #isValidFor(File)} before it's used:
+ * </p>
+ * 
+ * <pre>
+ * CsvRowIndex index = CsvRowIndex.readOrBuild(file, charset, preferences, new File(file.getPath() + &quot;.idx&quot;));
+ * IndexedCsvListReader listReader = new IndexedCsvListReader(file, charset, preferences, index);
+ * listReader.seekToRow(31000000);
+ * List&lt;String&gt; row = listReader.read();
+ * </pre>
+ * 
+ * The preferences used to read the file must be the same as those used to build its index.
+ * 
+ * @since 2.5.0
+ */
+public final class CsvRowIndex {
+	
+	/** the default number of rows between the rows recorded in the index */
+	public static final int DEFAULT_INTERVAL = 1000;
+	
+	/* identifies a sidecar file (and the version of its format) */
+	private static final int MAGIC = 0x53435831;
+	
+	private static final ColumnProjection NO_COLUMNS = new ColumnProjection();
+	
+	private final String charsetName;
+	
+	private final long fileSize;
+	
+	private final long lastModified;
+	
+	private final int interval;
+	
+	private final int rowCount;
+	
+	/* offsets[i] and linesBefore[i] describe the start of row (i * interval + 1) */
+	private final long[] offsets;
+	
+	private final int[] linesBefore;
+	
+	/**
+	 * Constructs a new <tt>CsvRowIndex</tt>.
+	 */
+	private CsvRowIndex(final String charsetName, final long fileSize, final long lastModified, final int interval,
+		final int rowCount, final long[] offsets, final int[] linesBefore) {
+		this.charsetName = charsetName;
+		this.fileSize = fileSize;
+		this.lastModified = lastModified;
+		this.interval = interval;
+		this.rowCount = rowCount;
+		this.offsets = offsets;
+		this.linesBefore = linesBefore;
+	}
+	
+	/**
+	 * Builds the index of a CSV file, recording every {@link #DEFAULT_INTERVAL}th row.
+	 * 
+	 * @param file
+	 *            the CSV file
+	 * @param charset
+	 *            the charset of the file
+	 * @param preferences
+	 *            the CSV preferences
+	 * @return the index
+	 * @throws IOException
+	 *             if the file can't be read
+	 * @throws IllegalArgumentException
+	 *             if the charset isn't UTF-8 or an ASCII compatible single-byte charset, or if the quote, delimiter or
+	 *             quote escape character isn't an ASCII character
+	 * @throws NullPointerException
+	 *             if file, charset or preferences are null
+	 * @throws org.supercsv.exception.SuperCsvException
+	 *             if the file contains a malformed row (e.g. with an unmatched quote)
+	 */
+	public static CsvRowIndex build(final File file, final Charset charset, final CsvPreference preferences)
+		throws IOException {
+		return build(file, charset, preferences, DEFAULT_INTERVAL);
+	}
+	
+	/**
+	 * Builds the index of a CSV file.
+	 * 
+	 * @param file
+	 *            the CSV file
+	 * @param charset
+	 *            the charset of the file
+	 * @param preferences
+	 *            the CSV preferences
+	 * @param interval
+	 *            the number of rows between the rows recorded in the index
+	 * @return the index
+	 * @throws IOException
+	 *             if the file can't be read
+	 * @throws IllegalArgumentException
+	 *             if interval is less than 1, if the charset isn't UTF-8 or an ASCII compatible single-byte charset, or
+	 *             if the quote, delimiter or quote escape character isn't an ASCII character
+	 * @throws NullPointerException
+	 *             if file, charset or preferences are null
+	 * @throws org.supercsv.exception.SuperCsvException
+	 *             if the file contains a malformed row (e.g. with an unmatched quote)
+	 */
+	public static CsvRowIndex build(final File file, final Charset charset, final CsvPreference preferences,
+		final int interval) throws IOException {
+		if( interval < 1 ) {
+			throw new IllegalArgumentException(String.format("interval should be at least 1 but was %d", interval));
+		}
+		
+		// the size and time are recorded first, so a file modified while it's indexed doesn't match its index
+		final long fileSize = file.length();
+		final long lastModified = file.lastModified();
+		
+		long[] offsets = new long[16];
+		int[] linesBefore = new int[16];
+		int entries = 0;
+		int rowCount = 0;
+		final MappedFileTokenizer tokenizer = new MappedFileTokenizer(file, charset, preferences);
+		try {
+			tokenizer.setColumnProjection(NO_COLUMNS);
+			final List<String> columns = new ArrayList<String>();
+			long offset = 0L;
+			int lines = 0;
+			while( true ) {
+				if( rowCount % interval == 0 ) {
+					if( entries == offsets.length ) {
+						offsets = copyOf(offsets, entries * 2);
+						linesBefore = copyOf(linesBefore, entries * 2);
+					}
+					offsets[entries] = offset;
+					linesBefore[entries] = lines;
+					entries++;
+				}
+				if( !tokenizer.readColumns(columns) ) {
+					break;
+				}
+				rowCount++;
+				offset = tokenizer.getOffset();
+				lines = tokenizer.getLineNumber();
+			}
+		}
+		finally {
+			tokenizer.close();
+		}
+		
+		if( rowCount % interval == 0 ) {
+			entries--; // the entry for the row after the last row isn't needed
+		}
+		return new CsvRowIndex(charset.name(), fileSize, lastModified, interval, rowCount, copyOf(offsets, entries),
+			copyOf(linesBefore, entries));
+	}
+	
+	/**
+	 * Reads an index from a sidecar file if it exists and is valid for the CSV file (and charset), otherwise builds the
+	 * index (recording every {@link #DEFAULT_INTERVAL}th row) and writes it to the sidecar file.
+	 * 
+	 * @param file
+	 *            the CSV file
+	 * @param charset
+	 *            the charset of the file
+	 * @param preferences
+	 *            the CSV preferences
+	 * @param indexFile
+	 *            the sidecar file
+	 * @return the index
+	 * @throws IOException
+	 *             if the CSV file can't be read, or the index can't be written
+	 * @throws IllegalArgumentException
+	 *             if the charset isn't UTF-8 or an ASCII compatible single-byte charset, or if the quote, delimiter or
+	 *             quote escape character isn't an ASCII character
+	 * @throws NullPointerException
+	 *             if file, charset, preferences or indexFile are null
+	 * @throws org.supercsv.exception.SuperCsvException
+	 *             if the file contains a malformed row (e.g. with an unmatched quote)
+	 */
+	public static CsvRowIndex readOrBuild(final File file, final Charset charset, final CsvPreference preferences,
+		final File indexFile) throws IOException {
+		if( indexFile == null ) {
+			throw new NullPointerException("indexFile should not be null");
+		}
+		if( indexFile.isFile() ) {
+			try {
+				final CsvRowIndex index = read(indexFile);
+				if( index.isValidFor(file) && index.charsetName.equals(charset.name()) ) {
+					return index;
+				}
+			}
+			catch(IOException e) {
+				// a damaged sidecar file is simply rebuilt
+			}
+		}
+		final CsvRowIndex index = build(file, charset, preferences);
+		index.write(indexFile);
+		return index;
+	}
+	
+	/**
+	 * Reads an index from a sidecar file.
+	 * 
+	 * @param indexFile
+	 *            the sidecar file
+	 * @return the index
+	 * @throws IOException
+	 *             if the file can't be read, or isn't an index file
+	 * @throws NullPointerException
+	 *             if indexFile is null
+	 */
+	public static CsvRowIndex read(final File indexFile) throws IOException {
+		if( indexFile == null ) {
+			throw new NullPointerException("indexFile should not be null");
+		}
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+		try {
+			if( in.readInt() != MAGIC ) {
+				throw new IOException(String.format("%s is not a CSV row index file", indexFile));
+			}
+			final String charsetName = in.readUTF();
+			final long fileSize = in.readLong();
+			final long lastModified = in.readLong();
+			final int interval = in.readInt();
+			final int rowCount = in.readInt();
+			final int entries = in.readInt();
+			if( interval < 1 || rowCount < 0 || entries != (rowCount + interval - 1) / interval ) {
+				throw new IOException(String.format("%s is not a valid CSV row index file", indexFile));
+			}
+			
+			// the offsets and line numbers only increase, so they're stored as variable-length deltas
+			final long[] offsets = new long[entries];
+			final int[] linesBefore = new int[entries];
+			for( int i = 1; i < entries; i++ ) {
+				offsets[i] = offsets[i - 1] + readVarLong(in);
+				linesBefore[i] = linesBefore[i - 1] + (int) readVarLong(in);
+			}
+			return new CsvRowIndex(charsetName, fileSize, lastModified, interval, rowCount, offsets, linesBefore);
+		}
+		finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Writes the index to a sidecar file.
+	 * 
+	 * @param indexFile
+	 *            the sidecar file
+	 * @throws IOException
+	 *             if the file can't be written
+	 * @throws NullPointerException
+	 *             if indexFile is null
+	 */
+	public void write(final File indexFile) throws IOException {
+		if( indexFile == null ) {
+			throw new NullPointerException("indexFile should not be null");
+		}
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeUTF(charsetName);
+			out.writeLong(fileSize);
+			out.writeLong(lastModified);
+			out.writeInt(interval);
+			out.writeInt(rowCount);
+			out.writeInt(offsets.length);
+			for( int i = 1; i < offsets.length; i++ ) {
+				writeVarLong(out, offsets[i] - offsets[i - 1]);
+				writeVarLong(out, linesBefore[i] - linesBefore[i - 1]);
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+	
+	/**
+	 * Returns true if the index was built from the current version of a file, i.e. if the file's size and last
+	 * modified time haven't changed since.
+	 * 
+	 * @param file
+	 *            the CSV file
+	 * @return true if the index is valid for the file
+	 * @throws NullPointerException
+	 *             if file is null
+	 */
+	public boolean isValidFor(final File file) {
+		return file.length() == fileSize && file.lastModified() == lastModified;
+	}
+	
+	/**
+	 * Returns the name of the charset the file was read with.
+	 * 
+	 * @return the charset name
+	 */
+	public String getCharsetName() {
+		return charsetName;
+	}
+	
+	/**
+	 * Returns the number of rows between the rows recorded in the index.
+	 * 
+	 * @return the interval
+	 */
+	public int getInterval() {
+		return interval;
+	}
+	
+	/**
+	 * Returns the number of rows in the file (including the header, if there is one).
+	 * 
+	 * @return the number of rows
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+	
+	/**
+	 * Returns the byte offset of the start of the nearest recorded row at or before a row.
+	 * 
+	 * @param rowNumber
+	 *            the row number (the first row is row 1)
+	 * @return the offset
+	 */
+	long getOffset(final int rowNumber) {
+		return offsets[(rowNumber - 1) / interval];
+	}
+	
+	/**
+	 * Returns the number of lines before the nearest recorded row at or before a row.
+	 * 
+	 * @param rowNumber
+	 *            the row number (the first row is row 1)
+	 * @return the number of lines
+	 */
+	int getLinesBefore(final int rowNumber) {
+		return linesBefore[(rowNumber - 1) / interval];
+	}
+	
+	/**
+	 * Writes a non-negative long using 7 bits per byte.
+	 */
+	private static void writeVarLong(final DataOutputStream out, final long value) throws IOException {
+		long remaining = value;
+		while( (remaining & ~0x7FL) != 0L ) {
+			out.writeByte((int) (remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		out.writeByte((int) remaining);
+	}
+	
+	/**
+	 * Reads a long written by {@link #writeVarLong(DataOutputStream, long)}.
+	 */
+	private static long readVarLong(final DataInputStream in) throws IOException {
+		long value = 0L;
+		for( int shift = 0; shift < 64; shift += 7 ) {
+			final int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if( (b & 0x80) == 0 ) {
+				return value;
+			}
+		}
+		throw new IOException("malformed CSV row index file");
+	}
+	
+	private static long[] copyOf(final long[] array, final int length) {
+		final long[] copy = new long[length];
+		System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+		return copy;
+	}
+	
+	private static int[] copyOf(final int[] array, final int length) {
+		final int[] copy = new int[length];
+		System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+		return copy;
+	}
+}
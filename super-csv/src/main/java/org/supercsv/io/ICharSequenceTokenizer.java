@@ -0,0 +1,52 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.supercsv.exception.SuperCsvException;
+
+/**
+ * The interface for tokenizers that can read a CSV row as reusable <tt>CharSequence</tt> views of their buffer, instead
+ * of creating a String for every column.
+ * 
+ * @since 2.5.0
+ */
+public interface ICharSequenceTokenizer extends ITokenizer {
+	
+	/**
+	 * Reads a CSV row into the supplied List of columns (which can potentially span multiple lines in the file), as
+	 * views of the tokenizer's buffer. The columns list is cleared as the first operation in the method. Any empty
+	 * columns ("") will be added to the list as <tt>null</tt>, exactly as with {@link #readColumns(List)}.
+	 * <p>
+	 * The views are reused: they are only valid until the next call to {@link #readColumns(List)} or
+	 * {@link #readColumnViews(List)} (call <tt>toString()</tt> on any column you need to keep). As with
+	 * <tt>StringBuilder</tt>, views don't override <tt>equals()</tt> or <tt>hashCode()</tt>.
+	 * </p>
+	 * 
+	 * @param columns
+	 *            the List of columns to read into
+	 * @return true if something was read, or false if EOF
+	 * @throws IOException
+	 *             when an IOException occurs
+	 * @throws NullPointerException
+	 *             if columns is null
+	 * @throws SuperCsvException
+	 *             on errors in parsing the input
+	 */
+	boolean readColumnViews(List<CharSequence> columns) throws IOException;
+}
@@ -157,4 +157,80 @@ public interface ICsvBeanReader extends ICsvReader {
 	 * @since 2.2.0
 	 */
 	<T> T read(T bean, String[] nameMapping, CellProcessor... processors) throws IOException;
+	
+	/**
+	 * Reads up to <tt>maxRows</tt> rows of a CSV file into the batch, populating a new instance of the specified class
+	 * for each of them (exactly as {@link #read(Class, String...)} would). If an exception is thrown, the batch contains
+	 * the rows read before the row that caused it.
+	 * 
+	 * @param batch
+	 *            the batch to read into (it's cleared first, and its storage is reused)
+	 * @param maxRows
+	 *            the maximum number of rows to read
+	 * @param clazz
+	 *            the type to instantiate. If the type is a class then a new instance will be created using the default
+	 *            no-args constructor. If the type is an interface, a proxy object which implements the interface will
+	 *            be created instead.
+	 * @param nameMapping
+	 *            an array of Strings linking the CSV columns to their corresponding field in the bean (the array length
+	 *            should match the number of columns). A <tt>null</tt> entry in the array indicates that the column
+	 *            should be ignored (the field in the bean will be null - or its default value).
+	 * @param <T>
+	 *            the bean type
+	 * @return the number of rows read, which is 0 if EOF
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 * @throws IllegalArgumentException
+	 *             if maxRows is less than 1, or nameMapping.length != number of columns read
+	 * @throws NullPointerException
+	 *             if batch, clazz or nameMapping is null
+	 * @throws SuperCsvException
+	 *             if there was a general exception while reading/processing
+	 * @throws SuperCsvReflectionException
+	 *             if there was an reflection exception while mapping the values to the bean
+	 * @since 2.5.0
+	 */
+	<T> int readBatch(CsvBatch<T> batch, int maxRows, Class<T> clazz, String... nameMapping) throws IOException;
+	
+	/**
+	 * Reads up to <tt>maxRows</tt> rows of a CSV file into the batch, populating a new instance of the specified class
+	 * with the processed values of each of them (exactly as {@link #read(Class, String[], CellProcessor...)} would). If
+	 * an exception is thrown, the batch contains the rows read before the row that caused it.
+	 * 
+	 * @param batch
+	 *            the batch to read into (it's cleared first, and its storage is reused)
+	 * @param maxRows
+	 *            the maximum number of rows to read
+	 * @param clazz
+	 *            the type to instantiate. If the type is a class then a new instance will be created using the default
+	 *            no-args constructor. If the type is an interface, a proxy object which implements the interface will
+	 *            be created instead.
+	 * @param nameMapping
+	 *            an array of Strings linking the CSV columns to their corresponding field in the bean (the array length
+	 *            should match the number of columns). A <tt>null</tt> entry in the array indicates that the column
+	 *            should be ignored (the field in the bean will be null - or its default value).
+	 * @param processors
+	 *            an array of CellProcessors used to further process data before it is populated on the bean (each
+	 *            element in the processors array corresponds with a CSV column - the number of processors should match
+	 *            the number of columns). A <tt>null</tt> entry indicates no further processing is required (the
+	 *            unprocessed String value will be set on the bean's field).
+	 * @param <T>
+	 *            the bean type
+	 * @return the number of rows read, which is 0 if EOF
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 * @throws IllegalArgumentException
+	 *             if maxRows is less than 1, or nameMapping.length != number of columns read
+	 * @throws NullPointerException
+	 *             if batch, clazz, nameMapping or processors are null
+	 * @throws SuperCsvConstraintViolationException
+	 *             if a CellProcessor constraint failed
+	 * @throws SuperCsvException
+	 *             if there was a general exception while reading/processing
+	 * @throws SuperCsvReflectionException
+	 *             if there was an reflection exception while mapping the values to the bean
+	 * @since 2.5.0
+	 */
+	<T> int readBatch(CsvBatch<T> batch, int maxRows, Class<T> clazz, String[] nameMapping,
+		CellProcessor... processors) throws IOException;
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.IOException;
+
+import org.supercsv.exception.SuperCsvCellProcessorException;
+import org.supercsv.exception.SuperCsvException;
+
+/**
+ * Interface for readers that read into primitive column vectors.
+ * 
+ * @since 2.5.0
+ */
+public interface ICsvColumnarReader extends ICsvReader {
+	
+	/**
+	 * Reads rows of a CSV file into the batch until it's full (see {@link CsvColumnarBatch#capacity()}) or the end of
+	 * the file is reached, parsing each column as specified by the batch's schema. If an exception is thrown, the batch
+	 * contains the rows read before the row that caused it.
+	 * 
+	 * @param batch
+	 *            the batch to read into (it's cleared first, and its arrays are overwritten)
+	 * @return the number of rows read, which is 0 if EOF
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 * @throws NullPointerException
+	 *             if batch is null
+	 * @throws SuperCsvCellProcessorException
+	 *             if a value couldn't be parsed as the type of its column
+	 * @throws SuperCsvException
+	 *             if the number of columns read doesn't match the schema, or there was a general exception while
+	 *             reading
+	 */
+	int readBatch(CsvColumnarBatch batch) throws IOException;
+}
@@ -69,6 +69,66 @@ public interface ICsvListReader extends ICsvReader {
 	 */
 	List<Object> read(CellProcessor... processors) throws IOException;
 	
+	/**
+	 * Reads a row of a CSV file into the supplied List of Strings (exactly as {@link #read()} would, except that no new
+	 * List is created), so the same List can be reused for every row.
+	 * 
+	 * @param columns
+	 *            the List to read the columns into (it's cleared first)
+	 * @return the supplied List, or null if EOF (in which case the List is unchanged)
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 * @throws NullPointerException
+	 *             if columns is null
+	 * @throws SuperCsvException
+	 *             if there was a general exception while reading/processing
+	 * @since 2.5.0
+	 */
+	List<String> read(List<String> columns) throws IOException;
+	
+	/**
+	 * Reads a row of a CSV file into the supplied array of Strings, if the row fits in it (otherwise a new array is
+	 * created, as with {@link List#toArray(Object[])}). If the array has more elements than the row, the element after
+	 * the last column is set to <tt>null</tt>.
+	 * 
+	 * @param columns
+	 *            the array to read the columns into
+	 * @return the supplied array (or a new array if the row didn't fit in it), or null if EOF
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 * @throws NullPointerException
+	 *             if columns is null
+	 * @throws SuperCsvException
+	 *             if there was a general exception while reading/processing
+	 * @since 2.5.0
+	 */
+	String[] read(String[] columns) throws IOException;
+	
+	/**
+	 * Reads a row of a CSV file into the supplied List of Objects, processing it with the cell processors (exactly as
+	 * {@link #read(CellProcessor...)} would, except that no new List is created), so the same List can be reused for
+	 * every row.
+	 * 
+	 * @param processedColumns
+	 *            the List to read the processed columns into (it's cleared first)
+	 * @param processors
+	 *            an array of CellProcessors used to further process data before it is added to the List (each element
+	 *            in the processors array corresponds with a CSV column - the number of processors should match the
+	 *            number of columns). A <tt>null</tt> entry indicates no further processing is required (the unprocessed
+	 *            String value will be added to the List).
+	 * @return the supplied List, or null if EOF (in which case the List is unchanged)
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 * @throws NullPointerException
+	 *             if processedColumns or processors are null
+	 * @throws SuperCsvConstraintViolationException
+	 *             if a CellProcessor constraint failed
+	 * @throws SuperCsvException
+	 *             if there was a general exception while reading/processing
+	 * @since 2.5.0
+	 */
+	List<Object> read(List<Object> processedColumns, CellProcessor... processors) throws IOException;
+	
 	/**
 	 * Executes the supplied cell processors on the last row of CSV that was read. This should only be used when the
 	 * number of CSV columns is unknown before the row is read, and you are forced to use {@link #read()} instead of
@@ -89,4 +149,56 @@ public interface ICsvListReader extends ICsvReader {
 	 * @since 2.1.0
 	 */
 	List<Object> executeProcessors(CellProcessor... processors);
+	
+	/**
+	 * Reads up to <tt>maxRows</tt> rows of a CSV file into the batch, as Lists of Strings (exactly as {@link #read()}
+	 * would). The Lists are reused by later batches, so they should be copied if they're needed after the next batch is
+	 * read. If an exception is thrown, the batch contains the rows read before the row that caused it.
+	 * 
+	 * @param batch
+	 *            the batch to read into (it's cleared first, and its storage is reused)
+	 * @param maxRows
+	 *            the maximum number of rows to read
+	 * @return the number of rows read, which is 0 if EOF
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 * @throws IllegalArgumentException
+	 *             if maxRows is less than 1
+	 * @throws NullPointerException
+	 *             if batch is null
+	 * @throws SuperCsvException
+	 *             if there was a general exception while reading/processing
+	 * @since 2.5.0
+	 */
+	int readBatch(CsvBatch<List<String>> batch, int maxRows) throws IOException;
+	
+	/**
+	 * Reads up to <tt>maxRows</tt> rows of a CSV file into the batch, processing each of them with the cell processors
+	 * (exactly as {@link #read(CellProcessor...)} would). The Lists are reused by later batches, so they should be
+	 * copied if they're needed after the next batch is read. If an exception is thrown, the batch contains the rows read
+	 * before the row that caused it.
+	 * 
+	 * @param batch
+	 *            the batch to read into (it's cleared first, and its storage is reused)
+	 * @param maxRows
+	 *            the maximum number of rows to read
+	 * @param processors
+	 *            an array of CellProcessors used to further process data before it is added to the List (each element
+	 *            in the processors array corresponds with a CSV column - the number of processors should match the
+	 *            number of columns). A <tt>null</tt> entry indicates no further processing is required (the unprocessed
+	 *            String value will be added to the List).
+	 * @return the number of rows read, which is 0 if EOF
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 * @throws IllegalArgumentException
+	 *             if maxRows is less than 1
+	 * @throws NullPointerException
+	 *             if batch or processors are null
+	 * @throws SuperCsvConstraintViolationException
+	 *             if a CellProcessor constraint failed
+	 * @throws SuperCsvException
+	 *             if there was a general exception while reading/processing
+	 * @since 2.5.0
+	 */
+	int readBatch(CsvBatch<List<Object>> batch, int maxRows, CellProcessor... processors) throws IOException;
 }
@@ -75,4 +75,106 @@ public interface ICsvMapReader extends ICsvReader {
 	 */
 	Map<String, Object> read(String[] nameMapping, CellProcessor[] processors) throws IOException;
 	
+	/**
+	 * Reads a row of a CSV file into an immutable Map backed by a single array, using a compiled name mapping (whose
+	 * names were checked for duplicates when it was compiled, rather than for every row).
+	 * 
+	 * @param nameMapping
+	 *            the compiled name mapping (whose number of columns should match the number of columns)
+	 * @return a Map of column names to column values (Strings, as no processing is performed), or null if EOF
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 * @throws NullPointerException
+	 *             if nameMapping is null
+	 * @throws SuperCsvException
+	 *             if there was a general exception while reading/processing
+	 * @since 2.5.0
+	 */
+	Map<String, String> read(CompiledNameMapping nameMapping) throws IOException;
+	
+	/**
+	 * Reads a row of a CSV file into an immutable Map backed by a single array, using a compiled name mapping (whose
+	 * names were checked for duplicates when it was compiled, rather than for every row), and the supplied processors
+	 * to process the values before adding them to the Map.
+	 * 
+	 * @param nameMapping
+	 *            the compiled name mapping (whose number of columns should match the number of columns)
+	 * @param processors
+	 *            an array of CellProcessors used to further process data before it is added to the Map (each element in
+	 *            the processors array corresponds with a CSV column - the number of processors should match the number
+	 *            of columns). A <tt>null</tt> entry indicates no further processing is required (the unprocessed String
+	 *            value will added to the Map).
+	 * @return a Map of column names to column values, or null if EOF
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 * @throws NullPointerException
+	 *             if nameMapping or processors are null
+	 * @throws SuperCsvConstraintViolationException
+	 *             if a CellProcessor constraint failed
+	 * @throws SuperCsvException
+	 *             if there was a general exception while reading/processing
+	 * @since 2.5.0
+	 */
+	Map<String, Object> read(CompiledNameMapping nameMapping, CellProcessor[] processors) throws IOException;
+	
+	/**
+	 * Reads up to <tt>maxRows</tt> rows of a CSV file into the batch, as Maps (exactly as {@link #read(String...)}
+	 * would). The Maps are reused by later batches, so they should be copied if they're needed after the next batch is
+	 * read. If an exception is thrown, the batch contains the rows read before the row that caused it.
+	 * 
+	 * @param batch
+	 *            the batch to read into (it's cleared first, and its storage is reused)
+	 * @param maxRows
+	 *            the maximum number of rows to read
+	 * @param nameMapping
+	 *            an array of Strings linking the CSV columns to their corresponding entry in the Map (the array length
+	 *            should match the number of columns). A <tt>null</tt> entry in the array indicates that the column
+	 *            should be ignored (e.g. not added to the Map).
+	 * @return the number of rows read, which is 0 if EOF
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 * @throws IllegalArgumentException
+	 *             if maxRows is less than 1
+	 * @throws NullPointerException
+	 *             if batch or nameMapping is null
+	 * @throws SuperCsvException
+	 *             if there was a general exception while reading/processing
+	 * @since 2.5.0
+	 */
+	int readBatch(CsvBatch<Map<String, String>> batch, int maxRows, String... nameMapping) throws IOException;
+	
+	/**
+	 * Reads up to <tt>maxRows</tt> rows of a CSV file into the batch, as Maps of processed values (exactly as
+	 * {@link #read(String[], CellProcessor[])} would). The Maps are reused by later batches, so they should be copied
+	 * if they're needed after the next batch is read. If an exception is thrown, the batch contains the rows read
+	 * before the row that caused it.
+	 * 
+	 * @param batch
+	 *            the batch to read into (it's cleared first, and its storage is reused)
+	 * @param maxRows
+	 *            the maximum number of rows to read
+	 * @param nameMapping
+	 *            an array of Strings linking the CSV columns to their corresponding entry in the Map (the array length
+	 *            should match the number of columns). A <tt>null</tt> entry in the array indicates that the column
+	 *            should be ignored (e.g. not added to the Map).
+	 * @param processors
+	 *            an array of CellProcessors used to further process data before it is added to the Map (each element in
+	 *            the processors array corresponds with a CSV column - the number of processors should match the number
+	 *            of columns). A <tt>null</tt> entry indicates no further processing is required (the unprocessed String
+	 *            value will added to the Map).
+	 * @return the number of rows read, which is 0 if EOF
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 * @throws IllegalArgumentException
+	 *             if maxRows is less than 1
+	 * @throws NullPointerException
+	 *             if batch, nameMapping or processors are null
+	 * @throws SuperCsvConstraintViolationException
+	 *             if a CellProcessor constraint failed
+	 * @throws SuperCsvException
+	 *             if there was a general exception while reading/processing
+	 * @since 2.5.0
+	 */
+	int readBatch(CsvBatch<Map<String, Object>> batch, int maxRows, String[] nameMapping, CellProcessor[] processors)
+		throws IOException;
 }
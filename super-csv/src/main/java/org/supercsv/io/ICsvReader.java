@@ -91,4 +91,16 @@ public interface ICsvReader extends Closeable {
 	 */
 	int length();
 	
+	/**
+	 * Sets the columns to read from the following rows (including the header, if it hasn't been read yet). The values
+	 * of the columns that aren't selected are never created: they're read as <tt>null</tt>, and the rows keep all of
+	 * their columns, so column numbers (in <tt>get()</tt>, the cell processors and any <tt>CsvContext</tt>) are the
+	 * same as in the file. This is much faster when only a few columns of a wide file are needed.
+	 * 
+	 * @param projection
+	 *            the columns to read, or null to read all columns
+	 * @since 2.5.0
+	 */
+	void setColumnProjection(ColumnProjection projection);
+	
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.util.List;
+
+/**
+ * The interface for tokenizers that can skip creating the values of the columns that aren't needed.
+ * 
+ * @since 2.5.0
+ */
+public interface IProjectingTokenizer extends ITokenizer {
+	
+	/**
+	 * Sets the columns to read from the following rows. The columns that aren't selected are still scanned for
+	 * delimiters and quotes, but are added to the list passed to {@link #readColumns(List)} as <tt>null</tt> without
+	 * their value ever being created, so the rows keep all of their columns.
+	 * 
+	 * @param projection
+	 *            the columns to read, or null to read all columns
+	 */
+	void setColumnProjection(ColumnProjection projection);
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * A {@link CsvListReader} that can jump to any row of a file, using the file's {@link CsvRowIndex}: reading resumes
+ * at the nearest row recorded in the index, and the rows before the requested row are skipped without creating their
+ * column values. The file is read with a {@link MappedFileTokenizer}, and the line and row numbers after seeking are
+ * the same as if every row before it had been read.
+ * 
+ * @since 2.5.0
+ */
+public class IndexedCsvListReader extends CsvListReader {
+	
+	private final CsvRowIndex index;
+	
+	private final SeekingTokenizer tokenizer;
+	
+	/**
+	 * Constructs a new <tt>IndexedCsvListReader</tt>, positioned at the start of the file.
+	 * 
+	 * @param file
+	 *            the CSV file
+	 * @param charset
+	 *            the charset of the file
+	 * @param preferences
+	 *            the CSV preferences (the same as were used to build the index)
+	 * @param index
+	 *            the index of the file
+	 * @throws IOException
+	 *             if the file can't be opened
+	 * @throws IllegalArgumentException
+	 *             if the index isn't valid for the file (see {@link CsvRowIndex#isValidFor(File)}) or was built with
+	 *             another charset, if the charset isn't UTF-8 or an ASCII compatible single-byte charset, or if the
+	 *             quote, delimiter or quote escape character isn't an ASCII character
+	 * @throws NullPointerException
+	 *             if file, charset, preferences or index are null
+	 */
+	public IndexedCsvListReader(final File file, final Charset charset, final CsvPreference preferences,
+		final CsvRowIndex index) throws IOException {
+		this(open(file, charset, preferences, index), preferences, index);
+	}
+	
+	/**
+	 * Constructs a new <tt>IndexedCsvListReader</tt> with its tokenizer.
+	 */
+	private IndexedCsvListReader(final SeekingTokenizer tokenizer, final CsvPreference preferences,
+		final CsvRowIndex index) {
+		super(tokenizer, preferences);
+		this.tokenizer = tokenizer;
+		this.index = index;
+	}
+	
+	/**
+	 * Checks the index, then opens the file.
+	 */
+	private static SeekingTokenizer open(final File file, final Charset charset, final CsvPreference preferences,
+		final CsvRowIndex index) throws IOException {
+		if( file == null ) {
+			throw new NullPointerException("file should not be null");
+		} else if( charset == null ) {
+			throw new NullPointerException("charset should not be null");
+		} else if( index == null ) {
+			throw new NullPointerException("index should not be null");
+		} else if( !index.isValidFor(file) ) {
+			throw new IllegalArgumentException(String.format(
+				"the index is out of date: %s has been modified since it was indexed", file));
+		} else if( !index.getCharsetName().equals(charset.name()) ) {
+			throw new IllegalArgumentException(String.format("the index was built with the charset %s, not %s",
+				index.getCharsetName(), charset.name()));
+		}
+		AbstractByteTokenizer.checkSupported(charset, preferences);
+		return new SeekingTokenizer(file, charset, preferences);
+	}
+	
+	/**
+	 * Positions the reader so that the next row read is the row with the supplied number (as returned by
+	 * {@link #getRowNumber()}, so the header is row 1 if there is one). The line and row numbers are then those of the
+	 * row before it.
+	 * 
+	 * @param rowNumber
+	 *            the number of the next row to read (the row after the last row positions the reader at the end of the
+	 *            file)
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws IllegalArgumentException
+	 *             if rowNumber is less than 1, or more than 1 past the last row
+	 */
+	public void seekToRow(final int rowNumber) throws IOException {
+		if( rowNumber < 1 || rowNumber > index.getRowCount() + 1 ) {
+			throw new IllegalArgumentException(String.format("rowNumber should be between 1 and %d but was %d",
+				index.getRowCount() + 1, rowNumber));
+		}
+		if( index.getRowCount() == 0 ) {
+			tokenizer.seek(0L, 0, 0);
+		} else {
+			// the end of the file is found by skipping the last row
+			final int indexedRow = Math.min(rowNumber, index.getRowCount());
+			final int recordedRow = (indexedRow - 1) / index.getInterval() * index.getInterval() + 1;
+			tokenizer.seek(index.getOffset(indexedRow), index.getLinesBefore(indexedRow), rowNumber - recordedRow);
+		}
+		setRowNumber(rowNumber - 1);
+	}
+	
+	/**
+	 * Returns the index of the file.
+	 * 
+	 * @return the index
+	 */
+	public CsvRowIndex getIndex() {
+		return index;
+	}
+	
+	/**
+	 * Tokenizes a file with a {@link MappedFileTokenizer}, which is replaced by a new one starting at another row
+	 * whenever the reader seeks.
+	 */
+	private static final class SeekingTokenizer implements IProjectingTokenizer {
+		
+		private static final ColumnProjection NO_COLUMNS = new ColumnProjection();
+		
+		private final FileInputStream input;
+		
+		private final FileChannel channel;
+		
+		private final long fileSize;
+		
+		private final Charset charset;
+		
+		private final CsvPreference preferences;
+		
+		private final List<String> skipped = new ArrayList<String>();
+		
+		private MappedFileTokenizer current;
+		
+		private ColumnProjection projection;
+		
+		SeekingTokenizer(final File file, final Charset charset, final CsvPreference preferences)
+			throws IOException {
+			this.input = new FileInputStream(file);
+			this.channel = input.getChannel();
+			this.fileSize = channel.size();
+			this.charset = charset;
+			this.preferences = preferences;
+			this.current = newTokenizer(0L, 0);
+		}
+		
+		/**
+		 * Continues tokenizing at a row (recorded in the index), after skipping the supplied number of rows.
+		 */
+		void seek(final long offset, final int linesBefore, final int rowsToSkip) throws IOException {
+			current = newTokenizer(offset, linesBefore);
+			current.setColumnProjection(NO_COLUMNS);
+			int rows = 0;
+			while( rows < rowsToSkip && current.readColumns(skipped) ) {
+				rows++;
+			}
+			current.setColumnProjection(projection);
+		}
+		
+		private MappedFileTokenizer newTokenizer(final long offset, final int linesBefore) {
+			return new MappedFileTokenizer(channel, offset, fileSize, linesBefore, charset, preferences,
+				MappedFileTokenizer.DEFAULT_SEGMENT_SIZE);
+		}
+		
+		public void setColumnProjection(final ColumnProjection projection) {
+			this.projection = projection;
+			current.setColumnProjection(projection);
+		}
+		
+		public boolean readColumns(final List<String> columns) throws IOException {
+			return current.readColumns(columns);
+		}
+		
+		public int getLineNumber() {
+			return current.getLineNumber();
+		}
+		
+		public String getUntokenizedRow() {
+			return current.getUntokenizedRow();
+		}
+		
+		public void close() throws IOException {
+			input.close();
+		}
+	}
+}
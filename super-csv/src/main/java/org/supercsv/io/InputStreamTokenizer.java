@@ -0,0 +1,133 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * A tokenizer that reads the raw bytes of an <tt>InputStream</tt> into a reusable buffer and tokenizes them directly,
+ * instead of decoding the whole input through an <tt>InputStreamReader</tt>. Only the columns that are read are
+ * decoded to Strings (and with {@link #readColumnViews(java.util.List) readColumnViews()} only those whose chars are
+ * accessed), with a direct byte to char conversion for ASCII data and for ISO-8859-1 (see {@link AbstractByteTokenizer}
+ * for the supported charsets). The buffer is enlarged if a single row doesn't fit into it.
+ * <p>
+ * It produces the same columns, line numbers and untokenized rows as the default {@link Tokenizer} reading the stream
+ * through an <tt>InputStreamReader</tt> with the same charset, and can be used with any of the readers, e.g.
+ * </p>
+ * 
+ * <pre>
+ * ICsvListReader listReader = new CsvListReader(new InputStreamTokenizer(in, charset, preferences), preferences);
+ * </pre>
+ * 
+ * @since 2.5.0
+ */
+public class InputStreamTokenizer extends AbstractByteTokenizer {
+	
+	/** the default size of the buffer */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	
+	private final InputStream input;
+	
+	private byte[] buffer;
+	
+	private ByteBuffer window;
+	
+	/**
+	 * Constructs a new <tt>InputStreamTokenizer</tt> with the default buffer size.
+	 * 
+	 * @param input
+	 *            the stream to read
+	 * @param charset
+	 *            the charset of the stream
+	 * @param preferences
+	 *            the CSV preferences
+	 * @throws IllegalArgumentException
+	 *             if the charset isn't UTF-8 or an ASCII compatible single-byte charset, or if the quote, delimiter or
+	 *             quote escape character isn't an ASCII character
+	 * @throws NullPointerException
+	 *             if input, charset or preferences are null
+	 */
+	public InputStreamTokenizer(final InputStream input, final Charset charset, final CsvPreference preferences) {
+		this(input, charset, preferences, DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Constructs a new <tt>InputStreamTokenizer</tt>.
+	 * 
+	 * @param input
+	 *            the stream to read
+	 * @param charset
+	 *            the charset of the stream
+	 * @param preferences
+	 *            the CSV preferences
+	 * @param bufferSize
+	 *            the initial size of the buffer (it's enlarged if a row doesn't fit into it)
+	 * @throws IllegalArgumentException
+	 *             if bufferSize is less than 1, if the charset isn't UTF-8 or an ASCII compatible single-byte charset,
+	 *             or if the quote, delimiter or quote escape character isn't an ASCII character
+	 * @throws NullPointerException
+	 *             if input, charset or preferences are null
+	 */
+	public InputStreamTokenizer(final InputStream input, final Charset charset, final CsvPreference preferences,
+		final int bufferSize) {
+		super(charset, preferences);
+		if( input == null ) {
+			throw new NullPointerException("input should not be null");
+		} else if( bufferSize < 1 ) {
+			throw new IllegalArgumentException(String.format("bufferSize should be at least 1 but was %d", bufferSize));
+		}
+		this.input = input;
+		this.buffer = new byte[bufferSize];
+		this.window = ByteBuffer.wrap(buffer);
+		window.limit(0);
+	}
+	
+	/**
+	 * Moves the bytes that are still needed to the start of the buffer (enlarging it if they fill it), then reads more
+	 * bytes after them.
+	 */
+	@Override
+	protected ByteBuffer nextWindow(final ByteBuffer current, final int keep, final int limit) throws IOException {
+		final int retained = limit - keep;
+		if( retained == buffer.length ) {
+			final byte[] grown = new byte[buffer.length * 2];
+			System.arraycopy(buffer, keep, grown, 0, retained);
+			buffer = grown;
+			window = ByteBuffer.wrap(buffer);
+		} else if( keep > 0 ) {
+			System.arraycopy(buffer, keep, buffer, 0, retained);
+		}
+		
+		int read;
+		do {
+			read = input.read(buffer, retained, buffer.length - retained);
+		} while( read == 0 );
+		window.limit(read < 0 ? retained : retained + read);
+		return window;
+	}
+	
+	/**
+	 * Closes the underlying stream.
+	 */
+	public void close() throws IOException {
+		input.close();
+	}
+}
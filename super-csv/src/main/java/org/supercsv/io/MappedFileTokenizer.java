@@ -0,0 +1,268 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * A tokenizer that reads a file through memory-mapped segments ({@link FileChannel#map(FileChannel.MapMode, long, long)
+ * FileChannel.map}), tokenizing the mapped bytes directly. The file's contents are never copied into a
+ * <tt>Reader</tt>'s buffer or into lines: only the columns that are read are decoded to Strings (see
+ * {@link AbstractByteTokenizer} for the supported charsets). The segments roll forward through the file as it's read,
+ * and a segment is enlarged if a single row doesn't fit into it.
+ * <p>
+ * It produces the same columns, line numbers and untokenized rows as the default {@link Tokenizer} reading the file
+ * through an <tt>InputStreamReader</tt> with the same charset, and can be used with any of the readers, e.g.
+ * </p>
+ * 
+ * <pre>
+ * ICsvBeanReader beanReader = new CsvBeanReader(new MappedFileTokenizer(file, charset, preferences), preferences);
+ * </pre>
+ * 
+ * @since 2.5.0
+ */
+public class MappedFileTokenizer extends AbstractByteTokenizer {
+	
+	/** the default size of the mapped segments */
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+	
+	/* the file, or null if the channel is shared (and closed by its owner) */
+	private final File file;
+	
+	private final FileInputStream input;
+	
+	private final FileChannel channel;
+	
+	/* the offset in the file after the last byte to tokenize */
+	private final long endOffset;
+	
+	private final int segmentSize;
+	
+	/* the offset in the file of the current segment */
+	private long segmentOffset;
+	
+	/* the checkpoint reading started at, or null if it started at the beginning of the file */
+	private CsvCheckpoint resumedFrom;
+	
+	/**
+	 * Constructs a new <tt>MappedFileTokenizer</tt> with the default segment size.
+	 * 
+	 * @param file
+	 *            the CSV file
+	 * @param charset
+	 *            the charset of the file
+	 * @param preferences
+	 *            the CSV preferences
+	 * @throws IOException
+	 *             if the file can't be opened
+	 * @throws IllegalArgumentException
+	 *             if the charset isn't UTF-8 or an ASCII compatible single-byte charset, or if the quote, delimiter or
+	 *             quote escape character isn't an ASCII character
+	 * @throws NullPointerException
+	 *             if file, charset or preferences are null
+	 */
+	public MappedFileTokenizer(final File file, final Charset charset, final CsvPreference preferences)
+		throws IOException {
+		this(file, charset, preferences, DEFAULT_SEGMENT_SIZE);
+	}
+	
+	/**
+	 * Constructs a new <tt>MappedFileTokenizer</tt>.
+	 * 
+	 * @param file
+	 *            the CSV file
+	 * @param charset
+	 *            the charset of the file
+	 * @param preferences
+	 *            the CSV preferences
+	 * @param segmentSize
+	 *            the size of the mapped segments (a segment is enlarged if a row doesn't fit into it)
+	 * @throws IOException
+	 *             if the file can't be opened
+	 * @throws IllegalArgumentException
+	 *             if segmentSize is less than 1, if the charset isn't UTF-8 or an ASCII compatible single-byte charset,
+	 *             or if the quote, delimiter or quote escape character isn't an ASCII character
+	 * @throws NullPointerException
+	 *             if file, charset or preferences are null
+	 */
+	public MappedFileTokenizer(final File file, final Charset charset, final CsvPreference preferences,
+		final int segmentSize) throws IOException {
+		super(charset, preferences);
+		if( file == null ) {
+			throw new NullPointerException("file should not be null");
+		} else if( segmentSize < 1 ) {
+			throw new IllegalArgumentException(String.format("segmentSize should be at least 1 but was %d",
+				segmentSize));
+		}
+		this.segmentSize = segmentSize;
+		this.file = file;
+		this.input = new FileInputStream(file);
+		this.channel = input.getChannel();
+		this.endOffset = channel.size();
+	}
+	
+	/**
+	 * Constructs a new <tt>MappedFileTokenizer</tt> (with the default segment size) that starts reading a file at a
+	 * checkpoint, so the rows before it aren't read at all. The line numbers continue from the checkpoint, as do the
+	 * row numbers of a reader using the tokenizer.
+	 * 
+	 * @param file
+	 *            the CSV file
+	 * @param charset
+	 *            the charset of the file
+	 * @param preferences
+	 *            the CSV preferences (the same as were used when the checkpoint was made)
+	 * @param checkpoint
+	 *            the checkpoint (see {@link AbstractCsvReader#checkpoint()})
+	 * @throws IOException
+	 *             if the file can't be opened
+	 * @throws IllegalArgumentException
+	 *             if the checkpoint isn't valid for the file (see {@link CsvCheckpoint#isValidFor(File)}) or was made
+	 *             with another charset, if the charset isn't UTF-8 or an ASCII compatible single-byte charset, or if
+	 *             the quote, delimiter or quote escape character isn't an ASCII character
+	 * @throws NullPointerException
+	 *             if file, charset, preferences or checkpoint are null
+	 */
+	public MappedFileTokenizer(final File file, final Charset charset, final CsvPreference preferences,
+		final CsvCheckpoint checkpoint) throws IOException {
+		this(file, charset, preferences, DEFAULT_SEGMENT_SIZE);
+		try {
+			if( checkpoint == null ) {
+				throw new NullPointerException("checkpoint should not be null");
+			} else if( !checkpoint.isValidFor(file) ) {
+				throw new IllegalArgumentException(String.format(
+					"the checkpoint is out of date: %s has been modified since it was made", file));
+			} else if( !checkpoint.getCharsetName().equals(charset.name()) ) {
+				throw new IllegalArgumentException(String.format("the checkpoint was made with the charset %s, not %s",
+					checkpoint.getCharsetName(), charset.name()));
+			}
+		}
+		catch(RuntimeException e) {
+			input.close();
+			throw e;
+		}
+		this.segmentOffset = checkpoint.getOffset();
+		this.resumedFrom = checkpoint;
+		if( segmentOffset > 0 ) {
+			resumeAfter(checkpoint.getLineNumber());
+		}
+	}
+	
+	/**
+	 * Constructs a new <tt>MappedFileTokenizer</tt> that tokenizes a range of a (shared) file channel, which must start
+	 * at the beginning of a row. The channel isn't closed by the tokenizer.
+	 * 
+	 * @param channel
+	 *            the file channel
+	 * @param startOffset
+	 *            the offset in the file of the start of the first row to tokenize
+	 * @param endOffset
+	 *            the offset in the file after the last byte to tokenize
+	 * @param linesBefore
+	 *            the number of lines in the file before startOffset
+	 * @param charset
+	 *            the charset of the file
+	 * @param preferences
+	 *            the CSV preferences
+	 * @param segmentSize
+	 *            the size of the mapped segments
+	 */
+	MappedFileTokenizer(final FileChannel channel, final long startOffset, final long endOffset,
+		final int linesBefore, final Charset charset, final CsvPreference preferences, final int segmentSize) {
+		super(charset, preferences);
+		this.file = null;
+		this.input = null;
+		this.channel = channel;
+		this.segmentOffset = startOffset;
+		this.endOffset = endOffset;
+		this.segmentSize = segmentSize;
+		if( startOffset > 0 ) {
+			resumeAfter(linesBefore);
+		}
+	}
+	
+	/**
+	 * Returns the offset in the file of the next byte to be tokenized (after a row has been read, this is the start of
+	 * the next row).
+	 * 
+	 * @return the offset of the next byte
+	 */
+	long getOffset() {
+		return segmentOffset + getPosition();
+	}
+	
+	/**
+	 * Returns the checkpoint after the last row read.
+	 * 
+	 * @param rowNumber
+	 *            the row number of the last row read
+	 * @param header
+	 *            the header, or null if none was read
+	 * @return the checkpoint
+	 * @throws UnsupportedOperationException
+	 *             if the tokenizer reads a shared channel (rather than a file)
+	 */
+	CsvCheckpoint checkpoint(final int rowNumber, final String[] header) {
+		if( file == null ) {
+			throw new UnsupportedOperationException("checkpoints can't be made when reading a shared channel");
+		}
+		return new CsvCheckpoint(file, getCharset().name(), getOffset(), getLineNumber(), rowNumber, header);
+	}
+	
+	/**
+	 * Returns the checkpoint reading started at.
+	 * 
+	 * @return the checkpoint, or null if reading started at the beginning of the file
+	 */
+	CsvCheckpoint getResumedFrom() {
+		return resumedFrom;
+	}
+	
+	/**
+	 * Maps the next segment of the file, starting at the first byte that is still needed.
+	 */
+	@Override
+	protected ByteBuffer nextWindow(final ByteBuffer current, final int keep, final int limit) throws IOException {
+		final long offset = segmentOffset + keep;
+		final long remaining = endOffset - offset;
+		final int retained = limit - keep;
+		if( remaining <= retained ) {
+			return null; // the rest of the file is already mapped
+		}
+		
+		// map at least twice the retained bytes, so a row larger than a segment doesn't cause a remap for every byte
+		final long size = Math.min(remaining, Math.min(Integer.MAX_VALUE, Math.max(segmentSize, 2L * retained)));
+		final ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+		segmentOffset = offset;
+		return segment;
+	}
+	
+	/**
+	 * Closes the underlying file (unless the channel is shared).
+	 */
+	public void close() throws IOException {
+		if( input != null ) {
+			input.close();
+		}
+	}
+}
@@ -0,0 +1,654 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.supercsv.cellprocessor.ift.CellProcessor;
+import org.supercsv.exception.SuperCsvConstraintViolationException;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+import org.supercsv.util.Util;
+
+/**
+ * Reads a single CSV file in parallel. The file is split into chunks of bytes which are tokenized (with a
+ * {@link MappedFileTokenizer}) and processed by the cell processors on the threads of an <tt>ExecutorService</tt>,
+ * while the rows are returned by {@link #read()} either in file order, or in the order the chunks are completed.
+ * <p>
+ * A chunk seldom starts at the beginning of a row, so the start of its first row is found before any tokenizing
+ * starts: a first (also parallel) pass counts the quote characters and line terminators of each chunk, and records
+ * where its first row would start both when the chunk starts inside and outside of a quoted column. As every quote
+ * character switches between quoted and unquoted (an escaped quote is two quote characters), the number of quotes
+ * before a chunk tells which of the two it is. The first pass also counts the lines and rows of each chunk, so every
+ * chunk knows its first line and row number, and the line and row numbers of the rows and of any exceptions (including
+ * their {@link org.supercsv.util.CsvContext CsvContext}) are the same as when reading the file with a
+ * {@link CsvListReader}.
+ * </p>
+ * <p>
+ * This doesn't work when the quote escape character isn't the quote character, or when comments are skipped (as
+ * quotes within comments don't count), in which case the whole file is read as a single chunk (on a single thread).
+ * </p>
+ * <p>
+ * <strong>Please note:</strong> the cell processors are shared by all of the threads, so they must be thread-safe.
+ * This excludes processors that accumulate state across rows, such as
+ * {@link org.supercsv.cellprocessor.constraint.Unique Unique} or {@link org.supercsv.cellprocessor.Collector
+ * Collector}. Once a chunk encounters a malformed row (e.g. with an unmatched quote) the rest of that chunk is
+ * skipped, and reading continues with the next chunk after the exception is thrown.
+ * </p>
+ * 
+ * @since 2.5.0
+ */
+public class ParallelCsvReader implements Closeable {
+	
+	/** the default size of the chunks */
+	public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+	
+	private static final int HEADER_SEGMENT_SIZE = 64 * 1024;
+	
+	private static final byte NEWLINE = '\n';
+	
+	private static final byte CARRIAGE_RETURN = '\r';
+	
+	private static final byte[] UTF_8_BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+	
+	private final FileInputStream input;
+	
+	private final FileChannel channel;
+	
+	private final long fileSize;
+	
+	private final Charset charset;
+	
+	private final CsvPreference preferences;
+	
+	private final CellProcessor[] processors;
+	
+	private final ExecutorService executor;
+	
+	private final int chunkSize;
+	
+	private final boolean ordered;
+	
+	/* the maximum number of chunks being tokenized/processed (or waiting to be read) at any time */
+	private final int maxChunksInFlight;
+	
+	/* the start of the rows that haven't been read yet (after the header), and the lines and rows before it */
+	private long dataStart;
+	
+	private int linesBefore;
+	
+	private int rowsBefore;
+	
+	private boolean started;
+	
+	private Iterator<Chunk> chunksToSubmit;
+	
+	private final LinkedList<Future<List<Row>>> chunksInFlight = new LinkedList<Future<List<Row>>>();
+	
+	private CompletionService<List<Row>> completionService;
+	
+	private List<Row> currentRows = Collections.emptyList();
+	
+	private int currentIndex;
+	
+	private int lineNumber;
+	
+	private int rowNumber;
+	
+	/**
+	 * A range of the file to tokenize, which starts at the beginning of a row.
+	 */
+	private static final class Chunk {
+		
+		private final long start;
+		
+		private long end;
+		
+		private final int linesBefore;
+		
+		private final int rowsBefore;
+		
+		Chunk(final long start, final long end, final int linesBefore, final int rowsBefore) {
+			this.start = start;
+			this.end = end;
+			this.linesBefore = linesBefore;
+			this.rowsBefore = rowsBefore;
+		}
+	}
+	
+	/**
+	 * The statistics of a range of the file, for when the range starts outside ([0]) or inside ([1]) a quoted column.
+	 */
+	private static final class ChunkScan {
+		
+		private int quotes;
+		
+		private int lineTerminators;
+		
+		/* the offset of the first row starting within the range, or -1 if none */
+		private final long[] firstRowStart = { -1L, -1L };
+		
+		/* the number of line terminators in the range before the first row */
+		private final int[] lineTerminatorsBeforeFirstRow = new int[2];
+		
+		/* the number of rows starting within the range */
+		private final int[] rows = new int[2];
+	}
+	
+	/**
+	 * A row that was read (or the exception that occurred when reading/processing it).
+	 */
+	private static final class Row {
+		
+		private final int lineNumber;
+		
+		private final int rowNumber;
+		
+		private List<Object> columns;
+		
+		private RuntimeException exception;
+		
+		Row(final int lineNumber, final int rowNumber) {
+			this.lineNumber = lineNumber;
+			this.rowNumber = rowNumber;
+		}
+	}
+	
+	/**
+	 * Constructs a new <tt>ParallelCsvReader</tt> with the default chunk size, which returns the rows in file order.
+	 * 
+	 * @param file
+	 *            the CSV file
+	 * @param charset
+	 *            the charset of the file
+	 * @param preferences
+	 *            the CSV preferences
+	 * @param processors
+	 *            the (thread-safe) cell processors to process each row with, or null if the rows shouldn't be
+	 *            processed
+	 * @param executor
+	 *            the executor to tokenize and process the chunks with (it isn't shut down by the reader)
+	 * @throws IOException
+	 *             if the file can't be opened
+	 * @throws IllegalArgumentException
+	 *             if the charset isn't UTF-8 or an ASCII compatible single-byte charset, or if the quote, delimiter or
+	 *             quote escape character isn't an ASCII character
+	 * @throws NullPointerException
+	 *             if file, charset, preferences or executor are null
+	 */
+	public ParallelCsvReader(final File file, final Charset charset, final CsvPreference preferences,
+		final CellProcessor[] processors, final ExecutorService executor) throws IOException {
+		this(file, charset, preferences, processors, executor, DEFAULT_CHUNK_SIZE, true);
+	}
+	
+	/**
+	 * Constructs a new <tt>ParallelCsvReader</tt>.
+	 * 
+	 * @param file
+	 *            the CSV file
+	 * @param charset
+	 *            the charset of the file
+	 * @param preferences
+	 *            the CSV preferences
+	 * @param processors
+	 *            the (thread-safe) cell processors to process each row with, or null if the rows shouldn't be
+	 *            processed
+	 * @param executor
+	 *            the executor to tokenize and process the chunks with (it isn't shut down by the reader)
+	 * @param chunkSize
+	 *            the size (in bytes) of the chunks the file is split into
+	 * @param ordered
+	 *            whether the rows are returned in file order (otherwise the rows of each chunk are returned as soon as
+	 *            the chunk is complete)
+	 * @throws IOException
+	 *             if the file can't be opened
+	 * @throws IllegalArgumentException
+	 *             if chunkSize is less than 1, if the charset isn't UTF-8 or an ASCII compatible single-byte charset, or
+	 *             if the quote, delimiter or quote escape character isn't an ASCII character
+	 * @throws NullPointerException
+	 *             if file, charset, preferences or executor are null
+	 */
+	public ParallelCsvReader(final File file, final Charset charset, final CsvPreference preferences,
+		final CellProcessor[] processors, final ExecutorService executor, final int chunkSize, final boolean ordered)
+		throws IOException {
+		if( file == null ) {
+			throw new NullPointerException("file should not be null");
+		} else if( executor == null ) {
+			throw new NullPointerException("executor should not be null");
+		} else if( chunkSize < 1 ) {
+			throw new IllegalArgumentException(String.format("chunkSize should be at least 1 but was %d", chunkSize));
+		}
+		
+		AbstractByteTokenizer.checkSupported(charset, preferences);
+		
+		this.charset = charset;
+		this.preferences = preferences;
+		this.processors = processors;
+		this.executor = executor;
+		this.chunkSize = chunkSize;
+		this.ordered = ordered;
+		this.maxChunksInFlight = 2 * Runtime.getRuntime().availableProcessors();
+		this.input = new FileInputStream(file);
+		this.channel = input.getChannel();
+		this.fileSize = channel.size();
+	}
+	
+	/**
+	 * Reads the header of the CSV file. This must be done before reading any rows, and the header is neither processed
+	 * nor returned by {@link #read()}.
+	 * 
+	 * @param firstLineCheck
+	 *            if true, ensures that this method is only called when reading the first line (as that's where the
+	 *            header is meant to be)
+	 * @return the array of header fields, or null if EOF is encountered
+	 * @throws IOException
+	 *             if an I/O exception occurs
+	 * @throws SuperCsvException
+	 *             if rows have already been read, or if firstLineCheck == true and it's not the first line being read
+	 */
+	public String[] getHeader(final boolean firstLineCheck) throws IOException {
+		if( started ) {
+			throw new SuperCsvException("CSV header must be fetched before any rows are read");
+		} else if( firstLineCheck && linesBefore != 0 ) {
+			throw new SuperCsvException(String.format(
+				"CSV header must be fetched as the first read operation, but %d lines have already been read",
+				linesBefore));
+		}
+		
+		final MappedFileTokenizer tokenizer = new MappedFileTokenizer(channel, dataStart, fileSize, linesBefore,
+			charset, preferences, HEADER_SEGMENT_SIZE);
+		try {
+			final List<String> header = new ArrayList<String>();
+			if( !tokenizer.readColumns(header) ) {
+				return null;
+			}
+			rowNumber = ++rowsBefore;
+			return header.toArray(new String[header.size()]);
+		}
+		finally {
+			// the rows start after the lines read, even if the header was malformed (as with a CsvListReader)
+			dataStart = tokenizer.getOffset();
+			linesBefore = tokenizer.getLineNumber();
+			lineNumber = linesBefore;
+			tokenizer.close();
+		}
+	}
+	
+	/**
+	 * Reads the next row of the CSV file. The first call starts tokenizing/processing all of the chunks.
+	 * 
+	 * @return the List of (processed) columns, or null if EOF
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 * @throws SuperCsvConstraintViolationException
+	 *             if a CellProcessor constraint failed
+	 * @throws SuperCsvException
+	 *             if there was a general exception while reading/processing
+	 */
+	public List<Object> read() throws IOException {
+		if( !started ) {
+			start();
+		}
+		while( currentIndex == currentRows.size() ) {
+			final List<Row> rows = nextChunk();
+			if( rows == null ) {
+				return null; // EOF
+			}
+			currentRows = rows;
+			currentIndex = 0;
+		}
+		
+		final Row row = currentRows.get(currentIndex);
+		currentRows.set(currentIndex++, null); // the row is no longer needed by the reader
+		lineNumber = row.lineNumber;
+		rowNumber = row.rowNumber;
+		if( row.exception != null ) {
+			throw row.exception;
+		}
+		return row.columns;
+	}
+	
+	/**
+	 * Gets the line number (of the last line) of the row that was just read, or of the header if no rows have been read
+	 * yet. The first line of the file is line number 1.
+	 * 
+	 * @return the line number
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+	
+	/**
+	 * Gets the row number of the row that was just read (the header is row 1, if there is one).
+	 * 
+	 * @return the row number
+	 */
+	public int getRowNumber() {
+		return rowNumber;
+	}
+	
+	/**
+	 * Closes the file, and cancels the chunks that are still being tokenized/processed.
+	 */
+	public void close() throws IOException {
+		for( final Future<List<Row>> chunk : chunksInFlight ) {
+			chunk.cancel(true);
+		}
+		chunksInFlight.clear();
+		input.close();
+	}
+	
+	/**
+	 * Splits the file into chunks, then submits the first chunks to the executor.
+	 */
+	private void start() throws IOException {
+		started = true;
+		chunksToSubmit = split().iterator();
+		if( !ordered ) {
+			completionService = new ExecutorCompletionService<List<Row>>(executor);
+		}
+		while( chunksInFlight.size() < maxChunksInFlight && chunksToSubmit.hasNext() ) {
+			submitNextChunk();
+		}
+	}
+	
+	/**
+	 * Submits the next chunk to be tokenized/processed.
+	 */
+	private void submitNextChunk() {
+		final Chunk chunk = chunksToSubmit.next();
+		final Callable<List<Row>> task = new Callable<List<Row>>() {
+			public List<Row> call() throws IOException {
+				return tokenize(chunk);
+			}
+		};
+		chunksInFlight.add(ordered ? executor.submit(task) : completionService.submit(task));
+	}
+	
+	/**
+	 * Waits for the next chunk (in file order, or in the order of completion), then submits another chunk in its place.
+	 * 
+	 * @return the rows of the chunk, or null if there are no chunks left
+	 */
+	private List<Row> nextChunk() throws IOException {
+		if( chunksInFlight.isEmpty() ) {
+			return null;
+		}
+		
+		final Future<List<Row>> chunk;
+		if( ordered ) {
+			chunk = chunksInFlight.removeFirst();
+		} else {
+			try {
+				chunk = completionService.take();
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while waiting for a chunk to be read");
+			}
+			chunksInFlight.remove(chunk);
+		}
+		if( chunksToSubmit.hasNext() ) {
+			submitNextChunk();
+		}
+		return await(chunk);
+	}
+	
+	/**
+	 * Splits the data (everything after the header) into chunks that each start at the beginning of a row.
+	 * 
+	 * @return the chunks
+	 */
+	private List<Chunk> split() throws IOException {
+		final List<Chunk> chunks = new ArrayList<Chunk>();
+		if( dataStart >= fileSize ) {
+			return chunks;
+		}
+		if( preferences.getCommentMatcher() != null || preferences.getQuoteEscapeChar() != preferences.getQuoteChar()
+			|| preferences.getQuoteChar() == ' ' ) {
+			// quotes don't tell where the rows start, so read everything as a single chunk
+			chunks.add(new Chunk(dataStart, fileSize, linesBefore, rowsBefore));
+			return chunks;
+		}
+		
+		// scan the chunks in parallel
+		final List<Future<ChunkScan>> scans = new ArrayList<Future<ChunkScan>>();
+		for( long start = dataStart; start < fileSize; start += chunkSize ) {
+			final long chunkStart = start;
+			final long chunkEnd = Math.min(fileSize, start + chunkSize);
+			scans.add(executor.submit(new Callable<ChunkScan>() {
+				public ChunkScan call() throws IOException {
+					return scan(chunkStart, chunkEnd);
+				}
+			}));
+		}
+		
+		// the data starts outside of quotes, and every quote switches in or out of quotes
+		int quoteParity = 0;
+		int lines = linesBefore;
+		int rows = rowsBefore;
+		Chunk previous = null;
+		for( final Future<ChunkScan> future : scans ) {
+			final ChunkScan scan = await(future);
+			final long firstRowStart = scan.firstRowStart[quoteParity];
+			if( firstRowStart >= 0 ) {
+				if( previous != null ) {
+					previous.end = firstRowStart;
+				}
+				previous = new Chunk(firstRowStart, fileSize, lines + scan.lineTerminatorsBeforeFirstRow[quoteParity],
+					rows);
+				chunks.add(previous);
+			}
+			rows += scan.rows[quoteParity];
+			lines += scan.lineTerminators;
+			quoteParity = (quoteParity + scan.quotes) % 2;
+		}
+		return chunks;
+	}
+	
+	/**
+	 * Scans the range [start, end) of the file, counting its quotes, line terminators and rows and finding the start of
+	 * its first row (assuming the range starts outside and inside of a quoted column). A row is part of the range if it
+	 * starts within it.
+	 * 
+	 * @param start
+	 *            the offset of the start of the range
+	 * @param end
+	 *            the offset of the end of the range
+	 * @return the statistics of the range
+	 */
+	private ChunkScan scan(final long start, final long end) throws IOException {
+		final ChunkScan scan = new ChunkScan();
+		final byte quoteChar = (byte) preferences.getQuoteChar();
+		
+		// include the line terminator that may end just before the range, and enough to look beyond its end
+		final long mappedStart = Math.max(dataStart, start - 2);
+		final long mappedEnd = Math.min(fileSize, end + UTF_8_BOM.length + 1);
+		final ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, mappedStart, mappedEnd - mappedStart);
+		final int rangeStart = (int) (start - mappedStart);
+		final int rangeEnd = (int) (end - mappedStart);
+		final int mappedLength = bytes.limit();
+		
+		if( start == dataStart ) {
+			// the data starts with a row (outside of quotes)
+			scan.firstRowStart[0] = start;
+			if( startsRow(bytes, 0, mappedStart) ) {
+				scan.rows[0]++;
+			}
+		}
+		
+		for( int i = 0; i < rangeEnd; i++ ) {
+			final byte b = bytes.get(i);
+			if( b == quoteChar ) {
+				if( i >= rangeStart ) {
+					scan.quotes++;
+				}
+				continue;
+			}
+			
+			final boolean lineTerminator = b == CARRIAGE_RETURN || b == NEWLINE
+				&& (i == 0 || bytes.get(i - 1) != CARRIAGE_RETURN);
+			if( !lineTerminator ) {
+				continue;
+			}
+			if( i >= rangeStart ) {
+				scan.lineTerminators++;
+			}
+			
+			int next = i + 1; // the start of the next line
+			if( b == CARRIAGE_RETURN && next < mappedLength && bytes.get(next) == NEWLINE ) {
+				next++;
+			}
+			if( next < rangeStart || next >= rangeEnd ) {
+				continue; // the line starts in another range
+			}
+			
+			for( int startParity = 0; startParity < 2; startParity++ ) {
+				if( (startParity + scan.quotes) % 2 != 0 ) {
+					continue; // the line terminator is within quotes
+				}
+				if( scan.firstRowStart[startParity] < 0 ) {
+					scan.firstRowStart[startParity] = mappedStart + next;
+					scan.lineTerminatorsBeforeFirstRow[startParity] = scan.lineTerminators;
+				}
+				if( startsRow(bytes, next, mappedStart) ) {
+					scan.rows[startParity]++;
+				}
+			}
+		}
+		return scan;
+	}
+	
+	/**
+	 * Returns true if the line starting at the index (outside of quotes) is a row, i.e. if it's not the end of the file
+	 * or an empty line that is ignored.
+	 * 
+	 * @param bytes
+	 *            the mapped bytes
+	 * @param index
+	 *            the index of the start of the line
+	 * @param mappedStart
+	 *            the offset in the file of the mapped bytes
+	 * @return true if the line is a row
+	 */
+	private boolean startsRow(final ByteBuffer bytes, final int index, final long mappedStart) {
+		if( mappedStart + index >= fileSize ) {
+			return false;
+		} else if( !preferences.isIgnoreEmptyLines() ) {
+			return true;
+		}
+		
+		int contentStart = index;
+		if( mappedStart + index == 0 && "UTF-8".equals(charset.name()) && bytes.limit() >= UTF_8_BOM.length
+			&& bytes.get(0) == UTF_8_BOM[0] && bytes.get(1) == UTF_8_BOM[1] && bytes.get(2) == UTF_8_BOM[2] ) {
+			contentStart += UTF_8_BOM.length; // the byte order mark is skipped
+		}
+		if( contentStart >= bytes.limit() ) {
+			return false;
+		}
+		final byte b = bytes.get(contentStart);
+		return b != NEWLINE && b != CARRIAGE_RETURN;
+	}
+	
+	/**
+	 * Tokenizes and processes the rows of a chunk.
+	 * 
+	 * @param chunk
+	 *            the chunk
+	 * @return the rows
+	 */
+	private List<Row> tokenize(final Chunk chunk) throws IOException {
+		final List<Row> rows = new ArrayList<Row>();
+		final MappedFileTokenizer tokenizer = new MappedFileTokenizer(channel, chunk.start, chunk.end,
+			chunk.linesBefore, charset, preferences, (int) Math.max(1L, Math.min(chunk.end - chunk.start,
+				MappedFileTokenizer.DEFAULT_SEGMENT_SIZE)));
+		final List<String> columns = new ArrayList<String>();
+		int rowNo = chunk.rowsBefore;
+		try {
+			while( tokenizer.readColumns(columns) ) {
+				final Row row = new Row(tokenizer.getLineNumber(), ++rowNo);
+				try {
+					if( processors == null ) {
+						row.columns = new ArrayList<Object>(columns);
+					} else {
+						row.columns = new ArrayList<Object>(columns.size());
+						Util.executeCellProcessors(row.columns, columns, processors, row.lineNumber, row.rowNumber);
+					}
+				}
+				catch(RuntimeException e) {
+					row.exception = e;
+				}
+				rows.add(row);
+			}
+		}
+		catch(SuperCsvException e) {
+			// the rest of the chunk can't be tokenized reliably
+			final Row row = new Row(tokenizer.getLineNumber(), rowNo);
+			row.exception = e;
+			rows.add(row);
+		}
+		finally {
+			tokenizer.close();
+		}
+		return rows;
+	}
+	
+	/**
+	 * Waits for a task to complete, rethrowing any exception it threw.
+	 * 
+	 * @param task
+	 *            the task
+	 * @return the result of the task
+	 */
+	private static <T> T await(final Future<T> task) throws IOException {
+		try {
+			return task.get();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for a chunk to be read");
+		}
+		catch(ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if( cause instanceof IOException ) {
+				throw (IOException) cause;
+			} else if( cause instanceof RuntimeException ) {
+				throw (RuntimeException) cause;
+			} else if( cause instanceof Error ) {
+				throw (Error) cause;
+			}
+			throw new SuperCsvException("unexpected exception while reading a chunk", null, cause);
+		}
+	}
+}
@@ -0,0 +1,642 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.supercsv.cellprocessor.ift.CellProcessor;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+import org.supercsv.util.CsvContext;
+
+/**
+ * Writes a CSV file in parallel. Each batch of rows (Lists of columns or beans) is split into chunks, which are
+ * processed by the cell processors, encoded and converted to bytes (by a {@link CsvListWriter} or {@link CsvBeanWriter}
+ * with a {@link ByteChannelWriter} for UTF-8, ISO-8859-1 and US-ASCII) on the threads of an <tt>ExecutorService</tt>,
+ * while the bytes of the completed chunks are written to the output in the order the rows were written. The chunks of
+ * any other charset are converted to bytes by a single <tt>OutputStreamWriter</tt> as they're written to the output,
+ * so byte order marks and the state of stateful encodings (e.g. ISO-2022-JP) carry on from chunk to chunk.
+ * <p>
+ * The rows are written asynchronously, so any exception thrown while processing a row is thrown by the method that
+ * writes its chunk to the output (a later <tt>write</tt> method, {@link #flush()} or {@link #close()}). The rows
+ * before it are written, but the rest of the rows are discarded, and every later write throws the same exception. The
+ * row and line numbers of the exception (and its {@link CsvContext}) are the same as when writing the rows with a
+ * single writer, although the line numbers seen by the cell processors start again at 1 in each chunk.
+ * </p>
+ * <p>
+ * <strong>Please note:</strong> the cell processors are shared by all of the threads, so they must be thread-safe,
+ * and the rows (and beans) mustn't be modified until they've been written (e.g. after {@link #flush()}).
+ * </p>
+ * 
+ * @since 2.5.0
+ */
+public class ParallelCsvWriter implements Closeable, Flushable {
+	
+	/** the default number of rows in each chunk */
+	public static final int DEFAULT_CHUNK_SIZE = 4096;
+	
+	/* the initial size of the buffer of each chunk (and of the buffer converting each chunk to bytes) */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private final OutputStream output;
+	
+	/* converts the chars of each chunk to bytes if the charset isn't supported by ByteChannelWriter, otherwise null */
+	private final Writer encoder;
+	
+	private final Charset charset;
+	
+	private final CsvPreference preferences;
+	
+	private final ExecutorService executor;
+	
+	private final int chunkSize;
+	
+	/* the maximum number of chunks being formatted (or waiting to be written) at any time */
+	private final int maxChunksInFlight;
+	
+	private final LinkedList<Future<Chunk>> chunksInFlight = new LinkedList<Future<Chunk>>();
+	
+	/* the rows passed to the writer so far, and the lines written to the output */
+	private int rowNumber;
+	
+	private int lineNumber;
+	
+	/* the exception that stopped the writer, if any */
+	private RuntimeException failure;
+	
+	private boolean closed;
+	
+	/**
+	 * A formatted chunk.
+	 */
+	private static final class Chunk {
+		
+		/* the bytes of the chunk, or null if it's converted to bytes by the encoder */
+		private final ByteArrayOutputStream bytes;
+		
+		/* the chars of the chunk (to be converted to bytes by the encoder), or null */
+		private final CharArrayWriter chars;
+		
+		/* the number of lines in the chunk */
+		private final int lines;
+		
+		/* the exception thrown when formatting the chunk (which ends after the rows before it), or null */
+		private final RuntimeException exception;
+		
+		Chunk(final ByteArrayOutputStream bytes, final CharArrayWriter chars, final int lines,
+			final RuntimeException exception) {
+			this.bytes = bytes;
+			this.chars = chars;
+			this.lines = lines;
+			this.exception = exception;
+		}
+	}
+	
+	/**
+	 * Formats a chunk of rows with a new writer, which carries on from the rows before the chunk (the lines before the
+	 * chunk aren't known until the chunks before it are complete, so its line numbers start at 1).
+	 */
+	private abstract class FormatTask implements Callable<Chunk> {
+		
+		private final Object[] sources;
+		
+		private final int rowsBefore;
+		
+		FormatTask(final Object[] sources, final int rowsBefore) {
+			this.sources = sources;
+			this.rowsBefore = rowsBefore;
+		}
+		
+		/**
+		 * Creates the writer of the chunk.
+		 * 
+		 * @param writer
+		 *            the writer of the chunk's bytes (or chars)
+		 * @return the CSV writer
+		 */
+		abstract AbstractCsvWriter newWriter(Writer writer);
+		
+		/**
+		 * Writes a row of the chunk.
+		 * 
+		 * @param writer
+		 *            the CSV writer
+		 * @param source
+		 *            the row
+		 * @throws IOException
+		 *             if an I/O error occurs
+		 */
+		abstract void write(AbstractCsvWriter writer, Object source) throws IOException;
+		
+		public Chunk call() throws IOException {
+			final ByteArrayOutputStream bytes;
+			final CharArrayWriter chars;
+			final AbstractCsvWriter writer;
+			if( encoder == null ) {
+				bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+				chars = null;
+				writer = newWriter(new ByteChannelWriter(Channels.newChannel(bytes), charset, BUFFER_SIZE, false));
+			} else {
+				bytes = null;
+				chars = new CharArrayWriter(BUFFER_SIZE);
+				writer = newWriter(chars);
+			}
+			writer.setRowNumber(rowsBefore);
+			RuntimeException exception = null;
+			try {
+				for( final Object source : sources ) {
+					write(writer, source);
+				}
+			}
+			catch(RuntimeException e) {
+				exception = e;
+			}
+			writer.close(); // writes the rows before any exception
+			return new Chunk(bytes, chars, writer.getLineNumber(), exception);
+		}
+	}
+	
+	/**
+	 * Creates the task to format a chunk.
+	 */
+	private interface TaskFactory {
+		
+		/**
+		 * Creates the task to format a chunk.
+		 * 
+		 * @param sources
+		 *            the rows of the chunk
+		 * @param rowsBefore
+		 *            the number of rows before the chunk
+		 * @return the task
+		 */
+		FormatTask newTask(Object[] sources, int rowsBefore);
+	}
+	
+	/**
+	 * Constructs a new <tt>ParallelCsvWriter</tt> with the default chunk size, and up to 2 chunks per processor in
+	 * flight.
+	 * 
+	 * @param output
+	 *            the stream to write to
+	 * @param charset
+	 *            the charset to write
+	 * @param preferences
+	 *            the CSV preferences
+	 * @param executor
+	 *            the executor to format the chunks with (it isn't shut down by the writer)
+	 * @throws NullPointerException
+	 *             if output, charset, preferences or executor are null
+	 */
+	public ParallelCsvWriter(final OutputStream output, final Charset charset, final CsvPreference preferences,
+		final ExecutorService executor) {
+		this(output, charset, preferences, executor, DEFAULT_CHUNK_SIZE,
+			2 * Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Constructs a new <tt>ParallelCsvWriter</tt>.
+	 * 
+	 * @param output
+	 *            the stream to write to
+	 * @param charset
+	 *            the charset to write
+	 * @param preferences
+	 *            the CSV preferences
+	 * @param executor
+	 *            the executor to format the chunks with (it isn't shut down by the writer)
+	 * @param chunkSize
+	 *            the number of rows in each chunk
+	 * @param maxChunksInFlight
+	 *            the maximum number of chunks being formatted (or waiting to be written) at any time, after which
+	 *            writing waits for the oldest chunk to be written
+	 * @throws IllegalArgumentException
+	 *             if chunkSize or maxChunksInFlight are less than 1
+	 * @throws NullPointerException
+	 *             if output, charset, preferences or executor are null
+	 */
+	public ParallelCsvWriter(final OutputStream output, final Charset charset, final CsvPreference preferences,
+		final ExecutorService executor, final int chunkSize, final int maxChunksInFlight) {
+		if( output == null ) {
+			throw new NullPointerException("output should not be null");
+		} else if( charset == null ) {
+			throw new NullPointerException("charset should not be null");
+		} else if( preferences == null ) {
+			throw new NullPointerException("preferences should not be null");
+		} else if( executor == null ) {
+			throw new NullPointerException("executor should not be null");
+		} else if( chunkSize < 1 ) {
+			throw new IllegalArgumentException(String.format("chunkSize should be at least 1 but was %d", chunkSize));
+		} else if( maxChunksInFlight < 1 ) {
+			throw new IllegalArgumentException(String.format("maxChunksInFlight should be at least 1 but was %d",
+				maxChunksInFlight));
+		}
+		this.output = output;
+		this.encoder = ByteChannelWriter.supports(charset) ? null : new OutputStreamWriter(output, charset);
+		this.charset = charset;
+		this.preferences = preferences;
+		this.executor = executor;
+		this.chunkSize = chunkSize;
+		this.maxChunksInFlight = maxChunksInFlight;
+	}
+	
+	/**
+	 * Writes the header of the CSV file (after the rows already written).
+	 * 
+	 * @param header
+	 *            the header columns
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws IllegalArgumentException
+	 *             if header.length == 0
+	 * @throws NullPointerException
+	 *             if header is null
+	 * @throws SuperCsvException
+	 *             if a row written before failed
+	 */
+	public void writeHeader(final String... header) throws IOException {
+		if( header == null ) {
+			throw new NullPointerException("header should not be null");
+		} else if( header.length == 0 ) {
+			throw new IllegalArgumentException("header should not be empty");
+		}
+		enqueue(new FormatTask(new Object[] { header }, rowNumber) {
+			@Override
+			AbstractCsvWriter newWriter(final Writer writer) {
+				return new CsvListWriter(writer, preferences);
+			}
+			
+			@Override
+			void write(final AbstractCsvWriter writer, final Object source) throws IOException {
+				writer.writeHeader((String[]) source);
+			}
+		}, 1, false);
+	}
+	
+	/**
+	 * Writes a comment (which must be a single line) after the rows already written.
+	 * 
+	 * @param comment
+	 *            the comment
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws NullPointerException
+	 *             if comment is null
+	 * @throws SuperCsvException
+	 *             if a row written before failed
+	 */
+	public void writeComment(final String comment) throws IOException {
+		if( comment == null ) {
+			throw new NullPointerException("comment should not be null");
+		}
+		enqueue(new FormatTask(new Object[] { comment }, rowNumber) {
+			@Override
+			AbstractCsvWriter newWriter(final Writer writer) {
+				return new CsvListWriter(writer, preferences);
+			}
+			
+			@Override
+			void write(final AbstractCsvWriter writer, final Object source) throws IOException {
+				writer.writeComment((String) source);
+			}
+		}, 0, false);
+	}
+	
+	/**
+	 * Writes a batch of rows (see {@link ICsvListWriter#write(List)}).
+	 * 
+	 * @param rows
+	 *            the rows, which are Lists of columns
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws NullPointerException
+	 *             if rows is null
+	 * @throws SuperCsvException
+	 *             if a row written before failed
+	 */
+	public void writeRows(final Collection<? extends List<?>> rows) throws IOException {
+		writeRows(rows, null);
+	}
+	
+	/**
+	 * Writes a batch of rows, processed by the cell processors (see
+	 * {@link ICsvListWriter#write(List, CellProcessor[])}).
+	 * 
+	 * @param rows
+	 *            the rows, which are Lists of columns
+	 * @param processors
+	 *            the (thread-safe) cell processors, or null if the rows shouldn't be processed
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws NullPointerException
+	 *             if rows is null
+	 * @throws SuperCsvException
+	 *             if a row written before failed
+	 */
+	public void writeRows(final Collection<? extends List<?>> rows, final CellProcessor[] processors)
+		throws IOException {
+		if( rows == null ) {
+			throw new NullPointerException("rows should not be null");
+		}
+		submit(rows, new TaskFactory() {
+			public FormatTask newTask(final Object[] sources, final int rowsBefore) {
+				return new FormatTask(sources, rowsBefore) {
+					@Override
+					AbstractCsvWriter newWriter(final Writer writer) {
+						return new CsvListWriter(writer, preferences);
+					}
+					
+					@Override
+					void write(final AbstractCsvWriter writer, final Object source) throws IOException {
+						if( processors == null ) {
+							((CsvListWriter) writer).write((List<?>) source);
+						} else {
+							((CsvListWriter) writer).write((List<?>) source, processors);
+						}
+					}
+				};
+			}
+		});
+	}
+	
+	/**
+	 * Writes a batch of beans (see {@link ICsvBeanWriter#write(Object, String...)}).
+	 * 
+	 * @param beans
+	 *            the beans
+	 * @param nameMapping
+	 *            the fields of the beans to write to each column
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws NullPointerException
+	 *             if beans or nameMapping are null
+	 * @throws SuperCsvException
+	 *             if a row written before failed
+	 */
+	public void writeBeans(final Collection<?> beans, final String... nameMapping) throws IOException {
+		writeBeans(beans, nameMapping, null);
+	}
+	
+	/**
+	 * Writes a batch of beans, processed by the cell processors (see
+	 * {@link ICsvBeanWriter#write(Object, String[], CellProcessor[])}).
+	 * 
+	 * @param beans
+	 *            the beans
+	 * @param nameMapping
+	 *            the fields of the beans to write to each column
+	 * @param processors
+	 *            the (thread-safe) cell processors, or null if the columns shouldn't be processed
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws NullPointerException
+	 *             if beans or nameMapping are null
+	 * @throws SuperCsvException
+	 *             if a row written before failed
+	 */
+	public void writeBeans(final Collection<?> beans, final String[] nameMapping, final CellProcessor[] processors)
+		throws IOException {
+		if( beans == null ) {
+			throw new NullPointerException("beans should not be null");
+		} else if( nameMapping == null ) {
+			throw new NullPointerException("nameMapping should not be null");
+		}
+		submit(beans, new TaskFactory() {
+			public FormatTask newTask(final Object[] sources, final int rowsBefore) {
+				return new FormatTask(sources, rowsBefore) {
+					@Override
+					AbstractCsvWriter newWriter(final Writer writer) {
+						return new CsvBeanWriter(writer, preferences);
+					}
+					
+					@Override
+					void write(final AbstractCsvWriter writer, final Object source) throws IOException {
+						if( processors == null ) {
+							((CsvBeanWriter) writer).write(source, nameMapping);
+						} else {
+							((CsvBeanWriter) writer).write(source, nameMapping, processors);
+						}
+					}
+				};
+			}
+		});
+	}
+	
+	/**
+	 * Splits a batch of rows into chunks, and submits them to the executor.
+	 * 
+	 * @param sources
+	 *            the rows
+	 * @param factory
+	 *            creates the task to format each chunk
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	private void submit(final Collection<?> sources, final TaskFactory factory) throws IOException {
+		final Object[] rows = sources.toArray();
+		for( int start = 0; start < rows.length; start += chunkSize ) {
+			final Object[] chunk = new Object[Math.min(chunkSize, rows.length - start)];
+			System.arraycopy(rows, start, chunk, 0, chunk.length);
+			enqueue(factory.newTask(chunk, rowNumber), chunk.length, true);
+		}
+	}
+	
+	/**
+	 * Adds a chunk to the chunks in flight, then writes the chunks that are complete (waiting for the oldest if there
+	 * are too many in flight).
+	 * 
+	 * @param task
+	 *            the task to format the chunk
+	 * @param rows
+	 *            the number of rows in the chunk
+	 * @param parallel
+	 *            whether to format the chunk with the executor (otherwise it's formatted by this thread)
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	private void enqueue(final FormatTask task, final int rows, final boolean parallel) throws IOException {
+		ensureWritable();
+		if( parallel ) {
+			chunksInFlight.add(executor.submit(task));
+		} else {
+			final FutureTask<Chunk> formatted = new FutureTask<Chunk>(task);
+			formatted.run();
+			chunksInFlight.add(formatted);
+		}
+		rowNumber += rows;
+		while( !chunksInFlight.isEmpty()
+			&& (chunksInFlight.size() > maxChunksInFlight || chunksInFlight.getFirst().isDone()) ) {
+			writeChunk(chunksInFlight.removeFirst());
+		}
+	}
+	
+	/**
+	 * Writes a chunk to the output, waiting for it to be formatted.
+	 * 
+	 * @param future
+	 *            the chunk
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	private void writeChunk(final Future<Chunk> future) throws IOException {
+		final Chunk chunk = await(future);
+		if( chunk.bytes != null ) {
+			chunk.bytes.writeTo(output);
+		} else {
+			chunk.chars.writeTo(encoder);
+		}
+		final RuntimeException exception = chunk.exception;
+		if( exception != null ) {
+			// the lines in the exception are counted from the start of the chunk
+			if( exception instanceof SuperCsvException && ((SuperCsvException) exception).getCsvContext() != null ) {
+				final CsvContext context = ((SuperCsvException) exception).getCsvContext();
+				context.setLineNumber(lineNumber + context.getLineNumber());
+			}
+			failure = exception;
+			cancelChunksInFlight();
+			throw exception;
+		}
+		lineNumber += chunk.lines;
+	}
+	
+	/**
+	 * Writes all of the chunks in flight, then flushes the output.
+	 * 
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws SuperCsvException
+	 *             if a row failed
+	 */
+	public void flush() throws IOException {
+		ensureWritable();
+		while( !chunksInFlight.isEmpty() ) {
+			writeChunk(chunksInFlight.removeFirst());
+		}
+		if( encoder != null ) {
+			encoder.flush(); // flushes the output as well
+		} else {
+			output.flush();
+		}
+	}
+	
+	/**
+	 * Writes all of the chunks in flight (unless a row has already failed), then closes the output.
+	 * 
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws SuperCsvException
+	 *             if a row failed (that wasn't thrown before)
+	 */
+	public void close() throws IOException {
+		if( closed ) {
+			return;
+		}
+		try {
+			if( failure == null ) {
+				flush();
+			}
+		}
+		finally {
+			closed = true;
+			cancelChunksInFlight();
+			if( encoder != null ) {
+				encoder.close(); // ends the encoding, and closes the output
+			} else {
+				output.close();
+			}
+		}
+	}
+	
+	/**
+	 * Gets the number of rows written, including the rows that haven't been written to the output yet.
+	 * 
+	 * @return the row number of the last row written
+	 */
+	public int getRowNumber() {
+		return rowNumber;
+	}
+	
+	/**
+	 * Gets the number of lines written to the output (the lines of the chunks in flight aren't known until they've been
+	 * formatted, so they aren't included until they're written to the output, e.g. by {@link #flush()}).
+	 * 
+	 * @return the line number of the last line written to the output
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+	
+	private void ensureWritable() throws IOException {
+		if( closed ) {
+			throw new IOException("the writer is closed");
+		} else if( failure != null ) {
+			throw failure;
+		}
+	}
+	
+	private void cancelChunksInFlight() {
+		for( final Future<Chunk> chunk : chunksInFlight ) {
+			chunk.cancel(true);
+		}
+		chunksInFlight.clear();
+	}
+	
+	/**
+	 * Waits for a chunk to be formatted, rethrowing any exception that wasn't caught by its task.
+	 * 
+	 * @param chunk
+	 *            the chunk
+	 * @return the formatted chunk
+	 */
+	private static Chunk await(final Future<Chunk> chunk) throws IOException {
+		try {
+			return chunk.get();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for a chunk to be written");
+		}
+		catch(ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if( cause instanceof IOException ) {
+				throw (IOException) cause;
+			} else if( cause instanceof RuntimeException ) {
+				throw (RuntimeException) cause;
+			} else if( cause instanceof Error ) {
+				throw (Error) cause;
+			}
+			throw new SuperCsvException("unexpected exception while writing a chunk", null, cause);
+		}
+	}
+}
@@ -0,0 +1,602 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.util.LinkedList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * An <tt>InputStream</tt> that decompresses gzip input ahead of the tokenizer, using only the codecs of
+ * <tt>java.util.zip</tt>. A gzip file made of many small members that record their compressed size in their header
+ * (i.e. BGZF, as written by <tt>bgzip</tt>) is decompressed in parallel: the members are read in order and each one is
+ * inflated (and its CRC checked) on the threads of an <tt>ExecutorService</tt>, while the members before it are being
+ * read. Any other gzip input - an ordinary single-member file, or members that don't record their size - is
+ * decompressed by a <tt>GZIPInputStream</tt> on a dedicated (daemon) thread, which reads ahead into a bounded queue of
+ * chunks. Either way the decompressed bytes are exactly those of a <tt>GZIPInputStream</tt>, e.g.
+ * 
+ * <pre>
+ * ICsvListReader listReader = new CsvListReader(new InputStreamTokenizer(new ParallelGzipInputStream(
+ * 	new FileInputStream(file), executor), charset, preferences), preferences);
+ * </pre>
+ * 
+ * <p>
+ * At most <tt>membersInFlight</tt> members (of up to 64 KB each for BGZF) are read ahead. An exception is thrown by
+ * the <tt>read()</tt> call that would have read the first byte it affects, and again by every later call. The stream
+ * should only be used by one thread, and must be closed (to stop the read-ahead thread, if there is one).
+ * </p>
+ * 
+ * @since 2.5.0
+ */
+public class ParallelGzipInputStream extends InputStream {
+	
+	/** the default maximum number of members read ahead */
+	public static final int DEFAULT_MEMBERS_IN_FLIGHT = 64;
+	
+	/* the size of the chunks the single-stream decompressor reads ahead, and how many it reads ahead */
+	private static final int CHUNK_SIZE = 64 * 1024;
+	
+	private static final int CHUNKS_AHEAD = 16;
+	
+	/* the maximum size of a decompressed BGZF member */
+	private static final int MAX_MEMBER_SIZE = 64 * 1024;
+	
+	/* the gzip header flags */
+	private static final int FHCRC = 2;
+	
+	private static final int FEXTRA = 4;
+	
+	private static final int FNAME = 8;
+	
+	private static final int FCOMMENT = 16;
+	
+	private static final byte[] EMPTY = new byte[0];
+	
+	private final InputStream input;
+	
+	private final ExecutorService executor;
+	
+	private final int membersInFlight;
+	
+	/* the members being decompressed, in order */
+	private final LinkedList<Future<byte[]>> inFlight = new LinkedList<Future<byte[]>>();
+	
+	/* the decompressor of the rest of the input, once a member that doesn't record its size is found */
+	private ReadAhead readAhead;
+	
+	private boolean firstMember = true;
+	
+	private boolean membersExhausted;
+	
+	private byte[] current = EMPTY;
+	
+	private int position;
+	
+	private IOException failure;
+	
+	private boolean closed;
+	
+	/**
+	 * Constructs a new <tt>ParallelGzipInputStream</tt>, which reads up to {@link #DEFAULT_MEMBERS_IN_FLIGHT} members
+	 * ahead.
+	 * 
+	 * @param input
+	 *            the gzip input
+	 * @param executor
+	 *            the executor that decompresses the members
+	 * @throws NullPointerException
+	 *             if input or executor are null
+	 */
+	public ParallelGzipInputStream(final InputStream input, final ExecutorService executor) {
+		this(input, executor, DEFAULT_MEMBERS_IN_FLIGHT);
+	}
+	
+	/**
+	 * Constructs a new <tt>ParallelGzipInputStream</tt>.
+	 * 
+	 * @param input
+	 *            the gzip input
+	 * @param executor
+	 *            the executor that decompresses the members
+	 * @param membersInFlight
+	 *            the maximum number of members read ahead
+	 * @throws IllegalArgumentException
+	 *             if membersInFlight is less than 1
+	 * @throws NullPointerException
+	 *             if input or executor are null
+	 */
+	public ParallelGzipInputStream(final InputStream input, final ExecutorService executor, final int membersInFlight) {
+		if( input == null ) {
+			throw new NullPointerException("input should not be null");
+		} else if( executor == null ) {
+			throw new NullPointerException("executor should not be null");
+		} else if( membersInFlight < 1 ) {
+			throw new IllegalArgumentException(String.format("membersInFlight should be at least 1 but was %d",
+				membersInFlight));
+		}
+		this.input = input;
+		this.executor = executor;
+		this.membersInFlight = membersInFlight;
+	}
+	
+	/**
+	 * Returns true if the members read so far have been decompressed in parallel, i.e. if the input is BGZF. This is
+	 * only known once the first byte has been read.
+	 * 
+	 * @return true if the input is decompressed in parallel
+	 */
+	public boolean isParallel() {
+		return !firstMember && readAhead == null;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int read() throws IOException {
+		final byte[] single = new byte[1];
+		return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+		if( closed ) {
+			throw new IOException("the stream is closed");
+		} else if( off < 0 || len < 0 || len > b.length - off ) {
+			throw new IndexOutOfBoundsException();
+		} else if( failure != null ) {
+			throw failure;
+		} else if( len == 0 ) {
+			return 0;
+		}
+		
+		try {
+			while( position == current.length ) {
+				if( !nextChunk() ) {
+					return -1;
+				}
+			}
+		}
+		catch(IOException e) {
+			failure = e;
+			throw e;
+		}
+		final int n = Math.min(len, current.length - position);
+		System.arraycopy(current, position, b, off, n);
+		position += n;
+		return n;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int available() throws IOException {
+		return closed ? 0 : current.length - position;
+	}
+	
+	/**
+	 * Stops decompressing (the read-ahead thread, if there is one, is stopped and the members in flight are
+	 * cancelled), and closes the input.
+	 */
+	@Override
+	public void close() throws IOException {
+		if( closed ) {
+			return;
+		}
+		closed = true;
+		for( final Future<byte[]> member : inFlight ) {
+			member.cancel(false);
+		}
+		inFlight.clear();
+		if( readAhead != null ) {
+			readAhead.stop();
+		}
+		input.close();
+	}
+	
+	/**
+	 * Makes the next chunk of decompressed bytes current.
+	 * 
+	 * @return false if there are no more
+	 */
+	private boolean nextChunk() throws IOException {
+		while( readAhead == null && !membersExhausted && inFlight.size() < membersInFlight ) {
+			final byte[] member = readMember();
+			if( member != null ) {
+				inFlight.addLast(executor.submit(new Inflate(member)));
+			}
+		}
+		
+		if( !inFlight.isEmpty() ) {
+			current = await(inFlight.removeFirst());
+		} else if( readAhead != null ) {
+			current = readAhead.next();
+			if( current == null ) {
+				current = EMPTY;
+				return false;
+			}
+		} else {
+			return false;
+		}
+		position = 0;
+		return true;
+	}
+	
+	/**
+	 * Reads the next member that records its size. If the next member doesn't, the rest of the input is handed to the
+	 * single-stream decompressor instead.
+	 * 
+	 * @return the member, or null if there isn't one
+	 */
+	private byte[] readMember() throws IOException {
+		final byte[] header = new byte[12];
+		final int headerRead = readFully(input, header, 0, 10);
+		if( headerRead == 0 ) {
+			if( firstMember ) {
+				throw new EOFException();
+			}
+			membersExhausted = true;
+			return null;
+		} else if( headerRead < 2 || (header[0] & 0xff) != 0x1f || (header[1] & 0xff) != 0x8b ) {
+			if( !firstMember ) {
+				// like GZIPInputStream, anything after the last member is ignored
+				membersExhausted = true;
+				return null;
+			}
+			throw new ZipException("Not in GZIP format");
+		} else if( headerRead < 10 ) {
+			throw new EOFException("Unexpected end of ZLIB input stream");
+		}
+		
+		final boolean first = firstMember;
+		firstMember = false;
+		int headerLength = 10;
+		byte[] extra = EMPTY;
+		if( (header[3] & FEXTRA) != 0 ) {
+			if( readFully(input, header, 10, 2) < 2 ) {
+				throw new EOFException("Unexpected end of ZLIB input stream");
+			}
+			headerLength = 12;
+			extra = new byte[readUnsignedShort(header, 10)];
+			if( readFully(input, extra, 0, extra.length) < extra.length ) {
+				throw new EOFException("Unexpected end of ZLIB input stream");
+			}
+			
+			final int blockSize = getBlockSize(extra);
+			if( blockSize != -1 ) {
+				if( blockSize < headerLength + extra.length + 8 ) {
+					throw new ZipException(String.format("invalid BGZF block size %d", blockSize));
+				}
+				final byte[] member = new byte[blockSize];
+				System.arraycopy(header, 0, member, 0, headerLength);
+				System.arraycopy(extra, 0, member, headerLength, extra.length);
+				final int start = headerLength + extra.length;
+				if( readFully(input, member, start, blockSize - start) < blockSize - start ) {
+					throw new EOFException("Unexpected end of ZLIB input stream");
+				}
+				return member;
+			}
+		}
+		
+		// decompress the rest of the input (starting with this member) as a single stream
+		final byte[] pushBack = new byte[headerLength + extra.length];
+		System.arraycopy(header, 0, pushBack, 0, headerLength);
+		System.arraycopy(extra, 0, pushBack, headerLength, extra.length);
+		readAhead = new ReadAhead(new SequenceInputStream(new ByteArrayInputStream(pushBack), input), first);
+		readAhead.start();
+		return null;
+	}
+	
+	/**
+	 * Waits for a member to be decompressed.
+	 * 
+	 * @return the decompressed member
+	 */
+	private static byte[] await(final Future<byte[]> member) throws IOException {
+		try {
+			return member.get();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for a member to be decompressed");
+		}
+		catch(ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if( cause instanceof IOException ) {
+				throw (IOException) cause;
+			} else if( cause instanceof RuntimeException ) {
+				throw (RuntimeException) cause;
+			} else if( cause instanceof Error ) {
+				throw (Error) cause;
+			}
+			throw new IOException(String.valueOf(cause));
+		}
+	}
+	
+	/**
+	 * Returns the size of a BGZF member, from the 'BC' subfield of its extra field.
+	 * 
+	 * @return the size of the member, or -1 if it isn't recorded
+	 */
+	private static int getBlockSize(final byte[] extra) {
+		int i = 0;
+		while( i + 4 <= extra.length ) {
+			final int length = readUnsignedShort(extra, i + 2);
+			if( extra[i] == 'B' && extra[i + 1] == 'C' && length == 2 && i + 6 <= extra.length ) {
+				return readUnsignedShort(extra, i + 4) + 1;
+			}
+			i += 4 + length;
+		}
+		return -1;
+	}
+	
+	private static int readUnsignedShort(final byte[] b, final int off) {
+		return (b[off] & 0xff) | (b[off + 1] & 0xff) << 8;
+	}
+	
+	private static long readUnsignedInt(final byte[] b, final int off) {
+		return (readUnsignedShort(b, off) | (long) readUnsignedShort(b, off + 2) << 16) & 0xffffffffL;
+	}
+	
+	/**
+	 * Reads until <tt>len</tt> bytes have been read, or EOF.
+	 * 
+	 * @return the number of bytes read
+	 */
+	private static int readFully(final InputStream in, final byte[] b, final int off, final int len)
+		throws IOException {
+		int total = 0;
+		while( total < len ) {
+			final int n = in.read(b, off + total, len - total);
+			if( n == -1 ) {
+				break;
+			}
+			total += n;
+		}
+		return total;
+	}
+	
+	/**
+	 * Decompresses a member, and checks its CRC and size.
+	 */
+	private static final class Inflate implements Callable<byte[]> {
+		
+		private final byte[] member;
+		
+		Inflate(final byte[] member) {
+			this.member = member;
+		}
+		
+		public byte[] call() throws IOException {
+			final int flags = member[3];
+			int start = 10;
+			if( (flags & FEXTRA) != 0 ) {
+				start += 2 + readUnsignedShort(member, 10);
+			}
+			if( (flags & FNAME) != 0 ) {
+				start = skipZeroTerminated(start);
+			}
+			if( (flags & FCOMMENT) != 0 ) {
+				start = skipZeroTerminated(start);
+			}
+			if( (flags & FHCRC) != 0 ) {
+				start += 2;
+			}
+			final int trailer = member.length - 8;
+			if( start > trailer ) {
+				throw new ZipException("Corrupt GZIP header");
+			}
+			final long size = readUnsignedInt(member, trailer + 4);
+			if( size > MAX_MEMBER_SIZE ) {
+				throw new ZipException(String.format("invalid BGZF member size %d", size));
+			}
+			
+			final byte[] decompressed = new byte[(int) size];
+			final Inflater inflater = new Inflater(true);
+			try {
+				inflater.setInput(member, start, trailer - start);
+				int n = 0;
+				while( n < decompressed.length ) {
+					final int inflated = inflater.inflate(decompressed, n, decompressed.length - n);
+					if( inflated == 0
+						&& (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()) ) {
+						break;
+					}
+					n += inflated;
+				}
+				if( n == decompressed.length && !inflater.finished() ) {
+					// there should be no more data than the trailer says
+					n += inflater.inflate(new byte[1]);
+				}
+				if( n != decompressed.length || !inflater.finished() ) {
+					throw new ZipException("Corrupt GZIP trailer");
+				}
+			}
+			catch(DataFormatException e) {
+				final String message = e.getMessage();
+				throw new ZipException(message != null ? message : "Invalid ZLIB data format");
+			}
+			finally {
+				inflater.end();
+			}
+			
+			final CRC32 crc = new CRC32();
+			crc.update(decompressed);
+			if( crc.getValue() != readUnsignedInt(member, trailer) ) {
+				throw new ZipException("Corrupt GZIP trailer");
+			}
+			return decompressed;
+		}
+		
+		private int skipZeroTerminated(final int start) throws ZipException {
+			int i = start;
+			while( i < member.length && member[i] != 0 ) {
+				i++;
+			}
+			if( i == member.length ) {
+				throw new ZipException("Corrupt GZIP header");
+			}
+			return i + 1;
+		}
+	}
+	
+	/**
+	 * Decompresses the rest of the input with a <tt>GZIPInputStream</tt> on a dedicated thread, which reads ahead into
+	 * a bounded queue of chunks.
+	 */
+	private static final class ReadAhead implements Runnable {
+		
+		/* marks the end of the decompressed bytes in the queue */
+		private static final Object END = new Object();
+		
+		private final InputStream compressed;
+		
+		/* true if the input starts with the first member (so an invalid header is an error) */
+		private final boolean first;
+		
+		private final BlockingQueue<Object> chunks = new ArrayBlockingQueue<Object>(CHUNKS_AHEAD);
+		
+		private Thread thread;
+		
+		private volatile boolean stopped;
+		
+		private boolean finished;
+		
+		ReadAhead(final InputStream compressed, final boolean first) {
+			this.compressed = compressed;
+			this.first = first;
+		}
+		
+		void start() {
+			thread = new Thread(this, "super-csv-gzip-read-ahead");
+			thread.setDaemon(true);
+			thread.start();
+		}
+		
+		void stop() {
+			stopped = true;
+			thread.interrupt();
+		}
+		
+		public void run() {
+			Object chunk;
+			try {
+				chunk = decompress();
+			}
+			catch(InterruptedException e) {
+				return; // stopped
+			}
+			catch(Throwable t) {
+				chunk = t;
+			}
+			if( !stopped ) {
+				try {
+					chunks.put(chunk);
+				}
+				catch(InterruptedException e) {
+					// stopped while waiting for the reader
+				}
+			}
+		}
+		
+		/**
+		 * Decompresses the input into the queue.
+		 * 
+		 * @return END, once all of the input is decompressed
+		 */
+		private Object decompress() throws IOException, InterruptedException {
+			final GZIPInputStream gzip;
+			try {
+				gzip = new GZIPInputStream(compressed, CHUNK_SIZE);
+			}
+			catch(EOFException e) {
+				if( first ) {
+					throw e;
+				}
+				return END;
+			}
+			try {
+				while( !stopped ) {
+					final byte[] chunk = new byte[CHUNK_SIZE];
+					final int n = readFully(gzip, chunk, 0, chunk.length);
+					if( n == 0 ) {
+						break;
+					} else if( n < chunk.length ) {
+						final byte[] last = new byte[n];
+						System.arraycopy(chunk, 0, last, 0, n);
+						chunks.put(last);
+						break;
+					}
+					chunks.put(chunk);
+				}
+			}
+			finally {
+				gzip.close(); // ends its Inflater
+			}
+			return END;
+		}
+		
+		/**
+		 * Waits for the next chunk of decompressed bytes.
+		 * 
+		 * @return the chunk, or null if there are no more
+		 */
+		byte[] next() throws IOException {
+			if( finished ) {
+				return null;
+			}
+			final Object chunk;
+			try {
+				chunk = chunks.take();
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while waiting for the input to be decompressed");
+			}
+			if( chunk instanceof byte[] ) {
+				return (byte[]) chunk;
+			}
+			finished = true;
+			if( chunk instanceof IOException ) {
+				throw (IOException) chunk;
+			} else if( chunk instanceof RuntimeException ) {
+				throw (RuntimeException) chunk;
+			} else if( chunk instanceof Error ) {
+				throw (Error) chunk;
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,467 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.supercsv.cellprocessor.ift.CellProcessor;
+import org.supercsv.exception.SuperCsvConstraintViolationException;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+import org.supercsv.util.Util;
+
+/**
+ * Reads a CSV file with its cell processors executed in parallel, for when processing the rows (e.g. parsing dates or
+ * decimals, matching regular expressions, or looking values up) costs more than tokenizing them. Unlike the
+ * {@link ParallelCsvReader}, it reads from any tokenizer (or <tt>Reader</tt>), as the rows are pipelined: a dedicated
+ * thread tokenizes batches of rows and submits each batch to an <tt>ExecutorService</tt>, whose threads execute the
+ * cell processors while the following batches are tokenized, and {@link #read()} returns the processed rows in file
+ * order. The number of batches in flight is bounded, so the tokenizing thread waits when the workers (or the reader)
+ * fall behind. Throughput therefore grows with the number of workers until the tokenizing thread is the bottleneck.
+ * <p>
+ * The line and row numbers of the rows and of any exceptions (including their {@link org.supercsv.util.CsvContext
+ * CsvContext}) are the same as when reading the file with a {@link CsvListReader}, and an exception is thrown by the
+ * <tt>read()</tt> call that would have read its row. Reading can continue after a <tt>SuperCsvException</tt>, but not
+ * after an <tt>IOException</tt> (which is thrown again by every later call).
+ * </p>
+ * <p>
+ * <strong>Stateful processors:</strong> the <tt>processors</tt> are shared by all of the workers, and the rows of
+ * different batches are processed concurrently and out of order, so they must be thread-safe and must not depend on
+ * the rows processed before (e.g. {@link org.supercsv.cellprocessor.ParseDate ParseDate},
+ * {@link org.supercsv.cellprocessor.ParseBigDecimal ParseBigDecimal} or
+ * {@link org.supercsv.cellprocessor.constraint.StrRegEx StrRegEx}). Processors that accumulate state across rows -
+ * such as {@link org.supercsv.cellprocessor.constraint.Unique Unique},
+ * {@link org.supercsv.cellprocessor.constraint.UniqueHashCode UniqueHashCode},
+ * {@link org.supercsv.cellprocessor.Collector Collector} or an
+ * {@link org.supercsv.cellprocessor.constraint.Equals#Equals() Equals} without a constant - belong in the
+ * <tt>orderedProcessors</tt> instead. These are executed by the thread calling <tt>read()</tt>, on the output of the
+ * parallel processors, one row at a time in file order: so they see exactly the same values in the same order as they
+ * would with a <tt>CsvListReader</tt>, and needn't be thread-safe.
+ * </p>
+ * 
+ * @since 2.5.0
+ */
+public class PipelinedCsvReader implements Closeable {
+	
+	/** the default number of rows in each batch submitted to the executor */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+	
+	private final ITokenizer tokenizer;
+	
+	private final CellProcessor[] processors;
+	
+	private final CellProcessor[] orderedProcessors;
+	
+	private final ExecutorService executor;
+	
+	private final int batchSize;
+	
+	/* the batches submitted to the executor in file order (a batch of null marks the end of the rows) */
+	private final BlockingQueue<Future<List<Row>>> batchesInFlight;
+	
+	private Thread tokenizingThread;
+	
+	private volatile boolean closed;
+	
+	/* the rows before the first row read by the tokenizing thread */
+	private int rowsBefore;
+	
+	private List<Row> currentRows = Collections.emptyList();
+	
+	private int currentIndex;
+	
+	private boolean finished;
+	
+	private Throwable failure;
+	
+	private int lineNumber;
+	
+	private int rowNumber;
+	
+	/**
+	 * A row that was read (or the exception that occurred when reading/processing it).
+	 */
+	private static final class Row {
+		
+		private final int lineNumber;
+		
+		private final int rowNumber;
+		
+		/* the tokenized columns, replaced by the processed columns */
+		private List<Object> columns;
+		
+		private Throwable exception;
+		
+		/* true if reading can't continue after the exception */
+		private boolean fatal;
+		
+		Row(final int lineNumber, final int rowNumber) {
+			this.lineNumber = lineNumber;
+			this.rowNumber = rowNumber;
+		}
+	}
+	
+	/**
+	 * Constructs a new <tt>PipelinedCsvReader</tt> with the default tokenizer and batch size, and no ordered
+	 * processors. Note that the <tt>reader</tt> will be wrapped in a <tt>BufferedReader</tt> before accessed.
+	 * 
+	 * @param reader
+	 *            the reader
+	 * @param preferences
+	 *            the CSV preferences
+	 * @param processors
+	 *            the (thread-safe and stateless) cell processors executed by the executor, or null if the rows
+	 *            shouldn't be processed
+	 * @param executor
+	 *            the executor to process the batches of rows with (it isn't shut down by the reader)
+	 * @throws NullPointerException
+	 *             if reader, preferences or executor are null
+	 */
+	public PipelinedCsvReader(final Reader reader, final CsvPreference preferences, final CellProcessor[] processors,
+		final ExecutorService executor) {
+		this(AbstractCsvReader.newTokenizer(reader, preferences), processors, null, executor, DEFAULT_BATCH_SIZE);
+	}
+	
+	/**
+	 * Constructs a new <tt>PipelinedCsvReader</tt>.
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer, which is run on the tokenizing thread once reading starts
+	 * @param processors
+	 *            the (thread-safe and stateless) cell processors executed by the executor, or null if the rows
+	 *            shouldn't be processed
+	 * @param orderedProcessors
+	 *            the cell processors executed (after the other processors) by the thread calling {@link #read()},
+	 *            one row at a time in file order, or null if there aren't any
+	 * @param executor
+	 *            the executor to process the batches of rows with (it isn't shut down by the reader)
+	 * @param batchSize
+	 *            the number of rows in each batch submitted to the executor
+	 * @throws IllegalArgumentException
+	 *             if batchSize is less than 1
+	 * @throws NullPointerException
+	 *             if tokenizer or executor are null
+	 */
+	public PipelinedCsvReader(final ITokenizer tokenizer, final CellProcessor[] processors,
+		final CellProcessor[] orderedProcessors, final ExecutorService executor, final int batchSize) {
+		if( tokenizer == null ) {
+			throw new NullPointerException("tokenizer should not be null");
+		} else if( executor == null ) {
+			throw new NullPointerException("executor should not be null");
+		} else if( batchSize < 1 ) {
+			throw new IllegalArgumentException(String.format("batchSize should be at least 1 but was %d", batchSize));
+		}
+		this.tokenizer = tokenizer;
+		this.processors = processors;
+		this.orderedProcessors = orderedProcessors;
+		this.executor = executor;
+		this.batchSize = batchSize;
+		this.batchesInFlight = new ArrayBlockingQueue<Future<List<Row>>>(2 * Runtime.getRuntime()
+			.availableProcessors());
+	}
+	
+	/**
+	 * Reads the header of the CSV file. This must be done before reading any rows, and the header is neither processed
+	 * nor returned by {@link #read()}.
+	 * 
+	 * @param firstLineCheck
+	 *            if true, ensures that this method is only called when reading the first line (as that's where the
+	 *            header is meant to be)
+	 * @return the array of header fields, or null if EOF is encountered
+	 * @throws IOException
+	 *             if an I/O exception occurs
+	 * @throws SuperCsvException
+	 *             if rows have already been read, or if firstLineCheck == true and it's not the first line being read
+	 */
+	public String[] getHeader(final boolean firstLineCheck) throws IOException {
+		if( tokenizingThread != null ) {
+			throw new SuperCsvException("CSV header must be fetched before any rows are read");
+		} else if( firstLineCheck && tokenizer.getLineNumber() != 0 ) {
+			throw new SuperCsvException(String.format(
+				"CSV header must be fetched as the first read operation, but %d lines have already been read",
+				tokenizer.getLineNumber()));
+		}
+		
+		final List<String> header = new ArrayList<String>();
+		final boolean found = tokenizer.readColumns(header);
+		lineNumber = tokenizer.getLineNumber();
+		if( !found ) {
+			return null;
+		}
+		rowNumber = ++rowsBefore;
+		return header.toArray(new String[header.size()]);
+	}
+	
+	/**
+	 * Reads the next row of the CSV file, which has been processed by the processors, and is now processed by the
+	 * ordered processors. The first call starts the tokenizing thread.
+	 * 
+	 * @return the List of (processed) columns, or null if EOF
+	 * @throws IOException
+	 *             if an I/O error occurred
+	 * @throws SuperCsvConstraintViolationException
+	 *             if a CellProcessor constraint failed
+	 * @throws SuperCsvException
+	 *             if there was a general exception while reading/processing
+	 */
+	public List<Object> read() throws IOException {
+		if( closed ) {
+			throw new IOException("the reader has been closed");
+		} else if( tokenizingThread == null ) {
+			startTokenizing();
+		}
+		if( failure != null ) {
+			throw rethrow(failure);
+		}
+		
+		while( currentIndex == currentRows.size() ) {
+			if( finished ) {
+				return null;
+			}
+			final List<Row> rows = await(batchesInFlight);
+			if( rows == null ) {
+				finished = true;
+				return null; // EOF
+			}
+			currentRows = rows;
+			currentIndex = 0;
+		}
+		
+		final Row row = currentRows.get(currentIndex);
+		currentRows.set(currentIndex++, null); // the row is no longer needed by the reader
+		lineNumber = row.lineNumber;
+		rowNumber = row.rowNumber;
+		if( row.exception != null ) {
+			if( row.fatal ) {
+				failure = row.exception;
+			}
+			throw rethrow(row.exception);
+		} else if( orderedProcessors == null ) {
+			return row.columns;
+		}
+		
+		final List<Object> processedColumns = new ArrayList<Object>(row.columns.size());
+		Util.executeCellProcessors(processedColumns, row.columns, orderedProcessors, lineNumber, rowNumber);
+		return processedColumns;
+	}
+	
+	/**
+	 * Gets the line number (of the last line) of the row that was just read, or of the header if no rows have been read
+	 * yet. The first line of the file is line number 1.
+	 * 
+	 * @return the line number
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+	
+	/**
+	 * Gets the row number of the row that was just read (the header is row 1, if there is one).
+	 * 
+	 * @return the row number
+	 */
+	public int getRowNumber() {
+		return rowNumber;
+	}
+	
+	/**
+	 * Stops the tokenizing thread (waiting for it to finish tokenizing the row it's reading), cancels the batches that
+	 * are still being processed, and closes the tokenizer.
+	 */
+	public void close() throws IOException {
+		closed = true;
+		final Thread thread = tokenizingThread;
+		if( thread != null ) {
+			thread.interrupt();
+			try {
+				thread.join();
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while waiting for the tokenizing thread to stop");
+			}
+			for( final Future<List<Row>> batch : batchesInFlight ) {
+				batch.cancel(true);
+			}
+			batchesInFlight.clear();
+		}
+		tokenizer.close();
+	}
+	
+	/**
+	 * Starts the tokenizing thread.
+	 */
+	private void startTokenizing() {
+		tokenizingThread = new Thread(new Runnable() {
+			public void run() {
+				tokenize();
+			}
+		}, "super-csv-pipeline");
+		tokenizingThread.setDaemon(true);
+		tokenizingThread.start();
+	}
+	
+	/**
+	 * Tokenizes batches of rows and submits them to the executor (run by the tokenizing thread) until EOF, an
+	 * exception that stops reading, or the reader is closed.
+	 */
+	private void tokenize() {
+		try {
+			final List<String> columns = new ArrayList<String>();
+			int rowNo = rowsBefore;
+			boolean stop = false;
+			while( !stop ) {
+				final List<Row> rows = new ArrayList<Row>(batchSize);
+				while( rows.size() < batchSize ) {
+					try {
+						if( !tokenizer.readColumns(columns) ) {
+							stop = true;
+							break;
+						}
+						final Row row = new Row(tokenizer.getLineNumber(), ++rowNo);
+						row.columns = new ArrayList<Object>(columns);
+						rows.add(row);
+					}
+					catch(SuperCsvException e) {
+						// the tokenizer can carry on with the next row
+						final Row row = new Row(tokenizer.getLineNumber(), rowNo);
+						row.exception = e;
+						rows.add(row);
+					}
+					catch(IOException e) {
+						final Row row = new Row(tokenizer.getLineNumber(), rowNo);
+						row.exception = e;
+						row.fatal = true;
+						rows.add(row);
+						stop = true;
+						break;
+					}
+				}
+				if( !rows.isEmpty() ) {
+					batchesInFlight.put(executor.submit(new Callable<List<Row>>() {
+						public List<Row> call() {
+							return process(rows);
+						}
+					}));
+				}
+			}
+			batchesInFlight.put(completed(null));
+		}
+		catch(InterruptedException e) {
+			// the reader was closed
+		}
+		catch(Throwable t) {
+			// e.g. the executor rejected a batch: pass the failure on
+			final Row row = new Row(tokenizer.getLineNumber(), 0);
+			row.exception = t;
+			row.fatal = true;
+			try {
+				batchesInFlight.put(completed(Collections.singletonList(row)));
+			}
+			catch(InterruptedException e) {
+				// the reader was closed
+			}
+		}
+	}
+	
+	/**
+	 * Executes the processors on a batch of rows (run by the executor).
+	 * 
+	 * @param rows
+	 *            the rows
+	 * @return the processed rows
+	 */
+	private List<Row> process(final List<Row> rows) {
+		if( processors == null ) {
+			return rows;
+		}
+		for( final Row row : rows ) {
+			if( row.exception != null ) {
+				continue;
+			}
+			try {
+				final List<Object> processedColumns = new ArrayList<Object>(row.columns.size());
+				Util.executeCellProcessors(processedColumns, row.columns, processors, row.lineNumber, row.rowNumber);
+				row.columns = processedColumns;
+			}
+			catch(RuntimeException e) {
+				row.exception = e;
+			}
+		}
+		return rows;
+	}
+	
+	/**
+	 * Returns a Future that's already completed with the supplied rows.
+	 */
+	private static Future<List<Row>> completed(final List<Row> rows) {
+		final FutureTask<List<Row>> future = new FutureTask<List<Row>>(new Callable<List<Row>>() {
+			public List<Row> call() {
+				return rows;
+			}
+		});
+		future.run();
+		return future;
+	}
+	
+	/**
+	 * Waits for the next batch to be processed, rethrowing any exception that processing threw.
+	 * 
+	 * @param batches
+	 *            the batches in flight
+	 * @return the rows of the batch, or null if there are no more rows
+	 */
+	private static List<Row> await(final BlockingQueue<Future<List<Row>>> batches) throws IOException {
+		try {
+			return batches.take().get();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for a batch to be processed");
+		}
+		catch(ExecutionException e) {
+			throw rethrow(e.getCause());
+		}
+	}
+	
+	/**
+	 * Returns an exception thrown while reading/processing, so it can be thrown by the thread calling {@link #read()}
+	 * (Errors are thrown directly).
+	 */
+	private static IOException rethrow(final Throwable exception) throws IOException {
+		if( exception instanceof IOException ) {
+			throw (IOException) exception;
+		} else if( exception instanceof RuntimeException ) {
+			throw (RuntimeException) exception;
+		} else if( exception instanceof Error ) {
+			throw (Error) exception;
+		}
+		throw new SuperCsvException("unexpected exception while reading a batch", null, exception);
+	}
+}
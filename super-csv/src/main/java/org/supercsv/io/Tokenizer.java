@@ -17,6 +17,7 @@ package org.supercsv.io;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.supercsv.comment.CommentMatcher;
@@ -27,12 +28,21 @@ import org.supercsv.prefs.CsvPreference;
  * Reads the CSV file, line by line. If you want the line-reading functionality of this class, but want to define your
  * own implementation of {@link #readColumns(List)}, then consider writing your own Tokenizer by extending
  * AbstractTokenizer.
+ * <p>
+ * Lines without any quotes (the vast majority in most files) are simply split on the delimiter, and only the rows that
+ * contain quotes are tokenized character by character. {@link #getUnquotedRowCount()} reports how many rows were split
+ * directly.
+ * </p>
+ * <p>
+ * The lines of each row are kept as they're read, and the untokenized row is only built from them (for rows that span
+ * several lines) if {@link #getUntokenizedRow()} is called.
+ * </p>
  * 
  * @author Kasper B. Graversen
  * @author James Bassett
  * @author Pietro Aragona
  */
-public class Tokenizer extends AbstractTokenizer {
+public class Tokenizer extends AbstractTokenizer implements IProjectingTokenizer {
 	
 	private static final char NEWLINE = '\n';
 	
@@ -40,8 +50,10 @@ public class Tokenizer extends AbstractTokenizer {
 	
 	private final StringBuilder currentColumn = new StringBuilder();
 	
-	/* the raw, untokenized CSV row (may span multiple lines) */
-	private final StringBuilder currentRow = new StringBuilder();
+	/* the lines of the raw, untokenized CSV row (only joined if getUntokenizedRow() is called) */
+	private final List<String> rowLines = new ArrayList<String>();
+	
+	private String untokenizedRow;
 	
 	private final char quoteChar;
 	
@@ -59,6 +71,17 @@ public class Tokenizer extends AbstractTokenizer {
 
 	private final char quoteEscapeChar;
 	
+	/* the columns to read, or null to read all columns */
+	private ColumnProjection projection;
+	
+	/* the number of rows read, and the number of those that had no quotes (and were split directly) */
+	private long rowCount;
+	
+	private long unquotedRowCount;
+	
+	/* the cache of repeated column values, or null to create every value */
+	private ColumnStringCache stringCache;
+	
 	/**
 	 * Enumeration of tokenizer states. QUOTE_MODE is activated between quotes.
 	 */
@@ -88,6 +111,13 @@ public class Tokenizer extends AbstractTokenizer {
 		this.quoteEscapeChar = preferences.getQuoteEscapeChar();
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 */
+	public void setColumnProjection(final ColumnProjection projection) {
+		this.projection = projection;
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 */
@@ -100,7 +130,8 @@ public class Tokenizer extends AbstractTokenizer {
 		// clear the reusable List and StringBuilders
 		columns.clear();
 		currentColumn.setLength(0);
-		currentRow.setLength(0);
+		rowLines.clear();
+		untokenizedRow = null;
 		
 		// read a line (ignoring empty lines/comments if necessary)
 		String line;
@@ -113,13 +144,22 @@ public class Tokenizer extends AbstractTokenizer {
 		while( ignoreEmptyLines && line.length() == 0 || (commentMatcher != null && commentMatcher.isComment(line)) );
 		
 		// update the untokenized CSV row
-		currentRow.append(line);
+		rowLines.add(line);
+		
+		// a line without quotes doesn't need the state machine, it can simply be split on the delimiter
+		if( line.indexOf(quoteChar) < 0 ) {
+			splitUnquotedLine(columns, line);
+			rowCount++;
+			unquotedRowCount++;
+			return true;
+		}
 		
 		// process each character in the line, catering for surrounding quotes (QUOTE_MODE)
 		TokenizerState state = TokenizerState.NORMAL;
 		int quoteScopeStartingLine = -1; // the line number where a potential multi-line cell starts
 		int potentialSpaces = 0; // keep track of spaces (so leading/trailing space can be removed if required)
 		int charIndex = 0;
+		boolean selected = projection == null || projection.isSelected(1); // unselected columns are scanned, not copied
 		while( true ) {
 			boolean endOfLineReached = charIndex == line.length();
 			
@@ -130,10 +170,11 @@ public class Tokenizer extends AbstractTokenizer {
 					 * Newline. Add any required spaces (if surrounding spaces don't need quotes) and return (we've read
 					 * a line!).
 					 */
-					if( !surroundingSpacesNeedQuotes ) {
+					if( selected && !surroundingSpacesNeedQuotes ) {
 						appendSpaces(currentColumn, potentialSpaces);
 					}
 					addColumn(columns, line, charIndex);
+					rowCount++;
 					return true;
 				}
 				else
@@ -143,8 +184,10 @@ public class Tokenizer extends AbstractTokenizer {
 					 * (will update to 0 for next iteration), read in the next line, then then continue to next
 					 * character.
 					 */
-					currentColumn.append(NEWLINE);
-					currentRow.append(NEWLINE); // specific line terminator lost, \n will have to suffice
+					if( selected ) {
+						currentColumn.append(NEWLINE);
+					}
+					rowLines.add(""); // the lines are joined with \n (the specific line terminator is lost)
 					
 					charIndex = 0;
 
@@ -171,7 +214,7 @@ public class Tokenizer extends AbstractTokenizer {
 									quoteScopeStartingLine, getLineNumber()));
 					}
 					
-					currentRow.append(line); // update untokenized CSV row
+					rowLines.set(rowLines.size() - 1, line); // update untokenized CSV row
 					
 				    if (line.length() == 0){
 				    	// consecutive newlines
@@ -192,12 +235,13 @@ public class Tokenizer extends AbstractTokenizer {
 					/*
 					 * Delimiter. Save the column (trim trailing space if required) then continue to next character.
 					 */
-					if( !surroundingSpacesNeedQuotes ) {
+					if( selected && !surroundingSpacesNeedQuotes ) {
 						appendSpaces(currentColumn, potentialSpaces);
 					}
 					addColumn(columns, line, charIndex);
 					potentialSpaces = 0;
 					currentColumn.setLength(0);
+					selected = projection == null || projection.isSelected(columns.size() + 1);
 					
 				} else if( c == SPACE ) {
 					/*
@@ -214,7 +258,7 @@ public class Tokenizer extends AbstractTokenizer {
 					quoteScopeStartingLine = getLineNumber();
 					
 					// cater for spaces before a quoted section (be lenient!)
-					if( !surroundingSpacesNeedQuotes || currentColumn.length() > 0 ) {
+					if( selected && (!surroundingSpacesNeedQuotes || currentColumn.length() > 0) ) {
 						appendSpaces(currentColumn, potentialSpaces);
 					}
 					potentialSpaces = 0;
@@ -224,12 +268,13 @@ public class Tokenizer extends AbstractTokenizer {
 					 * Just a normal character. Add any required spaces (but trim any leading spaces if surrounding
 					 * spaces need quotes), add the character, then continue to next character.
 					 */
-					if( !surroundingSpacesNeedQuotes || currentColumn.length() > 0 ) {
-						appendSpaces(currentColumn, potentialSpaces);
+					if( selected ) {
+						if( !surroundingSpacesNeedQuotes || currentColumn.length() > 0 ) {
+							appendSpaces(currentColumn, potentialSpaces);
+						}
+						currentColumn.append(c);
 					}
-					
 					potentialSpaces = 0;
-					currentColumn.append(c);
 				}
 
 			} else {
@@ -250,13 +295,17 @@ public class Tokenizer extends AbstractTokenizer {
 						 * the following quote char as part of the column;
 						 */
 						charIndex++;
-						currentColumn.append(quoteChar);
+						if( selected ) {
+							currentColumn.append(quoteChar);
+						}
 					} else if( nextCharIsEscapeQuoteChar ) {
 						/*
 						 * A double escape (normally \\). Save the escape char, then continue to
 						 * next character.
 						 */
-						currentColumn.append(c);
+						if( selected ) {
+							currentColumn.append(c);
+						}
 						charIndex++;
 					} else if( quoteEscapeChar == quoteChar ) {
 						/*
@@ -271,7 +320,9 @@ public class Tokenizer extends AbstractTokenizer {
 						 * Escape char wasn't before either another escape char or a quote char,
 						 * so process it normally.
 						 */
-						currentColumn.append(c);
+						if( selected ) {
+							currentColumn.append(c);
+						}
 					}
 				} else if( c == quoteChar ) {
 
@@ -296,7 +347,9 @@ public class Tokenizer extends AbstractTokenizer {
 					 * Just a normal character, delimiter (they don't count in QUOTESCOPE) or space. Add the character,
 					 * then continue to next character.
 					 */
-					currentColumn.append(c);
+					if( selected ) {
+						currentColumn.append(c);
+					}
 				}
 			}
 			
@@ -305,7 +358,7 @@ public class Tokenizer extends AbstractTokenizer {
 	}
 	/**
 	 * Adds the currentColumn to columns list managing the case with currentColumn.length() == 0
-	 * It was introduced to manage the emptyColumnParsing.
+	 * It was introduced to manage the emptyColumnParsing. Columns that aren't selected by the projection are added as null.
 	 * 
 	 * @param columns
 	 * @param line
@@ -313,8 +366,12 @@ public class Tokenizer extends AbstractTokenizer {
 	 */
 	private void addColumn(final List<String> columns, String line, int charIndex) {
 		
-		if(currentColumn.length() > 0){
-			columns.add(currentColumn.toString());
+		if( projection != null && !projection.isSelected(columns.size() + 1) ) {
+			columns.add(null); // not selected, so the value isn't created
+		}
+		else if(currentColumn.length() > 0){
+			columns.add(stringCache == null ? currentColumn.toString() : stringCache.get(columns.size() + 1,
+				currentColumn, 0, currentColumn.length()));
 		}
 		else{
 			int previousCharIndex = charIndex - 1;
@@ -325,6 +382,97 @@ public class Tokenizer extends AbstractTokenizer {
 		}
 	}
 	
+	/**
+	 * Splits a line that contains no quotes into columns, exactly as the state machine in {@link #readColumns(List)}
+	 * would: surrounding spaces are trimmed if they need quotes, and empty columns are null (they can't be quoted).
+	 * 
+	 * @param columns
+	 *            the columns
+	 * @param line
+	 *            the line (without any quotes)
+	 */
+	private void splitUnquotedLine(final List<String> columns, final String line) {
+		final int length = line.length();
+		int start = 0;
+		while( true ) {
+			int end = line.indexOf(delimiterChar, start);
+			if( end < 0 ) {
+				end = length;
+			}
+			
+			if( projection != null && !projection.isSelected(columns.size() + 1) ) {
+				columns.add(null); // not selected, so the value isn't created
+			} else {
+				int columnStart = start;
+				int columnEnd = end;
+				if( surroundingSpacesNeedQuotes ) {
+					while( columnStart < columnEnd && line.charAt(columnStart) == SPACE ) {
+						columnStart++;
+					}
+					while( columnEnd > columnStart && line.charAt(columnEnd - 1) == SPACE ) {
+						columnEnd--;
+					}
+				}
+				if( columnStart == columnEnd ) {
+					columns.add(null);
+				} else if( stringCache == null ) {
+					columns.add(line.substring(columnStart, columnEnd));
+				} else {
+					columns.add(stringCache.get(columns.size() + 1, line, columnStart, columnEnd));
+				}
+			}
+			
+			if( end == length ) {
+				return;
+			}
+			start = end + 1;
+		}
+	}
+	
+	/**
+	 * Sets the cache used to return the same String instance for each repeated value of a column, instead of creating
+	 * a new String every time.
+	 * 
+	 * @param stringCache
+	 *            the cache, or null to create every value
+	 * @since 2.5.0
+	 */
+	public void setStringCache(final ColumnStringCache stringCache) {
+		this.stringCache = stringCache;
+	}
+	
+	/**
+	 * Returns the cache of repeated column values (whose statistics show how effective it is).
+	 * 
+	 * @return the cache, or null if none is used
+	 * @since 2.5.0
+	 */
+	public ColumnStringCache getStringCache() {
+		return stringCache;
+	}
+	
+	/**
+	 * Returns the number of rows that have been read.
+	 * 
+	 * @return the number of rows read
+	 * @since 2.5.0
+	 */
+	public long getRowCount() {
+		return rowCount;
+	}
+	
+	/**
+	 * Returns the number of rows that have been read that contained no quotes, which are split on the delimiter
+	 * directly rather than tokenized character by character. Compare this with {@link #getRowCount()} to see how much
+	 * of the input takes this fast path.
+	 * 
+	 * @return the number of rows read without any quotes
+	 * @since 2.5.0
+	 */
+	public long getUnquotedRowCount() {
+		return unquotedRowCount;
+	}
+	
 	/**
 	 * Appends the required number of spaces to the StringBuilder.
 	 * 
@@ -343,6 +491,20 @@ public class Tokenizer extends AbstractTokenizer {
 	 * {@inheritDoc}
 	 */
 	public String getUntokenizedRow() {
-		return currentRow.toString();
+		if( untokenizedRow == null ) {
+			if( rowLines.size() == 1 ) {
+				untokenizedRow = rowLines.get(0); // the usual case, which needs no copy
+			} else {
+				final StringBuilder row = new StringBuilder();
+				for( int i = 0; i < rowLines.size(); i++ ) {
+					if( i > 0 ) {
+						row.append(NEWLINE);
+					}
+					row.append(rowLines.get(i));
+				}
+				untokenizedRow = row.toString();
+			}
+		}
+		return untokenizedRow;
 	}
 }
@@ -96,6 +96,7 @@ import org.supercsv.quote.QuoteMode;
  * CommentMatches}, or supply your own.</li>
  * <li>ignoring empty lines (enabled by default)</li>
  * <li>setting the maximum number of lines a row of CSV can span (useful for debugging files with mismatched quotes)</li>
+ * <li>reading with the {@link org.supercsv.io.CharBufferTokenizer CharBufferTokenizer} (faster on large files)</li>
  * </ul>
  * <p>
  * <strong>Tip:</strong>Create a CsvPreference instance for each writer instead of using predefined static preferences
@@ -150,6 +151,8 @@ public final class CsvPreference {
 
 	private final char quoteEscapeChar;
 	
+	private final boolean useCharBufferTokenizer;
+	
 	/**
 	 * Constructs a new <tt>CsvPreference</tt> from a Builder.
 	 */
@@ -165,6 +168,7 @@ public final class CsvPreference {
 		this.maxLinesPerRow = builder.maxLinesPerRow;
 		this.emptyColumnParsing = builder.emptyColumnParsing;
 		this.quoteEscapeChar = builder.quoteEscapeChar;
+		this.useCharBufferTokenizer = builder.useCharBufferTokenizer;
 	}
 	
 	/**
@@ -267,6 +271,15 @@ public final class CsvPreference {
 	public char getQuoteEscapeChar() {
 		return quoteEscapeChar;
 	}
+	
+	/**
+	 * Returns the useCharBufferTokenizer flag.
+	 * 
+	 * @return the useCharBufferTokenizer flag
+	 */
+	public boolean isUseCharBufferTokenizer() {
+		return useCharBufferTokenizer;
+	}
 
 	/**
 	 * Builds immutable <tt>CsvPreference</tt> instances. The builder pattern allows for additional preferences to be
@@ -296,6 +309,8 @@ public final class CsvPreference {
 
 		private char quoteEscapeChar;
 		
+		private boolean useCharBufferTokenizer = false;
+		
 		/**
 		 * Constructs a Builder with all of the values from an existing <tt>CsvPreference</tt> instance. Useful if you
 		 * want to base your preferences off one of the existing CsvPreference constants.
@@ -315,6 +330,7 @@ public final class CsvPreference {
 			this.maxLinesPerRow = preference.maxLinesPerRow;
 			this.emptyColumnParsing = preference.emptyColumnParsing;
 			this.quoteEscapeChar = preference.quoteEscapeChar;
+			this.useCharBufferTokenizer = preference.useCharBufferTokenizer;
 		}
 		
 		/**
@@ -484,6 +500,23 @@ public final class CsvPreference {
 			return this;
 		}
 		
+		/**
+		 * Flag indicating whether readers created with a <tt>Reader</tt> should use the
+		 * {@link org.supercsv.io.CharBufferTokenizer CharBufferTokenizer} instead of the default
+		 * {@link org.supercsv.io.Tokenizer Tokenizer} (only applicable when reading CSV). Both tokenizers produce
+		 * the same output, but the CharBufferTokenizer scans a reusable char buffer directly instead of copying every
+		 * line into a String first, which is considerably faster on large files. The default is <tt>false</tt>.
+		 * 
+		 * @since 2.5.0
+		 * @param useCharBufferTokenizer
+		 *            flag indicating whether to use the CharBufferTokenizer
+		 * @return the updated Builder
+		 */
+		public Builder useCharBufferTokenizer(final boolean useCharBufferTokenizer) {
+			this.useCharBufferTokenizer = useCharBufferTokenizer;
+			return this;
+		}
+		
 		/**
 		 * Builds the CsvPreference instance.
 		 * 
@@ -17,6 +17,7 @@ package org.supercsv.util;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -44,6 +45,9 @@ public class CsvContext implements Serializable {
 	/** the row just read in, or to be written */
 	private List<Object> rowSource;
 	
+	/** the List the rowSource is a read-only view of (if it was set with setRowSourceView) */
+	private transient List<?> viewedSource;
+	
 	/**
 	 * Constructs a new <tt>CsvContext</tt>.
 	 * 
@@ -134,6 +138,21 @@ public class CsvContext implements Serializable {
 	 */
 	public void setRowSource(List<Object> rowSource) {
 		this.rowSource = rowSource;
+		this.viewedSource = null;
+	}
+	
+	/**
+	 * Sets the rowSource to a read-only view of the supplied List, so the row is only copied if an exception is thrown
+	 * with this context (the exception copies it). The view is reused while the same List is supplied.
+	 * 
+	 * @param source
+	 *            the row just read in, or to be written
+	 */
+	void setRowSourceView(final List<?> source) {
+		if( source != viewedSource ) {
+			this.rowSource = Collections.<Object> unmodifiableList(source);
+			this.viewedSource = source;
+		}
 	}
 	
 	/**
@@ -74,6 +74,72 @@ public final class Util {
 		final CsvContext context = new CsvContext(lineNo, rowNo, 1);
 		context.setRowSource(new ArrayList<Object>(source));
 		
+		processColumns(destination, source, processors, context);
+	}
+	
+	/**
+	 * Processes each element in the source List (using the corresponding processor chain in the processors array) and
+	 * adds it to the destination List, reporting any exceptions with the supplied context. This allows a single context
+	 * to be reused while processing many rows: only its column number and row source are updated. The row source is a
+	 * read-only view of the source List, which is only copied if an exception is thrown.
+	 * 
+	 * @param destination
+	 *            the List to add the processed elements to (which is cleared before it's populated)
+	 * @param source
+	 *            the List of source elements to be processed
+	 * @param processors
+	 *            the array of CellProcessors used to process each element. The number of elements in this array must
+	 *            match the size of the source List. A <tt>null</tt> CellProcessor in this array indicates that no
+	 *            processing is required and the element should be added as-is.
+	 * @param context
+	 *            the context used when cell processors report exceptions, with the line and row number already set
+	 * @throws NullPointerException
+	 *             if destination, source, processors or context are null
+	 * @throws SuperCsvConstraintViolationException
+	 *             if a CellProcessor constraint failed
+	 * @throws SuperCsvException
+	 *             if source.size() != processors.length, or CellProcessor execution failed
+	 * @since 2.5.0
+	 */
+	public static void executeCellProcessors(final List<Object> destination, final List<?> source,
+		final CellProcessor[] processors, final CsvContext context) {
+		
+		if( destination == null ) {
+			throw new NullPointerException("destination should not be null");
+		} else if( source == null ) {
+			throw new NullPointerException("source should not be null");
+		} else if( processors == null ) {
+			throw new NullPointerException("processors should not be null");
+		} else if( context == null ) {
+			throw new NullPointerException("context should not be null");
+		}
+		
+		context.setColumnNumber(1);
+		context.setRowSourceView(source);
+		
+		processColumns(destination, source, processors, context);
+	}
+	
+	/**
+	 * Processes each element in the source List and adds it to the destination List, once the arguments have been
+	 * checked and the context's row source has been set.
+	 * 
+	 * @param destination
+	 *            the List to add the processed elements to (which is cleared before it's populated)
+	 * @param source
+	 *            the List of source elements to be processed
+	 * @param processors
+	 *            the array of CellProcessors used to process each element
+	 * @param context
+	 *            the context used when cell processors report exceptions
+	 * @throws SuperCsvConstraintViolationException
+	 *             if a CellProcessor constraint failed
+	 * @throws SuperCsvException
+	 *             if source.size() != processors.length, or CellProcessor execution failed
+	 */
+	private static void processColumns(final List<Object> destination, final List<?> source,
+		final CellProcessor[] processors, final CsvContext context) {
+		
 		if( source.size() != processors.length ) {
 			throw new SuperCsvException(String.format(
 				"The number of columns to be processed (%d) must match the number of CellProcessors (%d): check that the number"
@@ -16,14 +16,23 @@
 package org.supercsv.cellprocessor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.supercsv.SuperCsvTestUtils.ANONYMOUS_CSVCONTEXT;
 import static org.supercsv.SuperCsvTestUtils.date;
 
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -71,6 +80,61 @@ public class ParseDateTest {
 		processorChain3 = new ParseDate(DATE_FORMAT, false, new IdentityTransform());
 	}
 	
+	/**
+	 * Tests that each value is parsed with a new formatter (so the processor doesn't share one between threads).
+	 */
+	@Test
+	public void testNewFormatterForEachValue() {
+		final List<SimpleDateFormat> formatters = new ArrayList<SimpleDateFormat>();
+		final CellProcessor recordingProcessor = new ParseDate(DATE_FORMAT, true) {
+			@Override
+			protected Object parseValue(final Object value, final SimpleDateFormat formatter) throws ParseException {
+				formatters.add(formatter);
+				return super.parseValue(value, formatter);
+			}
+		};
+		assertEquals(DATE, recordingProcessor.execute(FORMATTED_DATE, ANONYMOUS_CSVCONTEXT));
+		assertEquals(DATE, recordingProcessor.execute(FORMATTED_DATE, ANONYMOUS_CSVCONTEXT));
+		assertEquals(2, formatters.size());
+		assertNotSame(formatters.get(0), formatters.get(1));
+		assertTrue(formatters.get(1).isLenient());
+	}
+	
+	/**
+	 * Tests that a processor shared by several threads parses each value with its own formatter.
+	 */
+	@Test
+	public void testConcurrentExecution() throws Exception {
+		final int threads = 4;
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for( int t = 0; t < threads; t++ ) {
+				final int year = 2000 + t;
+				results.add(executor.submit(new Callable<Integer>() {
+					public Integer call() {
+						int parsed = 0;
+						for( int day = 1; day <= 28; day++ ) {
+							for( int i = 0; i < 1000; i++ ) {
+								final Object date = processor.execute(String.format("%02d/03/%d", day, year),
+									ANONYMOUS_CSVCONTEXT);
+								assertEquals(date(year, 3, day), date);
+								parsed++;
+							}
+						}
+						return parsed;
+					}
+				}));
+			}
+			for( final Future<Integer> result : results ) {
+				assertEquals(Integer.valueOf(28000), result.get());
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+	
 	/**
 	 * Tests unchained/chained execution with various date formats.
 	 */
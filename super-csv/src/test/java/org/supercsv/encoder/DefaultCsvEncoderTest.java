@@ -16,6 +16,7 @@
 package org.supercsv.encoder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -135,4 +136,82 @@ public class DefaultCsvEncoderTest {
 		assertEquals("\"\\\"Watch out for quotes\\\", he said\"", csvEncoder.encode(quoted,
 				context, BACKSLASH_ESCAPE_QUOTE_PREFS));
 	}
+	
+	/**
+	 * Tests that input that doesn't need to be escaped or quoted is returned unchanged.
+	 */
+	@Test
+	public void testEncodeReturnsInputThatNeedsNoEscaping() {
+		final CsvContext context = new CsvContext(1, 1, 1);
+		final String normal = "just a normal phrase";
+		assertSame(normal, csvEncoder.encode(normal, context, PREFS));
+		assertSame(normal, csvEncoder.encode(normal, context, SURROUNDING_SPACES_REQUIRE_QUOTES_PREFS));
+		assertEquals(1, context.getLineNumber());
+	}
+	
+	/**
+	 * Tests encoding with a delimiter and quote char that aren't ASCII, and with alternating preferences.
+	 */
+	@Test
+	public void testEncodeWithNonAsciiDelimiterAndQuote() {
+		final CsvPreference prefs = new CsvPreference.Builder('\u00ab', '\u00a7', "\n").build();
+		final CsvContext context = new CsvContext(1, 1, 1);
+		assertEquals("a,b\"c", csvEncoder.encode("a,b\"c", context, prefs));
+		assertEquals("\u00aba\u00a7b\u00ab", csvEncoder.encode("a\u00a7b", context, prefs));
+		assertEquals("\"a,b\"", csvEncoder.encode("a,b", context, PREFS));
+		assertEquals("\u00ab\u00ab\u00abc\u00ab", csvEncoder.encode("\u00abc", context, prefs));
+		assertEquals("a\u00a7b", csvEncoder.encode("a\u00a7b", context, PREFS));
+	}
+	
+	/**
+	 * Tests that encoding into a sink appends the same CSV (and updates the line number in the same way) as encoding
+	 * to a String.
+	 */
+	@Test
+	public void testEncodeIntoSink() {
+		final String[] inputs = { "", " ", " leading space", "trailing space ", "just a normal phrase",
+			"oh look, a comma", ",", "\"", "\"Watch out for quotes\", he said", "text that spans\ntwo lines",
+			"carriage\rreturn", "carriage\r\nreturn newline", "\r\n\r\n", "ends with a carriage return\r",
+			"text \"with quotes\" that spans\ntwo lines" };
+		final CsvPreference[] preferences = { PREFS, SURROUNDING_SPACES_REQUIRE_QUOTES_PREFS, ALWAYS_QUOTE_PREFS,
+			BACKSLASH_ESCAPE_QUOTE_PREFS };
+		for( final CsvPreference preference : preferences ) {
+			for( final String input : inputs ) {
+				final CsvContext context = new CsvContext(1, 1, 1);
+				final String expected = csvEncoder.encode(input, context, preference);
+				
+				final CsvContext sinkContext = new CsvContext(1, 1, 1);
+				final StringSink sink = new StringSink();
+				sink.append("prefix");
+				csvEncoder.encode(input, sinkContext, preference, sink);
+				assertEquals("prefix" + expected, sink.toString());
+				assertEquals(context.getLineNumber(), sinkContext.getLineNumber());
+			}
+		}
+	}
+	
+	/**
+	 * A sink that appends to a StringBuilder.
+	 */
+	static class StringSink implements CsvCharSink {
+		
+		private final StringBuilder builder = new StringBuilder();
+		
+		public void append(final char c) {
+			builder.append(c);
+		}
+		
+		public void append(final String s) {
+			builder.append(s);
+		}
+		
+		public void append(final String s, final int start, final int end) {
+			builder.append(s, start, end);
+		}
+		
+		@Override
+		public String toString() {
+			return builder.toString();
+		}
+	}
 }
@@ -67,6 +67,20 @@ public class SelectiveCsvEncoderTest {
 		assertEquals(UNESCAPED, encoder.encode(UNESCAPED, context, CsvPreference.STANDARD_PREFERENCE));
 	}
 	
+	/**
+	 * Tests that only the selected columns are encoded when encoding into a sink.
+	 */
+	@Test
+	public void testEncodeIntoSink() {
+		final SelectiveCsvEncoder encoder = new SelectiveCsvEncoder(2);
+		final DefaultCsvEncoderTest.StringSink sink = new DefaultCsvEncoderTest.StringSink();
+		final CsvContext context = new CsvContext(1, 1, 1);
+		encoder.encode(UNESCAPED, context, CsvPreference.STANDARD_PREFERENCE, sink);
+		context.setColumnNumber(2);
+		encoder.encode(UNESCAPED, context, CsvPreference.STANDARD_PREFERENCE, sink);
+		assertEquals(UNESCAPED + ESCAPED, sink.toString());
+	}
+	
 	/**
 	 * Tests the encode method when no column numbers are supplied.
 	 */
@@ -30,6 +30,9 @@ import java.util.List;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.supercsv.cellprocessor.Optional;
+import org.supercsv.cellprocessor.ParseInt;
+import org.supercsv.exception.SuperCsvCellProcessorException;
 import org.supercsv.exception.SuperCsvException;
 import org.supercsv.prefs.CsvPreference;
 
@@ -298,6 +301,73 @@ public class AbstractCsvReaderTest {
 		assertNull(abstractReader.getHeader(false)); // should be EOF
 	}
 	
+	/**
+	 * Tests that a column projection is applied by the default tokenizer, leaving the unselected columns null.
+	 */
+	@Test
+	public void testColumnProjection() throws IOException {
+		abstractReader.getHeader(true);
+		abstractReader.setColumnProjection(new ColumnProjection(new String[] { "firstName", "lastName", "age",
+			"address" }, "lastName", "address"));
+		assertTrue(abstractReader.readRow());
+		assertEquals(Arrays.asList(null, "Smith", null, null), abstractReader.getColumns());
+		assertTrue(abstractReader.readRow());
+		assertEquals(Arrays.asList(null, "Potter", null, "Gryffindor\nHogwarts Castle\nUK"),
+			abstractReader.getColumns());
+		assertEquals(4, abstractReader.length());
+	}
+	
+	/**
+	 * Tests that a column projection is applied by the reader if the tokenizer can't apply it.
+	 */
+	@Test
+	public void testColumnProjectionWithNonProjectingTokenizer() throws IOException {
+		final AbstractCsvReader nonProjectingReader = new MockCsvReader(new ITokenizer() {
+			public int getLineNumber() {
+				return tokenizer.getLineNumber();
+			}
+			
+			public String getUntokenizedRow() {
+				return tokenizer.getUntokenizedRow();
+			}
+			
+			public boolean readColumns(final List<String> columns) throws IOException {
+				return tokenizer.readColumns(columns);
+			}
+			
+			public void close() throws IOException {
+				tokenizer.close();
+			}
+		}, PREFS);
+		nonProjectingReader.setColumnProjection(new ColumnProjection(1, 3));
+		assertTrue(nonProjectingReader.readRow());
+		assertEquals(Arrays.asList("firstName", null, "age", null), nonProjectingReader.getColumns());
+		assertTrue(nonProjectingReader.readRow());
+		assertEquals(Arrays.asList("John", null, "23", null), nonProjectingReader.getColumns());
+		nonProjectingReader.close();
+	}
+	
+	/**
+	 * Tests that the column numbers reported when processing a projected row are the column numbers in the file.
+	 */
+	@Test
+	public void testColumnProjectionKeepsColumnNumbers() throws IOException {
+		final CsvListReader listReader = new CsvListReader(new StringReader("a,b,c,d\n1,x,3,y\n"), PREFS);
+		listReader.getHeader(true);
+		listReader.setColumnProjection(new ColumnProjection(3, 4));
+		try {
+			listReader.read(new Optional(), new Optional(), new ParseInt(), new ParseInt());
+			fail("should have thrown SuperCsvCellProcessorException");
+		}
+		catch(SuperCsvCellProcessorException e) {
+			assertEquals(4, e.getCsvContext().getColumnNumber());
+			assertEquals(Arrays.asList(null, null, "3", "y"), e.getCsvContext().getRowSource());
+		}
+		assertEquals(Arrays.asList(null, null, 3, "y"), listReader.executeProcessors(new Optional(),
+			new Optional(), new ParseInt(), new Optional()));
+		listReader.close();
+	}
+	
 	/**
 	 * Tests the Reader constructor with a null Reader.
 	 */
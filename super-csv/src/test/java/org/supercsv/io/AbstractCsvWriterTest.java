@@ -16,6 +16,7 @@
 package org.supercsv.io;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.supercsv.SuperCsvTestUtils.HEADER;
 import static org.supercsv.SuperCsvTestUtils.HEADER_CSV;
 
@@ -26,7 +27,11 @@ import java.io.Writer;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.supercsv.encoder.CsvCharSink;
+import org.supercsv.encoder.DefaultCsvEncoder;
+import org.supercsv.exception.SuperCsvException;
 import org.supercsv.prefs.CsvPreference;
+import org.supercsv.util.CsvContext;
 
 /**
  * Tests AbstractCsvWriter.
@@ -56,6 +61,11 @@ public class AbstractCsvWriterTest {
 			super(writer, preference);
 			this.preference = preference;
 		}
+		
+		public MockCsvWriter(Writer writer, CsvPreference preference, boolean bufferizeWriter) {
+			super(writer, preference, bufferizeWriter);
+			this.preference = preference;
+		}
 	}
 	
 	/**
@@ -204,6 +214,87 @@ public class AbstractCsvWriterTest {
 			new CsvPreference.Builder('"', ',', "\r").build()));
 	}
 	
+	/**
+	 * Tests that the output is buffered until it's flushed or the buffer is full.
+	 */
+	@Test
+	public void testBuffering() throws IOException {
+		abstractWriter.writeComment("#comment");
+		abstractWriter.writeHeader(HEADER);
+		assertEquals("", writer.toString());
+		abstractWriter.flush();
+		final String expected = "#comment\r\n" + HEADER_CSV + "\r\n";
+		assertEquals(expected, writer.toString());
+		
+		final StringBuilder row = new StringBuilder();
+		while( row.length() < AbstractCsvWriter.FLUSH_THRESHOLD ) {
+			row.append("column with a \"quote\" ");
+		}
+		abstractWriter.writeHeader(row.toString(), "");
+		assertEquals(expected + "\"" + row.toString().replace("\"", "\"\"") + "\",\r\n", writer.toString());
+	}
+	
+	/**
+	 * Tests that every row is written to the writer as soon as it's encoded if the writer isn't bufferized.
+	 */
+	@Test
+	public void testUnbufferized() throws IOException {
+		final MockCsvWriter csvWriter = new MockCsvWriter(writer, PREFS, false);
+		csvWriter.writeHeader(HEADER);
+		assertEquals(HEADER_CSV + "\r\n", writer.toString());
+		csvWriter.writeComment("#comment");
+		assertEquals(HEADER_CSV + "\r\n#comment\r\n", writer.toString());
+		csvWriter.close();
+	}
+	
+	/**
+	 * Tests that a row isn't written if its encoding fails part of the way through.
+	 */
+	@Test
+	public void testEncoderExceptionDiscardsRow() throws IOException {
+		final MockCsvWriter csvWriter = new MockCsvWriter(writer, new CsvPreference.Builder(PREFS).useEncoder(
+			new DefaultCsvEncoder() {
+				@Override
+				public void encode(final String input, final CsvContext context, final CsvPreference preference,
+					final CsvCharSink sink) {
+					super.encode(input, context, preference, sink);
+					if( input.equals("bad") ) {
+						throw new SuperCsvException("can't encode bad", context);
+					}
+				}
+			}).build());
+		csvWriter.writeHeader("good", "row");
+		try {
+			csvWriter.writeHeader("good", "bad", "row");
+			fail("should have thrown SuperCsvException");
+		}
+		catch(SuperCsvException e) {
+			assertEquals(2, e.getCsvContext().getRowNumber());
+			assertEquals(2, e.getCsvContext().getColumnNumber());
+		}
+		csvWriter.writeHeader("another", "row");
+		csvWriter.close();
+		assertEquals("good,row\r\nanother,row\r\n", writer.toString());
+	}
+	
+	/**
+	 * Tests that a subclass of an encoder that only overrides the String encode method is used to encode every column,
+	 * rather than the encoder's sink encode method.
+	 */
+	@Test
+	public void testEncoderSubclassThatOnlyEncodesStrings() throws IOException {
+		final MockCsvWriter csvWriter = new MockCsvWriter(writer, new CsvPreference.Builder(PREFS).useEncoder(
+			new DefaultCsvEncoder() {
+				@Override
+				public String encode(final String input, final CsvContext context, final CsvPreference preference) {
+					return super.encode(input.toUpperCase(), context, preference);
+				}
+			}).build());
+		csvWriter.writeHeader("lower", "case, with comma");
+		csvWriter.close();
+		assertEquals("LOWER,\"CASE, WITH COMMA\"\r\n", writer.toString());
+	}
+	
 	/**
 	 * Tests the writeComment() method with a null String.
 	 */
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.supercsv.SuperCsvTestUtils.CSV_FILE;
+import static org.supercsv.SuperCsvTestUtils.CUSTOMERS;
+import static org.supercsv.SuperCsvTestUtils.HEADER;
+import static org.supercsv.SuperCsvTestUtils.READ_PROCESSORS;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.supercsv.cellprocessor.ParseInt;
+import org.supercsv.cellprocessor.ift.CellProcessor;
+import org.supercsv.exception.SuperCsvCellProcessorException;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Tests the AsyncCsvListReader class.
+ */
+public class AsyncCsvListReaderTest {
+	
+	private static final CsvPreference PREFS = CsvPreference.STANDARD_PREFERENCE;
+	
+	private AsyncCsvListReader listReader;
+	
+	/**
+	 * Sets up the reader for the tests.
+	 */
+	@Before
+	public void setUp() {
+		listReader = new AsyncCsvListReader(new StringReader(CSV_FILE), PREFS);
+	}
+	
+	/**
+	 * Closes the reader after the test.
+	 */
+	@After
+	public void tearDown() throws IOException {
+		listReader.close();
+	}
+	
+	/**
+	 * Tests reading the rows with processors, comparing them (and their line numbers and untokenized rows) against a
+	 * CsvListReader.
+	 */
+	@Test
+	public void testRead() throws IOException {
+		final CsvListReader expectedReader = new CsvListReader(new StringReader(CSV_FILE), PREFS);
+		assertArrayEquals(HEADER, listReader.getHeader(true));
+		expectedReader.getHeader(true);
+		
+		int rows = 0;
+		List<Object> customer;
+		while( (customer = listReader.read(READ_PROCESSORS)) != null ) {
+			assertEquals(expectedReader.read(READ_PROCESSORS), customer);
+			assertEquals(expectedReader.getLineNumber(), listReader.getLineNumber());
+			assertEquals(expectedReader.getRowNumber(), listReader.getRowNumber());
+			assertEquals(expectedReader.getUntokenizedRow(), listReader.getUntokenizedRow());
+			rows++;
+		}
+		assertEquals(CUSTOMERS.size(), rows);
+		assertNull(listReader.read());
+		expectedReader.close();
+	}
+	
+	/**
+	 * Tests that a processing exception reports the row being consumed, even though later rows have been read ahead.
+	 */
+	@Test
+	public void testProcessingExceptionReportsConsumedRow() throws IOException {
+		final AsyncCsvListReader intReader = new AsyncCsvListReader(new Tokenizer(new StringReader(
+			"1\n2\nthree\n4\n5\n"), PREFS), PREFS, 2);
+		final CellProcessor[] processors = { new ParseInt() };
+		assertEquals(1, intReader.read(processors).get(0));
+		assertEquals(2, intReader.read(processors).get(0));
+		try {
+			intReader.read(processors);
+			fail("should have thrown SuperCsvCellProcessorException");
+		}
+		catch(SuperCsvCellProcessorException e) {
+			assertEquals(3, e.getCsvContext().getLineNumber());
+			assertEquals(3, intReader.getLineNumber());
+			assertEquals("three", intReader.getUntokenizedRow());
+		}
+		assertEquals(4, intReader.read(processors).get(0));
+		intReader.close();
+	}
+	
+	/**
+	 * Tests the constructor with a null Reader.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullReader() {
+		new AsyncCsvListReader((Reader) null, PREFS);
+	}
+	
+	/**
+	 * Tests the constructor with a null Tokenizer.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullTokenizer() {
+		new AsyncCsvListReader((ITokenizer) null, PREFS);
+	}
+	
+	/**
+	 * Tests the constructor with null preferences.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullPreferences() {
+		new AsyncCsvListReader(new StringReader(CSV_FILE), null);
+	}
+}
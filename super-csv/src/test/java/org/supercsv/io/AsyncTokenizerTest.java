@@ -0,0 +1,279 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.supercsv.SuperCsvTestUtils.CSV_FILE;
+import static org.supercsv.prefs.CsvPreference.EXCEL_PREFERENCE;
+import static org.supercsv.prefs.CsvPreference.STANDARD_PREFERENCE;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Tests the AsyncTokenizer class. Most tests compare the output against the Tokenizer it wraps, using a range of
+ * capacities so that the background thread has to wait for the consumer.
+ */
+public class AsyncTokenizerTest {
+	
+	private static final int[] CAPACITIES = { 1, 2, 3, AsyncTokenizer.DEFAULT_CAPACITY };
+	
+	private static final CsvPreference MAX_LINES_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.maxLinesPerRow(2).build();
+	
+	/**
+	 * Tests that the columns, line numbers and untokenized rows are the same as the wrapped tokenizer's.
+	 */
+	@Test
+	public void testSameAsTokenizer() throws IOException {
+		for( final int capacity : CAPACITIES ) {
+			assertSameAsTokenizer(CSV_FILE, STANDARD_PREFERENCE, capacity);
+			assertSameAsTokenizer("a,\"multi\nline\"\n\nb,c\n", STANDARD_PREFERENCE, capacity);
+			assertSameAsTokenizer("", STANDARD_PREFERENCE, capacity);
+		}
+	}
+	
+	/**
+	 * Tests that an exception is thrown when the row that caused it is reached, and that reading can continue after
+	 * it.
+	 */
+	@Test
+	public void testExceptionsAreThrownAtTheirRow() throws IOException {
+		final String csv = "a,b\n\"unterminated\nrow,with\nseveral lines\nc,d\n";
+		for( final int capacity : CAPACITIES ) {
+			assertSameAsTokenizer(csv, MAX_LINES_PREFERENCE, capacity);
+		}
+	}
+	
+	/**
+	 * Tests that the background thread stops reading when the ring buffer is full.
+	 */
+	@Test
+	public void testBackpressure() throws Exception {
+		final CountingTokenizer counting = new CountingTokenizer(1000);
+		final AsyncTokenizer tokenizer = new AsyncTokenizer(counting, 4);
+		final List<String> columns = new ArrayList<String>();
+		assertTrue(tokenizer.readColumns(columns));
+		assertEquals(Arrays.asList("1"), columns);
+		Thread.sleep(100);
+		assertTrue(counting.rows <= 5);
+		
+		for( int i = 2; i <= 1000; i++ ) {
+			assertTrue(tokenizer.readColumns(columns));
+			assertEquals(String.valueOf(i), columns.get(0));
+			assertEquals(i, tokenizer.getLineNumber());
+		}
+		assertFalse(tokenizer.readColumns(columns));
+		assertFalse(tokenizer.readColumns(columns));
+		tokenizer.close();
+		assertTrue(counting.closed);
+	}
+	
+	/**
+	 * Tests that close() stops the background thread while it's waiting for the consumer.
+	 */
+	@Test
+	public void testCloseWhileReadingAhead() throws Exception {
+		final CountingTokenizer counting = new CountingTokenizer(Integer.MAX_VALUE);
+		final AsyncTokenizer tokenizer = new AsyncTokenizer(counting, 2);
+		assertTrue(tokenizer.readColumns(new ArrayList<String>()));
+		tokenizer.close();
+		final int rows = counting.rows;
+		Thread.sleep(50);
+		assertEquals(rows, counting.rows);
+		assertTrue(counting.closed);
+		
+		try {
+			tokenizer.readColumns(new ArrayList<String>());
+			fail("should have thrown IOException");
+		}
+		catch(IOException e) {
+			assertEquals("the tokenizer has been closed", e.getMessage());
+		}
+	}
+	
+	/**
+	 * Tests that an IOException stops reading, and is thrown by every following read.
+	 */
+	@Test
+	public void testIOExceptionStopsReading() throws IOException {
+		final IOException failure = new IOException("disk on fire");
+		final AsyncTokenizer tokenizer = new AsyncTokenizer(new CountingTokenizer(3) {
+			@Override
+			public boolean readColumns(final List<String> columns) throws IOException {
+				if( rows == 2 ) {
+					throw failure;
+				}
+				return super.readColumns(columns);
+			}
+		}, 8);
+		final List<String> columns = new ArrayList<String>();
+		assertTrue(tokenizer.readColumns(columns));
+		assertTrue(tokenizer.readColumns(columns));
+		for( int i = 0; i < 2; i++ ) {
+			try {
+				tokenizer.readColumns(columns);
+				fail("should have thrown IOException");
+			}
+			catch(IOException e) {
+				assertSame(failure, e);
+				assertTrue(columns.isEmpty());
+			}
+		}
+		tokenizer.close();
+	}
+	
+	/**
+	 * Tests that a projection set before reading is applied by the wrapped tokenizer, and one set while reading is
+	 * applied as the rows are consumed.
+	 */
+	@Test
+	public void testColumnProjection() throws IOException {
+		final Tokenizer wrapped = new Tokenizer(new StringReader("a,b,c\nd,e,f\ng,h,i\n"), STANDARD_PREFERENCE);
+		final AsyncTokenizer tokenizer = new AsyncTokenizer(wrapped, 1);
+		tokenizer.setColumnProjection(new ColumnProjection(1, 3));
+		final List<String> columns = new ArrayList<String>();
+		assertTrue(tokenizer.readColumns(columns));
+		assertEquals(Arrays.asList("a", null, "c"), columns);
+		tokenizer.setColumnProjection(new ColumnProjection(3));
+		assertTrue(tokenizer.readColumns(columns));
+		assertEquals(Arrays.asList(null, null, "f"), columns);
+		tokenizer.close();
+	}
+	
+	/**
+	 * Tests the constructor with a null tokenizer.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullTokenizer() {
+		new AsyncTokenizer(null);
+	}
+	
+	/**
+	 * Tests the constructor with an invalid capacity.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidCapacity() {
+		new AsyncTokenizer(new CountingTokenizer(1), 0);
+	}
+	
+	/**
+	 * Tests readColumns() with a null List.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadColumnsWithNullList() throws IOException {
+		new AsyncTokenizer(new CountingTokenizer(1)).readColumns(null);
+	}
+	
+	/**
+	 * Reads the CSV with both a Tokenizer and an AsyncTokenizer wrapping another Tokenizer, and asserts that they read
+	 * the same columns, line numbers, untokenized rows and exceptions.
+	 */
+	private static void assertSameAsTokenizer(final String csv, final CsvPreference preferences, final int capacity)
+		throws IOException {
+		final Tokenizer expected = new Tokenizer(new StringReader(csv), preferences);
+		final AsyncTokenizer actual = new AsyncTokenizer(new Tokenizer(new StringReader(csv), preferences), capacity);
+		final List<String> expectedColumns = new ArrayList<String>();
+		final List<String> actualColumns = new ArrayList<String>();
+		try {
+			for( int row = 0; row < 100; row++ ) {
+				String expectedException = null;
+				boolean expectedRead = false;
+				try {
+					expectedRead = expected.readColumns(expectedColumns);
+				}
+				catch(SuperCsvException e) {
+					expectedException = e.getMessage();
+				}
+				
+				String actualException = null;
+				boolean actualRead = false;
+				try {
+					actualRead = actual.readColumns(actualColumns);
+				}
+				catch(SuperCsvException e) {
+					actualException = e.getMessage();
+				}
+				
+				final String message = String.format("row %d of %s with capacity %d", row, csv, capacity);
+				assertEquals(message, expectedException, actualException);
+				assertEquals(message, expected.getLineNumber(), actual.getLineNumber());
+				if( expectedException == null ) {
+					assertEquals(message, expectedRead, actualRead);
+					if( !expectedRead ) {
+						return;
+					}
+					assertEquals(message, expectedColumns, actualColumns);
+					assertEquals(message, expected.getUntokenizedRow(), actual.getUntokenizedRow());
+				}
+			}
+			fail("too many rows");
+		}
+		finally {
+			expected.close();
+			actual.close();
+		}
+	}
+	
+	/**
+	 * A tokenizer that reads rows containing their row number, a row per line.
+	 */
+	private static class CountingTokenizer implements ITokenizer {
+		
+		private final int maxRows;
+		
+		volatile int rows;
+		
+		volatile boolean closed;
+		
+		CountingTokenizer(final int maxRows) {
+			this.maxRows = maxRows;
+		}
+		
+		public int getLineNumber() {
+			return rows;
+		}
+		
+		public String getUntokenizedRow() {
+			return String.valueOf(rows);
+		}
+		
+		public boolean readColumns(final List<String> columns) throws IOException {
+			columns.clear();
+			if( rows == maxRows ) {
+				return false;
+			}
+			rows++;
+			columns.add(String.valueOf(rows));
+			return true;
+		}
+		
+		public void close() {
+			closed = true;
+		}
+	}
+}
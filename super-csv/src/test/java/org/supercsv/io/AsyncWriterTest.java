@@ -0,0 +1,258 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Tests the AsyncWriter class.
+ */
+public class AsyncWriterTest {
+	
+	/**
+	 * Tests that everything written (with each of the write methods, and a range of buffer sizes) is written to the
+	 * wrapped writer in order.
+	 */
+	@Test
+	public void testWrite() throws IOException {
+		final StringBuilder expectedBuilder = new StringBuilder();
+		for( int i = 0; i < 2000; i++ ) {
+			expectedBuilder.append(i).append(",r\u00e9sum\u00e9\r\n");
+		}
+		final String expected = expectedBuilder.toString();
+		for( final int bufferSize : new int[] { 1, 7, 1000, AsyncWriter.DEFAULT_BUFFER_SIZE } ) {
+			for( final int buffers : new int[] { 2, 3 } ) {
+				final StringWriter out = new StringWriter();
+				final AsyncWriter writer = new AsyncWriter(out, bufferSize, buffers);
+				int i = 0;
+				while( i < expected.length() ) {
+					final int end = Math.min(expected.length(), i + 1 + i % 50);
+					if( i % 3 == 0 ) {
+						writer.write(expected.toCharArray(), i, end - i);
+					} else if( i % 3 == 1 ) {
+						writer.write(expected, i, end - i);
+					} else {
+						writer.write(expected.charAt(i));
+						i++;
+						continue;
+					}
+					if( i % 7 == 0 ) {
+						writer.flush();
+					}
+					i = end;
+				}
+				writer.close();
+				assertEquals(expected, out.toString());
+			}
+		}
+	}
+	
+	/**
+	 * Tests that flush() doesn't wait for the wrapped writer, but writing waits once all of the buffers are waiting to
+	 * be written.
+	 */
+	@Test
+	public void testFlushAndBackpressure() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final StringWriter out = new StringWriter();
+		final AsyncWriter writer = new AsyncWriter(new BlockingWriter(out, release), 4, 2);
+		writer.write("abcd");
+		writer.flush(); // the background thread is now blocked writing abcd
+		writer.write("efgh");
+		
+		final Thread producer = new Thread() {
+			@Override
+			public void run() {
+				try {
+					writer.write("ijkl"); // waits for a free buffer
+				}
+				catch(IOException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		};
+		producer.start();
+		producer.join(200);
+		assertTrue(producer.isAlive());
+		assertEquals("", out.toString());
+		
+		release.countDown();
+		producer.join();
+		writer.close();
+		assertEquals("abcdefghijkl", out.toString());
+	}
+	
+	/**
+	 * Tests that an exception thrown by the wrapped writer is rethrown by the next write, and every call after that.
+	 */
+	@Test
+	public void testWriteFailure() throws IOException {
+		final IOException failure = new IOException("disk full");
+		final boolean[] closed = new boolean[1];
+		final Writer failing = new Writer() {
+			@Override
+			public void write(final char[] cbuf, final int off, final int len) throws IOException {
+				throw failure;
+			}
+			
+			@Override
+			public void flush() {
+			}
+			
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+		final AsyncWriter writer = new AsyncWriter(failing, 4, 2);
+		try {
+			for( int i = 0; i < 1000; i++ ) {
+				writer.write("abc");
+			}
+			fail("should have thrown IOException");
+		}
+		catch(IOException e) {
+			assertSame(failure, e);
+		}
+		try {
+			writer.flush();
+			fail("should have thrown IOException");
+		}
+		catch(IOException e) {
+			assertSame(failure, e);
+		}
+		try {
+			writer.close();
+			fail("should have thrown IOException");
+		}
+		catch(IOException e) {
+			assertSame(failure, e);
+		}
+		assertTrue(closed[0]);
+	}
+	
+	/**
+	 * Tests writing CSV through the writer.
+	 */
+	@Test
+	public void testWriteCsv() throws IOException {
+		final StringWriter out = new StringWriter();
+		final CsvListWriter listWriter = new CsvListWriter(new AsyncWriter(out), CsvPreference.STANDARD_PREFERENCE);
+		listWriter.writeHeader("id", "name");
+		for( int i = 1; i <= 1000; i++ ) {
+			listWriter.write(Arrays.asList(i, "name, " + i));
+		}
+		listWriter.close();
+		
+		final StringBuilder expected = new StringBuilder("id,name\r\n");
+		for( int i = 1; i <= 1000; i++ ) {
+			expected.append(i).append(",\"name, ").append(i).append("\"\r\n");
+		}
+		assertEquals(expected.toString(), out.toString());
+	}
+	
+	/**
+	 * Tests closing a writer that hasn't handed anything to the background thread, and writing after it's closed.
+	 */
+	@Test
+	public void testWriteAfterClose() throws IOException {
+		final StringWriter out = new StringWriter();
+		final AsyncWriter writer = new AsyncWriter(out);
+		writer.write("abc");
+		writer.close();
+		writer.close(); // closing again has no effect
+		assertEquals("abc", out.toString());
+		try {
+			writer.write("d");
+			fail("should have thrown IOException");
+		}
+		catch(IOException e) {}
+		assertFalse(out.toString().contains("d"));
+	}
+	
+	/**
+	 * Tests the constructor with a null writer.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullWriter() {
+		new AsyncWriter(null);
+	}
+	
+	/**
+	 * Tests the constructor with an invalid buffer size.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidBufferSize() {
+		new AsyncWriter(new StringWriter(), 0, 2);
+	}
+	
+	/**
+	 * Tests the constructor with too few buffers.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithTooFewBuffers() {
+		new AsyncWriter(new StringWriter(), 1, 1);
+	}
+	
+	/**
+	 * A writer that doesn't write anything until it's released.
+	 */
+	private static class BlockingWriter extends Writer {
+		
+		private final Writer writer;
+		
+		private final CountDownLatch release;
+		
+		BlockingWriter(final Writer writer, final CountDownLatch release) {
+			this.writer = writer;
+			this.release = release;
+		}
+		
+		@Override
+		public void write(final char[] cbuf, final int off, final int len) throws IOException {
+			try {
+				release.await();
+			}
+			catch(InterruptedException e) {
+				throw new IOException("interrupted");
+			}
+			writer.write(cbuf, off, len);
+		}
+		
+		@Override
+		public void flush() throws IOException {
+			writer.flush();
+		}
+		
+		@Override
+		public void close() throws IOException {
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Tests the ByteChannelWriter class.
+ */
+public class ByteChannelWriterTest {
+	
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+	
+	private static final Charset US_ASCII = Charset.forName("US-ASCII");
+	
+	// ASCII, 2, 3 and 4 byte UTF-8, and unpaired surrogates
+	private static final String TEXT = "id,name\r\n1,r\u00e9sum\u00e9 \u20ac5 \ud83d\ude00!\r\n"
+		+ "2,\ud83d \ude00 \ude00\ud83d\ud83d\ud83d\ude00\r\n";
+	
+	/**
+	 * Tests that the output is the same as String.getBytes() with each of the supported charsets, heap and direct
+	 * buffers, and buffer and write sizes that split the multi-byte chars and surrogate pairs.
+	 */
+	@Test
+	public void testEncoding() throws IOException {
+		final StringBuilder text = new StringBuilder();
+		for( int i = 0; i < 100; i++ ) {
+			text.append(TEXT);
+		}
+		final String input = text.toString();
+		for( final Charset charset : Arrays.asList(UTF8, ISO_8859_1, US_ASCII) ) {
+			final byte[] expected = input.getBytes(charset.name());
+			for( final int bufferSize : new int[] { 4, 5, 7, 64, ByteChannelWriter.DEFAULT_BUFFER_SIZE } ) {
+				for( final boolean direct : new boolean[] { false, true } ) {
+					for( final int writeSize : new int[] { 1, 3, 17, input.length() } ) {
+						final ByteArrayOutputStream out = new ByteArrayOutputStream();
+						final ByteChannelWriter writer = new ByteChannelWriter(Channels.newChannel(out), charset,
+							bufferSize, direct);
+						for( int i = 0; i < input.length(); i += writeSize ) {
+							final int end = Math.min(input.length(), i + writeSize);
+							if( writeSize == 3 ) {
+								writer.write(input, i, end - i);
+							} else if( writeSize == 1 ) {
+								writer.write(input.charAt(i));
+							} else {
+								writer.write(input.toCharArray(), i, end - i);
+							}
+						}
+						writer.close();
+						assertArrayEquals(expected, out.toByteArray());
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tests that a high surrogate at the end of the output is written as '?' when the writer is closed.
+	 */
+	@Test
+	public void testHighSurrogateAtEnd() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ByteChannelWriter writer = new ByteChannelWriter(out, UTF8);
+		writer.write("a\ud83d");
+		writer.flush();
+		assertEquals("a", out.toString("UTF-8"));
+		writer.close();
+		assertEquals("a?", out.toString("UTF-8"));
+	}
+	
+	/**
+	 * Tests writing CSV to a file (through its FileChannel).
+	 */
+	@Test
+	public void testWriteCsvToFile() throws IOException {
+		final File file = File.createTempFile("ByteChannelWriterTest", ".csv");
+		try {
+			final CsvListWriter listWriter = new CsvListWriter(new ByteChannelWriter(new FileOutputStream(file),
+				UTF8, 16, true), CsvPreference.STANDARD_PREFERENCE);
+			final List<String> row = Arrays.asList("1", "r\u00e9sum\u00e9, \ud83d\ude00", "\"quoted\"");
+			for( int i = 0; i < 1000; i++ ) {
+				listWriter.write(row);
+			}
+			listWriter.close();
+			
+			final StringBuilder expected = new StringBuilder();
+			for( int i = 0; i < 1000; i++ ) {
+				expected.append("1,\"r\u00e9sum\u00e9, \ud83d\ude00\",\"\"\"quoted\"\"\"\r\n");
+			}
+			assertArrayEquals(expected.toString().getBytes("UTF-8"), readFile(file));
+		}
+		finally {
+			file.delete();
+		}
+	}
+	
+	/**
+	 * Tests writing after the writer is closed.
+	 */
+	@Test
+	public void testWriteAfterClose() throws IOException {
+		final ByteChannelWriter writer = new ByteChannelWriter(new ByteArrayOutputStream(), UTF8);
+		writer.close();
+		writer.close(); // closing again has no effect
+		try {
+			writer.write("a");
+			fail("should have thrown IOException");
+		}
+		catch(IOException e) {}
+	}
+	
+	/**
+	 * Tests the constructor with an unsupported charset.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithUnsupportedCharset() {
+		new ByteChannelWriter(new ByteArrayOutputStream(), Charset.forName("UTF-16"));
+	}
+	
+	/**
+	 * Tests the constructor with a buffer that's too small.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidBufferSize() {
+		new ByteChannelWriter(new ByteArrayOutputStream(), UTF8, 3, false);
+	}
+	
+	/**
+	 * Tests the constructor with a null stream.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullOutput() {
+		new ByteChannelWriter((FileOutputStream) null, UTF8);
+	}
+	
+	/**
+	 * Tests the constructor with a null charset.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullCharset() {
+		new ByteChannelWriter(new ByteArrayOutputStream(), null);
+	}
+	
+	private static byte[] readFile(final File file) throws IOException {
+		final InputStream in = new FileInputStream(file);
+		try {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[4096];
+			int n;
+			while( (n = in.read(buffer)) != -1 ) {
+				out.write(buffer, 0, n);
+			}
+			return out.toByteArray();
+		}
+		finally {
+			in.close();
+		}
+	}
+}
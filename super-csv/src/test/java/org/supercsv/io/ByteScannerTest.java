@@ -0,0 +1,93 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the ByteScanner class.
+ */
+public class ByteScannerTest {
+	
+	private final ByteScanner scanner = new ByteScanner((byte) ',', (byte) '"', (byte) '\n', (byte) '\r', (byte) '\n');
+	
+	/**
+	 * Tests that the scanner finds the same special byte as a byte-by-byte search, at every offset of random input
+	 * (including bytes that differ from a special byte only in their high bit, and bytes just above or below one), in
+	 * both byte orders.
+	 */
+	@Test
+	public void testMatchesByteByByteSearch() {
+		final byte[] alphabet = { ',', '"', '\n', '\r', 'a', ' ', (byte) 0xAC, (byte) 0xA2, (byte) 0x8A, (byte) 0xFF,
+			0, '+', '-', '!', '#', '\t', '\f' };
+		final Random random = new Random(42);
+		for( int run = 0; run < 200; run++ ) {
+			final byte[] bytes = new byte[random.nextInt(40)];
+			for( int i = 0; i < bytes.length; i++ ) {
+				// mostly ordinary bytes, so there are runs longer than a word
+				bytes[i] = random.nextInt(4) == 0 ? alphabet[random.nextInt(alphabet.length)] : (byte) 'x';
+			}
+			for( final ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN } ) {
+				final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(order);
+				for( int from = 0; from <= bytes.length; from++ ) {
+					for( int limit = from; limit <= bytes.length; limit++ ) {
+						assertEquals(expectedIndex(bytes, from, limit), scanner.indexOfSpecial(buffer, from, limit));
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tests a long run without any special bytes.
+	 */
+	@Test
+	public void testNoSpecialBytes() {
+		final byte[] bytes = "the quick brown fox jumps over the lazy dog".getBytes();
+		assertEquals(bytes.length, scanner.indexOfSpecial(ByteBuffer.wrap(bytes), 0, bytes.length));
+		assertEquals(bytes.length, scanner.indexOfSpecial(ByteBuffer.wrap(bytes), 3, bytes.length));
+	}
+	
+	/**
+	 * Tests isSpecial().
+	 */
+	@Test
+	public void testIsSpecial() {
+		assertTrue(scanner.isSpecial((byte) ','));
+		assertTrue(scanner.isSpecial((byte) '\r'));
+		assertFalse(scanner.isSpecial((byte) ' '));
+		assertFalse(scanner.isSpecial((byte) 0xAC));
+	}
+	
+	/**
+	 * Finds the first special byte one byte at a time.
+	 */
+	private int expectedIndex(final byte[] bytes, final int from, final int limit) {
+		int i = from;
+		while( i < limit && !scanner.isSpecial(bytes[i]) ) {
+			i++;
+		}
+		return i;
+	}
+}
@@ -0,0 +1,431 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.supercsv.prefs.CsvPreference.EXCEL_PREFERENCE;
+import static org.supercsv.prefs.CsvPreference.STANDARD_PREFERENCE;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.supercsv.comment.CommentStartsWith;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Tests the CharBufferTokenizer class. Most tests compare the output against the (reference) Tokenizer, using a range
+ * of buffer sizes so that refills and buffer growth happen in the middle of rows, columns and line terminators.
+ */
+public class CharBufferTokenizerTest {
+
+	private static final int[] BUFFER_SIZES = { 1, 2, 3, 5, 8, 16, CharBufferTokenizer.DEFAULT_BUFFER_SIZE };
+
+	private static final CsvPreference SPACES_NEED_QUOTES_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.surroundingSpacesNeedQuotes(true).build();
+	private static final CsvPreference DONT_IGNORE_EMPTY_LINES_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.ignoreEmptyLines(false).build();
+	private static final CsvPreference PARSE_EMPTY_COLUMNS_AS_EMPTY_STRING_PREFERENCE = new CsvPreference.Builder(
+		EXCEL_PREFERENCE).setEmptyColumnParsing(EmptyColumnParsing.ParseEmptyColumnsAsEmptyString).build();
+	private static final CsvPreference COMMENTS_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE).skipComments(
+		new CommentStartsWith("#")).build();
+	private static final CsvPreference BACKSLASH_ESCAPE_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.setQuoteEscapeChar('\\').build();
+	private static final CsvPreference MAX_LINES_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.maxLinesPerRow(2).build();
+
+	private static final CsvPreference[] PREFERENCES = { STANDARD_PREFERENCE, EXCEL_PREFERENCE,
+		SPACES_NEED_QUOTES_PREFERENCE, DONT_IGNORE_EMPTY_LINES_PREFERENCE, PARSE_EMPTY_COLUMNS_AS_EMPTY_STRING_PREFERENCE,
+		COMMENTS_PREFERENCE, BACKSLASH_ESCAPE_PREFERENCE, MAX_LINES_PREFERENCE };
+
+	private static final String[] INPUTS = {
+		"",
+		"\n",
+		"a,b,c",
+		"a,b,c\n",
+		"a,b,c\r\nd,e,f\r\n",
+		"a,b,c\rd,e,f\r",
+		"\uFEFFfirst,second\n\uFEFFthird\n",
+		"\n\n  \na,b\n\n",
+		",,\n,\n",
+		"\"\",\"\",\n\"\"\n",
+		"  a  ,  \" b \"  ,c  \n",
+		"\"quoted, with comma\",\"with \"\"escaped\"\" quotes\"\n",
+		"\"multi\nline\",x\n\"three\r\nline\rvalue\",y\n",
+		"\"unterminated\nrow,with\nseveral lines\n",
+		"\"a\"b\"c\",d\n",
+		"\"with \\\"backslash\\\" escapes\",\"back\\\\slash\"\n",
+		"\"repeat \"\"quote\"\" with backslash escape\"\n",
+		"# comment\na,b\n#another, comment\n\"c\n# not a comment\",d\n",
+		"one line\n\"two\nlines\"\n\"three\nlines\nhere\"\n",
+		"trailing space \n\"spaces\" , \"around\" \n",
+		"\"x\"   ,y\n",
+		"very long column value that is longer than the smallest buffers,another\n" };
+
+	private List<String> columns;
+
+	private CharBufferTokenizer tokenizer;
+
+	/**
+	 * Sets up the columns List for the test.
+	 */
+	@Before
+	public void setUp() {
+		columns = new ArrayList<String>();
+	}
+
+	/**
+	 * Tidies up after the test.
+	 */
+	@After
+	public void tearDown() throws IOException {
+		if( tokenizer != null ) {
+			tokenizer.close();
+		}
+	}
+
+	/**
+	 * Tests that the CharBufferTokenizer produces exactly the same columns, line numbers, untokenized rows and
+	 * exceptions as the Tokenizer, for every combination of input, preferences and buffer size.
+	 */
+	@Test
+	public void testParityWithTokenizer() throws Exception {
+		for( final CsvPreference preference : PREFERENCES ) {
+			for( final String input : INPUTS ) {
+				final List<String> expected = tokenize(new Tokenizer(new StringReader(input), preference));
+				for( final int bufferSize : BUFFER_SIZES ) {
+					final List<String> actual = tokenize(new CharBufferTokenizer(new StringReader(input), preference,
+						bufferSize));
+					assertEquals(String.format("input '%s', buffer size %d", input, bufferSize), expected, actual);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests that the CharBufferTokenizer reads the same columns as the Tokenizer when only some of them are selected,
+	 * both as Strings and as column views.
+	 */
+	@Test
+	public void testColumnProjectionParity() throws Exception {
+		final ColumnProjection projection = new ColumnProjection(1, 3);
+		for( final CsvPreference preference : PREFERENCES ) {
+			for( final String input : INPUTS ) {
+				final Tokenizer reference = new Tokenizer(new StringReader(input), preference);
+				reference.setColumnProjection(projection);
+				final List<String> expected = tokenize(reference);
+				for( final int bufferSize : BUFFER_SIZES ) {
+					final String message = String.format("input '%s', buffer size %d", input, bufferSize);
+					tokenizer = new CharBufferTokenizer(new StringReader(input), preference, bufferSize);
+					tokenizer.setColumnProjection(projection);
+					assertEquals(message, expected, tokenize(tokenizer));
+					tokenizer = new CharBufferTokenizer(new StringReader(input), preference, bufferSize);
+					tokenizer.setColumnProjection(projection);
+					assertEquals(message, expected, tokenizeViews(tokenizer));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests that reading column views produces the same columns, line numbers, untokenized rows and exceptions as
+	 * reading Strings.
+	 */
+	@Test
+	public void testColumnViewParity() throws Exception {
+		for( final CsvPreference preference : PREFERENCES ) {
+			for( final String input : INPUTS ) {
+				final List<String> expected = tokenize(new Tokenizer(new StringReader(input), preference));
+				for( final int bufferSize : BUFFER_SIZES ) {
+					final List<String> actual = tokenizeViews(new CharBufferTokenizer(new StringReader(input),
+						preference, bufferSize));
+					assertEquals(String.format("input '%s', buffer size %d", input, bufferSize), expected, actual);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests that the CharBufferTokenizer reads the same columns as the Tokenizer when repeated values are cached, and
+	 * that a repeated value is the same instance whether it was read from a single run of chars or unescaped.
+	 */
+	@Test
+	public void testStringCacheParity() throws Exception {
+		for( final CsvPreference preference : PREFERENCES ) {
+			for( final String input : INPUTS ) {
+				final List<String> expected = tokenize(new Tokenizer(new StringReader(input), preference));
+				for( final int bufferSize : BUFFER_SIZES ) {
+					final CharBufferTokenizer cached = new CharBufferTokenizer(new StringReader(input), preference,
+						bufferSize);
+					cached.setStringCache(new ColumnStringCache());
+					assertEquals(String.format("input '%s', buffer size %d", input, bufferSize), expected,
+						tokenize(cached));
+				}
+			}
+		}
+
+		tokenizer = new CharBufferTokenizer(new StringReader("GBP,x\n\"GBP\",y\nGBP,z\n"), EXCEL_PREFERENCE, 4);
+		tokenizer.setStringCache(new ColumnStringCache());
+		assertTrue(tokenizer.readColumns(columns));
+		final String first = columns.get(0);
+		assertTrue(tokenizer.readColumns(columns));
+		assertSame(first, columns.get(0));
+		assertTrue(tokenizer.readColumns(columns));
+		assertSame(first, columns.get(0));
+		assertEquals(2L, tokenizer.getStringCache().getHits(1));
+	}
+
+	/**
+	 * Tests that the column views are reused from row to row.
+	 */
+	@Test
+	public void testColumnViewsAreReused() throws Exception {
+		tokenizer = new CharBufferTokenizer(new StringReader("a,\"b\"\"c\"\nd,e\n"), EXCEL_PREFERENCE);
+		final List<CharSequence> views = new ArrayList<CharSequence>();
+
+		assertTrue(tokenizer.readColumnViews(views));
+		assertEquals(2, views.size());
+		final CharSequence first = views.get(0);
+		final CharSequence second = views.get(1);
+		assertEquals("a", first.toString());
+		assertEquals("b\"c", second.toString());
+		assertEquals('"', second.charAt(1));
+		assertEquals("\"c", second.subSequence(1, 3));
+
+		assertTrue(tokenizer.readColumnViews(views));
+		assertSame(first, views.get(0));
+		assertSame(second, views.get(1));
+		assertEquals("d", views.get(0).toString());
+		assertEquals("e", views.get(1).toString());
+
+		assertFalse(tokenizer.readColumnViews(views));
+		assertTrue(views.isEmpty());
+	}
+
+	/**
+	 * Tests a column view with an index that is out of bounds.
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testColumnViewCharAtOutOfBounds() throws Exception {
+		tokenizer = new CharBufferTokenizer(new StringReader("abc,def"), EXCEL_PREFERENCE);
+		final List<CharSequence> views = new ArrayList<CharSequence>();
+		assertTrue(tokenizer.readColumnViews(views));
+		views.get(0).charAt(3);
+	}
+
+	/**
+	 * Tests the readColumnViews() method with a null List.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadColumnViewsWithNullList() throws Exception {
+		tokenizer = new CharBufferTokenizer(new StringReader("a,b"), EXCEL_PREFERENCE);
+		tokenizer.readColumnViews(null);
+	}
+
+	/**
+	 * Tests that a quote char of space behaves the same as the Tokenizer (a space never starts a quoted section).
+	 */
+	@Test
+	public void testParityWithSpaceQuoteChar() throws Exception {
+		final CsvPreference preference = new CsvPreference.Builder(' ', ',', "\n").build();
+		for( final String input : INPUTS ) {
+			final List<String> expected = tokenize(new Tokenizer(new StringReader(input), preference));
+			for( final int bufferSize : BUFFER_SIZES ) {
+				assertEquals(expected, tokenize(new CharBufferTokenizer(new StringReader(input), preference,
+					bufferSize)));
+			}
+		}
+	}
+
+	/**
+	 * Tests reading a row that is much larger than the initial buffer (the buffer should grow).
+	 */
+	@Test
+	public void testRowLargerThanBuffer() throws Exception {
+		final StringBuilder value = new StringBuilder();
+		for( int i = 0; i < 1000; i++ ) {
+			value.append("line ").append(i).append('\n');
+		}
+		final String input = "\"" + value + "\",last\nnext\n";
+
+		tokenizer = new CharBufferTokenizer(new StringReader(input), EXCEL_PREFERENCE, 4);
+		assertTrue(tokenizer.readColumns(columns));
+		assertEquals(Arrays.asList(value.toString(), "last"), columns);
+		assertEquals(1001, tokenizer.getLineNumber());
+		assertEquals("\"" + value + "\",last", tokenizer.getUntokenizedRow());
+
+		assertTrue(tokenizer.readColumns(columns));
+		assertEquals(Arrays.asList("next"), columns);
+		assertEquals(1002, tokenizer.getLineNumber());
+
+		assertFalse(tokenizer.readColumns(columns));
+	}
+
+	/**
+	 * Tests quoted carriage returns after a refill that discards the rows before them (the run of chars being appended
+	 * to the column is empty when the window is shifted).
+	 */
+	@Test
+	public void testQuotedCarriageReturnAfterRefill() throws Exception {
+		final StringBuilder input = new StringBuilder("xx\r\n");
+		for( int i = 0; i < 8000; i++ ) {
+			input.append("a,\"\r\nb\"\r\n");
+		}
+		final List<String> expected = tokenize(new Tokenizer(new StringReader(input.toString()), STANDARD_PREFERENCE));
+		for( final int bufferSize : BUFFER_SIZES ) {
+			final List<String> actual = tokenize(new CharBufferTokenizer(new StringReader(input.toString()),
+				STANDARD_PREFERENCE, bufferSize));
+			assertEquals(String.format("buffer size %d", bufferSize), expected, actual);
+		}
+	}
+
+	/**
+	 * Tests that the CsvListReader uses the CharBufferTokenizer when configured to do so.
+	 */
+	@Test
+	public void testReaderUsesCharBufferTokenizer() throws Exception {
+		final CsvPreference preference = new CsvPreference.Builder(EXCEL_PREFERENCE).useCharBufferTokenizer(true)
+			.build();
+		final CsvListReader listReader = new CsvListReader(new StringReader("a,\"b\nc\",d\ne\n"), preference);
+		try {
+			assertEquals(Arrays.asList("a", "b\nc", "d"), listReader.read());
+			assertEquals(2, listReader.getLineNumber());
+			assertEquals(Arrays.asList("e"), listReader.read());
+			assertEquals(null, listReader.read());
+		}
+		finally {
+			listReader.close();
+		}
+	}
+
+	/**
+	 * Tests the readColumns() method with a null List.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadColumnsWithNullList() throws Exception {
+		tokenizer = new CharBufferTokenizer(new StringReader("a,b"), EXCEL_PREFERENCE);
+		tokenizer.readColumns(null);
+	}
+
+	/**
+	 * Tests the constructor with a null Reader.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullReader() {
+		new CharBufferTokenizer(null, EXCEL_PREFERENCE);
+	}
+
+	/**
+	 * Tests the constructor with null preferences.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullPreferences() {
+		new CharBufferTokenizer(new StringReader(""), null);
+	}
+
+	/**
+	 * Tests the constructor with an invalid buffer size.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidBufferSize() {
+		new CharBufferTokenizer(new StringReader(""), EXCEL_PREFERENCE, 0);
+	}
+
+	/**
+	 * Tests that an unexpected end of file is reported.
+	 */
+	@Test
+	public void testUnexpectedEndOfFile() throws Exception {
+		tokenizer = new CharBufferTokenizer(new StringReader("\"unterminated"), EXCEL_PREFERENCE, 2);
+		try {
+			tokenizer.readColumns(columns);
+			fail("should have thrown SuperCsvException");
+		}
+		catch(SuperCsvException e) {
+			assertEquals("unexpected end of file while reading quoted column beginning on line 1 and ending on line 1",
+				e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads every row from the tokenizer as column views, recording the same output as
+	 * {@link #tokenize(ITokenizer)}.
+	 *
+	 * @param tokenizer
+	 *            the tokenizer
+	 * @return the recorded output
+	 */
+	private static List<String> tokenizeViews(final ICharSequenceTokenizer tokenizer) throws IOException {
+		final List<String> output = new ArrayList<String>();
+		final List<CharSequence> views = new ArrayList<CharSequence>();
+		final List<String> row = new ArrayList<String>();
+		try {
+			while( tokenizer.readColumnViews(views) ) {
+				row.clear();
+				for( final CharSequence view : views ) {
+					row.add(view == null ? null : view.toString());
+				}
+				output.add(row + " @" + tokenizer.getLineNumber() + " [" + tokenizer.getUntokenizedRow() + "]");
+			}
+			output.add("EOF @" + tokenizer.getLineNumber());
+		}
+		catch(SuperCsvException e) {
+			output.add("exception '" + e.getMessage() + "' @" + tokenizer.getLineNumber() + " ["
+				+ tokenizer.getUntokenizedRow() + "]");
+		}
+		finally {
+			tokenizer.close();
+		}
+		return output;
+	}
+
+	/**
+	 * Reads every row from the tokenizer, recording the columns, line number and untokenized row of each row, as well
+	 * as the message, line number and untokenized row of any exception.
+	 *
+	 * @param tokenizer
+	 *            the tokenizer
+	 * @return the recorded output
+	 */
+	private static List<String> tokenize(final ITokenizer tokenizer) throws IOException {
+		final List<String> output = new ArrayList<String>();
+		final List<String> row = new ArrayList<String>();
+		try {
+			while( tokenizer.readColumns(row) ) {
+				output.add(row + " @" + tokenizer.getLineNumber() + " [" + tokenizer.getUntokenizedRow() + "]");
+			}
+			output.add("EOF @" + tokenizer.getLineNumber());
+		}
+		catch(SuperCsvException e) {
+			output.add("exception '" + e.getMessage() + "' @" + tokenizer.getLineNumber() + " ["
+				+ tokenizer.getUntokenizedRow() + "]");
+		}
+		finally {
+			tokenizer.close();
+		}
+		return output;
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the ColumnProjection class.
+ */
+public class ColumnProjectionTest {
+	
+	private static final String[] HEADER = { "id", "name", "city", "age" };
+	
+	/**
+	 * Tests a projection of column numbers.
+	 */
+	@Test
+	public void testColumnNumbers() {
+		final ColumnProjection projection = new ColumnProjection(4, 2);
+		assertFalse(projection.isSelected(0));
+		assertFalse(projection.isSelected(1));
+		assertTrue(projection.isSelected(2));
+		assertFalse(projection.isSelected(3));
+		assertTrue(projection.isSelected(4));
+		assertFalse(projection.isSelected(5));
+		assertEquals("ColumnProjection[2, 4]", projection.toString());
+	}
+	
+	/**
+	 * Tests a projection of column names.
+	 */
+	@Test
+	public void testColumnNames() {
+		final ColumnProjection projection = new ColumnProjection(HEADER, "age", "id");
+		assertEquals("ColumnProjection[1, 4]", projection.toString());
+	}
+	
+	/**
+	 * Tests a projection of the mapped columns of a name mapping.
+	 */
+	@Test
+	public void testForNameMapping() {
+		final ColumnProjection projection = ColumnProjection.forNameMapping(new String[] { null, "name", null,
+			"age" });
+		assertEquals("ColumnProjection[2, 4]", projection.toString());
+	}
+	
+	/**
+	 * Tests a projection with an invalid column number.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidColumnNumber() {
+		new ColumnProjection(1, 0);
+	}
+	
+	/**
+	 * Tests a projection with a column name that isn't in the header.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownColumnName() {
+		new ColumnProjection(HEADER, "name", "unknown");
+	}
+	
+	/**
+	 * Tests a projection with null column numbers.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testNullColumnNumbers() {
+		new ColumnProjection((int[]) null);
+	}
+	
+	/**
+	 * Tests a projection with a null header.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testNullHeader() {
+		new ColumnProjection(null, "name");
+	}
+	
+	/**
+	 * Tests a projection with a null name mapping.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testNullNameMapping() {
+		ColumnProjection.forNameMapping(null);
+	}
+}
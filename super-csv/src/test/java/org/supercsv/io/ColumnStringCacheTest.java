@@ -0,0 +1,151 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the ColumnStringCache class.
+ */
+public class ColumnStringCacheTest {
+	
+	/**
+	 * Tests that a repeated value is returned as the same instance, whether it's looked up in a CharSequence or a char
+	 * array, and that each column has its own values.
+	 */
+	@Test
+	public void testRepeatedValues() {
+		final ColumnStringCache cache = new ColumnStringCache();
+		
+		final String first = cache.get(1, "xxGBPxx", 2, 5);
+		assertEquals("GBP", first);
+		assertSame(first, cache.get(1, new StringBuilder("GBP"), 0, 3));
+		assertSame(first, cache.get(1, "GBP,EUR".toCharArray(), 0, 3));
+		assertEquals("EUR", cache.get(1, "GBP,EUR".toCharArray(), 4, 7));
+		
+		final String otherColumn = cache.get(2, "GBP", 0, 3);
+		assertEquals("GBP", otherColumn);
+		assertNotSame(first, otherColumn);
+		
+		assertEquals(4L, cache.getLookups(1));
+		assertEquals(2L, cache.getHits(1));
+		assertEquals(0.5, cache.getHitRate(1), 0.0);
+		assertEquals(2, cache.getSize(1));
+		assertEquals(1L, cache.getLookups(2));
+		assertEquals(0L, cache.getHits(2));
+		assertEquals(0.0, cache.getHitRate(3), 0.0);
+	}
+	
+	/**
+	 * Tests that values with the same hash code are told apart.
+	 */
+	@Test
+	public void testHashCollisions() {
+		final ColumnStringCache cache = new ColumnStringCache();
+		assertEquals("Aa".hashCode(), "BB".hashCode());
+		final String aa = cache.get(1, "Aa", 0, 2);
+		final String bb = cache.get(1, "BB", 0, 2);
+		assertEquals("BB", bb);
+		assertSame(aa, cache.get(1, "Aa", 0, 2));
+		assertSame(bb, cache.get(1, "BB", 0, 2));
+	}
+	
+	/**
+	 * Tests that no more values are cached once a column's table is full, but that the values already cached are still
+	 * returned.
+	 */
+	@Test
+	public void testMaxEntries() {
+		final ColumnStringCache cache = new ColumnStringCache(2, 1000, 0.0);
+		final String a = cache.get(1, "a", 0, 1);
+		cache.get(1, "b", 0, 1);
+		final String c = cache.get(1, "c".toCharArray(), 0, 1);
+		assertEquals(2, cache.getSize(1));
+		assertNotSame(c, cache.get(1, "c".toCharArray(), 0, 1));
+		assertSame(a, cache.get(1, "a", 0, 1));
+	}
+	
+	/**
+	 * Tests that a column is disabled when its hit rate over a sample is too low, and that the other columns and the
+	 * values of the disabled column are unaffected.
+	 */
+	@Test
+	public void testHighCardinalityColumnIsDisabled() {
+		final ColumnStringCache cache = new ColumnStringCache(1024, 10, 0.5);
+		for( int i = 0; i < 20; i++ ) {
+			assertEquals(String.valueOf(i), cache.get(1, String.valueOf(i), 0, String.valueOf(i).length()));
+			cache.get(2, "same", 0, 4);
+		}
+		assertFalse(cache.isEnabled(1));
+		assertEquals(0, cache.getSize(1));
+		assertEquals(10L, cache.getLookups(1)); // no lookups once disabled
+		assertTrue(cache.isEnabled(2));
+		assertEquals(19L, cache.getHits(2));
+		
+		assertEquals("19", cache.get(1, "19", 0, 2));
+		assertEquals(10L, cache.getLookups(1));
+		
+		cache.clear();
+		assertTrue(cache.isEnabled(1));
+		assertEquals(0L, cache.getLookups(2));
+	}
+	
+	/**
+	 * Tests that long values aren't cached.
+	 */
+	@Test
+	public void testLongValuesAreNotCached() {
+		final ColumnStringCache cache = new ColumnStringCache();
+		final StringBuilder value = new StringBuilder();
+		while( value.length() <= 64 ) {
+			value.append('x');
+		}
+		final String first = cache.get(1, value, 0, value.length());
+		assertEquals(value.toString(), first);
+		assertNotSame(first, cache.get(1, value, 0, value.length()));
+		assertEquals(0L, cache.getLookups(1));
+	}
+	
+	/**
+	 * Tests the constructor with a maxEntriesPerColumn less than 1.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidMaxEntries() {
+		new ColumnStringCache(0, 1000, 0.5);
+	}
+	
+	/**
+	 * Tests the constructor with a sampleSize less than 1.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidSampleSize() {
+		new ColumnStringCache(1024, 0, 0.5);
+	}
+	
+	/**
+	 * Tests the constructor with a minHitRate greater than 1.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidMinHitRate() {
+		new ColumnStringCache(1024, 1000, 1.5);
+	}
+}
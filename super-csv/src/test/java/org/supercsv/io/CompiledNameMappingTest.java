@@ -0,0 +1,117 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+import org.supercsv.exception.SuperCsvException;
+
+/**
+ * Tests the CompiledNameMapping class.
+ */
+public class CompiledNameMappingTest {
+	
+	private static final String[] NAME_MAPPING = { "a", null, "c" };
+	
+	/**
+	 * Tests that a row is equal to the HashMap with the same entries, and iterates over them in column order.
+	 */
+	@Test
+	public void testToMap() {
+		final CompiledNameMapping mapping = new CompiledNameMapping(NAME_MAPPING);
+		assertEquals(3, mapping.getColumnCount());
+		assertArrayEquals(NAME_MAPPING, mapping.getNameMapping());
+		
+		final Map<String, String> row = mapping.toMap(Arrays.asList("1", "2", null));
+		final Map<String, String> expected = new HashMap<String, String>();
+		expected.put("a", "1");
+		expected.put("c", null);
+		assertEquals(expected, row);
+		assertEquals(row, expected);
+		assertEquals(expected.hashCode(), row.hashCode());
+		
+		assertEquals(2, row.size());
+		assertEquals("1", row.get("a"));
+		assertNull(row.get("c"));
+		assertTrue(row.containsKey("c"));
+		assertFalse(row.containsKey(null));
+		assertNull(row.get("b"));
+		
+		final Iterator<Map.Entry<String, String>> entries = row.entrySet().iterator();
+		assertEquals("a", entries.next().getKey());
+		assertEquals("c", entries.next().getKey());
+		assertFalse(entries.hasNext());
+	}
+	
+	/**
+	 * Tests that the rows can't be modified.
+	 */
+	@Test
+	public void testRowsAreImmutable() {
+		final Map<String, String> row = new CompiledNameMapping(NAME_MAPPING).toMap(Arrays.asList("1", "2", "3"));
+		try {
+			row.put("a", "x");
+			fail("should have thrown UnsupportedOperationException");
+		}
+		catch(UnsupportedOperationException e) {}
+		try {
+			row.entrySet().iterator().next().setValue("x");
+			fail("should have thrown UnsupportedOperationException");
+		}
+		catch(UnsupportedOperationException e) {}
+		try {
+			row.clear();
+			fail("should have thrown UnsupportedOperationException");
+		}
+		catch(UnsupportedOperationException e) {}
+		assertEquals("1", row.get("a"));
+	}
+	
+	/**
+	 * Tests toMap() with a row that has the wrong number of columns.
+	 */
+	@Test(expected = SuperCsvException.class)
+	public void testToMapWithWrongColumnCount() {
+		new CompiledNameMapping(NAME_MAPPING).toMap(Arrays.asList("1", "2"));
+	}
+	
+	/**
+	 * Tests the constructor with a duplicate name.
+	 */
+	@Test(expected = SuperCsvException.class)
+	public void testConstructorWithDuplicateName() {
+		new CompiledNameMapping("a", "b", "a");
+	}
+	
+	/**
+	 * Tests the constructor with a null name mapping.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullNameMapping() {
+		new CompiledNameMapping((String[]) null);
+	}
+}
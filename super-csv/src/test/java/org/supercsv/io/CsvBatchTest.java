@@ -0,0 +1,119 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the CsvBatch class.
+ */
+public class CsvBatchTest {
+	
+	private CsvBatch<String> batch;
+	
+	/**
+	 * Sets up the batch for the test.
+	 */
+	@Before
+	public void setUp() {
+		batch = new CsvBatch<String>(1);
+	}
+	
+	/**
+	 * Tests adding rows beyond the initial capacity, and reusing them after clear().
+	 */
+	@Test
+	public void testAddAndClear() {
+		assertTrue(batch.isEmpty());
+		assertNull(batch.reusableRow());
+		
+		batch.add("a", 2, 1);
+		batch.add("b", 3, 2);
+		batch.add("c", 5, 3);
+		assertEquals(3, batch.size());
+		assertEquals("b", batch.get(1));
+		assertEquals(5, batch.getLineNumber(2));
+		assertEquals(3, batch.getRowNumber(2));
+		assertNull(batch.reusableRow());
+		
+		batch.clear();
+		assertTrue(batch.isEmpty());
+		assertEquals("a", batch.reusableRow());
+		batch.add("a", 7, 4);
+		assertEquals("b", batch.reusableRow());
+		assertEquals(7, batch.getLineNumber(0));
+	}
+	
+	/**
+	 * Tests the iterator.
+	 */
+	@Test
+	public void testIterator() {
+		batch.add("a", 1, 1);
+		batch.add("b", 2, 2);
+		batch.clear();
+		batch.add("c", 3, 3);
+		final Iterator<String> iterator = batch.iterator();
+		assertTrue(iterator.hasNext());
+		assertEquals("c", iterator.next());
+		assertFalse(iterator.hasNext());
+	}
+	
+	/**
+	 * Tests that the iterator doesn't support remove().
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void testIteratorRemove() {
+		batch.add("a", 1, 1);
+		final Iterator<String> iterator = batch.iterator();
+		iterator.next();
+		iterator.remove();
+	}
+	
+	/**
+	 * Tests get() with an index that's out of bounds (a row of a previous batch).
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGetOutOfBounds() {
+		batch.add("a", 1, 1);
+		batch.clear();
+		batch.get(0);
+	}
+	
+	/**
+	 * Tests getRowNumber() with a negative index.
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGetRowNumberWithNegativeIndex() {
+		batch.getRowNumber(-1);
+	}
+	
+	/**
+	 * Tests construction with an invalid capacity.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidCapacity() {
+		new CsvBatch<String>(-1);
+	}
+}
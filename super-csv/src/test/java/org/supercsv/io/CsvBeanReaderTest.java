@@ -48,6 +48,8 @@ import static org.supercsv.SuperCsvTestUtils.STRING_CUSTOMERS;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.Before;
@@ -456,4 +458,44 @@ public class CsvBeanReaderTest {
 		}
 		
 	}
+	
+	/**
+	 * Tests reading in batches, with and without processors.
+	 */
+	@Test
+	public void testReadBatch() throws IOException {
+		
+		final String[] header = beanReader.getHeader(true);
+		
+		final CsvBatch<CustomerStringBean> batch = new CsvBatch<CustomerStringBean>();
+		assertEquals(2, beanReader.readBatch(batch, 2, CustomerStringBean.class, header));
+		assertEquals(JOHN_STRING, batch.get(0));
+		assertEquals(BOB_STRING, batch.get(1));
+		assertEquals(3, batch.getRowNumber(1));
+		
+		final CsvBatch<CustomerBean> processedBatch = new CsvBatch<CustomerBean>();
+		final List<CustomerBean> customers = new ArrayList<CustomerBean>();
+		while( beanReader.readBatch(processedBatch, 3, CustomerBean.class, header, READ_PROCESSORS) > 0 ) {
+			for( final CustomerBean customer : processedBatch ) {
+				customers.add(customer);
+			}
+		}
+		assertEquals(CUSTOMERS.subList(2, CUSTOMERS.size()), customers);
+	}
+	
+	/**
+	 * Tests readBatch() with a null class.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadBatchWithNullClass() throws IOException {
+		beanReader.readBatch(new CsvBatch<CustomerBean>(), 10, null, HEADER);
+	}
+	
+	/**
+	 * Tests readBatch() with null processors.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadBatchWithNullProcessors() throws IOException {
+		beanReader.readBatch(new CsvBatch<CustomerBean>(), 10, CustomerBean.class, HEADER, (CellProcessor[]) null);
+	}
 }
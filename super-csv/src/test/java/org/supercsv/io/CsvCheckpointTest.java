@@ -0,0 +1,207 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.supercsv.prefs.CsvPreference.EXCEL_PREFERENCE;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the CsvCheckpoint class (and making and resuming from checkpoints with the readers).
+ */
+public class CsvCheckpointTest {
+	
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	private static final String CSV = "\uFEFFname,city\nJohn,London\r\n\nJane,\"New\nYork\"\nJim,Paris\n";
+	
+	private File file;
+	
+	/**
+	 * Sets up the temporary file for the test.
+	 */
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("CsvCheckpointTest", ".csv");
+		write(CSV);
+	}
+	
+	/**
+	 * Tidies up after the test.
+	 */
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+	
+	/**
+	 * Tests that a reader resumed from a checkpoint (after a round trip through serialization) reads the same rows,
+	 * with the same line and row numbers, as the reader the checkpoint was made with, and can make further checkpoints
+	 * (which keep the header).
+	 */
+	@Test
+	public void testResumeAfterEachRow() throws Exception {
+		final CsvMapReader reader = new CsvMapReader(new MappedFileTokenizer(file, UTF_8, EXCEL_PREFERENCE),
+			EXCEL_PREFERENCE);
+		final String[] header = reader.getHeader(true);
+		CsvCheckpoint checkpoint = serialize(reader.checkpoint());
+		assertArrayEquals(new String[] { "name", "city" }, checkpoint.getHeader());
+		assertEquals(1, checkpoint.getLineNumber());
+		assertEquals(1, checkpoint.getRowNumber());
+		
+		Map<String, String> row;
+		while( (row = reader.read(header)) != null ) {
+			final CsvMapReader resumed = new CsvMapReader(new MappedFileTokenizer(file, UTF_8, EXCEL_PREFERENCE,
+				checkpoint), EXCEL_PREFERENCE);
+			try {
+				assertEquals(row, resumed.read(checkpoint.getHeader()));
+				assertEquals(reader.getLineNumber(), resumed.getLineNumber());
+				assertEquals(reader.getRowNumber(), resumed.getRowNumber());
+				assertEquals(reader.getUntokenizedRow(), resumed.getUntokenizedRow());
+				
+				final CsvCheckpoint next = serialize(resumed.checkpoint());
+				checkpoint = serialize(reader.checkpoint());
+				assertEquals(checkpoint.toString(), next.toString());
+				assertArrayEquals(header, next.getHeader());
+			}
+			finally {
+				resumed.close();
+			}
+		}
+		reader.close();
+		assertEquals(4, checkpoint.getRowNumber());
+		
+		final CsvListReader atEnd = new CsvListReader(new MappedFileTokenizer(file, UTF_8, EXCEL_PREFERENCE,
+			checkpoint), EXCEL_PREFERENCE);
+		assertNull(atEnd.read());
+		atEnd.close();
+	}
+	
+	/**
+	 * Tests a checkpoint made before anything has been read (which must still skip the byte order mark).
+	 */
+	@Test
+	public void testCheckpointAtStart() throws Exception {
+		final CsvListReader reader = new CsvListReader(new MappedFileTokenizer(file, UTF_8, EXCEL_PREFERENCE),
+			EXCEL_PREFERENCE);
+		final CsvCheckpoint checkpoint = reader.checkpoint();
+		reader.close();
+		assertNull(checkpoint.getHeader());
+		
+		final CsvListReader resumed = new CsvListReader(new MappedFileTokenizer(file, UTF_8, EXCEL_PREFERENCE,
+			checkpoint), EXCEL_PREFERENCE);
+		final List<String> header = resumed.read();
+		resumed.close();
+		assertEquals(Arrays.asList("name", "city"), header);
+	}
+	
+	/**
+	 * Tests that a checkpoint can't be used once the file has changed, or with another charset.
+	 */
+	@Test
+	public void testInvalidCheckpoint() throws Exception {
+		final CsvListReader reader = new CsvListReader(new MappedFileTokenizer(file, UTF_8, EXCEL_PREFERENCE),
+			EXCEL_PREFERENCE);
+		reader.read();
+		final CsvCheckpoint checkpoint = reader.checkpoint();
+		reader.close();
+		
+		try {
+			new MappedFileTokenizer(file, Charset.forName("ISO-8859-1"), EXCEL_PREFERENCE, checkpoint);
+			fail("should have thrown IllegalArgumentException");
+		}
+		catch(IllegalArgumentException e) {
+			assertEquals("the checkpoint was made with the charset UTF-8, not ISO-8859-1", e.getMessage());
+		}
+		
+		write(CSV + "Joe,Rome\n");
+		try {
+			new MappedFileTokenizer(file, UTF_8, EXCEL_PREFERENCE, checkpoint);
+			fail("should have thrown IllegalArgumentException");
+		}
+		catch(IllegalArgumentException e) {
+			assertEquals(String.format("the checkpoint is out of date: %s has been modified since it was made", file),
+				e.getMessage());
+		}
+	}
+	
+	/**
+	 * Tests that checkpoints can't be made without a MappedFileTokenizer.
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void testCheckpointWithReader() throws Exception {
+		new CsvListReader(new StringReader(CSV), EXCEL_PREFERENCE).checkpoint();
+	}
+	
+	/**
+	 * Tests the MappedFileTokenizer constructor with a null checkpoint.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullCheckpoint() throws Exception {
+		new MappedFileTokenizer(file, UTF_8, EXCEL_PREFERENCE, (CsvCheckpoint) null);
+	}
+	
+	/**
+	 * Serializes and deserializes a checkpoint.
+	 */
+	private static CsvCheckpoint serialize(final CsvCheckpoint checkpoint) throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(checkpoint);
+		out.close();
+		final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		try {
+			return (CsvCheckpoint) in.readObject();
+		}
+		finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Writes the input to the temporary file (ensuring its last modified time changes).
+	 */
+	private void write(final String input) throws IOException {
+		final long previous = file.lastModified();
+		final FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(input.getBytes(UTF_8.name()));
+		}
+		finally {
+			out.close();
+		}
+		file.setLastModified(previous + 2000L);
+	}
+}
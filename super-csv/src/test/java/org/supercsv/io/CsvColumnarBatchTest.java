@@ -0,0 +1,106 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the CsvColumnarBatch class.
+ */
+public class CsvColumnarBatchTest {
+	
+	private static final ColumnType[] SCHEMA = { ColumnType.INT, null, ColumnType.date("yyyy") };
+	
+	private CsvColumnarBatch batch;
+	
+	/**
+	 * Sets up the batch for the test.
+	 */
+	@Before
+	public void setUp() {
+		batch = new CsvColumnarBatch(SCHEMA, 4);
+	}
+	
+	/**
+	 * Tests the schema accessors.
+	 */
+	@Test
+	public void testSchema() {
+		assertEquals(4, batch.capacity());
+		assertEquals(3, batch.getColumnCount());
+		assertSame(ColumnType.INT, batch.getType(0));
+		assertEquals("DATE", batch.getType(2).toString());
+		assertEquals(4, batch.getLongs(2).length);
+	}
+	
+	/**
+	 * Tests that the batch can't be filled beyond its capacity.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testAddWhenFull() {
+		for( int i = 1; i <= 5; i++ ) {
+			batch.add(Arrays.asList(String.valueOf(i), null, "2000"), i, i);
+		}
+	}
+	
+	/**
+	 * Tests getting the values of a column as the wrong type.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testGetWrongType() {
+		batch.getDoubles(0);
+	}
+	
+	/**
+	 * Tests getting the values of an ignored column.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testGetIgnoredColumn() {
+		batch.getNulls(1);
+	}
+	
+	/**
+	 * Tests getting the row number of a row that isn't in the batch.
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGetRowNumberOutOfBounds() {
+		batch.add(Arrays.asList("1", null, "2000"), 1, 1);
+		batch.clear();
+		batch.getRowNumber(0);
+	}
+	
+	/**
+	 * Tests construction with an invalid capacity.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidCapacity() {
+		new CsvColumnarBatch(SCHEMA, 0);
+	}
+	
+	/**
+	 * Tests construction with a null schema.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullSchema() {
+		new CsvColumnarBatch(null, 10);
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.After;
+import org.junit.Test;
+import org.supercsv.cellprocessor.ParseInt;
+import org.supercsv.cellprocessor.ParseLong;
+import org.supercsv.exception.SuperCsvCellProcessorException;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Tests the CsvColumnarReader class.
+ */
+public class CsvColumnarReaderTest {
+	
+	private static final CsvPreference PREFS = CsvPreference.STANDARD_PREFERENCE;
+	
+	private static final String CSV = "id,amount,count,active,name\n" + "1,1.5,10000000000,true,alice\n"
+		+ "2,,-3,n,\"bob\"\n" + "3,-0.25,,,\n" + "4,1e3,7,Y,\"dave, jr\"\n" + "5,2,8,0,eve\n";
+	
+	private static final ColumnType[] SCHEMA = { ColumnType.INT, ColumnType.DOUBLE, ColumnType.LONG,
+		ColumnType.BOOLEAN, ColumnType.STRING };
+	
+	private ICsvColumnarReader columnarReader;
+	
+	/**
+	 * Closes the reader after the test.
+	 */
+	@After
+	public void tearDown() throws IOException {
+		if( columnarReader != null ) {
+			columnarReader.close();
+		}
+	}
+	
+	/**
+	 * Creates a reader on the supplied CSV.
+	 */
+	private ICsvColumnarReader createReader(final String csv) {
+		columnarReader = new CsvColumnarReader(new StringReader(csv), PREFS);
+		return columnarReader;
+	}
+	
+	/**
+	 * Tests reading all of the rows in a single batch.
+	 */
+	@Test
+	public void testReadBatch() throws IOException {
+		createReader(CSV).getHeader(true);
+		final CsvColumnarBatch batch = new CsvColumnarBatch(SCHEMA, 10);
+		
+		assertEquals(5, columnarReader.readBatch(batch));
+		assertEquals(5, batch.size());
+		assertArrayEquals(new int[] { 1, 2, 3, 4, 5 }, Arrays.copyOf(batch.getInts(0), 5));
+		assertTrue(Arrays.equals(new double[] { 1.5, 0.0, -0.25, 1000.0, 2.0 }, Arrays.copyOf(batch.getDoubles(1), 5)));
+		assertArrayEquals(new long[] { 10000000000L, -3L, 0L, 7L, 8L }, Arrays.copyOf(batch.getLongs(2), 5));
+		assertTrue(Arrays.equals(new boolean[] { true, false, false, true, false },
+			Arrays.copyOf(batch.getBooleans(3), 5)));
+		assertArrayEquals(new String[] { "alice", "bob", null, "dave, jr", "eve" },
+			Arrays.copyOf(batch.getStrings(4), 5));
+		
+		assertEquals(1, batch.getNulls(1).cardinality());
+		assertTrue(batch.isNull(1, 1));
+		assertFalse(batch.isNull(1, 0));
+		assertTrue(batch.isNull(2, 2));
+		assertTrue(batch.isNull(3, 2));
+		assertTrue(batch.isNull(4, 2));
+		assertTrue(batch.getNulls(0).isEmpty());
+		
+		assertEquals(2, batch.getLineNumber(0));
+		assertEquals(6, batch.getLineNumber(4));
+		assertEquals(6, batch.getRowNumber(4));
+		
+		assertEquals(0, columnarReader.readBatch(batch));
+		assertEquals(0, batch.size());
+	}
+	
+	/**
+	 * Tests reading the rows in several batches, reusing the arrays.
+	 */
+	@Test
+	public void testReadSeveralBatches() throws IOException {
+		createReader(CSV).getHeader(true);
+		final CsvColumnarBatch batch = new CsvColumnarBatch(SCHEMA, 2);
+		final int[] ids = batch.getInts(0);
+		
+		assertEquals(2, columnarReader.readBatch(batch));
+		assertEquals(2, ids[1]);
+		assertTrue(batch.isNull(1, 1));
+		
+		assertEquals(2, columnarReader.readBatch(batch));
+		assertEquals(4, ids[1]);
+		assertFalse(batch.isNull(1, 1));
+		assertEquals(1000.0, batch.getDoubles(1)[1], 0.0);
+		assertEquals(4, batch.getRowNumber(0));
+		
+		assertEquals(1, columnarReader.readBatch(batch));
+		assertEquals(5, ids[0]);
+		assertEquals(0, columnarReader.readBatch(batch));
+	}
+	
+	/**
+	 * Tests ignoring columns with a null column type.
+	 */
+	@Test
+	public void testReadBatchWithIgnoredColumns() throws IOException {
+		createReader(CSV).getHeader(true);
+		final CsvColumnarBatch batch = new CsvColumnarBatch(new ColumnType[] { ColumnType.INT, null, null, null,
+			ColumnType.STRING }, 10);
+		assertEquals(5, columnarReader.readBatch(batch));
+		assertEquals(5, batch.getInts(0)[4]);
+		assertEquals("dave, jr", batch.getStrings(4)[3]);
+		assertNull(batch.getType(1));
+	}
+	
+	/**
+	 * Tests the date and custom boolean column types.
+	 */
+	@Test
+	public void testReadBatchWithDatesAndCustomBooleans() throws Exception {
+		final ColumnType[] schema = { ColumnType.date("dd/MM/yyyy"),
+			ColumnType.date("dd MMM yyyy", false, Locale.ENGLISH), ColumnType.bool(new String[] { "oui" }, new String[] { "non" }, true), ColumnType.bool(false) };
+		createReader("25/12/2012,1 Jan 2013,OUI,true\n,,non,f\n");
+		final CsvColumnarBatch batch = new CsvColumnarBatch(schema, 10);
+		assertEquals(2, columnarReader.readBatch(batch));
+		
+		assertEquals(new SimpleDateFormat("dd/MM/yyyy").parse("25/12/2012").getTime(), batch.getLongs(0)[0]);
+		assertEquals(new SimpleDateFormat("dd/MM/yyyy").parse("01/01/2013").getTime(), batch.getLongs(1)[0]);
+		assertTrue(batch.isNull(0, 1));
+		assertTrue(batch.getBooleans(2)[0]);
+		assertFalse(batch.getBooleans(2)[1]);
+		assertTrue(batch.getBooleans(3)[0]);
+		assertFalse(batch.getBooleans(3)[1]);
+	}
+	
+	/**
+	 * Tests that a value that can't be parsed is reported as ParseInt would, and that the batch keeps the rows before
+	 * it.
+	 */
+	@Test
+	public void testReadBatchWithInvalidValue() throws IOException {
+		createReader("1,a\n2,b\nthree,c\n4,d\n");
+		final CsvColumnarBatch batch = new CsvColumnarBatch(new ColumnType[] { ColumnType.INT, ColumnType.STRING }, 10);
+		try {
+			columnarReader.readBatch(batch);
+			fail("should have thrown SuperCsvCellProcessorException");
+		}
+		catch(SuperCsvCellProcessorException e) {
+			assertEquals("'three' could not be parsed as an Integer", e.getMessage());
+			assertTrue(e.getProcessor() instanceof ParseInt);
+			assertEquals(3, e.getCsvContext().getLineNumber());
+			assertEquals(3, e.getCsvContext().getRowNumber());
+			assertEquals(1, e.getCsvContext().getColumnNumber());
+			assertEquals(Arrays.asList("three", "c"), e.getCsvContext().getRowSource());
+		}
+		assertEquals(2, batch.size());
+		assertEquals("b", batch.getStrings(1)[1]);
+		
+		assertEquals(1, columnarReader.readBatch(batch));
+		assertEquals(4, batch.getInts(0)[0]);
+	}
+	
+	/**
+	 * Tests that a null bit left by a row that couldn't be parsed doesn't leak into the next row.
+	 */
+	@Test
+	public void testReadBatchAfterPartiallyParsedRow() throws IOException {
+		createReader(",x\n1,2\n");
+		final CsvColumnarBatch batch = new CsvColumnarBatch(new ColumnType[] { ColumnType.STRING, ColumnType.LONG },
+			10);
+		try {
+			columnarReader.readBatch(batch);
+			fail("should have thrown SuperCsvCellProcessorException");
+		}
+		catch(SuperCsvCellProcessorException e) {
+			assertTrue(e.getProcessor() instanceof ParseLong);
+			assertEquals(2, e.getCsvContext().getColumnNumber());
+		}
+		assertEquals(1, columnarReader.readBatch(batch));
+		assertFalse(batch.isNull(0, 0));
+		assertEquals("1", batch.getStrings(0)[0]);
+	}
+	
+	/**
+	 * Tests that a row with the wrong number of columns is reported.
+	 */
+	@Test(expected = SuperCsvException.class)
+	public void testReadBatchWithWrongNumberOfColumns() throws IOException {
+		createReader("1,2\n3\n");
+		columnarReader.readBatch(new CsvColumnarBatch(new ColumnType[] { ColumnType.INT, ColumnType.INT }, 10));
+	}
+	
+	/**
+	 * Tests that the reader can be combined with a column projection.
+	 */
+	@Test
+	public void testReadBatchWithColumnProjection() throws IOException {
+		createReader(CSV).getHeader(true);
+		columnarReader.setColumnProjection(new ColumnProjection(1, 2));
+		final CsvColumnarBatch batch = new CsvColumnarBatch(new ColumnType[] { ColumnType.INT, ColumnType.DOUBLE,
+			null, null, null }, 10);
+		assertEquals(5, columnarReader.readBatch(batch));
+		assertEquals(-0.25, batch.getDoubles(1)[2], 0.0);
+	}
+	
+	/**
+	 * Tests readBatch() with a null batch.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadBatchWithNullBatch() throws IOException {
+		createReader(CSV).readBatch(null);
+	}
+	
+	/**
+	 * Tests the constructor with a null Reader.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullReader() {
+		new CsvColumnarReader((Reader) null, PREFS);
+	}
+	
+	/**
+	 * Tests the constructor with a null Tokenizer.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullTokenizer() {
+		new CsvColumnarReader((ITokenizer) null, PREFS);
+	}
+}
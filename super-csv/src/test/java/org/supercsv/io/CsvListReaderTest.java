@@ -17,6 +17,9 @@ package org.supercsv.io;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 import static org.supercsv.SuperCsvTestUtils.CSV_FILE;
 import static org.supercsv.SuperCsvTestUtils.CUSTOMERS;
 import static org.supercsv.SuperCsvTestUtils.HEADER;
@@ -27,12 +30,15 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.supercsv.cellprocessor.ParseInt;
 import org.supercsv.cellprocessor.ift.CellProcessor;
+import org.supercsv.exception.SuperCsvCellProcessorException;
 import org.supercsv.prefs.CsvPreference;
 
 /**
@@ -265,4 +271,196 @@ public class CsvListReaderTest {
 		new CsvListReader(new Tokenizer(reader, PREFS), null);
 	}
 	
+	/**
+	 * Tests reading in batches, with and without processors, against reading one row at a time.
+	 */
+	@Test
+	public void testReadBatch() throws IOException {
+		
+		final CsvListReader expectedReader = new CsvListReader(new StringReader(CSV_FILE), PREFS);
+		expectedReader.getHeader(true);
+		listReader.getHeader(true);
+		
+		final CsvBatch<List<String>> batch = new CsvBatch<List<String>>();
+		assertEquals(3, listReader.readBatch(batch, 3));
+		final List<String> firstRow = batch.get(0);
+		for( int i = 0; i < batch.size(); i++ ) {
+			assertEquals(expectedReader.read(), batch.get(i));
+			assertEquals(expectedReader.getLineNumber(), batch.getLineNumber(i));
+			assertEquals(expectedReader.getRowNumber(), batch.getRowNumber(i));
+		}
+		
+		final CsvBatch<List<Object>> processedBatch = new CsvBatch<List<Object>>();
+		int rows = 0;
+		while( listReader.readBatch(processedBatch, 4, READ_PROCESSORS) > 0 ) {
+			for( final List<Object> row : processedBatch ) {
+				assertEquals(expectedReader.read(READ_PROCESSORS), row);
+				rows++;
+			}
+		}
+		assertEquals(CUSTOMERS.size() - 3, rows);
+		assertEquals(0, processedBatch.size());
+		assertEquals(expectedReader.getRowNumber(), listReader.getRowNumber());
+		
+		// the Lists are reused by the next batch
+		assertEquals(0, listReader.readBatch(batch, 3));
+		expectedReader.close();
+		
+		final CsvListReader rereader = new CsvListReader(new StringReader("a,b\nc,d\n"), PREFS);
+		rereader.readBatch(batch, 10);
+		assertSame(firstRow, batch.get(0));
+		assertEquals(Arrays.asList("a", "b"), firstRow);
+		rereader.close();
+	}
+	
+	/**
+	 * Tests that reading into a supplied List or array gives the same rows as read().
+	 */
+	@Test
+	public void testReadIntoSuppliedListAndArray() throws IOException {
+		final CsvListReader expectedReader = new CsvListReader(new StringReader(CSV_FILE), PREFS);
+		final List<String> columns = new ArrayList<String>();
+		String[] array = new String[HEADER.length];
+		final String[] suppliedArray = array;
+		
+		List<String> expected;
+		int rows = 0;
+		while( (expected = expectedReader.read()) != null ) {
+			if( rows++ % 2 == 0 ) {
+				assertSame(columns, listReader.read(columns));
+				assertEquals(expected, columns);
+			} else {
+				array = listReader.read(array);
+				assertSame(suppliedArray, array);
+				assertArrayEquals(expected.toArray(), array);
+			}
+			assertEquals(expectedReader.getLineNumber(), listReader.getLineNumber());
+		}
+		assertEquals(CUSTOMERS.size() + 1, rows);
+		assertNull(listReader.read(columns));
+		assertNull(listReader.read(array));
+		expectedReader.close();
+	}
+	
+	/**
+	 * Tests reading into an array that's too small or too large for the row.
+	 */
+	@Test
+	public void testReadIntoArrayOfTheWrongSize() throws IOException {
+		final CsvListReader abcReader = new CsvListReader(new StringReader("a,b,c\na\n"), PREFS);
+		final String[] small = new String[2];
+		final String[] row = abcReader.read(small);
+		assertArrayEquals(new String[] { "a", "b", "c" }, row);
+		assertArrayEquals(new String[2], small);
+		
+		final String[] large = { "x", "x", "x" };
+		assertSame(large, abcReader.read(large));
+		assertArrayEquals(new String[] { "a", null, "x" }, large);
+		abcReader.close();
+	}
+	
+	/**
+	 * Tests that reading into a supplied List with processors gives the same rows as read(processors), and reports
+	 * processing errors in the same way.
+	 */
+	@Test
+	public void testReadIntoSuppliedListWithProcessors() throws IOException {
+		final CsvListReader expectedReader = new CsvListReader(new StringReader(CSV_FILE), PREFS);
+		assertEquals(expectedReader.read(), listReader.read(new ArrayList<String>()));
+		
+		final List<Object> processedColumns = new ArrayList<Object>();
+		List<Object> expected;
+		while( (expected = expectedReader.read(READ_PROCESSORS)) != null ) {
+			assertSame(processedColumns, listReader.read(processedColumns, READ_PROCESSORS));
+			assertEquals(expected, processedColumns);
+		}
+		assertNull(listReader.read(processedColumns, READ_PROCESSORS));
+		expectedReader.close();
+		
+		final CsvListReader intReader = new CsvListReader(new StringReader("1\nthree\n"), PREFS);
+		final CellProcessor[] processors = { new ParseInt() };
+		intReader.read(processedColumns, processors);
+		try {
+			intReader.read(processedColumns, processors);
+			fail("should have thrown SuperCsvCellProcessorException");
+		}
+		catch(SuperCsvCellProcessorException e) {
+			assertEquals(2, e.getCsvContext().getLineNumber());
+			assertEquals(2, e.getCsvContext().getRowNumber());
+			assertEquals(Arrays.asList((Object) "three"), e.getCsvContext().getRowSource());
+		}
+		intReader.close();
+	}
+	
+	/**
+	 * Tests read() with a null List.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadWithNullList() throws IOException {
+		listReader.read((List<String>) null);
+	}
+	
+	/**
+	 * Tests read() with a null array.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadWithNullArray() throws IOException {
+		listReader.read((String[]) null);
+	}
+	
+	/**
+	 * Tests read() with a null List of processed columns.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadWithNullProcessedColumns() throws IOException {
+		listReader.read((List<Object>) null, READ_PROCESSORS);
+	}
+	
+	/**
+	 * Tests that the rows read before a row that can't be processed are in the batch.
+	 */
+	@Test
+	public void testReadBatchWithProcessingError() throws IOException {
+		final CsvListReader intReader = new CsvListReader(new StringReader("1\n2\nthree\n4\n"), PREFS);
+		final CsvBatch<List<Object>> batch = new CsvBatch<List<Object>>();
+		final CellProcessor[] processors = { new ParseInt() };
+		try {
+			intReader.readBatch(batch, 10, processors);
+			fail("should have thrown SuperCsvCellProcessorException");
+		}
+		catch(SuperCsvCellProcessorException e) {
+			assertEquals(3, e.getCsvContext().getLineNumber());
+			assertEquals(Arrays.asList((Object) "three"), e.getCsvContext().getRowSource());
+		}
+		assertEquals(2, batch.size());
+		assertEquals(Arrays.asList((Object) 2), batch.get(1));
+		
+		assertEquals(1, intReader.readBatch(batch, 10, processors));
+		assertEquals(Arrays.asList((Object) 4), batch.get(0));
+		intReader.close();
+	}
+	
+	/**
+	 * Tests readBatch() with an invalid maxRows.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testReadBatchWithInvalidMaxRows() throws IOException {
+		listReader.readBatch(new CsvBatch<List<String>>(), 0);
+	}
+	
+	/**
+	 * Tests readBatch() with a null batch.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadBatchWithNullBatch() throws IOException {
+		listReader.readBatch(null, 10);
+	}
+	
+	/**
+	 * Tests readBatch() with null processors.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadBatchWithNullProcessors() throws IOException {
+		listReader.readBatch(new CsvBatch<List<Object>>(), 10, (CellProcessor[]) null);
+	}
 }
@@ -270,4 +270,105 @@ public class CsvMapReaderTest {
 		new CsvMapReader(new Tokenizer(reader, PREFS), null);
 	}
 	
+	/**
+	 * Tests reading in batches, with and without processors, against reading one row at a time.
+	 */
+	@Test
+	public void testReadBatch() throws IOException {
+		
+		final CsvMapReader expectedReader = new CsvMapReader(new StringReader(CSV_FILE), PREFS);
+		final String[] header = expectedReader.getHeader(true);
+		mapReader.getHeader(true);
+		
+		final CsvBatch<Map<String, String>> batch = new CsvBatch<Map<String, String>>();
+		assertEquals(3, mapReader.readBatch(batch, 3, PARTIAL_HEADER));
+		for( final Map<String, String> row : batch ) {
+			assertEquals(expectedReader.read(PARTIAL_HEADER), row);
+		}
+		
+		final CsvBatch<Map<String, Object>> processedBatch = new CsvBatch<Map<String, Object>>(2);
+		int rows = 3;
+		while( mapReader.readBatch(processedBatch, 4, header, READ_PROCESSORS) > 0 ) {
+			for( int i = 0; i < processedBatch.size(); i++ ) {
+				assertEquals(expectedReader.read(header, READ_PROCESSORS), processedBatch.get(i));
+				assertEquals(expectedReader.getRowNumber(), processedBatch.getRowNumber(i));
+				rows++;
+			}
+		}
+		assertEquals(CUSTOMERS.size(), rows);
+		assertNull(expectedReader.read(header));
+		expectedReader.close();
+	}
+	
+	/**
+	 * Tests readBatch() with a null name mapping.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadBatchWithNullNameMapping() throws IOException {
+		mapReader.readBatch(new CsvBatch<Map<String, String>>(), 10, (String[]) null);
+	}
+	
+	/**
+	 * Tests readBatch() with null processors.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadBatchWithNullProcessors() throws IOException {
+		mapReader.readBatch(new CsvBatch<Map<String, Object>>(), 10, HEADER, null);
+	}
+	
+	/**
+	 * Tests that the rows read with a compiled name mapping are equal to those read with the name mapping.
+	 */
+	@Test
+	public void testReadWithCompiledNameMapping() throws IOException {
+		
+		final CsvMapReader expectedReader = new CsvMapReader(new StringReader(CSV_FILE), PREFS);
+		assertArrayEquals(HEADER, expectedReader.getHeader(true));
+		assertArrayEquals(HEADER, mapReader.getHeader(true));
+		
+		final CompiledNameMapping mapping = new CompiledNameMapping(PARTIAL_HEADER);
+		Map<String, String> customer;
+		while( (customer = mapReader.read(mapping)) != null ) {
+			assertEquals(expectedReader.read(PARTIAL_HEADER), customer);
+		}
+		assertNull(expectedReader.read(PARTIAL_HEADER));
+		assertEquals(STRING_CUSTOMERS.size() + 1, mapReader.getRowNumber());
+		expectedReader.close();
+	}
+	
+	/**
+	 * Tests that the rows read with a compiled name mapping and processors are equal to those read with the name
+	 * mapping.
+	 */
+	@Test
+	public void testReadWithCompiledNameMappingAndProcessors() throws IOException {
+		
+		final CsvMapReader expectedReader = new CsvMapReader(new StringReader(CSV_FILE), PREFS);
+		assertArrayEquals(HEADER, expectedReader.getHeader(true));
+		assertArrayEquals(HEADER, mapReader.getHeader(true));
+		
+		final CompiledNameMapping mapping = new CompiledNameMapping(HEADER);
+		Map<String, Object> customer;
+		while( (customer = mapReader.read(mapping, READ_PROCESSORS)) != null ) {
+			assertEquals(expectedReader.read(HEADER, READ_PROCESSORS), customer);
+		}
+		assertNull(expectedReader.read(HEADER, READ_PROCESSORS));
+		expectedReader.close();
+	}
+	
+	/**
+	 * Tests the read() method with a null compiled name mapping.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadWithNullCompiledNameMapping() throws IOException {
+		mapReader.read((CompiledNameMapping) null);
+	}
+	
+	/**
+	 * Tests the read() method with a compiled name mapping and null processors.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadWithCompiledNameMappingAndNullProcessors() throws IOException {
+		mapReader.read(new CompiledNameMapping(HEADER), null);
+	}
 }
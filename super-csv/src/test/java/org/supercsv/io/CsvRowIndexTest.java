@@ -0,0 +1,169 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.supercsv.prefs.CsvPreference.EXCEL_PREFERENCE;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the CsvRowIndex class.
+ */
+public class CsvRowIndexTest {
+	
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	private File file;
+	
+	private File indexFile;
+	
+	/**
+	 * Sets up the temporary files for the test.
+	 */
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("CsvRowIndexTest", ".csv");
+		indexFile = new File(file.getPath() + ".idx");
+	}
+	
+	/**
+	 * Tidies up after the test.
+	 */
+	@After
+	public void tearDown() {
+		file.delete();
+		indexFile.delete();
+	}
+	
+	/**
+	 * Tests that the recorded rows are at the start of every interval'th row (ignoring the line terminators within
+	 * quoted columns, and the empty lines between rows).
+	 */
+	@Test
+	public void testBuild() throws Exception {
+		write("a,b\n\"c\nd\",e\n\nf,g\n\"h\",\"i\"\n");
+		final CsvRowIndex index = CsvRowIndex.build(file, UTF_8, EXCEL_PREFERENCE, 2);
+		assertEquals(4, index.getRowCount());
+		assertEquals(2, index.getInterval());
+		assertEquals("UTF-8", index.getCharsetName());
+		assertEquals(0L, index.getOffset(1));
+		assertEquals(0, index.getLinesBefore(1));
+		assertEquals(0L, index.getOffset(2));
+		assertEquals(12L, index.getOffset(3)); // the empty line before it is skipped when the row is read
+		assertEquals(3, index.getLinesBefore(3));
+		assertEquals(12L, index.getOffset(4));
+		assertTrue(index.isValidFor(file));
+	}
+	
+	/**
+	 * Tests that an index written to a sidecar file is read back exactly.
+	 */
+	@Test
+	public void testWriteAndRead() throws Exception {
+		final StringBuilder input = new StringBuilder();
+		for( int i = 0; i < 10000; i++ ) {
+			input.append(i).append(",\"value\n").append(i).append("\"\n");
+		}
+		write(input.toString());
+		final CsvRowIndex index = CsvRowIndex.build(file, UTF_8, EXCEL_PREFERENCE, 10);
+		index.write(indexFile);
+		assertTrue(indexFile.length() < 3 * 1000 + 64); // a few bytes per recorded row
+		
+		final CsvRowIndex read = CsvRowIndex.read(indexFile);
+		assertEquals(index.getRowCount(), read.getRowCount());
+		assertEquals(index.getInterval(), read.getInterval());
+		assertEquals(index.getCharsetName(), read.getCharsetName());
+		assertTrue(read.isValidFor(file));
+		for( int rowNumber = 1; rowNumber <= index.getRowCount(); rowNumber += 10 ) {
+			assertEquals(index.getOffset(rowNumber), read.getOffset(rowNumber));
+			assertEquals(index.getLinesBefore(rowNumber), read.getLinesBefore(rowNumber));
+		}
+	}
+	
+	/**
+	 * Tests that readOrBuild() uses a valid sidecar file, and rebuilds one that is out of date or damaged.
+	 */
+	@Test
+	public void testReadOrBuild() throws Exception {
+		write("a\nb\n");
+		assertEquals(2, CsvRowIndex.readOrBuild(file, UTF_8, EXCEL_PREFERENCE, indexFile).getRowCount());
+		assertTrue(indexFile.isFile());
+		
+		final long written = indexFile.lastModified();
+		indexFile.setLastModified(written - 10000L);
+		assertEquals(2, CsvRowIndex.readOrBuild(file, UTF_8, EXCEL_PREFERENCE, indexFile).getRowCount());
+		assertEquals(written - 10000L, indexFile.lastModified()); // not rewritten
+		
+		write("a\nb\nc\n");
+		assertFalse(CsvRowIndex.read(indexFile).isValidFor(file));
+		assertEquals(3, CsvRowIndex.readOrBuild(file, UTF_8, EXCEL_PREFERENCE, indexFile).getRowCount());
+		assertTrue(CsvRowIndex.read(indexFile).isValidFor(file));
+		
+		final FileOutputStream out = new FileOutputStream(indexFile);
+		out.write(new byte[] { 1, 2, 3 });
+		out.close();
+		assertEquals(3, CsvRowIndex.readOrBuild(file, UTF_8, EXCEL_PREFERENCE, indexFile).getRowCount());
+	}
+	
+	/**
+	 * Tests reading a file that isn't an index.
+	 */
+	@Test
+	public void testReadWithInvalidFile() throws Exception {
+		write("not an index");
+		try {
+			CsvRowIndex.read(file);
+			fail("should have thrown IOException");
+		}
+		catch(IOException e) {
+			assertEquals(String.format("%s is not a CSV row index file", file), e.getMessage());
+		}
+	}
+	
+	/**
+	 * Tests build() with an interval less than 1.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testBuildWithInvalidInterval() throws Exception {
+		CsvRowIndex.build(file, UTF_8, EXCEL_PREFERENCE, 0);
+	}
+	
+	/**
+	 * Writes the input to the temporary file (ensuring its last modified time changes).
+	 */
+	private void write(final String input) throws IOException {
+		final long previous = file.lastModified();
+		final FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(input.getBytes(UTF_8.name()));
+		}
+		finally {
+			out.close();
+		}
+		file.setLastModified(previous + 2000L);
+	}
+}
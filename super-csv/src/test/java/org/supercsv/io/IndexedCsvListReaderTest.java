@@ -0,0 +1,227 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.supercsv.prefs.CsvPreference.EXCEL_PREFERENCE;
+import static org.supercsv.prefs.CsvPreference.STANDARD_PREFERENCE;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.supercsv.comment.CommentStartsWith;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Tests the IndexedCsvListReader class. Seeking to each row is compared against reading the same file from the start
+ * with a CsvListReader.
+ */
+public class IndexedCsvListReaderTest {
+	
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	private static final CsvPreference COMMENTS_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE).skipComments(
+		new CommentStartsWith("#")).build();
+	
+	private static final CsvPreference[] PREFERENCES = { STANDARD_PREFERENCE, EXCEL_PREFERENCE, COMMENTS_PREFERENCE };
+	
+	private static final int[] INTERVALS = { 1, 2, 3, 7 };
+	
+	private static final String[] INPUTS = {
+		"",
+		"\n\n",
+		"a,b,c",
+		"\uFEFFname,city\nJohn,London\r\nJane,\"New\nYork\"\r\n\n\nJim,\"Paris, \"\"France\"\"\"\nJoe,Rome",
+		"# comment\na,b\n\n#another, comment\n\"c\n# not a comment\",d\ne,f\n\"g\",\"h\"\n\n",
+		"1\n2\n3\n4\n5\n6\n7\n8\n9\n10\n11\n12\n13\n14\n15\n" };
+	
+	private File file;
+	
+	private IndexedCsvListReader listReader;
+	
+	/**
+	 * Sets up the temporary file for the test.
+	 */
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("IndexedCsvListReaderTest", ".csv");
+	}
+	
+	/**
+	 * Tidies up after the test.
+	 */
+	@After
+	public void tearDown() throws IOException {
+		if( listReader != null ) {
+			listReader.close();
+		}
+		file.delete();
+	}
+	
+	/**
+	 * Tests that seeking to every row (in every order) reads the same row, with the same line and row numbers, as
+	 * reading the file from the start.
+	 */
+	@Test
+	public void testSeekToEveryRow() throws Exception {
+		for( final String input : INPUTS ) {
+			write(input);
+			for( final CsvPreference preference : PREFERENCES ) {
+				final List<String> expected = readAll(input, preference);
+				for( final int interval : INTERVALS ) {
+					final CsvRowIndex index = CsvRowIndex.build(file, UTF_8, preference, interval);
+					assertEquals(expected.size() - 1, index.getRowCount());
+					
+					listReader = new IndexedCsvListReader(file, UTF_8, preference, index);
+					for( int rowNumber = expected.size(); rowNumber >= 1; rowNumber-- ) {
+						listReader.seekToRow(rowNumber);
+						assertEquals(String.format("input '%s', interval %d, row %d", input, interval, rowNumber),
+							expected.subList(rowNumber - 1, expected.size()), readRemaining(listReader));
+					}
+					listReader.close();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tests that a column projection still applies after seeking.
+	 */
+	@Test
+	public void testSeekWithColumnProjection() throws Exception {
+		write("a,b,c\nd,e,f\ng,h,i\n");
+		listReader = new IndexedCsvListReader(file, UTF_8, EXCEL_PREFERENCE, CsvRowIndex.build(file, UTF_8,
+			EXCEL_PREFERENCE, 2));
+		listReader.setColumnProjection(new ColumnProjection(2));
+		listReader.seekToRow(3);
+		assertEquals(Arrays.asList(null, "h", null), listReader.read());
+		listReader.seekToRow(2);
+		assertEquals(Arrays.asList(null, "e", null), listReader.read());
+	}
+	
+	/**
+	 * Tests seeking to a row that doesn't exist.
+	 */
+	@Test
+	public void testSeekToInvalidRow() throws Exception {
+		write("a\nb\n");
+		listReader = new IndexedCsvListReader(file, UTF_8, EXCEL_PREFERENCE, CsvRowIndex.build(file, UTF_8,
+			EXCEL_PREFERENCE));
+		listReader.seekToRow(3);
+		assertNull(listReader.read());
+		for( final int rowNumber : new int[] { 0, 4 } ) {
+			try {
+				listReader.seekToRow(rowNumber);
+				fail("should have thrown IllegalArgumentException");
+			}
+			catch(IllegalArgumentException e) {
+				assertEquals("rowNumber should be between 1 and 3 but was " + rowNumber, e.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Tests that an index that is out of date, or was built with another charset, is rejected.
+	 */
+	@Test
+	public void testInvalidIndex() throws Exception {
+		write("a\nb\n");
+		final CsvRowIndex index = CsvRowIndex.build(file, UTF_8, EXCEL_PREFERENCE);
+		try {
+			new IndexedCsvListReader(file, Charset.forName("ISO-8859-1"), EXCEL_PREFERENCE, index);
+			fail("should have thrown IllegalArgumentException");
+		}
+		catch(IllegalArgumentException e) {
+			assertEquals("the index was built with the charset UTF-8, not ISO-8859-1", e.getMessage());
+		}
+		
+		write("a\nb\nc\n");
+		try {
+			new IndexedCsvListReader(file, UTF_8, EXCEL_PREFERENCE, index);
+			fail("should have thrown IllegalArgumentException");
+		}
+		catch(IllegalArgumentException e) {
+			assertEquals(String.format("the index is out of date: %s has been modified since it was indexed", file),
+				e.getMessage());
+		}
+	}
+	
+	/**
+	 * Tests the constructor with a null index.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullIndex() throws Exception {
+		new IndexedCsvListReader(file, UTF_8, EXCEL_PREFERENCE, null);
+	}
+	
+	/**
+	 * Reads every row with a CsvListReader, recording each row with the line and row numbers before it (the last
+	 * element is EOF).
+	 */
+	private static List<String> readAll(final String input, final CsvPreference preference) throws IOException {
+		final CsvListReader reader = new CsvListReader(new InputStreamReader(new ByteArrayInputStream(input
+			.getBytes(UTF_8.name())), UTF_8), preference);
+		try {
+			return readRemaining(reader);
+		}
+		finally {
+			reader.close();
+		}
+	}
+	
+	/**
+	 * Reads the remaining rows, recording each row with the line and row numbers before it (the last element is EOF).
+	 */
+	private static List<String> readRemaining(final CsvListReader reader) throws IOException {
+		final List<String> rows = new ArrayList<String>();
+		while( true ) {
+			final String before = " after line " + reader.getLineNumber() + ", row " + reader.getRowNumber();
+			final List<String> row = reader.read();
+			if( row == null ) {
+				rows.add("EOF" + before);
+				return rows;
+			}
+			rows.add(row + before + ", ending on line " + reader.getLineNumber());
+		}
+	}
+	
+	/**
+	 * Writes the input to the temporary file (ensuring its last modified time changes).
+	 */
+	private void write(final String input) throws IOException {
+		final long previous = file.lastModified();
+		final FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(input.getBytes(UTF_8.name()));
+		}
+		finally {
+			out.close();
+		}
+		file.setLastModified(previous + 2000L);
+	}
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.supercsv.prefs.CsvPreference.EXCEL_PREFERENCE;
+import static org.supercsv.prefs.CsvPreference.STANDARD_PREFERENCE;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.supercsv.comment.CommentStartsWith;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Tests the InputStreamTokenizer class (and the lazily decoded column views of AbstractByteTokenizer). Most tests compare
+ * the output against the (reference) Tokenizer reading the same bytes through an InputStreamReader, using a range of
+ * buffer sizes and a stream that only returns a few bytes per read, so that refilling happens in the middle of rows,
+ * columns, multi-byte characters and line terminators.
+ */
+public class InputStreamTokenizerTest {
+	
+	private static final int[] BUFFER_SIZES = { 1, 2, 3, 5, 8, 16, InputStreamTokenizer.DEFAULT_BUFFER_SIZE };
+	
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+	
+	private static final Charset US_ASCII = Charset.forName("US-ASCII");
+	
+	private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+	
+	private static final CsvPreference SPACES_NEED_QUOTES_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.surroundingSpacesNeedQuotes(true).build();
+	private static final CsvPreference DONT_IGNORE_EMPTY_LINES_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.ignoreEmptyLines(false).build();
+	private static final CsvPreference PARSE_EMPTY_COLUMNS_AS_EMPTY_STRING_PREFERENCE = new CsvPreference.Builder(
+		EXCEL_PREFERENCE).setEmptyColumnParsing(EmptyColumnParsing.ParseEmptyColumnsAsEmptyString).build();
+	private static final CsvPreference COMMENTS_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE).skipComments(
+		new CommentStartsWith("#")).build();
+	private static final CsvPreference BACKSLASH_ESCAPE_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.setQuoteEscapeChar('\\').build();
+	private static final CsvPreference MAX_LINES_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.maxLinesPerRow(2).build();
+	
+	private static final CsvPreference[] PREFERENCES = { STANDARD_PREFERENCE, EXCEL_PREFERENCE,
+		SPACES_NEED_QUOTES_PREFERENCE, DONT_IGNORE_EMPTY_LINES_PREFERENCE, PARSE_EMPTY_COLUMNS_AS_EMPTY_STRING_PREFERENCE,
+		COMMENTS_PREFERENCE, BACKSLASH_ESCAPE_PREFERENCE, MAX_LINES_PREFERENCE };
+	
+	private static final String[] INPUTS = {
+		"",
+		"\n",
+		"a,b,c",
+		"a,b,c\r\nd,e,f\r\n",
+		"a,b,c\rd,e,f\r",
+		"\uFEFFfirst,second\n\uFEFFthird\n",
+		"\n\n  \na,b\n\n",
+		",,\n,\n",
+		"\"\",\"\",\n\"\"\n",
+		"  a  ,  \" b \"  ,c  \n",
+		"\"quoted, with comma\",\"with \"\"escaped\"\" quotes\"\n",
+		"\"multi\nline\",x\n\"three\r\nline\rvalue\",y\n",
+		"\"unterminated\nrow,with\nseveral lines\n",
+		"\"with \\\"backslash\\\" escapes\",\"back\\\\slash\"\n",
+		"\"repeat \"\"quote\"\" with backslash escape\"\n",
+		"# comment\na,b\n#another, comment\n\"c\n# not a comment\",d\n",
+		"café,naïve,\"über \"\"quoted\"\"\"\néè,Å\n",
+		"€,中文,\"中\n文\"\n",
+		"very long column value that is longer than the smallest segments,another\n" };
+	
+	/**
+	 * Tests that the InputStreamTokenizer produces exactly the same columns, line numbers, untokenized rows and
+	 * exceptions as the Tokenizer, for every combination of input, preferences and buffer size, in UTF-8 and
+	 * ISO-8859-1, reading both Strings and column views.
+	 */
+	@Test
+	public void testParityWithTokenizer() throws Exception {
+		for( final Charset charset : new Charset[] { UTF_8, ISO_8859_1 } ) {
+			for( final String input : INPUTS ) {
+				final byte[] bytes = input.getBytes(charset.name());
+				for( final CsvPreference preference : PREFERENCES ) {
+					final List<String> expected = tokenize(new Tokenizer(new InputStreamReader(
+						new ByteArrayInputStream(bytes), charset), preference));
+					for( final int bufferSize : BUFFER_SIZES ) {
+						final String message = String.format("input '%s', charset %s, buffer size %d", input, charset,
+							bufferSize);
+						assertEquals(message, expected, tokenize(new InputStreamTokenizer(new ByteArrayInputStream(
+							bytes), charset, preference, bufferSize)));
+						assertEquals(message, expected, tokenize(new InputStreamTokenizer(new TricklingInputStream(
+							bytes), charset, preference, bufferSize)));
+						assertEquals(message, expected, tokenizeViews(new InputStreamTokenizer(
+							new TricklingInputStream(bytes), charset, preference, bufferSize)));
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tests that the InputStreamTokenizer reads the same columns as the Tokenizer when only some of them are selected,
+	 * both as Strings and as column views.
+	 */
+	@Test
+	public void testColumnProjectionParity() throws Exception {
+		final ColumnProjection projection = new ColumnProjection(1, 3);
+		for( final String input : INPUTS ) {
+			final byte[] bytes = input.getBytes("UTF-8");
+			for( final CsvPreference preference : PREFERENCES ) {
+				final Tokenizer reference = new Tokenizer(new InputStreamReader(new ByteArrayInputStream(bytes), UTF_8),
+					preference);
+				reference.setColumnProjection(projection);
+				final List<String> expected = tokenize(reference);
+				for( final int bufferSize : BUFFER_SIZES ) {
+					final String message = String.format("input '%s', buffer size %d", input, bufferSize);
+					InputStreamTokenizer tokenizer = new InputStreamTokenizer(new TricklingInputStream(bytes), UTF_8,
+						preference, bufferSize);
+					tokenizer.setColumnProjection(projection);
+					assertEquals(message, expected, tokenize(tokenizer));
+					tokenizer = new InputStreamTokenizer(new TricklingInputStream(bytes), UTF_8, preference, bufferSize);
+					tokenizer.setColumnProjection(projection);
+					assertEquals(message, expected, tokenizeViews(tokenizer));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tests that invalid and non-ASCII bytes are decoded in the same way as by an InputStreamReader.
+	 */
+	@Test
+	public void testMalformedAndNonAsciiBytes() throws Exception {
+		final byte[] bytes = { 'a', (byte) 0xC3, ',', (byte) 0xE9, (byte) 0x80, '\n', (byte) 0xF0, (byte) 0x9F,
+			(byte) 0x98, (byte) 0x80, ',', (byte) 0xFF, '\n' };
+		for( final Charset charset : new Charset[] { UTF_8, ISO_8859_1, US_ASCII, WINDOWS_1252 } ) {
+			final List<String> expected = tokenize(new Tokenizer(new InputStreamReader(new ByteArrayInputStream(bytes),
+				charset), EXCEL_PREFERENCE));
+			for( final int bufferSize : BUFFER_SIZES ) {
+				assertEquals(charset.name(), expected, tokenize(new InputStreamTokenizer(new TricklingInputStream(
+					bytes), charset, EXCEL_PREFERENCE, bufferSize)));
+				assertEquals(charset.name(), expected, tokenizeViews(new InputStreamTokenizer(
+					new TricklingInputStream(bytes), charset, EXCEL_PREFERENCE, bufferSize)));
+			}
+		}
+	}
+	
+	/**
+	 * Tests that the column views are reused, and only decoded once.
+	 */
+	@Test
+	public void testColumnViewsAreReused() throws Exception {
+		final InputStreamTokenizer tokenizer = new InputStreamTokenizer(new ByteArrayInputStream(
+			"a,\"b\"\"c\"\nd,e\n".getBytes("UTF-8")), UTF_8, EXCEL_PREFERENCE);
+		try {
+			final List<CharSequence> columns = new ArrayList<CharSequence>();
+			assertTrue(tokenizer.readColumnViews(columns));
+			final CharSequence first = columns.get(0);
+			final CharSequence second = columns.get(1);
+			assertEquals("a", first.toString());
+			assertEquals("b\"c", second.toString());
+			assertSame(second.toString(), second.toString());
+			assertEquals(3, second.length());
+			assertEquals('"', second.charAt(1));
+			assertEquals("\"c", second.subSequence(1, 3));
+			
+			assertTrue(tokenizer.readColumnViews(columns));
+			assertSame(first, columns.get(0));
+			assertSame(second, columns.get(1));
+			assertEquals("d", first.toString());
+			assertEquals("e", second.toString());
+			assertFalse(tokenizer.readColumnViews(columns));
+		}
+		finally {
+			tokenizer.close();
+		}
+	}
+	
+	/**
+	 * Tests reading a stream with the CsvListReader.
+	 */
+	@Test
+	public void testWithCsvListReader() throws Exception {
+		final CsvListReader listReader = new CsvListReader(new InputStreamTokenizer(new ByteArrayInputStream(
+			"name,city\nJosé,\"São\nPaulo\"\n".getBytes("UTF-8")), UTF_8, EXCEL_PREFERENCE), EXCEL_PREFERENCE);
+		try {
+			assertEquals(Arrays.asList("name", "city"), Arrays.asList(listReader.getHeader(true)));
+			assertEquals(Arrays.asList("José", "São\nPaulo"), listReader.read());
+			assertEquals(3, listReader.getLineNumber());
+			assertEquals(2, listReader.getRowNumber());
+			assertEquals("José,\"São\nPaulo\"", listReader.getUntokenizedRow());
+			assertEquals(null, listReader.read());
+		}
+		finally {
+			listReader.close();
+		}
+	}
+	
+	/**
+	 * Tests readColumnViews() with a null List.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReadColumnViewsWithNullList() throws IOException {
+		new InputStreamTokenizer(new ByteArrayInputStream(new byte[0]), UTF_8, EXCEL_PREFERENCE).readColumnViews(null);
+	}
+	
+	/**
+	 * Tests the constructor with a charset that isn't supported.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithUnsupportedCharset() {
+		new InputStreamTokenizer(new ByteArrayInputStream(new byte[0]), Charset.forName("UTF-16"), EXCEL_PREFERENCE);
+	}
+	
+	/**
+	 * Tests the constructor with a null input.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullInput() {
+		new InputStreamTokenizer(null, UTF_8, EXCEL_PREFERENCE);
+	}
+	
+	/**
+	 * Tests the constructor with a null charset.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullCharset() {
+		new InputStreamTokenizer(new ByteArrayInputStream(new byte[0]), null, EXCEL_PREFERENCE);
+	}
+	
+	/**
+	 * Tests the constructor with an invalid buffer size.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidBufferSize() {
+		new InputStreamTokenizer(new ByteArrayInputStream(new byte[0]), UTF_8, EXCEL_PREFERENCE, 0);
+	}
+	
+	/**
+	 * Reads every row from the tokenizer as column views, recording the same output as tokenize().
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer
+	 * @return the recorded output
+	 */
+	private static List<String> tokenizeViews(final ICharSequenceTokenizer tokenizer) throws IOException {
+		final List<String> output = new ArrayList<String>();
+		final List<CharSequence> row = new ArrayList<CharSequence>();
+		try {
+			while( tokenizer.readColumnViews(row) ) {
+				final List<String> columns = new ArrayList<String>();
+				for( final CharSequence column : row ) {
+					columns.add(column == null ? null : column.toString());
+				}
+				output.add(columns + " @" + tokenizer.getLineNumber() + " [" + tokenizer.getUntokenizedRow() + "]");
+			}
+			output.add("EOF @" + tokenizer.getLineNumber());
+		}
+		catch(SuperCsvException e) {
+			output.add("exception '" + e.getMessage() + "' @" + tokenizer.getLineNumber() + " ["
+				+ tokenizer.getUntokenizedRow() + "]");
+		}
+		finally {
+			tokenizer.close();
+		}
+		return output;
+	}
+	
+	/**
+	 * Reads every row from the tokenizer, recording the columns, line number and untokenized row of each row, as well
+	 * as the message, line number and untokenized row of any exception.
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer
+	 * @return the recorded output
+	 */
+	private static List<String> tokenize(final ITokenizer tokenizer) throws IOException {
+		final List<String> output = new ArrayList<String>();
+		final List<String> row = new ArrayList<String>();
+		try {
+			while( tokenizer.readColumns(row) ) {
+				output.add(row + " @" + tokenizer.getLineNumber() + " [" + tokenizer.getUntokenizedRow() + "]");
+			}
+			output.add("EOF @" + tokenizer.getLineNumber());
+		}
+		catch(SuperCsvException e) {
+			output.add("exception '" + e.getMessage() + "' @" + tokenizer.getLineNumber() + " ["
+				+ tokenizer.getUntokenizedRow() + "]");
+		}
+		finally {
+			tokenizer.close();
+		}
+		return output;
+	}
+	
+	/**
+	 * A stream that returns at most 3 bytes per read (and occasionally none at all).
+	 */
+	private static class TricklingInputStream extends FilterInputStream {
+		
+		private int reads;
+		
+		TricklingInputStream(final byte[] bytes) {
+			super(new ByteArrayInputStream(bytes));
+		}
+		
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			if( reads++ % 4 == 3 ) {
+				return 0;
+			}
+			return super.read(b, off, Math.min(len, 3));
+		}
+	}
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.supercsv.prefs.CsvPreference.EXCEL_PREFERENCE;
+import static org.supercsv.prefs.CsvPreference.STANDARD_PREFERENCE;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.supercsv.comment.CommentStartsWith;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Tests the MappedFileTokenizer class (and AbstractByteTokenizer). Most tests compare the output against the
+ * (reference) Tokenizer reading the same bytes through an InputStreamReader, using a range of segment sizes so that
+ * remapping happens in the middle of rows, columns, multi-byte characters and line terminators.
+ */
+public class MappedFileTokenizerTest {
+	
+	private static final int[] SEGMENT_SIZES = { 1, 2, 3, 5, 8, 16, MappedFileTokenizer.DEFAULT_SEGMENT_SIZE };
+	
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+	
+	private static final Charset US_ASCII = Charset.forName("US-ASCII");
+	
+	private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+	
+	private static final CsvPreference SPACES_NEED_QUOTES_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.surroundingSpacesNeedQuotes(true).build();
+	private static final CsvPreference DONT_IGNORE_EMPTY_LINES_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.ignoreEmptyLines(false).build();
+	private static final CsvPreference PARSE_EMPTY_COLUMNS_AS_EMPTY_STRING_PREFERENCE = new CsvPreference.Builder(
+		EXCEL_PREFERENCE).setEmptyColumnParsing(EmptyColumnParsing.ParseEmptyColumnsAsEmptyString).build();
+	private static final CsvPreference COMMENTS_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE).skipComments(
+		new CommentStartsWith("#")).build();
+	private static final CsvPreference BACKSLASH_ESCAPE_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.setQuoteEscapeChar('\\').build();
+	private static final CsvPreference MAX_LINES_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.maxLinesPerRow(2).build();
+	
+	private static final CsvPreference[] PREFERENCES = { STANDARD_PREFERENCE, EXCEL_PREFERENCE,
+		SPACES_NEED_QUOTES_PREFERENCE, DONT_IGNORE_EMPTY_LINES_PREFERENCE, PARSE_EMPTY_COLUMNS_AS_EMPTY_STRING_PREFERENCE,
+		COMMENTS_PREFERENCE, BACKSLASH_ESCAPE_PREFERENCE, MAX_LINES_PREFERENCE };
+	
+	private static final String[] INPUTS = {
+		"",
+		"\n",
+		"a,b,c",
+		"a,b,c\r\nd,e,f\r\n",
+		"a,b,c\rd,e,f\r",
+		"\uFEFFfirst,second\n\uFEFFthird\n",
+		"\n\n  \na,b\n\n",
+		",,\n,\n",
+		"\"\",\"\",\n\"\"\n",
+		"  a  ,  \" b \"  ,c  \n",
+		"\"quoted, with comma\",\"with \"\"escaped\"\" quotes\"\n",
+		"\"multi\nline\",x\n\"three\r\nline\rvalue\",y\n",
+		"\"unterminated\nrow,with\nseveral lines\n",
+		"\"with \\\"backslash\\\" escapes\",\"back\\\\slash\"\n",
+		"\"repeat \"\"quote\"\" with backslash escape\"\n",
+		"# comment\na,b\n#another, comment\n\"c\n# not a comment\",d\n",
+		"café,naïve,\"über \"\"quoted\"\"\"\néè,Å\n",
+		"€,中文,\"中\n文\"\n",
+		"very long column value that is longer than the smallest segments,another\n" };
+	
+	private File file;
+	
+	/**
+	 * Sets up the temporary file for the test.
+	 */
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("MappedFileTokenizerTest", ".csv");
+	}
+	
+	/**
+	 * Tidies up after the test.
+	 */
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+	
+	/**
+	 * Tests that the MappedFileTokenizer produces exactly the same columns, line numbers, untokenized rows and
+	 * exceptions as the Tokenizer, for every combination of input, preferences and segment size, in UTF-8 and
+	 * ISO-8859-1.
+	 */
+	@Test
+	public void testParityWithTokenizer() throws Exception {
+		for( final Charset charset : new Charset[] { UTF_8, ISO_8859_1 } ) {
+			for( final String input : INPUTS ) {
+				final byte[] bytes = input.getBytes(charset.name());
+				write(bytes);
+				for( final CsvPreference preference : PREFERENCES ) {
+					final List<String> expected = tokenize(new Tokenizer(new InputStreamReader(
+						new ByteArrayInputStream(bytes), charset), preference));
+					for( final int segmentSize : SEGMENT_SIZES ) {
+						final List<String> actual = tokenize(new MappedFileTokenizer(file, charset, preference,
+							segmentSize));
+						assertEquals(String.format("input '%s', charset %s, segment size %d", input, charset,
+							segmentSize), expected, actual);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tests that invalid and non-ASCII bytes are decoded in the same way as by an InputStreamReader.
+	 */
+	@Test
+	public void testMalformedAndNonAsciiBytes() throws Exception {
+		final byte[] bytes = { 'a', (byte) 0xC3, ',', (byte) 0xE9, (byte) 0x80, '\n', (byte) 0xF0, (byte) 0x9F,
+			(byte) 0x98, (byte) 0x80, ',', (byte) 0xFF, '\n' };
+		write(bytes);
+		for( final Charset charset : new Charset[] { UTF_8, ISO_8859_1, US_ASCII, WINDOWS_1252 } ) {
+			final List<String> expected = tokenize(new Tokenizer(new InputStreamReader(new ByteArrayInputStream(bytes),
+				charset), EXCEL_PREFERENCE));
+			for( final int segmentSize : SEGMENT_SIZES ) {
+				assertEquals(charset.name(), expected, tokenize(new MappedFileTokenizer(file, charset,
+					EXCEL_PREFERENCE, segmentSize)));
+			}
+		}
+	}
+	
+	/**
+	 * Tests reading a mapped file with the CsvListReader.
+	 */
+	@Test
+	public void testWithCsvListReader() throws Exception {
+		write("name,city\nJosé,\"São\nPaulo\"\n".getBytes("UTF-8"));
+		final CsvListReader listReader = new CsvListReader(new MappedFileTokenizer(file, UTF_8, EXCEL_PREFERENCE),
+			EXCEL_PREFERENCE);
+		try {
+			assertEquals(Arrays.asList("name", "city"), Arrays.asList(listReader.getHeader(true)));
+			assertEquals(Arrays.asList("José", "São\nPaulo"), listReader.read());
+			assertEquals(3, listReader.getLineNumber());
+			assertEquals(2, listReader.getRowNumber());
+			assertEquals("José,\"São\nPaulo\"", listReader.getUntokenizedRow());
+			assertEquals(null, listReader.read());
+		}
+		finally {
+			listReader.close();
+		}
+	}
+	
+	/**
+	 * Tests the constructor with a charset that isn't supported.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithUnsupportedCharset() throws IOException {
+		new MappedFileTokenizer(file, Charset.forName("UTF-16"), EXCEL_PREFERENCE);
+	}
+	
+	/**
+	 * Tests the constructor with a delimiter that isn't an ASCII character.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithNonAsciiDelimiter() throws IOException {
+		new MappedFileTokenizer(file, UTF_8, new CsvPreference.Builder('"', '§', "\n").build());
+	}
+	
+	/**
+	 * Tests the constructor with a null file.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullFile() throws IOException {
+		new MappedFileTokenizer(null, UTF_8, EXCEL_PREFERENCE);
+	}
+	
+	/**
+	 * Tests the constructor with a null charset.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullCharset() throws IOException {
+		new MappedFileTokenizer(file, null, EXCEL_PREFERENCE);
+	}
+	
+	/**
+	 * Tests the constructor with null preferences.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullPreferences() throws IOException {
+		new MappedFileTokenizer(file, UTF_8, null);
+	}
+	
+	/**
+	 * Tests the constructor with an invalid segment size.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidSegmentSize() throws IOException {
+		new MappedFileTokenizer(file, UTF_8, EXCEL_PREFERENCE, 0);
+	}
+	
+	/**
+	 * Writes the bytes to the temporary file.
+	 */
+	private void write(final byte[] bytes) throws IOException {
+		final FileOutputStream output = new FileOutputStream(file);
+		try {
+			output.write(bytes);
+		}
+		finally {
+			output.close();
+		}
+	}
+	
+	/**
+	 * Reads every row from the tokenizer, recording the columns, line number and untokenized row of each row, as well
+	 * as the message, line number and untokenized row of any exception.
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer
+	 * @return the recorded output
+	 */
+	private static List<String> tokenize(final ITokenizer tokenizer) throws IOException {
+		final List<String> output = new ArrayList<String>();
+		final List<String> row = new ArrayList<String>();
+		try {
+			while( tokenizer.readColumns(row) ) {
+				output.add(row + " @" + tokenizer.getLineNumber() + " [" + tokenizer.getUntokenizedRow() + "]");
+			}
+			output.add("EOF @" + tokenizer.getLineNumber());
+		}
+		catch(SuperCsvException e) {
+			output.add("exception '" + e.getMessage() + "' @" + tokenizer.getLineNumber() + " ["
+				+ tokenizer.getUntokenizedRow() + "]");
+		}
+		finally {
+			tokenizer.close();
+		}
+		return output;
+	}
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.supercsv.prefs.CsvPreference.EXCEL_PREFERENCE;
+import static org.supercsv.prefs.CsvPreference.STANDARD_PREFERENCE;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.supercsv.cellprocessor.ParseInt;
+import org.supercsv.cellprocessor.ift.CellProcessor;
+import org.supercsv.comment.CommentStartsWith;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Tests the ParallelCsvReader class. Most tests compare the output against a CsvListReader reading the same file, using
+ * a range of chunk sizes so that the chunks start everywhere (within quotes, between CR and LF, etc).
+ */
+public class ParallelCsvReaderTest {
+	
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	private static final int[] CHUNK_SIZES = { 1, 2, 3, 5, 7, 16, 64, ParallelCsvReader.DEFAULT_CHUNK_SIZE };
+	
+	private static final CsvPreference DONT_IGNORE_EMPTY_LINES_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.ignoreEmptyLines(false).build();
+	private static final CsvPreference COMMENTS_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE).skipComments(
+		new CommentStartsWith("#")).build();
+	private static final CsvPreference BACKSLASH_ESCAPE_PREFERENCE = new CsvPreference.Builder(EXCEL_PREFERENCE)
+		.setQuoteEscapeChar('\\').build();
+	
+	private static final CsvPreference[] PREFERENCES = { STANDARD_PREFERENCE, DONT_IGNORE_EMPTY_LINES_PREFERENCE,
+		COMMENTS_PREFERENCE };
+	
+	private static final String INPUT = "\uFEFFid,text,number\r\n" + "1,plain,10\r\n" + "2,\"quoted, comma\",20\n"
+		+ "\n" + "3,\"multi\r\nline\n\nvalue\",30\r" + "4,\"escaped \"\"quotes\"\"\",40\n" + "\r\n"
+		+ "5,\"\"\"\",50\n" + "# comment, \"with\" quotes\n" + "6,\"ends\nwith quote\"\"\",60\n" + "7,é€,70";
+	
+	private File file;
+	
+	private ExecutorService executor;
+	
+	/**
+	 * Sets up the file and executor for the test.
+	 */
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("ParallelCsvReaderTest", ".csv");
+		executor = Executors.newFixedThreadPool(4);
+	}
+	
+	/**
+	 * Tidies up after the test.
+	 */
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+		file.delete();
+	}
+	
+	/**
+	 * Tests that the rows, line numbers and row numbers are the same as with a CsvListReader, with and without a
+	 * header, for every chunk size.
+	 */
+	@Test
+	public void testOrderedParityWithCsvListReader() throws Exception {
+		write(INPUT);
+		for( final CsvPreference preference : PREFERENCES ) {
+			for( final boolean header : new boolean[] { true, false } ) {
+				final List<String> expected = readSequentially(preference, header);
+				for( final int chunkSize : CHUNK_SIZES ) {
+					final List<String> actual = readInParallel(preference, header, chunkSize, true);
+					assertEquals(String.format("chunk size %d, header %b", chunkSize, header), expected, actual);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tests that the same rows (with the same line and row numbers) are read when the rows are unordered.
+	 */
+	@Test
+	public void testUnorderedParityWithCsvListReader() throws Exception {
+		write(INPUT);
+		for( final CsvPreference preference : PREFERENCES ) {
+			final List<String> expected = readSequentially(preference, true);
+			Collections.sort(expected);
+			for( final int chunkSize : CHUNK_SIZES ) {
+				final List<String> actual = readInParallel(preference, true, chunkSize, false);
+				Collections.sort(actual);
+				assertEquals(String.format("chunk size %d", chunkSize), expected, actual);
+			}
+		}
+	}
+	
+	/**
+	 * Tests that a file with backslash escaped quotes (which is read as a single chunk) is read correctly.
+	 */
+	@Test
+	public void testBackslashEscapedQuotes() throws Exception {
+		write("a,\"b \\\"quoted\\\"\nvalue\"\n\"c\\\\\",d\n");
+		final List<String> expected = readSequentially(BACKSLASH_ESCAPE_PREFERENCE, false);
+		for( final int chunkSize : CHUNK_SIZES ) {
+			assertEquals(expected, readInParallel(BACKSLASH_ESCAPE_PREFERENCE, false, chunkSize, true));
+		}
+	}
+	
+	/**
+	 * Tests a larger file, split into many chunks.
+	 */
+	@Test
+	public void testManyChunks() throws Exception {
+		final StringBuilder input = new StringBuilder("id,text\n");
+		for( int i = 0; i < 2000; i++ ) {
+			input.append(i).append(i % 3 == 0 ? ",\"multi\nline \"\"" + i + "\"\"\"\n" : ",single " + i + "\n");
+		}
+		write(input.toString());
+		final List<String> expected = readSequentially(EXCEL_PREFERENCE, true);
+		assertEquals(expected, readInParallel(EXCEL_PREFERENCE, true, 100, true));
+	}
+	
+	/**
+	 * Tests that the CellProcessors are executed, and that their exceptions have the same line and row numbers as with
+	 * a CsvListReader.
+	 */
+	@Test
+	public void testProcessorsAndExceptionContext() throws Exception {
+		write("a,1\n\"b\nb\",2\nc,three\nd,4\n");
+		final CellProcessor[] processors = { null, new ParseInt() };
+		for( final int chunkSize : CHUNK_SIZES ) {
+			final ParallelCsvReader reader = new ParallelCsvReader(file, UTF_8, EXCEL_PREFERENCE, processors,
+				executor, chunkSize, true);
+			try {
+				assertEquals(Arrays.asList("a", 1), reader.read());
+				assertEquals(Arrays.asList("b\nb", 2), reader.read());
+				assertEquals(3, reader.getLineNumber());
+				try {
+					reader.read();
+					fail("should have thrown SuperCsvException");
+				}
+				catch(SuperCsvException e) {
+					assertEquals(4, e.getCsvContext().getLineNumber());
+					assertEquals(3, e.getCsvContext().getRowNumber());
+					assertEquals(2, e.getCsvContext().getColumnNumber());
+				}
+				assertEquals(Arrays.asList("d", 4), reader.read());
+				assertEquals(5, reader.getLineNumber());
+				assertEquals(4, reader.getRowNumber());
+				assertNull(reader.read());
+			}
+			finally {
+				reader.close();
+			}
+		}
+	}
+	
+	/**
+	 * Tests that an unmatched quote is reported.
+	 */
+	@Test
+	public void testUnmatchedQuote() throws Exception {
+		write("a,b\n\"c,d\ne,f\n");
+		final ParallelCsvReader reader = new ParallelCsvReader(file, UTF_8, EXCEL_PREFERENCE, null, executor, 3, true);
+		try {
+			assertEquals(Arrays.asList((Object) "a", "b"), reader.read());
+			reader.read();
+			fail("should have thrown SuperCsvException");
+		}
+		catch(SuperCsvException e) {
+			assertEquals(
+				"unexpected end of file while reading quoted column beginning on line 2 and ending on line 3",
+				e.getMessage());
+		}
+		finally {
+			reader.close();
+		}
+	}
+	
+	/**
+	 * Tests that reading carries on after a malformed header (from the end of the lines read), as with a
+	 * CsvListReader.
+	 */
+	@Test
+	public void testMalformedHeader() throws Exception {
+		write("\"a,b\nc,d\n");
+		final CsvListReader listReader = new CsvListReader(new InputStreamReader(new FileInputStream(file), UTF_8),
+			EXCEL_PREFERENCE);
+		final ParallelCsvReader reader = new ParallelCsvReader(file, UTF_8, EXCEL_PREFERENCE, null, executor);
+		try {
+			try {
+				listReader.getHeader(true);
+				fail("should have thrown SuperCsvException");
+			}
+			catch(SuperCsvException e) {}
+			try {
+				reader.getHeader(true);
+				fail("should have thrown SuperCsvException");
+			}
+			catch(SuperCsvException e) {
+				assertEquals(
+					"unexpected end of file while reading quoted column beginning on line 1 and ending on line 2",
+					e.getMessage());
+			}
+			assertNull(listReader.read());
+			assertNull(reader.read());
+			assertEquals(listReader.getLineNumber(), reader.getLineNumber());
+			assertEquals(listReader.getRowNumber(), reader.getRowNumber());
+		}
+		finally {
+			listReader.close();
+			reader.close();
+		}
+	}
+	
+	/**
+	 * Tests that the header can't be read after the rows.
+	 */
+	@Test(expected = SuperCsvException.class)
+	public void testHeaderAfterRows() throws Exception {
+		write("a,b\nc,d\n");
+		final ParallelCsvReader reader = new ParallelCsvReader(file, UTF_8, EXCEL_PREFERENCE, null, executor);
+		try {
+			reader.read();
+			reader.getHeader(false);
+		}
+		finally {
+			reader.close();
+		}
+	}
+	
+	/**
+	 * Tests reading an empty file.
+	 */
+	@Test
+	public void testEmptyFile() throws Exception {
+		write("");
+		final ParallelCsvReader reader = new ParallelCsvReader(file, UTF_8, EXCEL_PREFERENCE, null, executor);
+		try {
+			assertNull(reader.getHeader(true));
+			assertNull(reader.read());
+		}
+		finally {
+			reader.close();
+		}
+	}
+	
+	/**
+	 * Tests the constructor with an invalid chunk size.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidChunkSize() throws Exception {
+		new ParallelCsvReader(file, UTF_8, EXCEL_PREFERENCE, null, executor, 0, true);
+	}
+	
+	/**
+	 * Tests the constructor with a null executor.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullExecutor() throws Exception {
+		new ParallelCsvReader(file, UTF_8, EXCEL_PREFERENCE, null, null);
+	}
+	
+	/**
+	 * Tests the constructor with a null file.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullFile() throws Exception {
+		new ParallelCsvReader(null, UTF_8, EXCEL_PREFERENCE, null, executor);
+	}
+	
+	/**
+	 * Writes the input to the temporary file (as UTF-8).
+	 */
+	private void write(final String input) throws IOException {
+		final FileOutputStream output = new FileOutputStream(file);
+		try {
+			output.write(input.getBytes("UTF-8"));
+		}
+		finally {
+			output.close();
+		}
+	}
+	
+	/**
+	 * Reads the file with a CsvListReader, recording each row with its line and row number.
+	 */
+	private List<String> readSequentially(final CsvPreference preference, final boolean header) throws IOException {
+		final List<String> output = new ArrayList<String>();
+		final CsvListReader reader = new CsvListReader(new InputStreamReader(new ByteArrayInputStream(
+			readFile()), UTF_8), preference);
+		try {
+			if( header ) {
+				output.add(Arrays.toString(reader.getHeader(true)));
+			}
+			List<String> row;
+			while( (row = reader.read()) != null ) {
+				output.add(row + " @" + reader.getLineNumber() + "/" + reader.getRowNumber());
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return output;
+	}
+	
+	/**
+	 * Reads the file with a ParallelCsvReader, recording each row with its line and row number.
+	 */
+	private List<String> readInParallel(final CsvPreference preference, final boolean header, final int chunkSize,
+		final boolean ordered) throws IOException {
+		final List<String> output = new ArrayList<String>();
+		final ParallelCsvReader reader = new ParallelCsvReader(file, UTF_8, preference, null, executor, chunkSize,
+			ordered);
+		try {
+			if( header ) {
+				output.add(Arrays.toString(reader.getHeader(true)));
+			}
+			List<Object> row;
+			while( (row = reader.read()) != null ) {
+				output.add(row + " @" + reader.getLineNumber() + "/" + reader.getRowNumber());
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return output;
+	}
+	
+	/**
+	 * Reads the contents of the temporary file.
+	 */
+	private byte[] readFile() throws IOException {
+		final byte[] bytes = new byte[(int) file.length()];
+		final FileInputStream input = new FileInputStream(file);
+		try {
+			int read = 0;
+			while( read < bytes.length ) {
+				read += input.read(bytes, read, bytes.length - read);
+			}
+		}
+		finally {
+			input.close();
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.supercsv.cellprocessor.Optional;
+import org.supercsv.cellprocessor.constraint.NotNull;
+import org.supercsv.cellprocessor.ift.CellProcessor;
+import org.supercsv.exception.SuperCsvConstraintViolationException;
+import org.supercsv.mock.CustomerStringBean;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Tests the ParallelCsvWriter class.
+ */
+public class ParallelCsvWriterTest {
+	
+	private static final CsvPreference PREFS = CsvPreference.STANDARD_PREFERENCE;
+	
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	private static final String[] HEADER = { "customerNo", "firstName", "mailingAddress" };
+	
+	private static final CellProcessor[] PROCESSORS = { new NotNull(), new Optional(), new Optional() };
+	
+	private static final int ROWS = 10000;
+	
+	private ExecutorService executor;
+	
+	/**
+	 * Sets up the executor for the test.
+	 */
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+	
+	/**
+	 * Shuts down the executor after the test.
+	 */
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+	
+	/**
+	 * Tests that the rows are written in order, exactly as a CsvListWriter writes them, with a range of chunk sizes
+	 * and chunks in flight.
+	 */
+	@Test
+	public void testWriteRows() throws IOException {
+		final List<List<Object>> rows = rows(ROWS);
+		final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		final CsvListWriter listWriter = new CsvListWriter(new OutputStreamWriter(expected, UTF8), PREFS);
+		listWriter.writeHeader(HEADER);
+		for( final List<Object> row : rows.subList(0, ROWS / 2) ) {
+			listWriter.write(row, PROCESSORS);
+		}
+		listWriter.writeComment("#half way");
+		for( final List<Object> row : rows.subList(ROWS / 2, ROWS) ) {
+			listWriter.write(row);
+		}
+		listWriter.close();
+		
+		for( final int chunkSize : new int[] { 1, 7, ParallelCsvWriter.DEFAULT_CHUNK_SIZE } ) {
+			for( final int maxChunksInFlight : new int[] { 1, 16 } ) {
+				final ByteArrayOutputStream out = new ByteArrayOutputStream();
+				final ParallelCsvWriter writer = new ParallelCsvWriter(out, UTF8, PREFS, executor, chunkSize,
+					maxChunksInFlight);
+				writer.writeHeader(HEADER);
+				writer.writeRows(rows.subList(0, ROWS / 2), PROCESSORS);
+				writer.writeComment("#half way");
+				writer.writeRows(rows.subList(ROWS / 2, ROWS));
+				assertEquals(ROWS + 1, writer.getRowNumber());
+				writer.flush();
+				assertEquals(listWriter.getLineNumber(), writer.getLineNumber());
+				writer.close();
+				assertEquals(expected.toString("UTF-8"), out.toString("UTF-8"));
+			}
+		}
+	}
+	
+	/**
+	 * Tests writing beans, with a charset that isn't converted to bytes by a ByteChannelWriter.
+	 */
+	@Test
+	public void testWriteBeans() throws IOException {
+		final Charset utf16 = Charset.forName("UTF-16BE");
+		final List<CustomerStringBean> beans = new ArrayList<CustomerStringBean>();
+		final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		final CsvBeanWriter beanWriter = new CsvBeanWriter(new OutputStreamWriter(expected, utf16), PREFS);
+		for( final List<Object> row : rows(ROWS) ) {
+			final CustomerStringBean bean = new CustomerStringBean();
+			bean.setCustomerNo((String) row.get(0));
+			bean.setFirstName((String) row.get(1));
+			bean.setMailingAddress((String) row.get(2));
+			beans.add(bean);
+			beanWriter.write(bean, HEADER, PROCESSORS);
+		}
+		beanWriter.close();
+		
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ParallelCsvWriter writer = new ParallelCsvWriter(out, utf16, PREFS, executor, 100, 8);
+		writer.writeBeans(beans.subList(0, 1234), HEADER, PROCESSORS);
+		writer.writeBeans(beans.subList(1234, ROWS), HEADER, PROCESSORS);
+		writer.close();
+		assertEquals(expected.toString("UTF-16BE"), out.toString("UTF-16BE"));
+	}
+	
+	/**
+	 * Tests that a charset that writes a byte order mark (UTF-16), and a stateful charset (ISO-2022-JP), are encoded
+	 * exactly as a CsvListWriter encodes them, without restarting the encoding at each chunk.
+	 */
+	@Test
+	public void testWriteRowsWithEncodingState() throws IOException {
+		final List<List<Object>> rows = rows(ROWS);
+		for( int i = 0; i < ROWS; i += 2 ) {
+			rows.get(i).set(1, "\u65e5\u672c " + i); // switches ISO-2022-JP to JIS X 0208 and back
+		}
+		for( final String charsetName : new String[] { "UTF-16", "ISO-2022-JP" } ) {
+			final Charset charset = Charset.forName(charsetName);
+			final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+			final CsvListWriter listWriter = new CsvListWriter(new OutputStreamWriter(expected, charset), PREFS);
+			for( final List<Object> row : rows ) {
+				listWriter.write(row);
+			}
+			listWriter.close();
+			
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final ParallelCsvWriter writer = new ParallelCsvWriter(out, charset, PREFS, executor, 333, 8);
+			writer.writeRows(rows);
+			writer.close();
+			assertArrayEquals(expected.toByteArray(), out.toByteArray());
+		}
+	}
+	
+	/**
+	 * Tests that a row that fails is reported with the same row and line numbers as a single writer, after the rows
+	 * before it are written, and that every later write throws the same exception.
+	 */
+	@Test
+	public void testProcessingException() throws IOException {
+		final List<List<Object>> rows = rows(ROWS);
+		rows.get(6000).set(0, null);
+		
+		final ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
+		final CsvListWriter listWriter = new CsvListWriter(new OutputStreamWriter(expectedOut, UTF8), PREFS);
+		SuperCsvConstraintViolationException expected = null;
+		try {
+			for( final List<Object> row : rows ) {
+				listWriter.write(row, PROCESSORS);
+			}
+			fail("should have thrown SuperCsvConstraintViolationException");
+		}
+		catch(SuperCsvConstraintViolationException e) {
+			expected = e;
+		}
+		listWriter.close();
+		
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ParallelCsvWriter writer = new ParallelCsvWriter(out, UTF8, PREFS, executor, 64, 4);
+		try {
+			writer.writeRows(rows, PROCESSORS);
+			writer.flush();
+			fail("should have thrown SuperCsvConstraintViolationException");
+		}
+		catch(SuperCsvConstraintViolationException e) {
+			assertEquals(expected.getCsvContext().getRowNumber(), e.getCsvContext().getRowNumber());
+			assertEquals(expected.getCsvContext().getLineNumber(), e.getCsvContext().getLineNumber());
+			assertEquals(expected.getCsvContext().getColumnNumber(), e.getCsvContext().getColumnNumber());
+			try {
+				writer.writeRows(rows);
+				fail("should have thrown SuperCsvConstraintViolationException");
+			}
+			catch(SuperCsvConstraintViolationException again) {
+				assertSame(e, again);
+			}
+		}
+		writer.close();
+		assertEquals(expectedOut.toString("UTF-8"), out.toString("UTF-8"));
+	}
+	
+	/**
+	 * Tests writing after the writer is closed.
+	 */
+	@Test(expected = IOException.class)
+	public void testWriteAfterClose() throws IOException {
+		final ParallelCsvWriter writer = new ParallelCsvWriter(new ByteArrayOutputStream(), UTF8, PREFS, executor);
+		writer.close();
+		writer.writeHeader(HEADER);
+	}
+	
+	/**
+	 * Tests the constructor with a null executor.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullExecutor() {
+		new ParallelCsvWriter(new ByteArrayOutputStream(), UTF8, PREFS, null);
+	}
+	
+	/**
+	 * Tests the constructor with an invalid chunk size.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidChunkSize() {
+		new ParallelCsvWriter(new ByteArrayOutputStream(), UTF8, PREFS, executor, 0, 1);
+	}
+	
+	/**
+	 * Tests the constructor with an invalid number of chunks in flight.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidMaxChunksInFlight() {
+		new ParallelCsvWriter(new ByteArrayOutputStream(), UTF8, PREFS, executor, 1, 0);
+	}
+	
+	/**
+	 * Tests writeRows() with null rows.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testWriteRowsWithNull() throws IOException {
+		new ParallelCsvWriter(new ByteArrayOutputStream(), UTF8, PREFS, executor).writeRows(null);
+	}
+	
+	/**
+	 * Creates rows of a customer number, name (with quotes and non-ASCII chars) and mailing address (with a newline in
+	 * every 3rd row, so the line numbers differ from the row numbers).
+	 */
+	private static List<List<Object>> rows(final int rows) {
+		final List<List<Object>> result = new ArrayList<List<Object>>();
+		for( int i = 1; i <= rows; i++ ) {
+			final String address = i % 3 == 0 ? i + " Main St\nSpringfield" : i % 5 == 0 ? null : i + " Main St";
+			result.add(new ArrayList<Object>(Arrays.<Object> asList(String.valueOf(i), "Renée \"" + i + "\"",
+				address)));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Tests the ParallelGzipInputStream class.
+ */
+public class ParallelGzipInputStreamTest {
+	
+	private ExecutorService executor;
+	
+	/**
+	 * Sets up the executor for the test.
+	 */
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+	
+	/**
+	 * Shuts down the executor after the test.
+	 */
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+	
+	/**
+	 * Tests that BGZF input is decompressed in parallel, with a range of read-ahead limits.
+	 */
+	@Test
+	public void testBgzf() throws IOException {
+		final byte[] csv = csv(20000);
+		final byte[] bgzf = bgzf(csv, 10000);
+		for( final int membersInFlight : new int[] { 1, 3, ParallelGzipInputStream.DEFAULT_MEMBERS_IN_FLIGHT } ) {
+			final ParallelGzipInputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(bgzf), executor,
+				membersInFlight);
+			assertArrayEquals(csv, readAll(in, 1000));
+			assertTrue(in.isParallel());
+			in.close();
+		}
+	}
+	
+	/**
+	 * Tests that an ordinary gzip file (larger than the read-ahead queue) is decompressed by the single-stream
+	 * decompressor.
+	 */
+	@Test
+	public void testGzip() throws IOException {
+		final byte[] csv = csv(100000);
+		final ParallelGzipInputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(gzip(csv)), executor);
+		assertFalse(in.isParallel());
+		assertArrayEquals(csv, readAll(in, 8192));
+		assertFalse(in.isParallel());
+		in.close();
+	}
+	
+	/**
+	 * Tests that concatenated members are all decompressed, whether or not they record their size, and that anything
+	 * after the last member is ignored (as with GZIPInputStream).
+	 */
+	@Test
+	public void testMultipleMembers() throws IOException {
+		final byte[] first = csv(1000);
+		final byte[] second = csv(2000);
+		final ByteArrayOutputStream input = new ByteArrayOutputStream();
+		input.write(bgzf(first, 5000));
+		input.write(gzip(second));
+		input.write(bgzf(first, 5000));
+		input.write(new byte[] { 1, 2, 3 });
+		
+		final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		expected.write(first);
+		expected.write(second);
+		expected.write(first);
+		
+		final ParallelGzipInputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(input.toByteArray()),
+			executor);
+		assertArrayEquals(expected.toByteArray(), readAll(in, 4096));
+		assertFalse(in.isParallel());
+		in.close();
+	}
+	
+	/**
+	 * Tests reading a BGZF CSV file with a reader.
+	 */
+	@Test
+	public void testReadCsv() throws IOException {
+		final ParallelGzipInputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(bgzf(csv(500), 1000)),
+			executor);
+		final CsvListReader listReader = new CsvListReader(new InputStreamReader(in, "UTF-8"),
+			CsvPreference.STANDARD_PREFERENCE);
+		List<String> row;
+		int rows = 0;
+		while( (row = listReader.read()) != null ) {
+			rows++;
+			assertEquals(String.valueOf(rows), row.get(0));
+			assertEquals("r\u00e9sum\u00e9 " + rows, row.get(1));
+		}
+		assertEquals(500, rows);
+		listReader.close();
+	}
+	
+	/**
+	 * Tests that a corrupt member is reported by the read that reaches it, and by every later read.
+	 */
+	@Test
+	public void testCorruptMember() throws IOException {
+		final byte[] csv = csv(2000);
+		final byte[] bgzf = bgzf(csv, 10000);
+		bgzf[bgzf.length - 40] ^= 0x55; // in the last data member
+		final ParallelGzipInputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(bgzf), executor);
+		final byte[] start = new byte[10000];
+		assertEquals(10000, in.read(start));
+		try {
+			readAll(in, 4096);
+			fail("should have thrown ZipException");
+		}
+		catch(ZipException e) {
+			try {
+				in.read();
+				fail("should have thrown ZipException");
+			}
+			catch(ZipException again) {
+				assertSame(e, again);
+			}
+		}
+		in.close();
+	}
+	
+	/**
+	 * Tests input that isn't gzip.
+	 */
+	@Test(expected = ZipException.class)
+	public void testNotGzip() throws IOException {
+		new ParallelGzipInputStream(new ByteArrayInputStream("a,b,c\n".getBytes("UTF-8")), executor).read();
+	}
+	
+	/**
+	 * Tests empty input.
+	 */
+	@Test(expected = EOFException.class)
+	public void testEmpty() throws IOException {
+		new ParallelGzipInputStream(new ByteArrayInputStream(new byte[0]), executor).read();
+	}
+	
+	/**
+	 * Tests reading after the stream is closed.
+	 */
+	@Test(expected = IOException.class)
+	public void testReadAfterClose() throws IOException {
+		final ParallelGzipInputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(gzip(csv(100000))),
+			executor);
+		in.read();
+		in.close();
+		in.read();
+	}
+	
+	/**
+	 * Tests that closing the stream part of the way through an ordinary gzip file stops the read-ahead thread (which is
+	 * blocked with a full queue).
+	 */
+	@Test
+	public void testCloseStopsReadAhead() throws Exception {
+		final ParallelGzipInputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(gzip(csv(200000))),
+			executor);
+		assertEquals(1000, in.read(new byte[1000]));
+		Thread.sleep(100); // lets the read-ahead thread fill its queue
+		in.close();
+		for( final Thread thread : Thread.getAllStackTraces().keySet() ) {
+			if( thread.getName().equals("super-csv-gzip-read-ahead") ) {
+				thread.join(5000);
+				assertFalse(thread.isAlive());
+			}
+		}
+	}
+	
+	/**
+	 * Tests the constructor with a null input.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullInput() {
+		new ParallelGzipInputStream(null, executor);
+	}
+	
+	/**
+	 * Tests the constructor with a null executor.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullExecutor() {
+		new ParallelGzipInputStream(new ByteArrayInputStream(new byte[0]), null);
+	}
+	
+	/**
+	 * Tests the constructor with an invalid membersInFlight.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidMembersInFlight() {
+		new ParallelGzipInputStream(new ByteArrayInputStream(new byte[0]), executor, 0);
+	}
+	
+	/**
+	 * Creates a CSV file with the supplied number of rows.
+	 */
+	private static byte[] csv(final int rows) throws IOException {
+		final StringBuilder csv = new StringBuilder();
+		for( int i = 1; i <= rows; i++ ) {
+			csv.append(i).append(",r\u00e9sum\u00e9 ").append(i).append('\n');
+		}
+		return csv.toString().getBytes("UTF-8");
+	}
+	
+	/**
+	 * Compresses the data as a single gzip member.
+	 */
+	private static byte[] gzip(final byte[] data) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final GZIPOutputStream gzip = new GZIPOutputStream(out);
+		gzip.write(data);
+		gzip.close();
+		return out.toByteArray();
+	}
+	
+	/**
+	 * Compresses the data as BGZF members of up to <tt>memberSize</tt> bytes, followed by the empty end of file
+	 * member.
+	 */
+	private static byte[] bgzf(final byte[] data, final int memberSize) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for( int off = 0; off < data.length; off += memberSize ) {
+			writeMember(out, data, off, Math.min(memberSize, data.length - off));
+		}
+		writeMember(out, data, 0, 0);
+		return out.toByteArray();
+	}
+	
+	private static void writeMember(final ByteArrayOutputStream out, final byte[] data, final int off, final int len) {
+		final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		deflater.setInput(data, off, len);
+		deflater.finish();
+		final byte[] compressed = new byte[len + 1024];
+		final int compressedLength = deflater.deflate(compressed);
+		deflater.end();
+		
+		final int blockSize = 18 + compressedLength + 8;
+		out.write(new byte[] { 0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0 }, 0, 16);
+		writeShort(out, blockSize - 1);
+		out.write(compressed, 0, compressedLength);
+		final CRC32 crc = new CRC32();
+		crc.update(data, off, len);
+		writeInt(out, crc.getValue());
+		writeInt(out, len);
+	}
+	
+	private static void writeShort(final ByteArrayOutputStream out, final int value) {
+		out.write(value & 0xff);
+		out.write(value >>> 8 & 0xff);
+	}
+	
+	private static void writeInt(final ByteArrayOutputStream out, final long value) {
+		writeShort(out, (int) (value & 0xffff));
+		writeShort(out, (int) (value >>> 16 & 0xffff));
+	}
+	
+	/**
+	 * Reads the rest of a stream, in reads of up to <tt>size</tt> bytes.
+	 */
+	private static byte[] readAll(final InputStream in, final int size) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[size];
+		int n;
+		while( (n = in.read(buffer)) != -1 ) {
+			out.write(buffer, 0, n);
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2007 Kasper B. Graversen
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.supercsv.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.supercsv.prefs.CsvPreference.EXCEL_PREFERENCE;
+import static org.supercsv.prefs.CsvPreference.STANDARD_PREFERENCE;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.supercsv.cellprocessor.Collector;
+import org.supercsv.cellprocessor.Optional;
+import org.supercsv.cellprocessor.ParseInt;
+import org.supercsv.cellprocessor.ParseLong;
+import org.supercsv.cellprocessor.constraint.StrRegEx;
+import org.supercsv.cellprocessor.constraint.Unique;
+import org.supercsv.cellprocessor.ift.CellProcessor;
+import org.supercsv.exception.SuperCsvConstraintViolationException;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Tests the PipelinedCsvReader class. Most tests compare the output against a CsvListReader, using a range of batch
+ * sizes.
+ */
+public class PipelinedCsvReaderTest {
+	
+	private static final int[] BATCH_SIZES = { 1, 2, 7, PipelinedCsvReader.DEFAULT_BATCH_SIZE };
+	
+	private static final CellProcessor[] PROCESSORS = { new ParseInt(), new StrRegEx("[a-z]+"),
+		new Optional(new ParseLong()) };
+	
+	private ExecutorService executor;
+	
+	/**
+	 * Sets up the executor for the test.
+	 */
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+	
+	/**
+	 * Shuts down the executor after the test.
+	 */
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+	
+	/**
+	 * Tests that the processed rows, line numbers and row numbers are the same as a CsvListReader's.
+	 */
+	@Test
+	public void testSameAsCsvListReader() throws IOException {
+		final String csv = generate(1000, -1);
+		for( final int batchSize : BATCH_SIZES ) {
+			assertSameAsCsvListReader(csv, STANDARD_PREFERENCE, batchSize);
+		}
+	}
+	
+	/**
+	 * Tests that processing and tokenizing exceptions are thrown when their row is reached, and that reading continues
+	 * after them.
+	 */
+	@Test
+	public void testExceptionsAreThrownAtTheirRow() throws IOException {
+		final CsvPreference maxLinesPreference = new CsvPreference.Builder(EXCEL_PREFERENCE).maxLinesPerRow(2).build();
+		final String csv = generate(20, 5) + "\"6,unterminated\nrow,with\nseveral lines\n" + generate(20, 12);
+		for( final int batchSize : BATCH_SIZES ) {
+			assertSameAsCsvListReader(csv, maxLinesPreference, batchSize);
+		}
+	}
+	
+	/**
+	 * Tests that the ordered processors see every row once, in file order.
+	 */
+	@Test
+	public void testOrderedProcessors() throws IOException {
+		final List<Object> collected = new ArrayList<Object>();
+		final CellProcessor[] processors = { new ParseInt(), null, null };
+		final CellProcessor[] orderedProcessors = { new Unique(new Collector(collected)), null, null };
+		final PipelinedCsvReader reader = new PipelinedCsvReader(new Tokenizer(new StringReader(generate(500, -1)
+			+ "3,abc,\n"), STANDARD_PREFERENCE), processors, orderedProcessors, executor, 16);
+		assertArrayEquals(new String[] { "id", "name", "count" }, reader.getHeader(true));
+		for( int i = 1; i <= 500; i++ ) {
+			assertEquals(i, reader.read().get(0));
+		}
+		try {
+			reader.read();
+			fail("should have thrown SuperCsvConstraintViolationException");
+		}
+		catch(SuperCsvConstraintViolationException e) {
+			assertEquals(502, e.getCsvContext().getLineNumber());
+			assertEquals(502, e.getCsvContext().getRowNumber());
+			assertEquals(1, e.getCsvContext().getColumnNumber());
+		}
+		assertNull(reader.read());
+		assertEquals(500, collected.size());
+		for( int i = 0; i < 500; i++ ) {
+			assertEquals(i + 1, collected.get(i));
+		}
+		reader.close();
+	}
+	
+	/**
+	 * Tests that an IOException stops reading, and is thrown by every following read.
+	 */
+	@Test
+	public void testIOExceptionStopsReading() throws IOException {
+		final IOException failure = new IOException("disk on fire");
+		final PipelinedCsvReader reader = new PipelinedCsvReader(new Tokenizer(new StringReader(generate(10, -1)),
+			STANDARD_PREFERENCE) {
+			@Override
+			public boolean readColumns(final List<String> columns) throws IOException {
+				if( getLineNumber() == 4 ) {
+					throw failure;
+				}
+				return super.readColumns(columns);
+			}
+		}, new CellProcessor[] { new ParseInt(), null, null }, null, executor, 2);
+		reader.getHeader(true);
+		assertEquals(1, reader.read().get(0));
+		assertEquals(2, reader.read().get(0));
+		assertEquals(3, reader.read().get(0));
+		for( int i = 0; i < 2; i++ ) {
+			try {
+				reader.read();
+				fail("should have thrown IOException");
+			}
+			catch(IOException e) {
+				assertSame(failure, e);
+			}
+		}
+		reader.close();
+	}
+	
+	/**
+	 * Tests reading without processors, and closing the reader before all of the rows are read.
+	 */
+	@Test
+	public void testReadWithoutProcessorsAndClose() throws IOException {
+		final PipelinedCsvReader reader = new PipelinedCsvReader(new StringReader(generate(5000, -1)),
+			STANDARD_PREFERENCE, null, executor);
+		reader.getHeader(true);
+		final List<Object> row = reader.read();
+		assertEquals("1", row.get(0));
+		assertEquals(2, reader.getLineNumber());
+		assertEquals(2, reader.getRowNumber());
+		reader.close();
+		try {
+			reader.read();
+			fail("should have thrown IOException");
+		}
+		catch(IOException e) {
+			assertEquals("the reader has been closed", e.getMessage());
+		}
+	}
+	
+	/**
+	 * Tests getHeader() after rows have been read.
+	 */
+	@Test(expected = SuperCsvException.class)
+	public void testGetHeaderAfterRead() throws IOException {
+		final PipelinedCsvReader reader = new PipelinedCsvReader(new StringReader(generate(5, -1)),
+			STANDARD_PREFERENCE, null, executor);
+		try {
+			reader.read();
+			reader.getHeader(false);
+		}
+		finally {
+			reader.close();
+		}
+	}
+	
+	/**
+	 * Tests the constructor with a null Reader.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullReader() {
+		new PipelinedCsvReader((Reader) null, STANDARD_PREFERENCE, PROCESSORS, executor);
+	}
+	
+	/**
+	 * Tests the constructor with a null executor.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorWithNullExecutor() {
+		new PipelinedCsvReader(new StringReader(""), STANDARD_PREFERENCE, PROCESSORS, null);
+	}
+	
+	/**
+	 * Tests the constructor with an invalid batch size.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorWithInvalidBatchSize() {
+		new PipelinedCsvReader(new Tokenizer(new StringReader(""), STANDARD_PREFERENCE), PROCESSORS, null, executor, 0);
+	}
+	
+	/**
+	 * Generates a CSV file with a header (if firstId is negative) and the supplied number of rows. The row with id 7
+	 * (if there is one) has an invalid name.
+	 */
+	private static String generate(final int rows, final int firstId) {
+		final StringBuilder csv = new StringBuilder();
+		if( firstId < 0 ) {
+			csv.append("id,name,count\n");
+		}
+		final int start = Math.max(1, firstId);
+		for( int id = start; id < start + rows; id++ ) {
+			csv.append(id).append(',').append(id == 7 ? "Seven" : "name" .substring(id % 4)).append(',');
+			if( id % 3 != 0 ) {
+				csv.append(id * 1000000007L);
+			}
+			csv.append('\n');
+		}
+		return csv.toString();
+	}
+	
+	/**
+	 * Reads the CSV with both a CsvListReader and a PipelinedCsvReader, and asserts that they read the same rows, line
+	 * numbers, row numbers and exceptions.
+	 */
+	private void assertSameAsCsvListReader(final String csv, final CsvPreference preferences, final int batchSize)
+		throws IOException {
+		final CsvListReader expected = new CsvListReader(new StringReader(csv), preferences);
+		final PipelinedCsvReader actual = new PipelinedCsvReader(new Tokenizer(new StringReader(csv), preferences),
+			PROCESSORS, null, executor, batchSize);
+		try {
+			assertArrayEquals(expected.getHeader(true), actual.getHeader(true));
+			int exceptions = 0;
+			for( int row = 0; row < 10000; row++ ) {
+				String expectedException = null;
+				List<Object> expectedRow = null;
+				try {
+					expectedRow = expected.read(PROCESSORS);
+				}
+				catch(SuperCsvException e) {
+					expectedException = e.getClass().getName() + e.getMessage() + e.getCsvContext();
+				}
+				
+				String actualException = null;
+				List<Object> actualRow = null;
+				try {
+					actualRow = actual.read();
+				}
+				catch(SuperCsvException e) {
+					actualException = e.getClass().getName() + e.getMessage() + e.getCsvContext();
+				}
+				
+				final String message = String.format("row %d with batch size %d", row, batchSize);
+				assertEquals(message, expectedException, actualException);
+				assertEquals(message, expectedRow, actualRow);
+				assertEquals(message, expected.getLineNumber(), actual.getLineNumber());
+				assertEquals(message, expected.getRowNumber(), actual.getRowNumber());
+				if( expectedException != null ) {
+					exceptions++;
+				} else if( expectedRow == null ) {
+					assertTrue(exceptions > 0 || !csv.contains("Seven"));
+					return;
+				}
+			}
+			fail("too many rows");
+		}
+		finally {
+			expected.close();
+			actual.close();
+		}
+	}
+}
@@ -18,6 +18,7 @@ package org.supercsv.io;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.supercsv.prefs.CsvPreference.EXCEL_PREFERENCE;
@@ -26,6 +27,7 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.After;
@@ -786,4 +788,158 @@ public class TokenizerTest {
 		assertEquals("", columns.get(1));
 	}	
 	
+	/**
+	 * Tests that the columns that aren't selected by the projection are read as null, without changing the number of
+	 * columns, and that the projection can be changed (or removed) between rows.
+	 */
+	@Test
+	public void testColumnProjection() throws Exception {
+		
+		final String input = "a,\"b,b\",c,\"d\"\"d\",e\nf,g,h,i,j\nk,l\n";
+		tokenizer = createTokenizer(input, EXCEL_PREFERENCE);
+		tokenizer.setColumnProjection(new ColumnProjection(2, 4));
+		
+		assertTrue(tokenizer.readColumns(columns));
+		assertEquals(Arrays.asList(null, "b,b", null, "d\"d", null), columns);
+		assertEquals("a,\"b,b\",c,\"d\"\"d\",e", tokenizer.getUntokenizedRow());
+		
+		tokenizer.setColumnProjection(null);
+		assertTrue(tokenizer.readColumns(columns));
+		assertEquals(Arrays.asList("f", "g", "h", "i", "j"), columns);
+		
+		tokenizer.setColumnProjection(new ColumnProjection(1));
+		assertTrue(tokenizer.readColumns(columns));
+		assertEquals(Arrays.asList("k", null), columns);
+		assertFalse(tokenizer.readColumns(columns));
+	}
+	
+	/**
+	 * Tests that the selected columns of a projection are read exactly as without the projection (the unselected
+	 * columns are scanned but not copied), with quotes, escaped quotes, surrounding spaces and quoted newlines.
+	 */
+	@Test
+	public void testColumnProjectionMatchesAllColumns() throws Exception {
+		
+		final String input = " a ,  \"b \"\" b\"  , c\"c\" ,\"d\nd\",, \"\" ,g\n"
+			+ "\"h\nh\", i ,\"j\"\"\",k l,,\" m \"\n";
+		for( final CsvPreference preference : new CsvPreference[] { EXCEL_PREFERENCE, SPACES_NEED_QUOTES_PREFERENCE,
+			PARSE_EMPTY_COLUMNS_AS_EMPTY_STRING_PREFERENCE } ) {
+			final List<List<String>> expected = new ArrayList<List<String>>();
+			tokenizer = createTokenizer(input, preference);
+			while( tokenizer.readColumns(columns) ) {
+				expected.add(new ArrayList<String>(columns));
+			}
+			
+			for( int selected = 1; selected <= 7; selected++ ) {
+				tokenizer = createTokenizer(input, preference);
+				tokenizer.setColumnProjection(new ColumnProjection(selected));
+				for( final List<String> row : expected ) {
+					assertTrue(tokenizer.readColumns(columns));
+					assertEquals(row.size(), columns.size());
+					for( int i = 0; i < row.size(); i++ ) {
+						assertEquals(i + 1 == selected ? row.get(i) : null, columns.get(i));
+					}
+				}
+				assertFalse(tokenizer.readColumns(columns));
+			}
+		}
+	}
+	
+	/**
+	 * Tests that rows without quotes are split directly (applying the surroundingSpacesNeedQuotes and emptyColumnParsing
+	 * preferences as usual), and that they're counted.
+	 */
+	@Test
+	public void testUnquotedRows() throws Exception {
+		
+		final String input = "  a , b b ,,  \n\" c \",d\n\n e,\n";
+		tokenizer = createTokenizer(input, SPACES_NEED_QUOTES_PREFERENCE);
+		
+		assertTrue(tokenizer.readColumns(columns));
+		assertEquals(Arrays.asList("a", "b b", null, null), columns);
+		assertEquals("  a , b b ,,  ", tokenizer.getUntokenizedRow());
+		assertEquals(1, tokenizer.getRowCount());
+		assertEquals(1, tokenizer.getUnquotedRowCount());
+		
+		assertTrue(tokenizer.readColumns(columns));
+		assertEquals(Arrays.asList(" c ", "d"), columns);
+		assertEquals(2, tokenizer.getRowCount());
+		assertEquals(1, tokenizer.getUnquotedRowCount());
+		
+		assertTrue(tokenizer.readColumns(columns));
+		assertEquals(Arrays.asList("e", null), columns);
+		assertEquals(4, tokenizer.getLineNumber());
+		assertEquals(3, tokenizer.getRowCount());
+		assertEquals(2, tokenizer.getUnquotedRowCount());
+		
+		assertFalse(tokenizer.readColumns(columns));
+		assertEquals(3, tokenizer.getRowCount());
+	}
+	
+	/**
+	 * Tests that surrounding spaces are kept in rows without quotes when they don't need quotes, and that empty
+	 * columns are null even when parsing empty columns as empty strings (as they can't have been quoted).
+	 */
+	@Test
+	public void testUnquotedRowsWithSurroundingSpaces() throws Exception {
+		
+		tokenizer = createTokenizer("  a , ,\n", PARSE_EMPTY_COLUMNS_AS_EMPTY_STRING_PREFERENCE);
+		assertTrue(tokenizer.readColumns(columns));
+		assertEquals(Arrays.asList("  a ", " ", null), columns);
+		assertEquals(1, tokenizer.getUnquotedRowCount());
+	}
+	
+	/**
+	 * Tests that repeated values of a column are the same instance when a string cache is used, whether the row was
+	 * split directly or tokenized char by char, and that the values of different columns are cached separately.
+	 */
+	@Test
+	public void testStringCache() throws Exception {
+		
+		tokenizer = createTokenizer("GBP,open\n\"GBP\",closed\nGBP,GBP\n", EXCEL_PREFERENCE);
+		final ColumnStringCache cache = new ColumnStringCache();
+		tokenizer.setStringCache(cache);
+		assertSame(cache, tokenizer.getStringCache());
+		
+		assertTrue(tokenizer.readColumns(columns));
+		final String currency = columns.get(0);
+		assertEquals(Arrays.asList("GBP", "open"), columns);
+		
+		assertTrue(tokenizer.readColumns(columns));
+		assertEquals(Arrays.asList("GBP", "closed"), columns);
+		assertSame(currency, columns.get(0));
+		
+		assertTrue(tokenizer.readColumns(columns));
+		assertEquals(Arrays.asList("GBP", "GBP"), columns);
+		assertSame(currency, columns.get(0));
+		
+		assertEquals(3L, cache.getLookups(1));
+		assertEquals(2L, cache.getHits(1));
+		assertEquals(3L, cache.getLookups(2));
+		assertEquals(0L, cache.getHits(2));
+	}
+	
+	/**
+	 * Tests that the untokenized row is only built once for each row (and is the line itself for single-line rows),
+	 * and is rebuilt for the next row.
+	 */
+	@Test
+	public void testUntokenizedRowIsBuiltOnce() throws Exception {
+		
+		tokenizer = createTokenizer("a,b\n\"c\nd\",e\n", EXCEL_PREFERENCE);
+		
+		assertTrue(tokenizer.readColumns(columns));
+		final String firstRow = tokenizer.getUntokenizedRow();
+		assertEquals("a,b", firstRow);
+		assertSame(firstRow, tokenizer.getUntokenizedRow());
+		
+		assertTrue(tokenizer.readColumns(columns));
+		final String secondRow = tokenizer.getUntokenizedRow();
+		assertEquals("\"c\nd\",e", secondRow);
+		assertSame(secondRow, tokenizer.getUntokenizedRow());
+		
+		assertFalse(tokenizer.readColumns(columns));
+		assertEquals("", tokenizer.getUntokenizedRow());
+	}
+	
 }
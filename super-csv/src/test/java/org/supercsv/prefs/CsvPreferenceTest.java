@@ -73,6 +73,7 @@ public class CsvPreferenceTest {
 		assertTrue(custom.getEncoder() instanceof DefaultCsvEncoder);
 		assertTrue(custom.getQuoteMode() instanceof NormalQuoteMode);
 		assertEquals('"', custom.getQuoteEscapeChar());
+		assertFalse(custom.isUseCharBufferTokenizer());
 	}
 	
 	/**
@@ -85,6 +86,7 @@ public class CsvPreferenceTest {
 				.useEncoder(new DefaultCsvEncoder())
 				.useQuoteMode(new AlwaysQuoteMode())
 				.setQuoteEscapeChar('\\')
+				.useCharBufferTokenizer(true)
 				.build();
 		assertEquals('"', custom.getQuoteChar());
 		assertEquals(',', custom.getDelimiterChar());
@@ -93,6 +95,7 @@ public class CsvPreferenceTest {
 		assertTrue(custom.getEncoder() instanceof DefaultCsvEncoder);
 		assertTrue(custom.getQuoteMode() instanceof AlwaysQuoteMode);
 		assertEquals('\\', custom.getQuoteEscapeChar());
+		assertTrue(custom.isUseCharBufferTokenizer());
 	}
 	
 	/**
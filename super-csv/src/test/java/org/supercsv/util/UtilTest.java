@@ -17,7 +17,9 @@ package org.supercsv.util;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
@@ -29,6 +31,7 @@ import java.util.Map;
 import org.junit.Test;
 import org.supercsv.cellprocessor.ParseInt;
 import org.supercsv.cellprocessor.ift.CellProcessor;
+import org.supercsv.exception.SuperCsvCellProcessorException;
 import org.supercsv.exception.SuperCsvException;
 import org.supercsv.mock.IdentityTransform;
 
@@ -150,6 +153,57 @@ public class UtilTest {
 		assertEquals("Venice", destinationList.get(2));
 	}
 	
+	/**
+	 * Tests that the CellProcessors are given a modifiable copy of the row as the row source when the line and row
+	 * number are supplied (rather than a context to reuse).
+	 */
+	@Test
+	public void testExecuteCellProcessorsCopiesRowSource() {
+		final List<String> source = new ArrayList<String>(LIST);
+		final CellProcessor copyingProcessor = new CellProcessor() {
+			@SuppressWarnings("unchecked")
+			public <T> T execute(final Object value, final CsvContext context) {
+				context.getRowSource().set(0, "Altair"); // must not affect the source List
+				return (T) value;
+			}
+		};
+		final List<Object> destinationList = new ArrayList<Object>();
+		Util.executeCellProcessors(destinationList, source, new CellProcessor[] { copyingProcessor, null, null },
+			LINE_NO, ROW_NO);
+		assertEquals(LIST, source);
+		assertEquals(LIST, destinationList);
+	}
+	
+	/**
+	 * Tests that the row source of a reused context is a view of the source List (reused while the same List is
+	 * processed), and that it's copied by the exception when a CellProcessor fails.
+	 */
+	@Test
+	public void testExecuteCellProcessorsRowSource() {
+		final CsvContext context = new CsvContext(LINE_NO, ROW_NO, 1);
+		final List<String> source = new ArrayList<String>(LIST);
+		Util.executeCellProcessors(new ArrayList<Object>(), source, PROCESSORS, context);
+		final List<Object> rowSource = context.getRowSource();
+		assertEquals(LIST, rowSource);
+		
+		source.set(1, "twenty-five");
+		try {
+			Util.executeCellProcessors(new ArrayList<Object>(), source, PROCESSORS, context);
+			fail("should have thrown SuperCsvCellProcessorException");
+		}
+		catch(SuperCsvCellProcessorException e) {
+			assertSame(rowSource, context.getRowSource());
+			source.set(1, "25");
+			assertEquals(Arrays.asList("Ezio", "twenty-five", "Venice"), e.getCsvContext().getRowSource());
+		}
+		
+		try {
+			rowSource.clear();
+			fail("should have thrown UnsupportedOperationException");
+		}
+		catch(UnsupportedOperationException e) {}
+	}
+	
 	/**
 	 * Tests the executeCellProcessors() method with a null destination List (should throw an Exception).
 	 */